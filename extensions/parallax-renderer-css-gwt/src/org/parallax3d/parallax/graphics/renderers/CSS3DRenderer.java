@@ -27,7 +27,6 @@ import org.parallax3d.parallax.graphics.core.Object3D;
 import org.parallax3d.parallax.graphics.objects.CSS3DObject;
 import org.parallax3d.parallax.graphics.objects.CSS3DSprite;
 import org.parallax3d.parallax.math.Matrix4;
-import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -92,50 +91,50 @@ public class CSS3DRenderer extends HTMLPanel {
 
     private String getCameraCSSMatrix(Matrix4 matrix) {
 
-        Float32Array elements = matrix.getArray();
+        float[] elements = matrix.getArray();
 
         return " matrix3d(" +
-                epsilon(elements.get(0)) + ',' +
-                epsilon(-elements.get(1)) + ',' +
-                epsilon(elements.get(2)) + ',' +
-                epsilon(elements.get(3)) + ',' +
-                epsilon(elements.get(4)) + ',' +
-                epsilon(-elements.get(5)) + ',' +
-                epsilon(elements.get(6)) + ',' +
-                epsilon(elements.get(7)) + ',' +
-                epsilon(elements.get(8)) + ',' +
-                epsilon(-elements.get(9)) + ',' +
-                epsilon(elements.get(10)) + ',' +
-                epsilon(elements.get(11)) + ',' +
-                epsilon(elements.get(12)) + ',' +
-                epsilon(-elements.get(13)) + ',' +
-                epsilon(elements.get(14)) + ',' +
-                epsilon(elements.get(15)) +
+                epsilon(elements[0]) + ',' +
+                epsilon(-elements[1]) + ',' +
+                epsilon(elements[2]) + ',' +
+                epsilon(elements[3]) + ',' +
+                epsilon(elements[4]) + ',' +
+                epsilon(-elements[5]) + ',' +
+                epsilon(elements[6]) + ',' +
+                epsilon(elements[7]) + ',' +
+                epsilon(elements[8]) + ',' +
+                epsilon(-elements[9]) + ',' +
+                epsilon(elements[10]) + ',' +
+                epsilon(elements[11]) + ',' +
+                epsilon(elements[12]) + ',' +
+                epsilon(-elements[13]) + ',' +
+                epsilon(elements[14]) + ',' +
+                epsilon(elements[15]) +
                 ")";
     }
 
 
     private String getObjectCSSMatrix(Matrix4 matrix) {
 
-        Float32Array elements = matrix.getArray();
+        float[] elements = matrix.getArray();
 
         return "translate3d(-50%,-50%,0) matrix3d(" +
-                epsilon(elements.get(0)) + ',' +
-                epsilon(elements.get(1)) + ',' +
-                epsilon(elements.get(2)) + ',' +
-                epsilon(elements.get(3)) + ',' +
-                epsilon(-elements.get(4)) + ',' +
-                epsilon(-elements.get(5)) + ',' +
-                epsilon(-elements.get(6)) + ',' +
-                epsilon(-elements.get(7)) + ',' +
-                epsilon(elements.get(8)) + ',' +
-                epsilon(elements.get(9)) + ',' +
-                epsilon(elements.get(10)) + ',' +
-                epsilon(elements.get(11)) + ',' +
-                epsilon(elements.get(12)) + ',' +
-                epsilon(elements.get(13)) + ',' +
-                epsilon(elements.get(14)) + ',' +
-                epsilon(elements.get(15)) +
+                epsilon(elements[0]) + ',' +
+                epsilon(elements[1]) + ',' +
+                epsilon(elements[2]) + ',' +
+                epsilon(elements[3]) + ',' +
+                epsilon(-elements[4]) + ',' +
+                epsilon(-elements[5]) + ',' +
+                epsilon(-elements[6]) + ',' +
+                epsilon(-elements[7]) + ',' +
+                epsilon(elements[8]) + ',' +
+                epsilon(elements[9]) + ',' +
+                epsilon(elements[10]) + ',' +
+                epsilon(elements[11]) + ',' +
+                epsilon(elements[12]) + ',' +
+                epsilon(elements[13]) + ',' +
+                epsilon(elements[14]) + ',' +
+                epsilon(elements[15]) +
                 ")";
     }
 
@@ -151,10 +150,10 @@ public class CSS3DRenderer extends HTMLPanel {
                 matrix.copyPosition(object.getMatrixWorld());
                 matrix.scale(object.getScale());
 
-                matrix.getArray().set(3, 0);
-                matrix.getArray().set(7, 0);
-                matrix.getArray().set(11, 0);
-                matrix.getArray().set(15, 1);
+                matrix.getArray()[3] = 0;
+                matrix.getArray()[7] = 0;
+                matrix.getArray()[11] = 0;
+                matrix.getArray()[15] = 1;
 
                 style = getObjectCSSMatrix(matrix);
 
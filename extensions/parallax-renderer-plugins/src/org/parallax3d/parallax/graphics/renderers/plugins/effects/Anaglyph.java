@@ -150,16 +150,16 @@ public class Anaglyph extends Effect
 
 			// translate xOffset
 
-			eyeRight.getArray().set(12, eyeSep);
-			eyeLeft.getArray().set(12, -eyeSep);
+			eyeRight.getArray()[12] = (float) eyeSep;
+			eyeLeft.getArray()[12] = (float) -eyeSep;
 
 			// for left eye
 
 			xmin = -ymax * _aspect + eyeSepOnProjection;
 			xmax = ymax * _aspect + eyeSepOnProjection;
 
-			projectionMatrix.getArray().set(0, 2.0 * _near / ( xmax - xmin ));
-			projectionMatrix.getArray().set(8, ( xmax + xmin ) / ( xmax - xmin ));
+			projectionMatrix.getArray()[0] = (float) (2.0 * _near / ( xmax - xmin ));
+			projectionMatrix.getArray()[8] = (float) (( xmax + xmin ) / ( xmax - xmin ));
 
 			_cameraL.getProjectionMatrix().copy( projectionMatrix );
 
@@ -168,8 +168,8 @@ public class Anaglyph extends Effect
 			xmin = -ymax * _aspect - eyeSepOnProjection;
 			xmax = ymax * _aspect - eyeSepOnProjection;
 
-			projectionMatrix.getArray().set(0, 2.0 * _near / ( xmax - xmin ));
-			projectionMatrix.getArray().set(8, ( xmax + xmin ) / ( xmax - xmin ));
+			projectionMatrix.getArray()[0] = (float) (2.0 * _near / ( xmax - xmin ));
+			projectionMatrix.getArray()[8] = (float) (( xmax + xmin ) / ( xmax - xmin ));
 
 			_cameraR.getProjectionMatrix().copy( projectionMatrix );
 
@@ -223,9 +223,9 @@ public final class LensFlarePlugin extends Plugin
 			LensFlare flare = flares.get( i );
 
 			tempPosition.set( 
-					flare.getMatrixWorld().getArray().get(12), 
-					flare.getMatrixWorld().getArray().get(13), 
-					flare.getMatrixWorld().getArray().get(14) );
+					flare.getMatrixWorld().getArray()[12], 
+					flare.getMatrixWorld().getArray()[13], 
+					flare.getMatrixWorld().getArray()[14] );
 
 			tempPosition.apply( camera.getMatrixWorldInverse() );
 			tempPosition.applyProjection( camera.getProjectionMatrix() );
@@ -134,7 +134,7 @@ public final class SpritePlugin extends Plugin
 
 		gl.glBindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER.getValue(), elementBuffer );
 
-		gl.glUniformMatrix4fv( uniforms.get("projectionMatrix").getLocation(), 1, false, camera.getProjectionMatrix().getArray().getTypedBuffer() );
+		gl.glUniformMatrix4fv( uniforms.get("projectionMatrix").getLocation(), 1, false, getRenderer().stageMatrix( camera.getProjectionMatrix().getArray() ) );
 
 		gl.glActiveTexture( TextureUnit.TEXTURE0.getValue() );
 		gl.glUniform1i( uniforms.get("map").getLocation(), 0 );
@@ -184,7 +184,7 @@ public final class SpritePlugin extends Plugin
 			if ( ! sprite.isVisible() ) continue;
 
 			sprite._modelViewMatrix.multiply( camera.getMatrixWorldInverse(), sprite.getMatrixWorld());
-			sprite.setZ( - sprite._modelViewMatrix.getArray().get(14) );
+			sprite.setZ( - sprite._modelViewMatrix.getArray()[14] );
 		}
 
 		Collections.sort((List<Sprite>)(ArrayList)sprites);
@@ -199,7 +199,7 @@ public final class SpritePlugin extends Plugin
 			if ( ! sprite.isVisible() ) continue;
 
 			gl.glUniform1f( uniforms.get("alphaTest").getLocation(), (float) material.getAlphaTest() );
-			gl.glUniformMatrix4fv( uniforms.get("modelViewMatrix").getLocation(), 1, false, sprite._modelViewMatrix.getArray().getTypedBuffer());
+			gl.glUniformMatrix4fv( uniforms.get("modelViewMatrix").getLocation(), 1, false, getRenderer().stageMatrix( sprite._modelViewMatrix.getArray() ) );
 			
 			sprite.getMatrixWorld().decompose( spritePosition, spriteRotation, spriteScale );
 			
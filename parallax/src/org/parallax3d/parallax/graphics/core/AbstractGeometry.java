@@ -35,6 +35,9 @@ public abstract class AbstractGeometry extends GLGeometry {
 	// Bounding sphere.
 	protected Sphere boundingSphere = null;
 
+	// Bounding volume hierarchy, used for raycasting.
+	protected GeometryBVH boundsTree = null;
+
 	// update flags
 	protected boolean verticesNeedUpdate = false;
 	protected boolean elementsNeedUpdate = false;
@@ -89,6 +92,9 @@ public abstract class AbstractGeometry extends GLGeometry {
 
 	public void setVerticesNeedUpdate(boolean verticesNeedUpdate) {
 		this.verticesNeedUpdate = verticesNeedUpdate;
+
+		if ( verticesNeedUpdate && this.boundsTree != null )
+			this.boundsTree.setNeedsRefit( true );
 	}
 
 	public boolean isElementsNeedUpdate() {
@@ -97,6 +103,9 @@ public abstract class AbstractGeometry extends GLGeometry {
 
 	public void setElementsNeedUpdate(boolean elementsNeedUpdate) {
 		this.elementsNeedUpdate = elementsNeedUpdate;
+
+		if ( elementsNeedUpdate && this.boundsTree != null )
+			this.boundsTree.setNeedsRebuild( true );
 	}
 
 	public boolean isNormalsNeedUpdate() {
@@ -171,6 +180,37 @@ public abstract class AbstractGeometry extends GLGeometry {
 		this.boundingSphere = boundingSphere;
 	}
 
+	/**
+	 * Gets the bounding volume hierarchy of this geometry or null
+	 * if it was not computed.
+	 */
+	public GeometryBVH getBoundsTree() {
+		return this.boundsTree;
+	}
+
+	public void setBoundsTree(GeometryBVH boundsTree) {
+		this.boundsTree = boundsTree;
+	}
+
+	/**
+	 * Computes a bounding volume hierarchy over the faces of this geometry.
+	 * When present it is used by {@link org.parallax3d.parallax.graphics.objects.Mesh#raycast(Raycaster, java.util.List)}
+	 * instead of testing every face.
+	 */
+	public GeometryBVH computeBoundsTree() {
+		return computeBoundsTree( GeometryBVH.PRIMITIVE.TRIANGLES );
+	}
+
+	/**
+	 * Computes a bounding volume hierarchy over the given primitives of this geometry:
+	 * {@link GeometryBVH.PRIMITIVE#LINE_STRIP} or {@link GeometryBVH.PRIMITIVE#LINE_PIECES}
+	 * for lines, {@link GeometryBVH.PRIMITIVE#POINTS} for point clouds.
+	 */
+	public GeometryBVH computeBoundsTree(GeometryBVH.PRIMITIVE primitive) {
+		this.boundsTree = new GeometryBVH( this, primitive );
+		return this.boundsTree;
+	}
+
 	public abstract void computeBoundingBox();
 
 	public abstract void computeBoundingSphere();
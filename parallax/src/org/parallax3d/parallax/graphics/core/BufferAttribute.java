@@ -18,7 +18,10 @@
 
 package org.parallax3d.parallax.graphics.core;
 
+import java.nio.Buffer;
+
 import org.parallax3d.parallax.system.ThreejsObject;
+import org.parallax3d.parallax.system.gl.GL20;
 import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 import org.parallax3d.parallax.system.gl.arrays.TypeArray;
 
@@ -32,7 +35,10 @@ public class BufferAttribute {
 	private int numItems;
 
 	private boolean needsUpdate = false;
+	private UpdateRanges updateRanges = new UpdateRanges();
 	private int buffer;
+	// bytes allocated for the buffer by the last full upload
+	private int bufferLength;
 
 	public BufferAttribute(TypeArray array, int itemSize) {
 		this.array = array;
@@ -78,8 +84,60 @@ public class BufferAttribute {
 		return needsUpdate;
 	}
 
+	/**
+	 * The whole array will be uploaded, pending update ranges are dropped.
+	 */
 	public void setNeedsUpdate(boolean needsUpdate) {
 		this.needsUpdate = needsUpdate;
+		this.updateRanges.clear();
+	}
+
+	/**
+	 * Marks count array elements starting at offset as changed. Only the
+	 * changed ranges will be uploaded unless {@link #setNeedsUpdate(boolean)}
+	 * is set.
+	 */
+	public BufferAttribute updateRange(int offset, int count) {
+		this.updateRanges.add(offset, count);
+		return this;
+	}
+
+	public UpdateRanges getUpdateRanges() {
+		return this.updateRanges;
+	}
+
+	/**
+	 * Uploads the array into the buffer if it has changed: the whole array
+	 * when it needs update or has a new length, the changed ranges otherwise.
+	 * The buffer has to be created already.
+	 */
+	public void upload(GL20 gl, int target, int usage) {
+
+		int length = this.array.getByteLength();
+		boolean full = this.needsUpdate || length != this.bufferLength;
+
+		if ( !full && this.updateRanges.isEmpty() )
+			return;
+
+		gl.glBindBuffer(target, this.buffer);
+
+		if ( full ) {
+
+			Buffer buf = this.array.getTypedBuffer();
+			buf.rewind();
+
+			gl.glBufferData(target, length, buf, usage);
+			this.bufferLength = length;
+
+		} else {
+
+			this.updateRanges.upload(gl, target, this.array);
+
+		}
+
+		this.needsUpdate = false;
+		this.updateRanges.clear();
+
 	}
 
 	/**
@@ -94,6 +152,7 @@ public class BufferAttribute {
 	 */
 	public void setBuffer(int buffer) {
 		this.buffer = buffer;
+		this.bufferLength = 0;
 	}
 
 	public void copyAt( int index1, BufferAttribute attribute, int index2 ) {
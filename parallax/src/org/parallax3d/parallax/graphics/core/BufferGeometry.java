@@ -22,16 +22,18 @@ import org.parallax3d.parallax.Log;
 import org.parallax3d.parallax.graphics.materials.Material;
 import org.parallax3d.parallax.math.*;
 import org.parallax3d.parallax.system.FastMap;
+import org.parallax3d.parallax.system.ParallelExecutor;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.system.gl.GL20;
 import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 import org.parallax3d.parallax.system.gl.arrays.IndexTypeArray;
 import org.parallax3d.parallax.system.gl.arrays.Int32Array;
+import org.parallax3d.parallax.system.gl.arrays.TypeArray;
 import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint32Array;
 import org.parallax3d.parallax.system.gl.enums.BufferTarget;
 import org.parallax3d.parallax.system.gl.enums.BufferUsage;
 
-import java.nio.Buffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -453,13 +455,14 @@ public class BufferGeometry extends AbstractGeometry
 
 		if ( positionAttribute != null ) {
 
-			Float32Array positions =  (Float32Array) positionAttribute.getArray();
+			final Float32Array positions =  (Float32Array) positionAttribute.getArray();
 
 			BufferAttribute normalAttribute = getAttribute(NORMAL);
 
 			if ( normalAttribute == null ) {
 
-				this.addAttribute( NORMAL, new BufferAttribute( Float32Array.create( positions.getLength() ), 3 ) );
+				normalAttribute = new BufferAttribute( Float32Array.create( positions.getLength() ), 3 );
+				this.addAttribute( NORMAL, normalAttribute );
 
 			} else {
 
@@ -475,16 +478,7 @@ public class BufferGeometry extends AbstractGeometry
 
 			}
 
-			Float32Array normals = (Float32Array) normalAttribute.getArray();
-
-			int vA, vB, vC;
-
-			Vector3 pA = new Vector3(),
-					pB = new Vector3(),
-					pC = new Vector3(),
-
-					cb = new Vector3(),
-					ab = new Vector3();
+			final Float32Array normals = (Float32Array) normalAttribute.getArray();
 
 			// indexed elements
 
@@ -496,69 +490,101 @@ public class BufferGeometry extends AbstractGeometry
 						? this.drawcalls
 						: Arrays.asList( new BufferGeometry.DrawCall(0, indices.getLength(), 0 ) ) ;
 
-				for ( int j = 0, jl = offsets.size(); j < jl; ++ j ) {
+				final int[] triangles = getTriangles( indices, offsets );
+				final int triangleCount = triangles.length / 3;
+				final double[] faceNormals = new double[ triangles.length ];
 
-					int start = offsets.get( j ).start;
-					int count = offsets.get( j ).count;
-					int index = offsets.get( j ).index;
+				ParallelExecutor.get().run( triangleCount, new ParallelExecutor.Task() {
 
-					for ( int i = start, il = start + count; i < il; i += 3 ) {
+					@Override
+					public void run(int start, int end) {
 
-						vA = ( index + indices.get( i     ) ) * 3;
-						vB = ( index + indices.get( i + 1 ) ) * 3;
-						vC = ( index + indices.get( i + 2 ) ) * 3;
+						Vector3 pA = new Vector3(),
+								pB = new Vector3(),
+								pC = new Vector3(),
 
-						pA.fromArray( positions, vA );
-						pB.fromArray( positions, vB );
-						pC.fromArray( positions, vC );
+								cb = new Vector3(),
+								ab = new Vector3();
 
-						cb.sub( pC, pB );
-						ab.sub( pA, pB );
-						cb.cross( ab );
+						for ( int t = start; t < end; t ++ ) {
 
-						normals.set( vA     , normals.get( vA     ) + cb.getX());
-						normals.set( vA + 1 , normals.get( vA + 1 ) + cb.getY());
-						normals.set( vA + 2 , normals.get( vA + 2 ) + cb.getZ());
+							pA.fromArray( positions, triangles[ t * 3 ] * 3 );
+							pB.fromArray( positions, triangles[ t * 3 + 1 ] * 3 );
+							pC.fromArray( positions, triangles[ t * 3 + 2 ] * 3 );
 
-						normals.set( vB     , normals.get( vB     ) + cb.getX());
-						normals.set( vB + 1 , normals.get( vB + 1 ) + cb.getY());
-						normals.set( vB + 2 , normals.get( vB + 2 ) + cb.getZ());
+							cb.sub( pC, pB );
+							ab.sub( pA, pB );
+							cb.cross( ab );
 
-						normals.set( vC     , normals.get( vC     ) + cb.getX());
-						normals.set( vC + 1 , normals.get( vC + 1 ) + cb.getY());
-						normals.set( vC + 2 , normals.get( vC + 2 ) + cb.getZ());
+							faceNormals[ t * 3 ]     = cb.getX();
+							faceNormals[ t * 3 + 1 ] = cb.getY();
+							faceNormals[ t * 3 + 2 ] = cb.getZ();
+
+						}
 
 					}
+				});
 
-				}
+				// sums are rounded to float like adding into the normals array
+				final double[] sums = new FaceVertexSum( positions.getLength() / 3, triangles, triangleCount )
+						.sum( faceNormals, 3, true );
+
+				ParallelExecutor.get().run( sums.length, new ParallelExecutor.Task() {
+
+					@Override
+					public void run(int start, int end) {
+
+						for ( int i = start; i < end; i ++ ) {
+
+							normals.set( i, sums[ i ] );
+
+						}
+
+					}
+				});
 
 			} else {
 
 				// non-indexed elements (unconnected triangle soup)
 
-				for ( int i = 0, il = positions.getLength(); i < il; i += 9 ) {
+				ParallelExecutor.get().run( ( positions.getLength() + 8 ) / 9, new ParallelExecutor.Task() {
 
-					pA.fromArray( positions, i );
-					pB.fromArray( positions, i + 3 );
-					pC.fromArray( positions, i + 6 );
+					@Override
+					public void run(int start, int end) {
 
-					cb.sub( pC, pB );
-					ab.sub( pA, pB );
-					cb.cross( ab );
+						Vector3 pA = new Vector3(),
+								pB = new Vector3(),
+								pC = new Vector3(),
 
-					normals.set( i     , cb.getX());
-					normals.set( i + 1 , cb.getY());
-					normals.set( i + 2 , cb.getZ());
+								cb = new Vector3(),
+								ab = new Vector3();
 
-					normals.set( i + 3 , cb.getX());
-					normals.set( i + 4 , cb.getY());
-					normals.set( i + 5 , cb.getZ());
+						for ( int i = start * 9, il = end * 9; i < il; i += 9 ) {
 
-					normals.set( i + 6 , cb.getX());
-					normals.set( i + 7 , cb.getY());
-					normals.set( i + 8 , cb.getZ());
+							pA.fromArray( positions, i );
+							pB.fromArray( positions, i + 3 );
+							pC.fromArray( positions, i + 6 );
 
-				}
+							cb.sub( pC, pB );
+							ab.sub( pA, pB );
+							cb.cross( ab );
+
+							normals.set( i     , cb.getX());
+							normals.set( i + 1 , cb.getY());
+							normals.set( i + 2 , cb.getZ());
+
+							normals.set( i + 3 , cb.getX());
+							normals.set( i + 4 , cb.getY());
+							normals.set( i + 5 , cb.getZ());
+
+							normals.set( i + 6 , cb.getX());
+							normals.set( i + 7 , cb.getY());
+							normals.set( i + 8 , cb.getZ());
+
+						}
+
+					}
+				});
 
 			}
 
@@ -591,9 +617,9 @@ public class BufferGeometry extends AbstractGeometry
 		}
 
 		IndexTypeArray indices = (IndexTypeArray) getAttribute(INDEX).getArray();
-		Float32Array positions = (Float32Array)getAttribute(POSITION).getArray();
-		Float32Array normals = (Float32Array)getAttribute(NORMAL).getArray();
-		Float32Array uvs = (Float32Array)getAttribute("uv").getArray();
+		final Float32Array positions = (Float32Array)getAttribute(POSITION).getArray();
+		final Float32Array normals = (Float32Array)getAttribute(NORMAL).getArray();
+		final Float32Array uvs = (Float32Array)getAttribute("uv").getArray();
 
 		int nVertices = positions.getLength() / 3;
 
@@ -603,63 +629,93 @@ public class BufferGeometry extends AbstractGeometry
 
 		}
 
-		Vector3[] tan1 = new Vector3[nVertices], tan2 = new Vector3[nVertices];
+		final Float32Array tangents = (Float32Array)getAttribute(TANGENT).getArray();
 
-		for ( int k = 0; k < nVertices; k ++ ) {
+		if ( this.getDrawcalls().isEmpty() ) {
 
-			tan1[ k ] = new Vector3();
-			tan2[ k ] = new Vector3();
+			this.addDrawCall( 0, indices.getLength(), 0 );
 
 		}
 
-		Float32Array tangents = (Float32Array)getAttribute(TANGENT).getArray();
+		final int[] triangles = getTriangles( indices, this.getDrawcalls() );
+		final int triangleCount = triangles.length / 3;
 
-		if ( this.getDrawcalls().isEmpty() ) {
+		// sdir and tdir of every triangle
+		final double[] directions = new double[ triangleCount * 6 ];
 
-			this.addDrawCall( 0, indices.getLength(), 0 );
+		ParallelExecutor.get().run( triangleCount, new ParallelExecutor.Task() {
 
-		}
+			@Override
+			public void run(int start, int end) {
 
-		List<DrawCall> drawcalls = this.getDrawcalls();
+				for ( int t = start; t < end; t ++ ) {
 
-		for ( int j = 0, jl = drawcalls.size(); j < jl; ++ j ) {
+					handleTriangle( directions, t * 6, positions, uvs, triangles[ t * 3 ], triangles[ t * 3 + 1 ], triangles[ t * 3 + 2 ] );
 
-			int start = drawcalls.get( j ).start;
-			int count = drawcalls.get( j ).count;
-			int index = drawcalls.get( j ).index;
+				}
+
+			}
+		});
+
+		// tan1 and tan2 of every vertex
+		final FaceVertexSum vertexSum = new FaceVertexSum( nVertices, triangles, triangleCount );
+		final double[] tan = vertexSum.sum( directions, 6, false );
+
+		ParallelExecutor.get().run( nVertices, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int start, int end) {
+
+				Vector3[] tmp = { new Vector3(), new Vector3(), new Vector3(), new Vector3(), new Vector3(), new Vector3() };
+
+				for ( int v = start; v < end; v ++ ) {
 
-			for ( int i = start, il = start + count; i < il; i += 3 ) {
+					if ( vertexSum.isUsed( v ) ) {
 
-				int iA = index + indices.getUnsigned(i);
-				int iB = index + indices.getUnsigned(i + 1);
-				int iC = index + indices.getUnsigned(i + 2);
+						handleVertex( tan, normals, tangents, v, tmp );
 
-				handleTriangle( tan1, tan2, positions, uvs, iA, iB, iC );
+					}
+
+				}
 
 			}
+		});
+
+	}
+
+	/*
+	 * Vertex indices of the triangles drawn by the draw calls, in draw order.
+	 */
+	private static int[] getTriangles( TypeArray indices, List<DrawCall> drawcalls ) {
+
+		int count = 0;
+
+		for ( int j = 0, jl = drawcalls.size(); j < jl; ++ j ) {
+
+			count += ( drawcalls.get( j ).count + 2 ) / 3;
 
 		}
 
+		int[] triangles = new int[ count * 3 ];
+		int t = 0;
+
 		for ( int j = 0, jl = drawcalls.size(); j < jl; ++ j ) {
 
 			int start = drawcalls.get( j ).start;
-			int count = drawcalls.get( j ).count;
 			int index = drawcalls.get( j ).index;
 
-			for ( int i = start, il = start + count; i < il; i += 3 ) {
-
-				int iA = index + indices.getUnsigned(i);
-				int iB = index + indices.getUnsigned(i + 1);
-				int iC = index + indices.getUnsigned(i + 2);
+			for ( int i = start, il = start + drawcalls.get( j ).count; i < il; i += 3 ) {
 
-				handleVertex( tan1, tan2, normals, tangents, iA );
-				handleVertex( tan1, tan2, normals, tangents, iB );
-				handleVertex( tan1, tan2, normals, tangents, iC );
+				triangles[ t ++ ] = index + getIndex( indices, i );
+				triangles[ t ++ ] = index + getIndex( indices, i + 1 );
+				triangles[ t ++ ] = index + getIndex( indices, i + 2 );
 
 			}
 
 		}
 
+		return triangles;
+
 	}
 
 	public List<BufferGeometry.DrawCall> computeOffsets() {
@@ -676,16 +732,17 @@ public class BufferGeometry extends AbstractGeometry
 	 */
 	public List<BufferGeometry.DrawCall> computeOffsets( int size /* indexBufferSize */ ) {
 
-		Uint16Array indices = (Uint16Array)getAttribute(INDEX).getArray();
+		TypeArray indices = getAttribute(INDEX).getArray();
 		Float32Array vertices = (Float32Array)getAttribute(POSITION).getArray();
 
 		int facesCount = indices.getLength() / 3;
 
-		Float32Array sortedIndices = Float32Array.create( indices.getLength() ); //16-bit buffers
+		Uint16Array sortedIndices = Uint16Array.create( facesCount * 3 ); //16-bit buffers
 		int indexPtr = 0;
 		int vertexPtr = 0;
 
-		List<BufferGeometry.DrawCall> offsets = Arrays.asList(new BufferGeometry.DrawCall(0, 0, 0));
+		List<BufferGeometry.DrawCall> offsets = new ArrayList<BufferGeometry.DrawCall>();
+		offsets.add( new BufferGeometry.DrawCall(0, 0, 0) );
 		BufferGeometry.DrawCall offset = offsets.get( 0 );
 
 		int newVerticeMaps;
@@ -705,7 +762,7 @@ public class BufferGeometry extends AbstractGeometry
 			newVerticeMaps = 0;
 
 			for ( int vo = 0; vo < 3; vo ++ ) {
-				int vid = indices.get( findex * 3 + vo );
+				int vid = getIndex( indices, findex * 3 + vo );
 				if ( vertexMap.get( vid ) == - 1 ) {
 					//Unmapped vertice
 					faceVertices.set( vo * 2 , vid);
@@ -746,7 +803,7 @@ public class BufferGeometry extends AbstractGeometry
 
 				vertexMap.set( vid , newVid);
 				revVertexMap.set( newVid , vid);
-				sortedIndices.set( indexPtr ++ , (float)newVid - offset.index); //XXX overflows at 16bit
+				sortedIndices.set( indexPtr ++ , newVid - offset.index);
 				offset.count ++;
 			}
 		}
@@ -762,34 +819,197 @@ public class BufferGeometry extends AbstractGeometry
 	 */
 	public void normalizeNormals() {
 
-		Float32Array normals = (Float32Array)getAttribute(NORMAL).getArray();
+		final Float32Array normals = (Float32Array)getAttribute(NORMAL).getArray();
+
+		ParallelExecutor.get().run( ( normals.getLength() + 2 ) / 3, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int start, int end) {
+
+				double x, y, z, n;
+
+				for ( int i = start * 3, il = end * 3; i < il; i += 3 ) {
+
+					x = normals.get( i );
+					y = normals.get( i + 1 );
+					z = normals.get( i + 2 );
+
+					n = 1.0 / Math.sqrt( x * x + y * y + z * z );
+
+					normals.set( i     , normals.get( i     ) * n);
+					normals.set( i + 1 , normals.get( i + 1 ) * n);
+					normals.set( i + 2 , normals.get( i + 2 ) * n);
+
+				}
+
+			}
+		});
+
+	}
+
+	public int mergeVertices() {
+
+		return mergeVertices( VertexWelder.DEFAULT_TOLERANCE );
+
+	}
+
+	/**
+	 * Merges vertices of an indexed geometry whose attributes all fall into
+	 * the same cell of a grid with the given cell size. The attributes are
+	 * compacted, the index is remapped, triangles which become degenerate
+	 * are removed and the draw calls are reset.
+	 *
+	 * @return number of removed vertices.
+	 */
+	public int mergeVertices( double tolerance ) {
+
+		BufferAttribute indexAttribute = getAttribute( INDEX );
+		BufferAttribute positionAttribute = getAttribute( POSITION );
+
+		if ( indexAttribute == null || positionAttribute == null ) {
+
+			Log.warn("BufferGeometry.mergeVertices(): only indexed geometries with positions can be merged.");
+			return 0;
+
+		}
+
+		List<BufferAttribute> attributes = new ArrayList<BufferAttribute>();
+		int keyLength = 0;
+
+		for ( String name : this.attributes.keySet() ) {
+
+			if ( name.equals( INDEX ) )
+				continue;
+
+			BufferAttribute attribute = getAttribute( name );
+			attributes.add( attribute );
+			keyLength += attribute.getItemSize();
+
+		}
+
+		int vertexCount = positionAttribute.getArray().getLength() / 3;
+
+		VertexWelder welder = new VertexWelder( keyLength, vertexCount, tolerance );
+		double[] components = new double[ keyLength ];
+		int[] changes = new int[ vertexCount ];
+		int unique = 0;
+
+		for ( int v = 0; v < vertexCount; v ++ ) {
+
+			for ( int a = 0, k = 0, al = attributes.size(); a < al; a ++ ) {
+
+				BufferAttribute attribute = attributes.get( a );
+				Float32Array array = (Float32Array) attribute.getArray();
+
+				for ( int i = 0, size = attribute.getItemSize(); i < size; i ++ )
+					components[ k ++ ] = array.get( v * size + i );
+
+			}
+
+			changes[ v ] = welder.add( components, unique );
+
+			if ( changes[ v ] != unique )
+				continue;
+
+			// unique vertices are moved down in place
+			for ( int a = 0, al = attributes.size(); a < al; a ++ ) {
+
+				BufferAttribute attribute = attributes.get( a );
+				Float32Array array = (Float32Array) attribute.getArray();
+
+				for ( int i = 0, size = attribute.getItemSize(); i < size; i ++ )
+					array.set( unique * size + i, array.get( v * size + i ) );
+
+			}
+
+			unique ++;
+
+		}
+
+		for ( int a = 0, al = attributes.size(); a < al; a ++ ) {
+
+			BufferAttribute attribute = attributes.get( a );
+			Float32Array source = (Float32Array) attribute.getArray();
+			Float32Array array = Float32Array.create( unique * attribute.getItemSize() );
+
+			for ( int i = 0, il = array.getLength(); i < il; i ++ )
+				array.set( i, source.get( i ) );
 
-		double x, y, z, n;
+			attribute.setArray( array );
+			attribute.setNumItems( array.getLength() );
+			attribute.setNeedsUpdate( true );
 
-		for ( int i = 0, il = normals.getLength(); i < il; i += 3 ) {
+		}
+
+		TypeArray index = indexAttribute.getArray();
+
+		// indices of split geometries are relative to their draw calls
+		int[] triangles = this.drawcalls.isEmpty()
+				? getTriangles( index, Arrays.asList( new DrawCall( 0, index.getLength() - index.getLength() % 3, 0 ) ) )
+				: getTriangles( index, this.drawcalls );
+		int count = 0;
+
+		for ( int i = 0, il = triangles.length; i < il; i += 3 ) {
+
+			int a = changes[ triangles[ i ] ],
+					b = changes[ triangles[ i + 1 ] ],
+					c = changes[ triangles[ i + 2 ] ];
+
+			if ( a == b || b == c || c == a )
+				continue;
+
+			triangles[ count ++ ] = a;
+			triangles[ count ++ ] = b;
+			triangles[ count ++ ] = c;
+
+		}
+
+		this.drawcalls.clear();
+
+		if ( unique <= 65536 ) {
+
+			Uint16Array merged = Uint16Array.create( count );
+			for ( int i = 0; i < count; i ++ )
+				merged.set( i, triangles[ i ] );
+
+			indexAttribute.setArray( merged );
 
-			x = normals.get( i );
-			y = normals.get( i + 1 );
-			z = normals.get( i + 2 );
+		} else {
 
-			n = 1.0 / Math.sqrt( x * x + y * y + z * z );
+			// the renderer draws 16-bit indices only, so the geometry is split again
+			Uint32Array merged = Uint32Array.create( count );
+			for ( int i = 0; i < count; i ++ )
+				merged.set( i, triangles[ i ] );
 
-			normals.set( i     , normals.get( i     ) * n);
-			normals.set( i + 1 , normals.get( i + 1 ) * n);
-			normals.set( i + 2 , normals.get( i + 2 ) * n);
+			indexAttribute.setArray( merged );
+			computeOffsets();
 
 		}
 
+		indexAttribute.setNumItems( indexAttribute.getArray().getLength() );
+		indexAttribute.setNeedsUpdate( true );
+
+		return vertexCount - unique;
+
+	}
+
+	private static int getIndex( TypeArray index, int i ) {
+
+		if ( index instanceof IndexTypeArray )
+			return ( (IndexTypeArray) index ).getUnsigned( i );
+
+		return ( (Uint32Array) index ).get( i );
+
 	}
 
 	/*
 		reoderBuffers:
 		Reorder attributes based on a new indexBuffer and indexMap.
-		indexBuffer - Uint16Array of the new ordered indices.
+		indexBuffer - 16-bit array of the new ordered indices.
 		indexMap - Int32Array where the position is the new vertex ID and the value the old vertex ID for each vertex.
 		vertexCount - Amount of total vertices considered in this reordering (in case you want to grow the vertice stack).
 	*/
-	public void reorderBuffers( Float32Array indexBuffer, Int32Array indexMap, int vertexCount ) {
+	public void reorderBuffers( TypeArray indexBuffer, Int32Array indexMap, int vertexCount ) {
 
 		/* Create a copy of all attributes for reordering. */
 		Map <String, Float32Array> sortedAttributes  =
@@ -822,6 +1042,8 @@ public class BufferGeometry extends AbstractGeometry
 
 		/* Carry the new sorted buffers locally */
 		getAttribute(INDEX).setArray(indexBuffer);
+		getAttribute(INDEX).setNumItems(indexBuffer.getLength());
+		getAttribute(INDEX).setNeedsUpdate(true);
 
 		for(String attr : this.attributes.keySet()) {
 			if ( attr.equals(INDEX ) )
@@ -860,15 +1082,16 @@ public class BufferGeometry extends AbstractGeometry
 	}
 
 
-	private void handleVertex( Vector3[] tan1, Vector3[] tan2, Float32Array normals, Float32Array tangents, int v ) {
+	private static void handleVertex( double[] tan, Float32Array normals, Float32Array tangents, int v, Vector3[] temporaries ) {
 
-		Vector3 tmp = new Vector3(), tmp2 = new Vector3();
-		Vector3 n = new Vector3(), n2 = new Vector3();
+		Vector3 tmp = temporaries[ 0 ], tmp2 = temporaries[ 1 ];
+		Vector3 n = temporaries[ 2 ], n2 = temporaries[ 3 ];
 
 		n.fromArray( normals, v * 3 );
 		n2.copy( n );
 
-		Vector3 t = tan1[ v ];
+		Vector3 t = temporaries[ 4 ].set( tan[ v * 6 ], tan[ v * 6 + 1 ], tan[ v * 6 + 2 ] );
+		Vector3 t2 = temporaries[ 5 ].set( tan[ v * 6 + 3 ], tan[ v * 6 + 4 ], tan[ v * 6 + 5 ] );
 
 		// Gram-Schmidt orthogonalize
 
@@ -878,7 +1101,7 @@ public class BufferGeometry extends AbstractGeometry
 		// Calculate handedness
 
 		tmp2.cross( n2, t );
-		double test = tmp2.dot( tan2[ v ] );
+		double test = tmp2.dot( t2 );
 		double w = ( test < 0.0 ) ? - 1.0 : 1.0;
 
 		tangents.set( v * 4     , tmp.getX());
@@ -888,62 +1111,37 @@ public class BufferGeometry extends AbstractGeometry
 
 	}
 
-	private void handleTriangle(Vector3[] tan1, Vector3[] tan2, Float32Array positions, Float32Array uvs, int a, int b, int c ) {
-
-		Vector3 vA = new Vector3(),
-				vB = new Vector3(),
-				vC = new Vector3();
-
-		vA.fromArray( positions, a * 3 );
-		vB.fromArray( positions, b * 3 );
-		vC.fromArray( positions, c * 3 );
-
-		Vector2 uvA = new Vector2(),
-				uvB = new Vector2(),
-				uvC = new Vector2();
-
-		uvA.fromArray( uvs, a * 2 );
-		uvB.fromArray( uvs, b * 2 );
-		uvC.fromArray( uvs, c * 2 );
+	/*
+	 * Writes sdir and tdir of the triangle into the array.
+	 */
+	private static void handleTriangle( double[] directions, int offset, Float32Array positions, Float32Array uvs, int a, int b, int c ) {
 
-		double x1 = vB.getX() - vA.getX();
-		double x2 = vC.getX() - vA.getX();
+		double x1 = positions.get( b * 3 ) - positions.get( a * 3 );
+		double x2 = positions.get( c * 3 ) - positions.get( a * 3 );
 
-		double y1 = vB.getY() - vA.getY();
-		double y2 = vC.getY() - vA.getY();
+		double y1 = positions.get( b * 3 + 1 ) - positions.get( a * 3 + 1 );
+		double y2 = positions.get( c * 3 + 1 ) - positions.get( a * 3 + 1 );
 
-		double z1 = vB.getZ() - vA.getZ();
-		double z2 = vC.getZ() - vA.getZ();
+		double z1 = positions.get( b * 3 + 2 ) - positions.get( a * 3 + 2 );
+		double z2 = positions.get( c * 3 + 2 ) - positions.get( a * 3 + 2 );
 
-		double s1 = uvB.getX() - uvA.getX();
-		double s2 = uvC.getX() - uvA.getX();
+		double s1 = uvs.get( b * 2 ) - uvs.get( a * 2 );
+		double s2 = uvs.get( c * 2 ) - uvs.get( a * 2 );
 
-		double t1 = uvB.getY() - uvA.getY();
-		double t2 = uvC.getY() - uvA.getY();
+		double t1 = uvs.get( b * 2 + 1 ) - uvs.get( a * 2 + 1 );
+		double t2 = uvs.get( c * 2 + 1 ) - uvs.get( a * 2 + 1 );
 
 		double r = 1.0 / ( s1 * t2 - s2 * t1 );
 
-		Vector3 sdir = new Vector3(), tdir = new Vector3();
+		// sdir
+		directions[ offset ]     = ( t2 * x1 - t1 * x2 ) * r;
+		directions[ offset + 1 ] = ( t2 * y1 - t1 * y2 ) * r;
+		directions[ offset + 2 ] = ( t2 * z1 - t1 * z2 ) * r;
 
-		sdir.set(
-				( t2 * x1 - t1 * x2 ) * r,
-				( t2 * y1 - t1 * y2 ) * r,
-				( t2 * z1 - t1 * z2 ) * r
-		);
-
-		tdir.set(
-				( s1 * x2 - s2 * x1 ) * r,
-				( s1 * y2 - s2 * y1 ) * r,
-				( s1 * z2 - s2 * z1 ) * r
-		);
-
-		tan1[ a ].add( sdir );
-		tan1[ b ].add( sdir );
-		tan1[ c ].add( sdir );
-
-		tan2[ a ].add( tdir );
-		tan2[ b ].add( tdir );
-		tan2[ c ].add( tdir );
+		// tdir
+		directions[ offset + 3 ] = ( s1 * x2 - s2 * x1 ) * r;
+		directions[ offset + 4 ] = ( s1 * y2 - s2 * y1 ) * r;
+		directions[ offset + 5 ] = ( s1 * z2 - s2 * z1 ) * r;
 
 	}
 
@@ -962,18 +1160,8 @@ public class BufferGeometry extends AbstractGeometry
 
 			}
 
-			if ( attribute.isNeedsUpdate() ) {
-
-				BufferTarget bufferType = key.equals( INDEX ) ? BufferTarget.ELEMENT_ARRAY_BUFFER : BufferTarget.ARRAY_BUFFER;
-				Buffer buf = attribute.getArray().getTypedBuffer();
-				buf.rewind();
-
-				gl.glBindBuffer(bufferType.getValue(), attribute.getBuffer());
-				gl.glBufferData(bufferType.getValue(), buf.limit(), buf, BufferUsage.STATIC_DRAW.getValue() );
-
-				attribute.setNeedsUpdate(false);
-
-			}
+			BufferTarget bufferType = key.equals( INDEX ) ? BufferTarget.ELEMENT_ARRAY_BUFFER : BufferTarget.ARRAY_BUFFER;
+			attribute.upload(gl, bufferType.getValue(), BufferUsage.STATIC_DRAW.getValue());
 
 		}
 
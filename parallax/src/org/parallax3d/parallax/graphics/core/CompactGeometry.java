@@ -0,0 +1,829 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.parallax3d.parallax.Log;
+import org.parallax3d.parallax.math.Box3;
+import org.parallax3d.parallax.math.Matrix3;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.math.Sphere;
+import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+
+/**
+ * Geometry which keeps vertices and faces in primitive arrays instead of
+ * {@link Vector3} and {@link Face3} objects.
+ * <p>
+ * Positions, normals and uvs are stored per vertex in flat float arrays,
+ * faces as vertex index triples with a material index per face.
+ * <p>
+ * It is not a drop-in replacement for code which edits {@link Geometry}
+ * in place. {@link #getVertices()}, {@link #getFaces()} and
+ * {@link #getFaceVertexUvs()} are read-only views over the arrays which
+ * return copies, so changes made to a returned {@link Vector3} or
+ * {@link Face3} are lost. Changes are made with the setters of this class,
+ * such as {@link #setPosition(int, double, double, double)}, and the lists
+ * can not be modified or replaced.
+ *
+ * <pre>
+ * {@code
+ * CompactGeometry geometry = new CompactGeometry();
+ *
+ * geometry.addVertex( -10, 10, 0 );
+ * geometry.addVertex( -10, -10, 0 );
+ * geometry.addVertex( 10, -10, 0 );
+ * geometry.addFace( 0, 1, 2, 0 );
+ *
+ * geometry.computeBoundingSphere();
+ * }
+ * </pre>
+ *
+ * Face normals are always calculated from the positions. Vertex tangents
+ * and per face vertex colors are not supported.
+ */
+public class CompactGeometry extends Geometry
+{
+	private float[] positions;
+	private float[] normals;
+	private float[] uvs;
+	private int vertexCount;
+
+	private int[] indices;
+	private int[] materialIndices;
+	private int faceCount;
+	// number of faces which have uvs, see UvList
+	private int uvFaceCount;
+
+	// reused by the pack methods
+	private float[] packed = new float[0];
+
+	public CompactGeometry()
+	{
+		this(0, 0);
+	}
+
+	/**
+	 * @param vertexCapacity number of vertices to reserve memory for.
+	 * @param faceCapacity   number of faces to reserve memory for.
+	 */
+	public CompactGeometry(int vertexCapacity, int faceCapacity)
+	{
+		this(new float[vertexCapacity * 3], 0, new int[faceCapacity * 3], 0);
+	}
+
+	/**
+	 * Creates geometry over the given arrays, they are not copied.
+	 *
+	 * @param positions 3 coordinates per vertex.
+	 * @param indices   3 vertex indices per face.
+	 */
+	public CompactGeometry(float[] positions, int[] indices)
+	{
+		this(positions, positions.length / 3, indices, indices.length / 3);
+	}
+
+	/**
+	 * Creates compact copy of the geometry. Uvs and vertex normals are
+	 * converted to per vertex values: where faces disagree on a shared
+	 * vertex the last face wins.
+	 */
+	public CompactGeometry(Geometry geometry)
+	{
+		this(geometry.getVertices().size(), geometry.getFaces().size());
+
+		List<Vector3> vertices = geometry.getVertices();
+		for ( int i = 0, il = vertices.size(); i < il; i ++ )
+		{
+			Vector3 v = vertices.get( i );
+			addVertex( v.getX(), v.getY(), v.getZ() );
+		}
+
+		List<Face3> faces = geometry.getFaces();
+		for ( int i = 0, il = faces.size(); i < il; i ++ )
+		{
+			Face3 face = faces.get( i );
+			addFace( face.getA(), face.getB(), face.getC(), face.getMaterialIndex() );
+			setVertexNormals( i, face.getVertexNormals() );
+		}
+
+		List<List<Vector2>> faceUvs = geometry.getFaceVertexUvs().get( 0 );
+		for ( int i = 0, il = Math.min( faceUvs.size(), faceCount ); i < il; i ++ )
+		{
+			setFaceUvs( i, faceUvs.get( i ) );
+		}
+
+		uvFaceCount = uvs == null ? 0 : faceCount;
+	}
+
+	private CompactGeometry(float[] positions, int vertexCount, int[] indices, int faceCount)
+	{
+		super();
+
+		this.positions = positions;
+		this.vertexCount = vertexCount;
+		this.indices = indices;
+		this.materialIndices = new int[ indices.length / 3 ];
+		this.faceCount = faceCount;
+
+		super.setVertices( new VertexList() );
+		super.setFaces( new FaceList() );
+
+		List<List<List<Vector2>>> faceVertexUvs = new ArrayList<List<List<Vector2>>>();
+		faceVertexUvs.add( new UvList() );
+		super.setFaceVertexUvs( Collections.unmodifiableList( faceVertexUvs ) );
+	}
+
+	/**
+	 * Not supported, the vertices are stored in {@link #getPositions()}.
+	 */
+	@Override
+	public void setVertices(List<Vector3> vertices) {
+		throw new UnsupportedOperationException("CompactGeometry: use addVertex() and setPosition() instead");
+	}
+
+	/**
+	 * Not supported, the faces are stored in {@link #getIndices()}.
+	 */
+	@Override
+	public void setFaces(List<Face3> faces) {
+		throw new UnsupportedOperationException("CompactGeometry: use addFace() and setFace() instead");
+	}
+
+	/**
+	 * Not supported, the uvs are stored in {@link #getUvs()}.
+	 */
+	@Override
+	public void setFaceVertexUvs(List<List<List<Vector2>>> faceVertexUvs) {
+		throw new UnsupportedOperationException("CompactGeometry: use setUv() and setUvs() instead");
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	public int getFaceCount() {
+		return faceCount;
+	}
+
+	/**
+	 * Gets positions, 3 per vertex. The array can be longer than
+	 * {@link #getVertexCount()} * 3.
+	 */
+	public float[] getPositions() {
+		return positions;
+	}
+
+	/**
+	 * Gets vertex normals, 3 per vertex, or null if there are none.
+	 */
+	public float[] getNormals() {
+		return normals;
+	}
+
+	/**
+	 * Gets uvs, 2 per vertex, or null if there are none.
+	 */
+	public float[] getUvs() {
+		return uvs;
+	}
+
+	/**
+	 * Sets uvs, 2 per vertex. The array is not copied.
+	 */
+	public void setUvs(float[] uvs) {
+		this.uvs = uvs;
+		this.uvFaceCount = uvs == null ? 0 : faceCount;
+	}
+
+	/**
+	 * Gets vertex indices, 3 per face. The array can be longer than
+	 * {@link #getFaceCount()} * 3.
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+	public int[] getMaterialIndices() {
+		return materialIndices;
+	}
+
+	/**
+	 * Adds vertex.
+	 *
+	 * @return index of the new vertex.
+	 */
+	public int addVertex(double x, double y, double z)
+	{
+		ensureVertexCapacity( vertexCount + 1 );
+		setPosition( vertexCount, x, y, z );
+		return vertexCount ++;
+	}
+
+	public void setPosition(int index, double x, double y, double z)
+	{
+		int i = index * 3;
+		positions[ i ]     = (float) x;
+		positions[ i + 1 ] = (float) y;
+		positions[ i + 2 ] = (float) z;
+	}
+
+	public void setNormal(int index, double x, double y, double z)
+	{
+		if ( normals == null )
+			normals = new float[ positions.length ];
+
+		int i = index * 3;
+		normals[ i ]     = (float) x;
+		normals[ i + 1 ] = (float) y;
+		normals[ i + 2 ] = (float) z;
+	}
+
+	public void setUv(int index, double u, double v)
+	{
+		if ( uvs == null )
+		{
+			uvs = new float[ positions.length / 3 * 2 ];
+			uvFaceCount = faceCount;
+		}
+
+		int i = index * 2;
+		uvs[ i ]     = (float) u;
+		uvs[ i + 1 ] = (float) v;
+	}
+
+	/**
+	 * Adds face.
+	 *
+	 * @return index of the new face.
+	 */
+	public int addFace(int a, int b, int c, int materialIndex)
+	{
+		ensureFaceCapacity( faceCount + 1 );
+		setFace( faceCount, a, b, c, materialIndex );
+
+		if ( uvs != null && uvFaceCount == faceCount )
+			uvFaceCount ++;
+
+		return faceCount ++;
+	}
+
+	public void setFace(int index, int a, int b, int c, int materialIndex)
+	{
+		int i = index * 3;
+		indices[ i ]     = a;
+		indices[ i + 1 ] = b;
+		indices[ i + 2 ] = c;
+		materialIndices[ index ] = materialIndex;
+	}
+
+	/**
+	 * Calculates normal of the face from the positions.
+	 */
+	public Vector3 getFaceNormal(int face, Vector3 target)
+	{
+		int a = indices[ face * 3 ] * 3, b = indices[ face * 3 + 1 ] * 3, c = indices[ face * 3 + 2 ] * 3;
+
+		double cbx = positions[ c ] - positions[ b ],
+				cby = positions[ c + 1 ] - positions[ b + 1 ],
+				cbz = positions[ c + 2 ] - positions[ b + 2 ];
+		double abx = positions[ a ] - positions[ b ],
+				aby = positions[ a + 1 ] - positions[ b + 1 ],
+				abz = positions[ a + 2 ] - positions[ b + 2 ];
+
+		return target.set( cby * abz - cbz * aby, cbz * abx - cbx * abz, cbx * aby - cby * abx ).normalize();
+	}
+
+	/**
+	 * Bakes matrix transform directly into positions and normals.
+	 */
+	@Override
+	public void applyMatrix(Matrix4 matrix)
+	{
+		float[] e = matrix.getArray();
+
+		for ( int i = 0, il = vertexCount * 3; i < il; i += 3 )
+		{
+			double x = positions[ i ], y = positions[ i + 1 ], z = positions[ i + 2 ];
+
+			positions[ i ]     = (float) ( e[ 0 ] * x + e[ 4 ] * y + e[ 8 ]  * z + e[ 12 ] );
+			positions[ i + 1 ] = (float) ( e[ 1 ] * x + e[ 5 ] * y + e[ 9 ]  * z + e[ 13 ] );
+			positions[ i + 2 ] = (float) ( e[ 2 ] * x + e[ 6 ] * y + e[ 10 ] * z + e[ 14 ] );
+		}
+
+		if ( normals != null )
+		{
+			float[] n = new Matrix3().getNormalMatrix( matrix ).getArray();
+
+			for ( int i = 0, il = vertexCount * 3; i < il; i += 3 )
+			{
+				double x = normals[ i ], y = normals[ i + 1 ], z = normals[ i + 2 ];
+
+				double nx = n[ 0 ] * x + n[ 3 ] * y + n[ 6 ] * z;
+				double ny = n[ 1 ] * x + n[ 4 ] * y + n[ 7 ] * z;
+				double nz = n[ 2 ] * x + n[ 5 ] * y + n[ 8 ] * z;
+
+				double length = Math.sqrt( nx * nx + ny * ny + nz * nz );
+				if ( length > 0 )
+				{
+					nx /= length; ny /= length; nz /= length;
+				}
+
+				normals[ i ]     = (float) nx;
+				normals[ i + 1 ] = (float) ny;
+				normals[ i + 2 ] = (float) nz;
+			}
+		}
+
+		this.computeBoundingBox();
+
+		this.computeBoundingSphere();
+	}
+
+	/**
+	 * Face normals are calculated from the positions on demand, there is
+	 * nothing to compute.
+	 */
+	@Override
+	public void computeFaceNormals() {
+	}
+
+	/**
+	 * Computes vertex normals by averaging face normals.
+	 */
+	@Override
+	public void computeVertexNormals(boolean areaWeighted)
+	{
+		float[] result = new float[ positions.length ];
+
+		for ( int f = 0; f < faceCount; f ++ )
+		{
+			int a = indices[ f * 3 ] * 3, b = indices[ f * 3 + 1 ] * 3, c = indices[ f * 3 + 2 ] * 3;
+
+			double cbx = positions[ c ] - positions[ b ],
+					cby = positions[ c + 1 ] - positions[ b + 1 ],
+					cbz = positions[ c + 2 ] - positions[ b + 2 ];
+			double abx = positions[ a ] - positions[ b ],
+					aby = positions[ a + 1 ] - positions[ b + 1 ],
+					abz = positions[ a + 2 ] - positions[ b + 2 ];
+
+			double nx = cby * abz - cbz * aby,
+					ny = cbz * abx - cbx * abz,
+					nz = cbx * aby - cby * abx;
+
+			if ( ! areaWeighted )
+			{
+				double length = Math.sqrt( nx * nx + ny * ny + nz * nz );
+				if ( length > 0 )
+				{
+					nx /= length; ny /= length; nz /= length;
+				}
+			}
+
+			result[ a ] += nx; result[ a + 1 ] += ny; result[ a + 2 ] += nz;
+			result[ b ] += nx; result[ b + 1 ] += ny; result[ b + 2 ] += nz;
+			result[ c ] += nx; result[ c + 1 ] += ny; result[ c + 2 ] += nz;
+		}
+
+		for ( int i = 0, il = vertexCount * 3; i < il; i += 3 )
+		{
+			double x = result[ i ], y = result[ i + 1 ], z = result[ i + 2 ];
+			double length = Math.sqrt( x * x + y * y + z * z );
+
+			if ( length > 0 )
+			{
+				result[ i ]     = (float) ( x / length );
+				result[ i + 1 ] = (float) ( y / length );
+				result[ i + 2 ] = (float) ( z / length );
+			}
+		}
+
+		this.normals = result;
+	}
+
+	/**
+	 * Vertex tangents are not supported by this geometry.
+	 */
+	@Override
+	public void computeTangents()
+	{
+		Log.warn("CompactGeometry: computeTangents() is not supported.");
+	}
+
+	@Override
+	public void computeBoundingBox()
+	{
+		if ( this.boundingBox == null )
+		{
+			this.boundingBox = new Box3();
+		}
+
+		computeBounds( this.boundingBox );
+	}
+
+	@Override
+	public void computeBoundingSphere()
+	{
+		if ( this.boundingSphere == null )
+		{
+			this.boundingSphere = new Sphere();
+		}
+
+		Vector3 center = computeBounds( new Box3() ).center( this.boundingSphere.getCenter() );
+		double cx = center.getX(), cy = center.getY(), cz = center.getZ();
+
+		double maxRadiusSq = 0;
+
+		for ( int i = 0, il = vertexCount * 3; i < il; i += 3 )
+		{
+			double dx = positions[ i ] - cx, dy = positions[ i + 1 ] - cy, dz = positions[ i + 2 ] - cz;
+			maxRadiusSq = Math.max( maxRadiusSq, dx * dx + dy * dy + dz * dz );
+		}
+
+		this.boundingSphere.setRadius( Math.sqrt( maxRadiusSq ) );
+	}
+
+	private Box3 computeBounds(Box3 box)
+	{
+		box.makeEmpty();
+
+		if ( vertexCount == 0 )
+			return box;
+
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+
+		for ( int i = 0, il = vertexCount * 3; i < il; i += 3 )
+		{
+			double x = positions[ i ], y = positions[ i + 1 ], z = positions[ i + 2 ];
+
+			if ( x < minX ) minX = x;
+			if ( x > maxX ) maxX = x;
+			if ( y < minY ) minY = y;
+			if ( y > maxY ) maxY = y;
+			if ( z < minZ ) minZ = z;
+			if ( z > maxZ ) maxZ = z;
+		}
+
+		box.getMin().set( minX, minY, minZ );
+		box.getMax().set( maxX, maxY, maxZ );
+
+		return box;
+	}
+
+	/**
+	 * Merges vertices which fall into the same cell of a grid with the
+	 * given cell size. Faces' vertices are updated and degenerate faces are
+	 * removed.
+	 */
+	@Override
+	public int mergeVertices(double tolerance)
+	{
+		VertexWelder welder = new VertexWelder( 3, vertexCount, tolerance );
+		int[] changes = new int[ vertexCount ];
+		int unique = 0;
+
+		for ( int i = 0; i < vertexCount; i ++ )
+		{
+			changes[ i ] = welder.add( positions[ i * 3 ], positions[ i * 3 + 1 ], positions[ i * 3 + 2 ], unique );
+
+			if ( changes[ i ] == unique )
+			{
+				moveVertex( i, unique );
+				unique ++;
+			}
+		}
+
+		int faces = 0;
+		for ( int f = 0; f < faceCount; f ++ )
+		{
+			int a = changes[ indices[ f * 3 ] ],
+					b = changes[ indices[ f * 3 + 1 ] ],
+					c = changes[ indices[ f * 3 + 2 ] ];
+
+			// if any duplicate vertices are found in a face
+			// we have to remove the face as nothing can be saved
+			if ( a == b || b == c || c == a )
+				continue;
+
+			setFace( faces ++, a, b, c, materialIndices[ f ] );
+		}
+
+		if ( uvs != null )
+			uvFaceCount = Math.min( uvFaceCount, faces );
+
+		faceCount = faces;
+
+		int diff = vertexCount - unique;
+		vertexCount = unique;
+		return diff;
+	}
+
+	@Override
+	public CompactGeometry clone()
+	{
+		CompactGeometry geometry = new CompactGeometry( positions.clone(), vertexCount,
+				indices.clone(), faceCount );
+
+		geometry.materialIndices = materialIndices.clone();
+		geometry.normals = normals == null ? null : normals.clone();
+		geometry.uvs = uvs == null ? null : uvs.clone();
+		geometry.uvFaceCount = uvFaceCount;
+
+		return geometry;
+	}
+
+	/**
+	 * Copies positions of the faces' vertices into the array, 9 values per
+	 * face.
+	 *
+	 * @return number of copied values.
+	 */
+	public int packPositions(List<Integer> faces, Float32Array array)
+	{
+		float[] packed = packed( faces.size() * 9 );
+		int offset = 0;
+
+		for ( int f = 0, fl = faces.size(); f < fl; f ++ )
+		{
+			int face = faces.get( f ) * 3;
+
+			for ( int i = 0; i < 3; i ++ )
+			{
+				int v = indices[ face + i ] * 3;
+
+				packed[ offset ]     = positions[ v ];
+				packed[ offset + 1 ] = positions[ v + 1 ];
+				packed[ offset + 2 ] = positions[ v + 2 ];
+
+				offset += 3;
+			}
+		}
+
+		array.set( packed, 0, offset, 0 );
+		return offset;
+	}
+
+	/**
+	 * Copies normals of the faces' vertices into the array, 9 values per
+	 * face. Face normals are used unless smooth normals are requested
+	 * and the geometry has vertex normals.
+	 *
+	 * @return number of copied values.
+	 */
+	public int packNormals(List<Integer> faces, Float32Array array, boolean smooth)
+	{
+		float[] packed = packed( faces.size() * 9 );
+		int offset = 0;
+		Vector3 normal = new Vector3();
+
+		for ( int f = 0, fl = faces.size(); f < fl; f ++ )
+		{
+			int face = faces.get( f );
+
+			if ( smooth && normals != null )
+			{
+				for ( int i = 0; i < 3; i ++ )
+				{
+					int v = indices[ face * 3 + i ] * 3;
+
+					packed[ offset ]     = normals[ v ];
+					packed[ offset + 1 ] = normals[ v + 1 ];
+					packed[ offset + 2 ] = normals[ v + 2 ];
+
+					offset += 3;
+				}
+			}
+			else
+			{
+				getFaceNormal( face, normal );
+
+				for ( int i = 0; i < 3; i ++ )
+				{
+					packed[ offset ]     = (float) normal.getX();
+					packed[ offset + 1 ] = (float) normal.getY();
+					packed[ offset + 2 ] = (float) normal.getZ();
+
+					offset += 3;
+				}
+			}
+		}
+
+		array.set( packed, 0, offset, 0 );
+		return offset;
+	}
+
+	/**
+	 * Copies uvs of the faces' vertices into the array, 6 values per face.
+	 *
+	 * @return number of copied values, 0 if the geometry has no uvs.
+	 */
+	public int packUvs(List<Integer> faces, Float32Array array)
+	{
+		if ( uvs == null )
+			return 0;
+
+		float[] packed = packed( faces.size() * 6 );
+		int offset = 0;
+
+		for ( int f = 0, fl = faces.size(); f < fl; f ++ )
+		{
+			int face = faces.get( f ) * 3;
+
+			for ( int i = 0; i < 3; i ++ )
+			{
+				int v = indices[ face + i ] * 2;
+
+				packed[ offset ]     = uvs[ v ];
+				packed[ offset + 1 ] = uvs[ v + 1 ];
+
+				offset += 2;
+			}
+		}
+
+		array.set( packed, 0, offset, 0 );
+		return offset;
+	}
+
+	private float[] packed(int length)
+	{
+		if ( packed.length < length )
+			packed = new float[ length ];
+
+		return packed;
+	}
+
+	private void moveVertex(int from, int to)
+	{
+		if ( from == to )
+			return;
+
+		System.arraycopy( positions, from * 3, positions, to * 3, 3 );
+
+		if ( normals != null )
+			System.arraycopy( normals, from * 3, normals, to * 3, 3 );
+
+		if ( uvs != null )
+			System.arraycopy( uvs, from * 2, uvs, to * 2, 2 );
+	}
+
+	private void setVertexNormals(int face, List<Vector3> vertexNormals)
+	{
+		if ( vertexNormals == null || vertexNormals.size() != 3 )
+			return;
+
+		for ( int i = 0; i < 3; i ++ )
+		{
+			Vector3 n = vertexNormals.get( i );
+			setNormal( indices[ face * 3 + i ], n.getX(), n.getY(), n.getZ() );
+		}
+	}
+
+	private void setFaceUvs(int face, List<Vector2> faceUvs)
+	{
+		if ( faceUvs == null || faceUvs.size() != 3 )
+			return;
+
+		for ( int i = 0; i < 3; i ++ )
+		{
+			Vector2 uv = faceUvs.get( i );
+			setUv( indices[ face * 3 + i ], uv.getX(), uv.getY() );
+		}
+	}
+
+	private void ensureVertexCapacity(int count)
+	{
+		if ( count * 3 <= positions.length )
+			return;
+
+		int capacity = Math.max( count, Math.max( 16, positions.length / 3 * 2 ) );
+
+		positions = grow( positions, capacity * 3 );
+
+		if ( normals != null )
+			normals = grow( normals, capacity * 3 );
+
+		if ( uvs != null )
+			uvs = grow( uvs, capacity * 2 );
+	}
+
+	private void ensureFaceCapacity(int count)
+	{
+		if ( count <= materialIndices.length )
+			return;
+
+		int capacity = Math.max( count, Math.max( 16, materialIndices.length * 2 ) );
+
+		int[] grown = new int[ capacity * 3 ];
+		System.arraycopy( indices, 0, grown, 0, faceCount * 3 );
+		indices = grown;
+
+		grown = new int[ capacity ];
+		System.arraycopy( materialIndices, 0, grown, 0, faceCount );
+		materialIndices = grown;
+	}
+
+	private static float[] grow(float[] array, int length)
+	{
+		float[] grown = new float[ length ];
+		System.arraycopy( array, 0, grown, 0, Math.min( array.length, length ) );
+		return grown;
+	}
+
+	private class VertexList extends AbstractList<Vector3>
+	{
+		@Override
+		public Vector3 get(int index)
+		{
+			checkIndex( index, vertexCount );
+			int i = index * 3;
+			return new Vector3( positions[ i ], positions[ i + 1 ], positions[ i + 2 ] );
+		}
+
+		@Override
+		public int size() {
+			return vertexCount;
+		}
+	}
+
+	private class FaceList extends AbstractList<Face3>
+	{
+		@Override
+		public Face3 get(int index)
+		{
+			checkIndex( index, faceCount );
+			int i = index * 3;
+
+			Face3 face = new Face3( indices[ i ], indices[ i + 1 ], indices[ i + 2 ], materialIndices[ index ] );
+			getFaceNormal( index, face.getNormal() );
+
+			if ( normals != null )
+			{
+				for ( int j = 0; j < 3; j ++ )
+				{
+					int v = indices[ i + j ] * 3;
+					face.getVertexNormals().add( new Vector3( normals[ v ], normals[ v + 1 ], normals[ v + 2 ] ) );
+				}
+			}
+
+			return face;
+		}
+
+		@Override
+		public int size() {
+			return faceCount;
+		}
+	}
+
+	/*
+	 * Uvs of the faces which have them, read from the per vertex uvs.
+	 */
+	private class UvList extends AbstractList<List<Vector2>>
+	{
+		@Override
+		public List<Vector2> get(int index)
+		{
+			checkIndex( index, uvFaceCount );
+
+			List<Vector2> result = new ArrayList<Vector2>( 3 );
+			for ( int i = 0; i < 3; i ++ )
+			{
+				int v = indices[ index * 3 + i ] * 2;
+				result.add( new Vector2( uvs[ v ], uvs[ v + 1 ] ) );
+			}
+
+			return result;
+		}
+
+		@Override
+		public int size() {
+			return uvFaceCount;
+		}
+	}
+
+	private static void checkIndex(int index, int size)
+	{
+		if ( index < 0 || index >= size )
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+	}
+}
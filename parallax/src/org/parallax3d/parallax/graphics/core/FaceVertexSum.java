@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+import org.parallax3d.parallax.system.ParallelExecutor;
+
+/**
+ * Sums per face values into the vertices of the faces.
+ * <p>
+ * Instead of scattering every face into its three vertices, each vertex
+ * gathers the faces using it in face order. Vertices can then be summed on
+ * any number of threads without locks, and every sum is computed in the
+ * same order as a sequential loop over the faces would do.
+ */
+class FaceVertexSum
+{
+	private final int vertexCount;
+	// faces using vertex v are faces[ offsets[ v ] ] .. faces[ offsets[ v + 1 ] - 1 ]
+	private final int[] offsets;
+	private final int[] faces;
+
+	/**
+	 * @param vertexCount number of vertices.
+	 * @param indices     3 vertex indices per face.
+	 * @param faceCount   number of faces.
+	 */
+	FaceVertexSum(int vertexCount, int[] indices, int faceCount)
+	{
+		this.vertexCount = vertexCount;
+		this.offsets = new int[ vertexCount + 1 ];
+		this.faces = new int[ faceCount * 3 ];
+
+		for ( int i = 0, il = faceCount * 3; i < il; i ++ )
+			offsets[ indices[ i ] + 1 ] ++;
+
+		for ( int v = 0; v < vertexCount; v ++ )
+			offsets[ v + 1 ] += offsets[ v ];
+
+		int[] next = new int[ vertexCount ];
+		System.arraycopy( offsets, 0, next, 0, vertexCount );
+
+		for ( int i = 0, il = faceCount * 3; i < il; i ++ )
+			faces[ next[ indices[ i ] ] ++ ] = i / 3;
+	}
+
+	/**
+	 * Checks if the vertex is used by any face.
+	 */
+	boolean isUsed(int vertex)
+	{
+		return offsets[ vertex + 1 ] > offsets[ vertex ];
+	}
+
+	/**
+	 * Sums itemSize values per face into itemSize values per vertex.
+	 *
+	 * @param floatPrecision round every partial sum to float, as adding
+	 *                       into a {@link org.parallax3d.parallax.system.gl.arrays.Float32Array} does.
+	 */
+	double[] sum(final double[] values, final int itemSize, final boolean floatPrecision)
+	{
+		final double[] result = new double[ vertexCount * itemSize ];
+
+		ParallelExecutor.get().run( vertexCount, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int start, int end)
+			{
+				for ( int v = start; v < end; v ++ )
+				{
+					for ( int k = 0; k < itemSize; k ++ )
+					{
+						double sum = 0;
+
+						for ( int i = offsets[ v ], il = offsets[ v + 1 ]; i < il; i ++ )
+						{
+							sum += values[ faces[ i ] * itemSize + k ];
+
+							if ( floatPrecision )
+								sum = (float) sum;
+						}
+
+						result[ v * itemSize + k ] = sum;
+					}
+				}
+			}
+		});
+
+		return result;
+	}
+}
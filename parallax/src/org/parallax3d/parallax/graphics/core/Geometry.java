@@ -32,7 +32,7 @@ import org.parallax3d.parallax.math.Vector4;
 import org.parallax3d.parallax.graphics.objects.Mesh;
 
 import org.parallax3d.parallax.math.Color;
-import org.parallax3d.parallax.system.FastMap;
+import org.parallax3d.parallax.system.ParallelExecutor;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
@@ -412,25 +412,36 @@ public class Geometry extends AbstractGeometry
 	 */
 	public void computeFaceNormals() {
 
-		Vector3 cb = new Vector3(), ab = new Vector3();
+		final List<Face3> faces = this.faces;
+		final List<Vector3> vertices = this.vertices;
 
-		for ( int f = 0, fl = this.faces.size(); f < fl; f ++ ) {
+		ParallelExecutor.get().run( faces.size(), new ParallelExecutor.Task() {
 
-			Face3 face = this.faces.get( f );
+			@Override
+			public void run(int start, int end) {
 
-			Vector3 vA = this.vertices.get( face.getA() );
-			Vector3 vB = this.vertices.get( face.getB() );
-			Vector3 vC = this.vertices.get( face.getC() );
+				Vector3 cb = new Vector3(), ab = new Vector3();
 
-			cb.sub( vC, vB );
-			ab.sub( vA, vB );
-			cb.cross( ab );
+				for ( int f = start; f < end; f ++ ) {
 
-			cb.normalize();
+					Face3 face = faces.get( f );
 
-			face.normal.copy( cb );
+					Vector3 vA = vertices.get( face.getA() );
+					Vector3 vB = vertices.get( face.getB() );
+					Vector3 vC = vertices.get( face.getC() );
 
-		}
+					cb.sub( vC, vB );
+					ab.sub( vA, vB );
+					cb.cross( ab );
+
+					cb.normalize();
+
+					face.normal.copy( cb );
+
+				}
+
+			}
+		});
 
 	}
 
@@ -442,79 +453,99 @@ public class Geometry extends AbstractGeometry
 	/**
 	 * Computes vertex normals by averaging face normals.
 	 * Face normals must be existing / computed beforehand.
+	 * <p>
+	 * Large geometries are processed by the {@link ParallelExecutor}, the
+	 * result is the same as computed on a single thread.
 	 */
-	public void computeVertexNormals(boolean areaWeighted)
+	public void computeVertexNormals(final boolean areaWeighted)
 	{
-		Vector3[] vertices = new Vector3[this.vertices.size()];
-		Face3 face;
+		final List<Face3> faces = this.faces;
+		final List<Vector3> vertices = this.vertices;
+		final int faceCount = faces.size();
 
-		for ( int v = 0, vl = this.vertices.size(); v < vl; v ++ ) {
+		// normal of every face and its vertex indices
+		final double[] faceNormals = new double[ faceCount * 3 ];
+		final int[] indices = new int[ faceCount * 3 ];
 
-			vertices[ v ] = new Vector3();
+		ParallelExecutor.get().run( faceCount, new ParallelExecutor.Task() {
 
-		}
+			@Override
+			public void run(int start, int end) {
 
-		if ( areaWeighted ) {
+				// vertex normals weighted by triangle areas
+				// http://www.iquilezles.org/www/articles/normals/normals.htm
 
-			// vertex normals weighted by triangle areas
-			// http://www.iquilezles.org/www/articles/normals/normals.htm
+				Vector3 cb = new Vector3(), ab = new Vector3();
 
-			Vector3 vA, vB, vC;
-			Vector3 cb = new Vector3(), ab = new Vector3();
+				for ( int f = start; f < end; f ++ ) {
 
-			for ( int f = 0, fl = this.faces.size(); f < fl; f ++ ) {
+					Face3 face = faces.get( f );
 
-				face = this.faces.get( f );
+					indices[ f * 3 ]     = face.a;
+					indices[ f * 3 + 1 ] = face.b;
+					indices[ f * 3 + 2 ] = face.c;
+
+					Vector3 normal = face.normal;
+
+					if ( areaWeighted ) {
 
-				vA = this.vertices.get( face.a );
-				vB = this.vertices.get( face.b );
-				vC = this.vertices.get( face.c );
+						cb.sub( vertices.get( face.c ), vertices.get( face.b ) );
+						ab.sub( vertices.get( face.a ), vertices.get( face.b ) );
+						normal = cb.cross( ab );
 
-				cb.sub( vC, vB );
-				ab.sub( vA, vB );
-				cb.cross( ab );
+					}
 
-				vertices[ face.a ].add( cb );
-				vertices[ face.b ].add( cb );
-				vertices[ face.c ].add( cb );
+					faceNormals[ f * 3 ]     = normal.getX();
+					faceNormals[ f * 3 + 1 ] = normal.getY();
+					faceNormals[ f * 3 + 2 ] = normal.getZ();
+
+				}
 
 			}
+		});
 
-		} else {
+		final double[] sums = new FaceVertexSum( vertices.size(), indices, faceCount )
+				.sum( faceNormals, 3, false );
 
-			for ( int f = 0, fl = this.faces.size(); f < fl; f ++ ) {
+		final Vector3[] normals = new Vector3[ vertices.size() ];
 
-				face = this.faces.get( f );
+		ParallelExecutor.get().run( normals.length, new ParallelExecutor.Task() {
 
-				vertices[ face.a ].add( face.normal );
-				vertices[ face.b ].add( face.normal );
-				vertices[ face.c ].add( face.normal );
+			@Override
+			public void run(int start, int end) {
+
+				for ( int v = start; v < end; v ++ ) {
+
+					normals[ v ] = new Vector3( sums[ v * 3 ], sums[ v * 3 + 1 ], sums[ v * 3 + 2 ] ).normalize();
+
+				}
 
 			}
+		});
 
-		}
+		ParallelExecutor.get().run( faceCount, new ParallelExecutor.Task() {
 
-		for ( int v = 0, vl = this.vertices.size(); v < vl; v ++ ) {
+			@Override
+			public void run(int start, int end) {
 
-			vertices[ v ].normalize();
+				for ( int f = start; f < end; f ++ ) {
 
-		}
+					Face3 face = faces.get( f );
 
-		for ( int f = 0, fl = this.faces.size(); f < fl; f ++ ) {
+					if(!face.getVertexNormals().isEmpty()) {
+						face.getVertexNormals().set(0, normals[ face.a ].clone() );
+						face.getVertexNormals().set(1, normals[ face.b ].clone() );
+						face.getVertexNormals().set(2, normals[ face.c ].clone() );
+					} else {
+						face.getVertexNormals().add(0, normals[ face.a ].clone() );
+						face.getVertexNormals().add(1, normals[ face.b ].clone() );
+						face.getVertexNormals().add(2, normals[ face.c ].clone() );
+					}
 
-			face = this.faces.get( f );
+				}
 
-			if(!face.getVertexNormals().isEmpty()) {
-				face.getVertexNormals().set(0, vertices[ face.a ].clone() );
-				face.getVertexNormals().set(1, vertices[ face.b ].clone() );
-				face.getVertexNormals().set(2, vertices[ face.c ].clone() );
-			} else {
-				face.getVertexNormals().add(0, vertices[ face.a ].clone() );
-				face.getVertexNormals().add(1, vertices[ face.b ].clone() );
-				face.getVertexNormals().add(2, vertices[ face.c ].clone() );
 			}
-
-		}
+		});
 	}
 
 	/**
@@ -647,56 +678,80 @@ public class Geometry extends AbstractGeometry
 	@Override
 	public void computeTangents()
 	{
-		Face3 face;
-		Vector2[] uv = new Vector2[0];
-		int v, vl, f, fl, i, vertexIndex;
-		List<Vector3> tan1 = new ArrayList<Vector3>(),
-				tan2 = new ArrayList<Vector3>();
-		Vector3 tmp = new Vector3(), tmp2 = new Vector3();
+		final List<Face3> faces = this.faces;
+		final List<List<Vector2>> uvs = this.faceVertexUvs.get(0); // use UV layer 0 for tangents
+		final int faceCount = faces.size();
 
-		for (v = 0,vl = this.vertices.size(); v<vl; v++)
-		{
-			tan1.add(v, new Vector3());
-			tan2.add(v, new Vector3());
-		}
+		// sdir and tdir of every face
+		final double[] directions = new double[ faceCount * 6 ];
+		final int[] indices = new int[ faceCount * 3 ];
 
-		for (f = 0, fl = this.faces.size(); f < fl; f++)
-		{
+		ParallelExecutor.get().run( faceCount, new ParallelExecutor.Task() {
 
-			face = this.faces.get(f);
-			uv = this.faceVertexUvs.get(0).get(f).toArray(uv); // use UV layer 0 for tangents
+			@Override
+			public void run(int start, int end) {
 
-			handleTriangle(face.getA(), face.getB(), face.getC(), 0, 1, 2, uv, tan1, tan2);
-		}
+				Vector2[] uv = new Vector2[0];
 
-		for (f = 0, fl = this.faces.size(); f < fl; f ++ )
-		{
+				for ( int f = start; f < end; f ++ ) {
+
+					Face3 face = faces.get(f);
+					uv = uvs.get(f).toArray(uv);
+
+					indices[ f * 3 ]     = face.getA();
+					indices[ f * 3 + 1 ] = face.getB();
+					indices[ f * 3 + 2 ] = face.getC();
 
-			face = this.faces.get(f);
+					handleTriangle(face.getA(), face.getB(), face.getC(), 0, 1, 2, uv, directions, f * 6);
 
-			for (i = 0; i < face.getVertexNormals().size(); i++) {
+				}
+
+			}
+		});
+
+		// tan1 and tan2 of every vertex
+		final double[] tangents = new FaceVertexSum( this.vertices.size(), indices, faceCount )
+				.sum( directions, 6, false );
+
+		ParallelExecutor.get().run( faceCount, new ParallelExecutor.Task() {
+
+			@Override
+			public void run(int start, int end) {
+
+				Vector3 tmp = new Vector3(), tmp2 = new Vector3();
+				Vector3 t = new Vector3(), t2 = new Vector3();
+
+				for ( int f = start; f < end; f ++ ) {
+
+					Face3 face = faces.get(f);
+
+					for (int i = 0; i < face.getVertexNormals().size(); i++) {
 
-				Vector3 n = new Vector3();
-				n.copy(face.getVertexNormals().get(i));
+						Vector3 n = new Vector3();
+						n.copy(face.getVertexNormals().get(i));
 
-				vertexIndex = face.getFlat()[i];
+						int vertexIndex = face.getFlat()[i];
 
-				Vector3 t = tan1.get(vertexIndex);
+						t.set(tangents[ vertexIndex * 6 ], tangents[ vertexIndex * 6 + 1 ], tangents[ vertexIndex * 6 + 2 ]);
+						t2.set(tangents[ vertexIndex * 6 + 3 ], tangents[ vertexIndex * 6 + 4 ], tangents[ vertexIndex * 6 + 5 ]);
 
-				// Gram-Schmidt orthogonalize
+						// Gram-Schmidt orthogonalize
 
-				tmp.copy(t);
-				tmp.sub( n.multiply( n.dot( t ) ) ).normalize();
+						tmp.copy(t);
+						tmp.sub( n.multiply( n.dot( t ) ) ).normalize();
 
-				// Calculate handedness
+						// Calculate handedness
 
-				tmp2.cross(face.getVertexNormals().get(i), t);
-				double test = tmp2.dot(tan2.get(vertexIndex));
-				double w = (test < 0.0) ? -1.0 : 1.0;
+						tmp2.cross(face.getVertexNormals().get(i), t);
+						double test = tmp2.dot(t2);
+						double w = (test < 0.0) ? -1.0 : 1.0;
+
+						face.getVertexTangents().add(i, new Vector4(tmp.getX(),tmp.getY(),tmp.getZ(), w));
+					}
+				}
 
-				face.getVertexTangents().add(i, new Vector4(tmp.getX(),tmp.getY(),tmp.getZ(), w));
 			}
-		}
+		});
 
 		this.setHasTangents(true);
 	}
@@ -880,66 +935,75 @@ public class Geometry extends AbstractGeometry
 	 */
 	public int mergeVertices()
 	{
-		// Hashmap for looking up vertice by position coordinates (and making sure they are unique)
-		FastMap<Integer> verticesMap = new FastMap<Integer>();
-		List<Vector3> unique = new ArrayList<Vector3>();
-		List<Integer> changes = new ArrayList<Integer>();
+		return mergeVertices( VertexWelder.DEFAULT_TOLERANCE );
+	}
 
-		int precisionPoints = 4; // number of decimal points, eg. 4 for epsilon of 0.0001
-		double precision = Math.pow( 10, precisionPoints );
+	/**
+	 * Merges vertices which fall into the same cell of a grid with the
+	 * given cell size. Faces' vertices are updated and faces which become
+	 * degenerate are removed.
+	 *
+	 * @return number of removed vertices.
+	 */
+	public int mergeVertices( double tolerance )
+	{
+		// Spatial hash for looking up vertice by position coordinates (and making sure they are unique)
+		VertexWelder welder = new VertexWelder( 3, this.vertices.size(), tolerance );
+		List<Vector3> unique = new ArrayList<Vector3>();
+		int[] changes = new int[ this.vertices.size() ];
 
 		for ( int i = 0, il = this.vertices.size(); i < il; i ++ )
 		{
 			Vector3 v = this.vertices.get( i );
-			String key = Math.round( v.getX() * precision ) + "_" + Math.round( v.getY() * precision ) + "_"  + Math.round( v.getZ() * precision );
 
-			if ( !verticesMap.containsKey(key))
-			{
-				verticesMap.put(key, i);
-				unique.add(v);
-				changes.add( i , unique.size() - 1);
-			}
-			else
+			changes[ i ] = welder.add( v.getX(), v.getY(), v.getZ(), unique.size() );
+
+			if ( changes[ i ] == unique.size() )
 			{
-				changes.add( i , changes.get( verticesMap.get( key ) ));
+				unique.add( v );
 			}
 		}
 
-
 		// if faces are completely degenerate after merging vertices, we
 		// have to remove them from the geometry.
-		List<Integer> faceIndicesToRemove = new ArrayList<Integer>();
+		int[] uvsLength = new int[ this.faceVertexUvs.size() ];
+		int kept = 0;
 
 		for( int i = 0, il = this.faces.size(); i < il; i ++ )
 		{
 			Face3 face = this.faces.get( i );
 
-			face.setA( changes.get( face.getA() ) );
-			face.setB( changes.get( face.getB() ) );
-			face.setC( changes.get( face.getC() ) );
-
-			int[] indices = { face.getA(), face.getB(), face.getC() };
+			face.setA( changes[ face.getA() ] );
+			face.setB( changes[ face.getB() ] );
+			face.setC( changes[ face.getC() ] );
 
 			// if any duplicate vertices are found in a Face3
 			// we have to remove the face as nothing can be saved
-			for ( int n = 0; n < 3; n ++ )
+			if ( face.getA() == face.getB() || face.getB() == face.getC() || face.getC() == face.getA() )
+				continue;
+
+			this.faces.set( kept, face );
+
+			for ( int j = 0, jl = this.faceVertexUvs.size(); j < jl; j ++ )
 			{
-				if ( indices[ n ] == indices[ ( n + 1 ) % 3 ] )
+				List<List<Vector2>> uvs = this.faceVertexUvs.get( j );
+
+				if ( i < uvs.size() )
 				{
-					faceIndicesToRemove.add( i );
-					break;
+					uvs.set( kept, uvs.get( i ) );
+					uvsLength[ j ] = kept + 1;
 				}
 			}
+
+			kept ++;
 		}
 
-		for ( int i = faceIndicesToRemove.size() - 1; i >= 0; i -- )
-		{
-			this.faces.remove( i );
+		this.faces.subList( kept, this.faces.size() ).clear();
 
-			for ( int j = 0, jl = this.faceVertexUvs.size(); j < jl; j ++ )
-			{
-				this.faceVertexUvs.get( j ).remove( i );
-			}
+		for ( int j = 0, jl = this.faceVertexUvs.size(); j < jl; j ++ )
+		{
+			List<List<Vector2>> uvs = this.faceVertexUvs.get( j );
+			uvs.subList( uvsLength[ j ], uvs.size() ).clear();
 		}
 
 		// Use unique set of vertices
@@ -989,7 +1053,10 @@ public class Geometry extends AbstractGeometry
 
 	}
 
-	private void handleTriangle(int a, int b, int c, int ua, int ub, int uc, Vector2[] uv, List<Vector3> tan1, List<Vector3> tan2)
+	/*
+	 * Writes sdir and tdir of the triangle into the array.
+	 */
+	private void handleTriangle(int a, int b, int c, int ua, int ub, int uc, Vector2[] uv, double[] directions, int offset)
 	{
 		Vector3 vA = this.vertices.get(a);
 		Vector3 vB = this.vertices.get(b);
@@ -1013,23 +1080,15 @@ public class Geometry extends AbstractGeometry
 
 		double r = 1.0 / (s1 * t2 - s2 * t1);
 
-		Vector3 sdir = new Vector3();
-		sdir.set((t2*x1-t1*x2)*r,
-				(t2*y1-t1*y2)*r,
-				(t2*z1-t1*z2)*r);
-
-		Vector3 tdir = new Vector3();
-		tdir.set((s1*x2 - s2*x1)*r,
-				(s1*y2 - s2*y1)*r,
-				(s1*z2 - s2*z1)*r);
-
-		tan1.get(a).add(sdir);
-		tan1.get(b).add(sdir);
-		tan1.get(c).add(sdir);
+		// sdir
+		directions[ offset ]     = (t2*x1-t1*x2)*r;
+		directions[ offset + 1 ] = (t2*y1-t1*y2)*r;
+		directions[ offset + 2 ] = (t2*z1-t1*z2)*r;
 
-		tan2.get(a).add(tdir);
-		tan2.get(b).add(tdir);
-		tan2.get(c).add(tdir);
+		// tdir
+		directions[ offset + 3 ] = (s1*x2 - s2*x1)*r;
+		directions[ offset + 4 ] = (s1*y2 - s2*y1)*r;
+		directions[ offset + 5 ] = (s1*z2 - s2*z1)*r;
 	}
 
 }
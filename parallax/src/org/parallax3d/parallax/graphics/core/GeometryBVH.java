@@ -0,0 +1,765 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.core;
+
+import java.util.List;
+
+import org.parallax3d.parallax.math.Ray;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
+
+/**
+ * Bounding volume hierarchy over the primitives of a geometry (triangles, line
+ * segments or points), used to speed up raycasting on large geometries.
+ * <p>
+ * The tree is built top-down with a binned surface area heuristic and stored
+ * in flat arrays. When the vertices of the geometry change the node bounds are
+ * refitted on the next query, the tree is only rebuilt when the number of
+ * primitives changes.
+ * <pre>
+ * {@code
+ * mesh.getGeometry().computeBoundsTree();
+ * List<Raycaster.Intersect> intersects = raycaster.intersectObject( mesh, false );
+ * }
+ * </pre>
+ *
+ * @see AbstractGeometry#computeBoundsTree()
+ */
+public class GeometryBVH
+{
+	/**
+	 * Primitive type the tree is built over.
+	 */
+	public static enum PRIMITIVE
+	{
+		/** Faces of a mesh */
+		TRIANGLES,
+		/** Segments of a line in {@code Line.MODE.STRIPS} mode */
+		LINE_STRIP,
+		/** Segments of a line in {@code Line.MODE.PIECES} mode */
+		LINE_PIECES,
+		/** Vertices of a point cloud */
+		POINTS
+	}
+
+	/**
+	 * Maximum number of primitives in a leaf node.
+	 */
+	public static final int MAX_LEAF_SIZE = 4;
+
+	private static final int BINS = 16;
+
+	private final AbstractGeometry geometry;
+	private final PRIMITIVE primitive;
+	private final int stride;
+
+	// Vertex sources, refreshed on every build or refit
+	private List<Vector3> vertices;
+	private Float32Array positions;
+
+	// Vertex indices of each primitive
+	private int[] primitiveVertices = new int[0];
+	private int primitiveCount;
+
+	// Primitives ordered by leaves
+	private int[] order;
+	// Node bounds: minX, minY, minZ, maxX, maxY, maxZ
+	private double[] nodeBounds;
+	// Leaf: first index in order. Inner node: index of the left child, right child follows it
+	private int[] nodeOffset;
+	// Leaf: number of primitives. Inner node: -1
+	private int[] nodeCount;
+	private int nodeTotal;
+
+	private boolean needsRefit = false;
+	private boolean needsRebuild = false;
+
+	// Build temporaries, kept in the same order as the primitives in order
+	private double[] centroids;
+	private double[] primitiveBounds;
+	private final int[] binCount = new int[BINS];
+	private final double[] binBounds = new double[BINS * 6];
+	private final double[] rightArea = new double[BINS];
+	private final double[] box = new double[6];
+
+	// Traversal temporaries
+	private int[] stack = new int[64];
+	private int[] results = new int[64];
+	private final Vector3 _v = new Vector3();
+
+	public GeometryBVH( AbstractGeometry geometry )
+	{
+		this( geometry, PRIMITIVE.TRIANGLES );
+	}
+
+	public GeometryBVH( AbstractGeometry geometry, PRIMITIVE primitive )
+	{
+		this.geometry = geometry;
+		this.primitive = primitive;
+		this.stride = primitive == PRIMITIVE.TRIANGLES ? 3 : primitive == PRIMITIVE.POINTS ? 1 : 2;
+
+		build();
+	}
+
+	public AbstractGeometry getGeometry() {
+		return geometry;
+	}
+
+	public PRIMITIVE getPrimitive() {
+		return primitive;
+	}
+
+	public int getPrimitiveCount() {
+		return primitiveCount;
+	}
+
+	public int getNodeCount() {
+		return nodeTotal;
+	}
+
+	public boolean isNeedsRefit() {
+		return needsRefit;
+	}
+
+	/**
+	 * Marks the node bounds as outdated. They will be refitted on the next query.
+	 * Called by {@link AbstractGeometry#setVerticesNeedUpdate(boolean)}.
+	 */
+	public void setNeedsRefit(boolean needsRefit) {
+		this.needsRefit = needsRefit;
+	}
+
+	public boolean isNeedsRebuild() {
+		return needsRebuild;
+	}
+
+	/**
+	 * Marks the tree as outdated. It will be rebuilt on the next query.
+	 * Called by {@link AbstractGeometry#setElementsNeedUpdate(boolean)}.
+	 */
+	public void setNeedsRebuild(boolean needsRebuild) {
+		this.needsRebuild = needsRebuild;
+	}
+
+	/**
+	 * Gets the index of the k-th vertex of the primitive.
+	 */
+	public int getVertexIndex( int primitive, int k )
+	{
+		return primitiveVertices[ primitive * stride + k ];
+	}
+
+	/**
+	 * Copies the position of the vertex into the target.
+	 */
+	public Vector3 getVertex( int index, Vector3 target )
+	{
+		if ( positions != null )
+			return target.fromArray( positions, index * 3 );
+
+		return target.copy( vertices.get( index ) );
+	}
+
+	/**
+	 * Primitives found by the last {@link #intersectRay(Ray, double)} call.
+	 */
+	public int[] getResults() {
+		return results;
+	}
+
+	/**
+	 * Collects the primitives whose bounds, expanded by the margin, are hit by the ray.
+	 * The ray must be in the local space of the geometry.
+	 *
+	 * @param ray    the ray in object space
+	 * @param margin distance to expand the bounds by, used for lines and points
+	 * @return the number of primitives stored in {@link #getResults()}
+	 */
+	public int intersectRay( Ray ray, double margin )
+	{
+		update();
+
+		if ( nodeTotal == 0 )
+			return 0;
+
+		Vector3 origin = ray.getOrigin();
+		Vector3 direction = ray.getDirection();
+		double ox = origin.getX(), oy = origin.getY(), oz = origin.getZ();
+		double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+		double ix = 1.0 / dx, iy = 1.0 / dy, iz = 1.0 / dz;
+
+		int count = 0;
+		int top = 0;
+		stack[ top++ ] = 0;
+
+		while ( top > 0 )
+		{
+			int node = stack[ --top ];
+			int b = node * 6;
+
+			double tmin = 0, tmax = Double.POSITIVE_INFINITY;
+
+			// x slab
+			double min = nodeBounds[ b ] - margin, max = nodeBounds[ b + 3 ] + margin;
+			if ( dx == 0 ) {
+				if ( ox < min || ox > max ) continue;
+			} else {
+				double t1 = ( min - ox ) * ix, t2 = ( max - ox ) * ix;
+				if ( t1 > t2 ) { double t = t1; t1 = t2; t2 = t; }
+				if ( t1 > tmin ) tmin = t1;
+				if ( t2 < tmax ) tmax = t2;
+				if ( tmin > tmax ) continue;
+			}
+
+			// y slab
+			min = nodeBounds[ b + 1 ] - margin; max = nodeBounds[ b + 4 ] + margin;
+			if ( dy == 0 ) {
+				if ( oy < min || oy > max ) continue;
+			} else {
+				double t1 = ( min - oy ) * iy, t2 = ( max - oy ) * iy;
+				if ( t1 > t2 ) { double t = t1; t1 = t2; t2 = t; }
+				if ( t1 > tmin ) tmin = t1;
+				if ( t2 < tmax ) tmax = t2;
+				if ( tmin > tmax ) continue;
+			}
+
+			// z slab
+			min = nodeBounds[ b + 2 ] - margin; max = nodeBounds[ b + 5 ] + margin;
+			if ( dz == 0 ) {
+				if ( oz < min || oz > max ) continue;
+			} else {
+				double t1 = ( min - oz ) * iz, t2 = ( max - oz ) * iz;
+				if ( t1 > t2 ) { double t = t1; t1 = t2; t2 = t; }
+				if ( t1 > tmin ) tmin = t1;
+				if ( t2 < tmax ) tmax = t2;
+				if ( tmin > tmax ) continue;
+			}
+
+			int n = nodeCount[ node ];
+
+			if ( n < 0 )
+			{
+				if ( top + 2 > stack.length )
+					stack = grow( stack, top + 2 );
+
+				stack[ top++ ] = nodeOffset[ node ] + 1;
+				stack[ top++ ] = nodeOffset[ node ];
+			}
+			else
+			{
+				if ( count + n > results.length )
+					results = grow( results, count + n );
+
+				for ( int i = nodeOffset[ node ], il = i + n; i < il; i++ )
+					results[ count++ ] = order[ i ];
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Rebuilds or refits the tree if the geometry was changed.
+	 */
+	public void update()
+	{
+		if ( needsRebuild || countPrimitives() != primitiveCount )
+			build();
+
+		else if ( needsRefit )
+			refit();
+	}
+
+	/**
+	 * Builds the tree from scratch.
+	 */
+	public void build()
+	{
+		collectPrimitives();
+
+		int count = primitiveCount;
+
+		order = new int[ count ];
+		centroids = new double[ count * 3 ];
+		primitiveBounds = new double[ count * 6 ];
+
+		for ( int p = 0; p < count; p++ )
+		{
+			order[ p ] = p;
+			primitiveBounds( p, box );
+			centroids[ p * 3 ]     = ( box[ 0 ] + box[ 3 ] ) * 0.5;
+			centroids[ p * 3 + 1 ] = ( box[ 1 ] + box[ 4 ] ) * 0.5;
+			centroids[ p * 3 + 2 ] = ( box[ 2 ] + box[ 5 ] ) * 0.5;
+
+			System.arraycopy( box, 0, primitiveBounds, p * 6, 6 );
+		}
+
+		// A binary tree with at least one primitive per leaf has at most 2n - 1 nodes
+		int maxNodes = Math.max( 1, count * 2 - 1 );
+		nodeBounds = new double[ maxNodes * 6 ];
+		nodeOffset = new int[ maxNodes ];
+		nodeCount = new int[ maxNodes ];
+		nodeTotal = 0;
+
+		if ( count > 0 )
+		{
+			nodeTotal = 1;
+			buildNode( 0, 0, count );
+		}
+
+		centroids = null;
+		primitiveBounds = null;
+		needsRebuild = false;
+		needsRefit = false;
+	}
+
+	/**
+	 * Recalculates the node bounds from the current vertex positions, keeping
+	 * the tree topology.
+	 */
+	public void refit()
+	{
+		updateSources();
+
+		// Children are always stored after their parent
+		for ( int node = nodeTotal - 1; node >= 0; node-- )
+		{
+			int b = node * 6;
+
+			if ( nodeCount[ node ] < 0 )
+			{
+				int l = nodeOffset[ node ] * 6, r = l + 6;
+
+				for ( int i = 0; i < 3; i++ )
+				{
+					nodeBounds[ b + i ]     = Math.min( nodeBounds[ l + i ], nodeBounds[ r + i ] );
+					nodeBounds[ b + i + 3 ] = Math.max( nodeBounds[ l + i + 3 ], nodeBounds[ r + i + 3 ] );
+				}
+			}
+			else
+			{
+				rangeBounds( nodeOffset[ node ], nodeCount[ node ] );
+				System.arraycopy( box, 0, nodeBounds, b, 6 );
+			}
+		}
+
+		needsRefit = false;
+	}
+
+	private void buildNode( int node, int start, int count )
+	{
+		// Node bounds from the cached primitive bounds
+		int b = node * 6;
+		for ( int k = 0; k < 3; k++ )
+		{
+			nodeBounds[ b + k ] = Double.POSITIVE_INFINITY;
+			nodeBounds[ b + k + 3 ] = Double.NEGATIVE_INFINITY;
+		}
+
+		for ( int i = start, il = start + count; i < il; i++ )
+		{
+			int p = i * 6;
+			for ( int k = 0; k < 3; k++ )
+			{
+				nodeBounds[ b + k ] = Math.min( nodeBounds[ b + k ], primitiveBounds[ p + k ] );
+				nodeBounds[ b + k + 3 ] = Math.max( nodeBounds[ b + k + 3 ], primitiveBounds[ p + k + 3 ] );
+			}
+		}
+
+		if ( count <= 2 )
+		{
+			makeLeaf( node, start, count );
+			return;
+		}
+
+		// Centroid bounds
+		double cminX = Double.POSITIVE_INFINITY, cminY = cminX, cminZ = cminX;
+		double cmaxX = Double.NEGATIVE_INFINITY, cmaxY = cmaxX, cmaxZ = cmaxX;
+
+		for ( int i = start, il = start + count; i < il; i++ )
+		{
+			int c = i * 3;
+			double x = centroids[ c ], y = centroids[ c + 1 ], z = centroids[ c + 2 ];
+			if ( x < cminX ) cminX = x; if ( x > cmaxX ) cmaxX = x;
+			if ( y < cminY ) cminY = y; if ( y > cmaxY ) cmaxY = y;
+			if ( z < cminZ ) cminZ = z; if ( z > cmaxZ ) cmaxZ = z;
+		}
+
+		int bestAxis = -1, bestBin = -1;
+		double bestCost = Double.POSITIVE_INFINITY;
+
+		for ( int axis = 0; axis < 3; axis++ )
+		{
+			double cmin = axis == 0 ? cminX : axis == 1 ? cminY : cminZ;
+			double extent = ( axis == 0 ? cmaxX : axis == 1 ? cmaxY : cmaxZ ) - cmin;
+
+			if ( extent <= 0 )
+				continue;
+
+			binPrimitives( start, count, axis, cmin, BINS / extent );
+
+			// Sweep from the right to get the area of everything right of each split
+			resetBox();
+			int rightCount = 0;
+			for ( int i = BINS - 1; i > 0; i-- )
+			{
+				unionBin( i );
+				rightArea[ i ] = halfArea( box ) * ( rightCount += binCount[ i ] );
+			}
+
+			// Sweep from the left and evaluate the cost
+			resetBox();
+			int leftCount = 0;
+			for ( int i = 0; i < BINS - 1; i++ )
+			{
+				unionBin( i );
+				leftCount += binCount[ i ];
+
+				if ( leftCount == 0 || leftCount == count )
+					continue;
+
+				double cost = halfArea( box ) * leftCount + rightArea[ i + 1 ];
+				if ( cost < bestCost )
+				{
+					bestCost = cost;
+					bestAxis = axis;
+					bestBin = i;
+				}
+			}
+		}
+
+		// All centroids coincide or splitting is more expensive than intersecting every primitive
+		if ( bestAxis < 0
+				|| ( count <= MAX_LEAF_SIZE && bestCost >= halfArea( nodeBounds, node * 6 ) * count ) )
+		{
+			makeLeaf( node, start, count );
+			return;
+		}
+
+		double cmin = bestAxis == 0 ? cminX : bestAxis == 1 ? cminY : cminZ;
+		double scale = BINS / ( ( bestAxis == 0 ? cmaxX : bestAxis == 1 ? cmaxY : cmaxZ ) - cmin );
+
+		int mid = partition( start, count, bestAxis, cmin, scale, bestBin );
+
+		int left = nodeTotal;
+		nodeTotal += 2;
+
+		nodeOffset[ node ] = left;
+		nodeCount[ node ] = -1;
+
+		buildNode( left, start, mid - start );
+		buildNode( left + 1, mid, start + count - mid );
+	}
+
+	/*
+	 * Moves the primitives up to the split bin to the front of the range
+	 * and returns the index of the first primitive of the right half
+	 */
+	private int partition( int start, int count, int axis, double cmin, double scale, int split )
+	{
+		int i = start, j = start + count - 1;
+
+		while ( i <= j )
+		{
+			if ( bin( i, axis, cmin, scale ) <= split )
+			{
+				i++;
+			}
+			else
+			{
+				swap( i, j-- );
+			}
+		}
+
+		return i;
+	}
+
+	private void makeLeaf( int node, int start, int count )
+	{
+		nodeOffset[ node ] = start;
+		nodeCount[ node ] = count;
+	}
+
+	private void swap( int i, int j )
+	{
+		int t = order[ i ];
+		order[ i ] = order[ j ];
+		order[ j ] = t;
+
+		for ( int k = 0; k < 3; k++ )
+		{
+			double c = centroids[ i * 3 + k ];
+			centroids[ i * 3 + k ] = centroids[ j * 3 + k ];
+			centroids[ j * 3 + k ] = c;
+		}
+
+		for ( int k = 0; k < 6; k++ )
+		{
+			double b = primitiveBounds[ i * 6 + k ];
+			primitiveBounds[ i * 6 + k ] = primitiveBounds[ j * 6 + k ];
+			primitiveBounds[ j * 6 + k ] = b;
+		}
+	}
+
+	private int bin( int i, int axis, double cmin, double scale )
+	{
+		int b = (int)( ( centroids[ i * 3 + axis ] - cmin ) * scale );
+		return b < BINS ? b : BINS - 1;
+	}
+
+	private void binPrimitives( int start, int count, int axis, double cmin, double scale )
+	{
+		for ( int i = 0; i < BINS; i++ )
+		{
+			binCount[ i ] = 0;
+			for ( int k = 0; k < 3; k++ )
+			{
+				binBounds[ i * 6 + k ] = Double.POSITIVE_INFINITY;
+				binBounds[ i * 6 + k + 3 ] = Double.NEGATIVE_INFINITY;
+			}
+		}
+
+		for ( int i = start, il = start + count; i < il; i++ )
+		{
+			int p = i;
+			int b = bin( p, axis, cmin, scale );
+
+			binCount[ b ]++;
+
+			for ( int k = 0; k < 3; k++ )
+			{
+				binBounds[ b * 6 + k ] = Math.min( binBounds[ b * 6 + k ], primitiveBounds[ p * 6 + k ] );
+				binBounds[ b * 6 + k + 3 ] = Math.max( binBounds[ b * 6 + k + 3 ], primitiveBounds[ p * 6 + k + 3 ] );
+			}
+		}
+	}
+
+	private void resetBox()
+	{
+		box[ 0 ] = box[ 1 ] = box[ 2 ] = Double.POSITIVE_INFINITY;
+		box[ 3 ] = box[ 4 ] = box[ 5 ] = Double.NEGATIVE_INFINITY;
+	}
+
+	private void unionBin( int b )
+	{
+		if ( binCount[ b ] == 0 )
+			return;
+
+		for ( int k = 0; k < 3; k++ )
+		{
+			box[ k ] = Math.min( box[ k ], binBounds[ b * 6 + k ] );
+			box[ k + 3 ] = Math.max( box[ k + 3 ], binBounds[ b * 6 + k + 3 ] );
+		}
+	}
+
+	private static double halfArea( double[] bounds )
+	{
+		return halfArea( bounds, 0 );
+	}
+
+	private static double halfArea( double[] bounds, int offset )
+	{
+		double x = bounds[ offset + 3 ] - bounds[ offset ];
+		double y = bounds[ offset + 4 ] - bounds[ offset + 1 ];
+		double z = bounds[ offset + 5 ] - bounds[ offset + 2 ];
+
+		return x < 0 ? 0 : x * y + y * z + z * x;
+	}
+
+	/*
+	 * Union of the bounds of order[start .. start + count) into box
+	 */
+	private void rangeBounds( int start, int count )
+	{
+		double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+
+		for ( int i = start, il = start + count; i < il; i++ )
+		{
+			int v = order[ i ] * stride;
+
+			for ( int k = 0; k < stride; k++ )
+			{
+				getVertex( primitiveVertices[ v + k ], _v );
+				double x = _v.getX(), y = _v.getY(), z = _v.getZ();
+				if ( x < minX ) minX = x; if ( x > maxX ) maxX = x;
+				if ( y < minY ) minY = y; if ( y > maxY ) maxY = y;
+				if ( z < minZ ) minZ = z; if ( z > maxZ ) maxZ = z;
+			}
+		}
+
+		box[ 0 ] = minX; box[ 1 ] = minY; box[ 2 ] = minZ;
+		box[ 3 ] = maxX; box[ 4 ] = maxY; box[ 5 ] = maxZ;
+	}
+
+	private void primitiveBounds( int p, double[] target )
+	{
+		target[ 0 ] = target[ 1 ] = target[ 2 ] = Double.POSITIVE_INFINITY;
+		target[ 3 ] = target[ 4 ] = target[ 5 ] = Double.NEGATIVE_INFINITY;
+
+		for ( int k = 0; k < stride; k++ )
+		{
+			getVertex( primitiveVertices[ p * stride + k ], _v );
+			target[ 0 ] = Math.min( target[ 0 ], _v.getX() );
+			target[ 1 ] = Math.min( target[ 1 ], _v.getY() );
+			target[ 2 ] = Math.min( target[ 2 ], _v.getZ() );
+			target[ 3 ] = Math.max( target[ 3 ], _v.getX() );
+			target[ 4 ] = Math.max( target[ 4 ], _v.getY() );
+			target[ 5 ] = Math.max( target[ 5 ], _v.getZ() );
+		}
+	}
+
+	private void updateSources()
+	{
+		if ( geometry instanceof BufferGeometry )
+		{
+			BufferAttribute position = ((BufferGeometry)geometry).getAttribute("position");
+			positions = position != null ? (Float32Array)position.getArray() : null;
+			vertices = null;
+		}
+		else
+		{
+			vertices = ((Geometry)geometry).getVertices();
+			positions = null;
+		}
+	}
+
+	private Uint16Array getIndices()
+	{
+		if ( !( geometry instanceof BufferGeometry ) )
+			return null;
+
+		BufferAttribute index = ((BufferGeometry)geometry).getAttribute("index");
+		return index != null ? (Uint16Array)index.getArray() : null;
+	}
+
+	private int getVertexCount()
+	{
+		updateSources();
+
+		if ( positions != null )
+			return positions.getLength() / 3;
+
+		return vertices != null ? vertices.size() : 0;
+	}
+
+	/*
+	 * Number of index entries covered by the draw calls of an indexed buffer geometry
+	 */
+	private int getIndexCount( Uint16Array indices )
+	{
+		List<BufferGeometry.DrawCall> offsets = ((BufferGeometry)geometry).getDrawcalls();
+
+		if ( offsets.isEmpty() )
+			return indices.getLength();
+
+		int count = 0;
+		for ( int i = 0, il = offsets.size(); i < il; i++ )
+			count += offsets.get( i ).count;
+
+		return count;
+	}
+
+	private int countPrimitives()
+	{
+		int vertexCount = getVertexCount();
+
+		switch ( primitive )
+		{
+		case TRIANGLES:
+			if ( geometry instanceof Geometry )
+				return ((Geometry)geometry).getFaces().size();
+
+			Uint16Array indices = getIndices();
+			return indices != null ? getIndexCount( indices ) / 3 : vertexCount / 3;
+
+		case POINTS:
+			Uint16Array points = getIndices();
+			return points != null ? getIndexCount( points ) : vertexCount;
+
+		case LINE_STRIP:
+			return Math.max( 0, vertexCount - 1 );
+
+		default:
+			return vertexCount / 2;
+		}
+	}
+
+	private void collectPrimitives()
+	{
+		primitiveCount = countPrimitives();
+
+		if ( primitiveVertices.length != primitiveCount * stride )
+			primitiveVertices = new int[ primitiveCount * stride ];
+
+		int[] target = primitiveVertices;
+		Uint16Array indices = getIndices();
+
+		if ( primitive == PRIMITIVE.TRIANGLES && geometry instanceof Geometry )
+		{
+			List<Face3> faces = ((Geometry)geometry).getFaces();
+
+			for ( int f = 0, j = 0; f < primitiveCount; f++ )
+			{
+				Face3 face = faces.get( f );
+				target[ j++ ] = face.getA();
+				target[ j++ ] = face.getB();
+				target[ j++ ] = face.getC();
+			}
+		}
+		else if ( indices != null && ( primitive == PRIMITIVE.TRIANGLES || primitive == PRIMITIVE.POINTS ) )
+		{
+			List<BufferGeometry.DrawCall> offsets = ((BufferGeometry)geometry).getDrawcalls();
+
+			int j = 0;
+
+			if ( offsets.isEmpty() )
+			{
+				for ( int i = 0, il = primitiveCount * stride; i < il; i++ )
+					target[ j++ ] = indices.getUnsigned( i );
+			}
+			else
+			{
+				for ( int oi = 0, ol = offsets.size(); oi < ol; oi++ )
+				{
+					BufferGeometry.DrawCall offset = offsets.get( oi );
+
+					for ( int i = offset.start, il = offset.start + offset.count; i < il; i++ )
+						target[ j++ ] = offset.index + indices.getUnsigned( i );
+				}
+			}
+		}
+		else
+		{
+			int step = primitive == PRIMITIVE.LINE_STRIP ? 1 : stride;
+
+			for ( int p = 0, j = 0; p < primitiveCount; p++ )
+				for ( int k = 0; k < stride; k++ )
+					target[ j++ ] = p * step + k;
+		}
+	}
+
+	private static int[] grow( int[] array, int minLength )
+	{
+		int[] result = new int[ Math.max( minLength, array.length * 2 ) ];
+		System.arraycopy( array, 0, result, 0, array.length );
+		return result;
+	}
+}
@@ -22,13 +22,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.parallax3d.parallax.graphics.renderers.GLGeometry;
-import org.parallax3d.parallax.system.FastMap;
+import org.parallax3d.parallax.system.IntMap;
 import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
 
 public class GeometryGroup extends GLGeometry
 {
-	public static FastMap<List<GeometryGroup>> geometryGroups = new FastMap<List<GeometryGroup>>();
+	public static IntMap<List<GeometryGroup>> geometryGroups = new IntMap<List<GeometryGroup>>();
 
 	private static int Counter = 0;
 
@@ -54,6 +54,10 @@ public class GeometryGroup extends GLGeometry
 
 	public boolean __inittedArrays;
 
+	// changed ranges of __vertexArray and bytes allocated for its buffer
+	public UpdateRanges __vertexUpdateRanges = new UpdateRanges();
+	public int __vertexBufferLength;
+
 	public GeometryGroup(int materialIndex, int numMorphTargets, int numMorphNormals)
 	{
 		super();
@@ -18,6 +18,7 @@
 
 package org.parallax3d.parallax.graphics.core;
 
+import org.parallax3d.parallax.math.Matrix4;
 import org.parallax3d.parallax.math.Vector3;
 import org.parallax3d.parallax.math.Quaternion;
 
@@ -30,6 +31,9 @@ public class Gyroscope extends Object3D
 	private Vector3 scaleWorld;
 	private Vector3 scaleObject;
 
+	// temporary of decompose, so that subtrees can be updated on several threads
+	private Matrix4 rotationMatrix;
+
 	public Gyroscope()
 	{
 		this.translationWorld = new Vector3();
@@ -38,13 +42,16 @@ public class Gyroscope extends Object3D
 		this.rotationObject = new Quaternion();
 		this.scaleWorld = new Vector3();
 		this.scaleObject = new Vector3();
+		this.rotationMatrix = new Matrix4();
 	}
 
 	@Override
 	public void updateMatrixWorld( boolean force )
 	{
-		if(this.matrixAutoUpdate)
-			this.updateMatrix();
+		if ( this.isStaticUpToDate( force ) )
+			return;
+
+		this.updateMatrixIfChanged();
 
 		// update matrixWorld
 
@@ -54,8 +61,8 @@ public class Gyroscope extends Object3D
 			{
 				this.matrixWorld.multiply( this.parent.getMatrixWorld(), this.matrix );
 
-				this.matrixWorld.decompose( this.translationWorld, this.rotationWorld, this.scaleWorld );
-				this.matrix.decompose( this.translationObject, this.rotationObject, this.scaleObject );
+				this.matrixWorld.decompose( this.translationWorld, this.rotationWorld, this.scaleWorld, this.rotationMatrix );
+				this.matrix.decompose( this.translationObject, this.rotationObject, this.scaleObject, this.rotationMatrix );
 
 				this.matrixWorld.compose( this.translationWorld, this.rotationObject, this.scaleWorld );
 			}
@@ -65,15 +72,11 @@ public class Gyroscope extends Object3D
 			}
 
 			this.matrixWorldNeedsUpdate = false;
+			this.matrixWorldVersion ++;
 
 			force = true;
 		}
 
-		// update children
-
-		for ( int i = 0, l = this.children.size(); i < l; i ++ )
-		{
-			this.children.get( i ).updateMatrixWorld( force );
-		}
+		this.updateChildrenMatrixWorld( force );
 	}
 }
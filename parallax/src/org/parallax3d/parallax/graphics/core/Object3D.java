@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.parallax3d.parallax.Log;
+import org.parallax3d.parallax.graphics.scenes.Scene;
 import org.parallax3d.parallax.math.Euler;
 import org.parallax3d.parallax.math.Matrix3;
 import org.parallax3d.parallax.math.Matrix4;
@@ -81,10 +82,21 @@ public class Object3D
 
 	protected Matrix4 matrixWorld;
 
+	// incremented whenever the world matrix is recalculated
+	protected int matrixWorldVersion;
+
 	protected boolean matrixAutoUpdate;
 
 	protected boolean matrixWorldNeedsUpdate;
 
+	// position, quaternion and scale the local matrix was composed from
+	private double[] composed;
+
+	private boolean isStatic;
+
+	// the static subtree is up to date and can be skipped
+	private boolean isStaticUpdated;
+
 	protected boolean visible;
 
 	protected boolean isCastShadow = false;
@@ -95,6 +107,9 @@ public class Object3D
 
 	protected ObjectHandler handler;
 
+	// Scene this object is attached to, directly or through its parents
+	protected Scene scene;
+
 
 	public Matrix3 _normalMatrix;
 	public Matrix4 _modelViewMatrix;
@@ -165,6 +180,31 @@ public class Object3D
 			this.handler.onRemove(Object3D.this);
 	}
 
+	/**
+	 * Gets the {@link Scene} this object belongs to or null if it is not
+	 * attached to a scene.
+	 */
+	public Scene getScene() {
+		return this.scene;
+	}
+
+	private void setScene(Scene scene) {
+
+		if ( this.scene == scene )
+			return;
+
+		if ( this.scene != null )
+			this.scene.onObjectRemoved( this );
+
+		this.scene = scene;
+
+		if ( scene != null )
+			scene.onObjectAdded( this );
+
+		for ( int i = 0, l = this.children.size(); i < l; i ++ )
+			this.children.get( i ).setScene( scene );
+	}
+
 	/**
 	 * Unique number for this object instance.
 	 *
@@ -280,6 +320,15 @@ public class Object3D
 	}
 
 	public void setFrustumCulled(boolean isFrustumCulled) {
+
+		if ( this.scene != null && this.isFrustumCulled != isFrustumCulled ) {
+
+			this.scene.onObjectRemoved( this );
+			this.isFrustumCulled = isFrustumCulled;
+			this.scene.onObjectAdded( this );
+
+		}
+
 		this.isFrustumCulled = isFrustumCulled;
 	}
 
@@ -369,6 +418,15 @@ public class Object3D
 
 	public void setMatrixWorld(Matrix4 matrixWorld) {
 		this.matrixWorld = matrixWorld;
+		this.matrixWorldVersion ++;
+	}
+
+	/**
+	 * Gets the number of times the world matrix was recalculated, dependent
+	 * objects can compare it to find out whether the object has moved.
+	 */
+	public int getMatrixWorldVersion() {
+		return this.matrixWorldVersion;
 	}
 
 	/**
@@ -381,6 +439,30 @@ public class Object3D
 
 	public void setMatrixWorldNeedsUpdate(boolean needsUpdate) {
 		this.matrixWorldNeedsUpdate = needsUpdate;
+
+		if ( needsUpdate )
+			invalidateStatic();
+	}
+
+	/**
+	 * When this is set, the object and its descendants are treated as not moving: once their
+	 * world matrices were calculated, {@link #updateMatrixWorld(boolean)} skips the whole subtree until
+	 * the parent moves, a child is added or removed, or {@link #setMatrixWorldNeedsUpdate(boolean)}
+	 * is called for any object of the subtree. default – false
+	 */
+	public boolean isStatic() {
+		return this.isStatic;
+	}
+
+	public void setStatic(boolean isStatic) {
+		this.isStatic = isStatic;
+		this.isStaticUpdated = false;
+	}
+
+	// Makes static ancestors visit their subtree again on the next update
+	private void invalidateStatic() {
+		for ( Object3D object = this; object != null; object = object.parent )
+			object.isStaticUpdated = false;
 	}
 
 	/**
@@ -625,8 +707,13 @@ public class Object3D
 
 		object.parent = this;
 
+		object.matrixWorldNeedsUpdate = true;
+		object.invalidateStatic();
+
 		object.onAdd();
 
+		object.setScene( this.scene );
+
 		this.children.add( object );
 
 		return this;
@@ -651,6 +738,8 @@ public class Object3D
 
 			object.onRemove();
 
+			object.setScene( null );
+
 			this.children.remove( index );
 		}
 	}
@@ -826,19 +915,76 @@ public class Object3D
 
 		this.matrix.compose( this.position, this.quaternion, this.scale );
 
+		if ( this.composed == null )
+			this.composed = new double[ 10 ];
+
+		double[] c = this.composed;
+		c[ 0 ] = this.position.getX();
+		c[ 1 ] = this.position.getY();
+		c[ 2 ] = this.position.getZ();
+		c[ 3 ] = this.quaternion.x;
+		c[ 4 ] = this.quaternion.y;
+		c[ 5 ] = this.quaternion.z;
+		c[ 6 ] = this.quaternion.w;
+		c[ 7 ] = this.scale.getX();
+		c[ 8 ] = this.scale.getY();
+		c[ 9 ] = this.scale.getZ();
+
 		this.matrixWorldNeedsUpdate = true;
 
+		if ( this.scene != null )
+			this.scene.onMatrixUpdated( this );
+
+	}
+
+	/**
+	 * Updates local transform if {@link #isMatrixAutoUpdate()} is set and position,
+	 * rotation or scale have changed since the matrix was composed last time.
+	 * The rotation is tracked through the quaternion, which is kept in sync with it.
+	 */
+	protected void updateMatrixIfChanged()
+	{
+		if ( !this.matrixAutoUpdate )
+			return;
+
+		double[] c = this.composed;
+
+		if ( c == null
+				|| c[ 0 ] != this.position.getX() || c[ 1 ] != this.position.getY() || c[ 2 ] != this.position.getZ()
+				|| c[ 3 ] != this.quaternion.x || c[ 4 ] != this.quaternion.y
+				|| c[ 5 ] != this.quaternion.z || c[ 6 ] != this.quaternion.w
+				|| c[ 7 ] != this.scale.getX() || c[ 8 ] != this.scale.getY() || c[ 9 ] != this.scale.getZ() )
+			this.updateMatrix();
+	}
+
+	/**
+	 * Checks whether the object is a static subtree which is already up to date
+	 * and marks it as updated otherwise.
+	 */
+	protected boolean isStaticUpToDate(boolean force)
+	{
+		if ( !this.isStatic )
+			return false;
+
+		if ( this.isStaticUpdated && !force && !this.matrixWorldNeedsUpdate )
+			return true;
+
+		this.isStaticUpdated = true;
+		return false;
 	}
 
 	/**
 	 * Updates global transform of the object and its children.
+	 * Objects which did not move are not recalculated and static subtrees
+	 * are skipped, see {@link #setStatic(boolean)}.
 	 * @param force
 	 */
 	public void updateMatrixWorld(boolean force)
 	{
-		if ( this.matrixAutoUpdate ) {
-			this.updateMatrix();
-		}
+		if ( this.isStaticUpToDate( force ) )
+			return;
+
+		this.updateMatrixIfChanged();
 
 		if ( this.matrixWorldNeedsUpdate || force ) {
 
@@ -853,12 +999,25 @@ public class Object3D
 			}
 
 			this.matrixWorldNeedsUpdate = false;
+			this.matrixWorldVersion ++;
+
+			if ( this.scene != null )
+				this.scene.onObjectMoved( this );
 
 			force = true;
 
 		}
 
-		// update children
+		this.updateChildrenMatrixWorld( force );
+
+	}
+
+	/**
+	 * Updates global transform of the children.
+	 * @param force true if the world matrix of this object has changed
+	 */
+	protected void updateChildrenMatrixWorld(boolean force)
+	{
 
 		for ( int i = 0, l = this.children.size(); i < l; i ++ ) {
 
@@ -898,6 +1057,7 @@ public class Object3D
 
 		object.matrixAutoUpdate = this.matrixAutoUpdate;
 		object.matrixWorldNeedsUpdate = this.matrixWorldNeedsUpdate;
+		object.isStatic = this.isStatic;
 
 		object.visible = this.visible;
 
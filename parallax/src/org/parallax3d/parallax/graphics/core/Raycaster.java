@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.graphics.scenes.SceneIndex;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.math.Ray;
 import org.parallax3d.parallax.math.Vector3;
@@ -67,6 +69,10 @@ public class Raycaster
 		 * the intersected object
 		 */
 		public GeometryObject object;
+		/**
+		 * index of the intersected instance of an InstancedMesh
+		 */
+		public int instanceId = -1;
 
 		@Override
 		public int compareTo(Object arg0)
@@ -81,6 +87,9 @@ public class Raycaster
 	private double near;
 	private double far;
 
+	// objects found in the scene index
+	private List<GeometryObject> candidates = new ArrayList<GeometryObject>();
+
 	public Raycaster()
 	{
 		this(new Vector3(), new Vector3());
@@ -156,7 +165,9 @@ public class Raycaster
 	/**
 	 * Checks all intersection between the ray and the objects with or without the descendants.
 	 * Intersections are returned sorted by distance, closest first. Intersections are of the same form as
-	 * those returned by {@link Raycaster#intersectObject(GeometryObject, boolean)}
+	 * those returned by {@link Raycaster#intersectObject(Object3D, boolean)}
+	 * <p>
+	 * Descendants of a {@link Scene} with a {@link SceneIndex} are found by querying the index.
 	 * @param objects The objects to check for intersection with the ray.
 	 * @param recursive If set, it also checks all descendants of the objects. Otherwise it only checks intersecton with the objects.
 	 * @return
@@ -167,9 +178,7 @@ public class Raycaster
 
 		for ( int i = 0, l = objects.size(); i < l; i ++ ) {
 
-			Object3D object = objects.get(i);
-			if(object instanceof GeometryObject)
-				intersectObject( (GeometryObject)object, this, intersects, recursive );
+			intersectObject( objects.get(i), this, intersects, recursive );
 
 		}
 
@@ -187,7 +196,7 @@ public class Raycaster
 	 * @param recursive If set, it also checks all descendants. Otherwise it only checks intersecton with the object.
 	 * @return
 	 */
-	public List<Raycaster.Intersect> intersectObject( GeometryObject object, boolean recursive ) {
+	public List<Raycaster.Intersect> intersectObject( Object3D object, boolean recursive ) {
 
 		List<Raycaster.Intersect>  intersects = new ArrayList<Raycaster.Intersect>();
 
@@ -199,9 +208,17 @@ public class Raycaster
 
 	}
 
-	private void intersectObject ( GeometryObject object, Raycaster raycaster, List<Intersect> intersects, boolean recursive ) {
+	private void intersectObject ( Object3D object, Raycaster raycaster, List<Intersect> intersects, boolean recursive ) {
+
+		if ( recursive && object instanceof Scene && ((Scene)object).getSceneIndex() != null ) {
 
-		object.raycast( raycaster, intersects );
+			intersectSceneIndex( (Scene)object, raycaster, intersects );
+			return;
+
+		}
+
+		if ( object instanceof GeometryObject )
+			((GeometryObject)object).raycast( raycaster, intersects );
 
 		if ( recursive ) {
 
@@ -209,11 +226,27 @@ public class Raycaster
 
 			for ( int i = 0, l = children.size(); i < l; i ++ ) {
 
-				intersectObject( (GeometryObject) children.get( i ), raycaster, intersects, true );
+				intersectObject( children.get( i ), raycaster, intersects, true );
 
 			}
 
 		}
 
 	}
+
+	private void intersectSceneIndex ( Scene scene, Raycaster raycaster, List<Intersect> intersects ) {
+
+		candidates.clear();
+		scene.getSceneIndex().intersectRay( raycaster.getRay(), raycaster.getFar(), candidates );
+		candidates.addAll( scene.getUnindexedObjects() );
+
+		for ( int i = 0, l = candidates.size(); i < l; i ++ ) {
+
+			candidates.get( i ).raycast( raycaster, intersects );
+
+		}
+
+		candidates.clear();
+
+	}
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+import java.nio.Buffer;
+
+import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.arrays.TypeArray;
+
+/**
+ * Ranges of a typed array which have changed since the last upload.
+ * Overlapping and adjacent ranges are coalesced, so a row of neighbouring
+ * changes is uploaded with a single glBufferSubData call.
+ * <p>
+ * Offsets and counts are in array elements.
+ */
+public class UpdateRanges
+{
+	/**
+	 * When there are more ranges, they are merged into one covering span.
+	 */
+	public static final int MAX_RANGES = 32;
+
+	// sorted pairs of start (inclusive) and end (exclusive) offsets
+	private int[] ranges = new int[ 8 ];
+	private int size;
+
+	/**
+	 * Marks count elements starting at offset as changed.
+	 */
+	public UpdateRanges add(int offset, int count)
+	{
+		if ( count <= 0 )
+			return this;
+
+		int start = offset, end = offset + count;
+
+		// first range which ends at or after the new start
+		int i = 0;
+		while ( i < size && ranges[ i * 2 + 1 ] < start )
+			i ++;
+
+		// ranges which overlap or touch the new one are swallowed by it
+		int j = i;
+		while ( j < size && ranges[ j * 2 ] <= end )
+		{
+			start = Math.min( start, ranges[ j * 2 ] );
+			end = Math.max( end, ranges[ j * 2 + 1 ] );
+			j ++;
+		}
+
+		int removed = j - i;
+		if ( removed == 0 )
+		{
+			if ( size == MAX_RANGES )
+			{
+				collapse( start, end );
+				return this;
+			}
+
+			if ( ranges.length < ( size + 1 ) * 2 )
+			{
+				int[] grown = new int[ ranges.length * 2 ];
+				System.arraycopy( ranges, 0, grown, 0, size * 2 );
+				ranges = grown;
+			}
+
+			System.arraycopy( ranges, i * 2, ranges, i * 2 + 2, ( size - i ) * 2 );
+			size ++;
+		}
+		else if ( removed > 1 )
+		{
+			System.arraycopy( ranges, j * 2, ranges, i * 2 + 2, ( size - j ) * 2 );
+			size -= removed - 1;
+		}
+
+		ranges[ i * 2 ] = start;
+		ranges[ i * 2 + 1 ] = end;
+
+		return this;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int getOffset(int index) {
+		return ranges[ index * 2 ];
+	}
+
+	public int getCount(int index) {
+		return ranges[ index * 2 + 1 ] - ranges[ index * 2 ];
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Uploads changed ranges of the array into the buffer bound to the
+	 * target and clears them. The buffer has to be allocated already with
+	 * at least the array's length.
+	 *
+	 * @return number of uploaded bytes.
+	 */
+	public int upload(GL20 gl, int target, TypeArray array)
+	{
+		Buffer buf = array.getTypedBuffer();
+		int limit = buf.limit();
+		int elementSize = array.getElementSize();
+		int bytes = 0;
+
+		for ( int i = 0; i < size; i ++ )
+		{
+			int start = ranges[ i * 2 ];
+			int end = Math.min( ranges[ i * 2 + 1 ], limit );
+
+			if ( start >= end )
+				continue;
+
+			buf.limit( end );
+			buf.position( start );
+
+			gl.glBufferSubData( target, start * elementSize, ( end - start ) * elementSize, buf );
+			bytes += ( end - start ) * elementSize;
+		}
+
+		buf.limit( limit );
+		buf.position( 0 );
+
+		clear();
+		return bytes;
+	}
+
+	private void collapse(int start, int end)
+	{
+		ranges[ 0 ] = Math.min( start, ranges[ 0 ] );
+		ranges[ 1 ] = Math.max( end, ranges[ size * 2 - 1 ] );
+		size = 1;
+	}
+
+	public String toString()
+	{
+		StringBuilder result = new StringBuilder( "[" );
+		for ( int i = 0; i < size; i ++ )
+		{
+			if ( i > 0 )
+				result.append( ", " );
+			result.append( ranges[ i * 2 ] ).append( "-" ).append( ranges[ i * 2 + 1 ] );
+		}
+		return result.append( "]" ).toString();
+	}
+}
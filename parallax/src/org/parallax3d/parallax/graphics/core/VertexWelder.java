@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+/**
+ * Spatial hash for welding vertices. Vertex components are quantized to
+ * the tolerance and the resulting grid cells, stored as long keys in an
+ * open addressing table, map to the index of the first vertex found in
+ * the cell.
+ *
+ * <pre>
+ * {@code
+ * VertexWelder welder = new VertexWelder( 3, vertices.size(), VertexWelder.DEFAULT_TOLERANCE );
+ *
+ * int unique = 0;
+ * for ( int i = 0; i < vertices.size(); i ++ )
+ * {
+ *     Vector3 v = vertices.get( i );
+ *     if ( welder.add( v.getX(), v.getY(), v.getZ(), unique ) == unique )
+ *         unique ++;
+ * }
+ * }
+ * </pre>
+ */
+public class VertexWelder
+{
+	/**
+	 * Same as rounding to 4 decimal points.
+	 */
+	public static final double DEFAULT_TOLERANCE = 0.0001;
+
+	private final int keyLength;
+	private final double precision;
+
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+
+	private final long[] key;
+
+	/**
+	 * @param keyLength number of components per vertex.
+	 * @param expected  number of vertices which will be added, used to size the table.
+	 * @param tolerance size of the grid cell.
+	 */
+	public VertexWelder(int keyLength, int expected, double tolerance)
+	{
+		if ( tolerance <= 0 )
+			throw new IllegalArgumentException("Tolerance should be positive: " + tolerance);
+
+		this.keyLength = keyLength;
+		this.precision = 1.0 / tolerance;
+		this.key = new long[ keyLength ];
+
+		int capacity = 16;
+		while ( capacity < expected * 2 )
+			capacity <<= 1;
+
+		allocate( capacity );
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Looks up the cell of the 3 component vertex.
+	 *
+	 * @param index index to store when the cell is empty.
+	 * @return index of the vertex already in the cell, or the given index.
+	 */
+	public int add(double x, double y, double z, int index)
+	{
+		key[ 0 ] = Math.round( x * precision );
+		key[ 1 ] = Math.round( y * precision );
+		key[ 2 ] = Math.round( z * precision );
+
+		return add( index );
+	}
+
+	/**
+	 * Looks up the cell of the vertex.
+	 *
+	 * @param components keyLength components of the vertex.
+	 * @param index      index to store when the cell is empty.
+	 * @return index of the vertex already in the cell, or the given index.
+	 */
+	public int add(double[] components, int index)
+	{
+		for ( int i = 0; i < keyLength; i ++ )
+			key[ i ] = Math.round( components[ i ] * precision );
+
+		return add( index );
+	}
+
+	private int add(int index)
+	{
+		int slot = hash( key ) & mask;
+
+		while ( values[ slot ] >= 0 )
+		{
+			if ( matches( slot ) )
+				return values[ slot ];
+
+			slot = ( slot + 1 ) & mask;
+		}
+
+		System.arraycopy( key, 0, keys, slot * keyLength, keyLength );
+		values[ slot ] = index;
+
+		if ( ++ size * 2 > values.length )
+			rehash();
+
+		return index;
+	}
+
+	private boolean matches(int slot)
+	{
+		for ( int i = 0, offset = slot * keyLength; i < keyLength; i ++ )
+			if ( keys[ offset + i ] != key[ i ] )
+				return false;
+
+		return true;
+	}
+
+	private int hash(long[] key)
+	{
+		long h = 0;
+		for ( int i = 0; i < keyLength; i ++ )
+			h = h * 0x9E3779B97F4A7C15L + key[ i ];
+
+		int result = (int) ( h ^ ( h >>> 32 ) );
+		result ^= result >>> 16;
+		result *= 0x85ebca6b;
+		result ^= result >>> 13;
+
+		return result;
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new long[ capacity * keyLength ];
+		values = new int[ capacity ];
+		mask = capacity - 1;
+
+		for ( int i = 0; i < capacity; i ++ )
+			values[ i ] = -1;
+	}
+
+	private void rehash()
+	{
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+
+		allocate( oldValues.length * 2 );
+
+		long[] entry = new long[ keyLength ];
+		for ( int i = 0; i < oldValues.length; i ++ )
+		{
+			if ( oldValues[ i ] < 0 )
+				continue;
+
+			System.arraycopy( oldKeys, i * keyLength, entry, 0, keyLength );
+
+			int slot = hash( entry ) & mask;
+			while ( values[ slot ] >= 0 )
+				slot = ( slot + 1 ) & mask;
+
+			System.arraycopy( entry, 0, keys, slot * keyLength, keyLength );
+			values[ slot ] = oldValues[ i ];
+		}
+	}
+}
@@ -23,7 +23,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.parallax3d.parallax.Log;
-import org.parallax3d.parallax.system.FastMap;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.math.Vector2;
 
@@ -213,77 +212,58 @@ public class ShapeUtils
 		}
 	}
 
-	/*
+	/**
+	 * Triangulates the contour with holes by {@link Earcut}, which is
+	 * close to O(n log n) for large contours like text glyphs.
+	 *
 	 * @param contour List of {@link Vector2}
-	 * @param holes
+	 * @param holes   List of hole contours
 	 *
-	 * @return List<List<Integer>>
+	 * @return counter-clockwise triangles, indexed into the contour points
+	 * followed by the points of all holes
 	 */
 	public static List<List<Integer>> triangulateShape ( List<Vector2> contour, List<List<Vector2>> holes )
 	{
-		List<Vector2> shape             = new ArrayList<Vector2>();
-		List<Vector2> allpoints         = new ArrayList<Vector2>();
-		List<List<Vector2>> isolatedPts = new ArrayList<List<Vector2>>();
-
-		ShapeUtils.removeHoles( contour, holes, shape, allpoints, isolatedPts);
-
-		// True returns indices for points of spooled shape
-		List<List<Vector2>> triangles   = new ArrayList<List<Vector2>>();
-		List<List<Integer>> vertIndices = new ArrayList<List<Integer>>();
-
-		FontUtils.triangulate( shape, triangles, vertIndices);
+		int length = contour.size();
+		for ( int h = 0, hl = holes.size(); h < hl; h ++ )
+			length += holes.get( h ).size();
 
-		// To maintain reference to old shape, one must match coordinates,
-		// or offset the indices from original arrays. It's probably easier
-		// to do the first.
+		double[] data = new double[ length * 2 ];
+		int[] holeIndices = new int[ holes.size() ];
 
-		// prepare all points map
-
-		FastMap<Integer> allPointsMap = new FastMap<Integer>();
-
-		for ( int i = 0, il = allpoints.size(); i < il; i ++ )
+		int offset = flatten( contour, data, 0 );
+		for ( int h = 0, hl = holes.size(); h < hl; h ++ )
 		{
-			String key = allpoints.get( i ).getX() + ":" + allpoints.get( i ).getY();
-
-			if ( allPointsMap.containsKey(key))
-				Log.warn("ShapeUtils.triangulateShape() - Duplicate point " + key);
-
-			allPointsMap.put(key, i);
+			holeIndices[ h ] = offset / 2;
+			offset = flatten( holes.get( h ), data, offset );
 		}
 
-		// check all face vertices against all points map
-		List<List<Integer>> trianglesIndixes = new ArrayList<List<Integer>>();
-		for ( int i = 0, il = triangles.size(); i < il; i ++ )
+		int[] indices = Earcut.triangulate( data, holeIndices, 2 );
+
+		List<List<Integer>> trianglesIndixes = new ArrayList<List<Integer>>( indices.length / 3 );
+		for ( int i = 0; i < indices.length; i += 3 )
 		{
-			List<Vector2> face = triangles.get( i );
-			trianglesIndixes.add(new ArrayList<Integer>());
-			for ( int f = 0; f < 3; f ++ )
-			{
-				String key = face.get( f ).getX() + ":" + face.get( f ).getY();
+			List<Integer> face = new ArrayList<Integer>( 3 );
+			face.add( indices[ i ] );
+			face.add( indices[ i + 1 ] );
+			face.add( indices[ i + 2 ] );
 
-				if ( allPointsMap.containsKey(key) )
-					trianglesIndixes.get(i).add( f, allPointsMap.get(key));
-			}
+			trianglesIndixes.add( face );
 		}
 
-		// check isolated points vertices against all points map
-		List<List<Integer>> isolatedPtsIndixes = new ArrayList<List<Integer>>();
-		for ( int i = 0, il = isolatedPts.size(); i < il; i ++ )
-		{
-			List<Vector2> face = isolatedPts.get( i );
-			isolatedPtsIndixes.add(new ArrayList<Integer>());
-
-			for ( int f = 0; f < 3; f ++ )
-			{
-				String key = face.get( f ).getX() + ":" + face.get( f ).getY();
+		return trianglesIndixes;
+	}
 
-				if ( allPointsMap.containsKey(key) )
-					isolatedPtsIndixes.get(i).add( f, allPointsMap.get(key));
-			}
+	private static int flatten( List<Vector2> points, double[] data, int offset )
+	{
+		for ( int i = 0, il = points.size(); i < il; i ++ )
+		{
+			Vector2 point = points.get( i );
+			data[ offset ++ ] = point.getX();
+			data[ offset ++ ] = point.getY();
 		}
 
-		trianglesIndixes.addAll( isolatedPtsIndixes );
-		return trianglesIndixes;
+		return offset;
 	}
 
 	public static boolean isClockWise( List<Vector2> pts )
@@ -18,25 +18,63 @@
 
 package org.parallax3d.parallax.graphics.extras.core;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector3;
 
 // Abstract Curve base class
 @ThreejsObject("THREE.Curve")
 public abstract class Curve
 {
+	/**
+	 * Relative error of the arc lengths measured on adaptive tables.
+	 */
+	public static final double DEFAULT_ARC_LENGTH_TOLERANCE = 0.0001;
+
+	// adaptive tables start from this many segments and split each at most this many times
+	private static final int ADAPTIVE_SEGMENTS = 16;
+	private static final int ADAPTIVE_DEPTH = 8;
+
+	/**
+	 * Number of uniform divisions of the arc length table, or 0 for an
+	 * adaptive table which is subdivided where the curve bends.
+	 */
 	public int __arcLengthDivisions = 0;
-	public List<Double> cacheArcLengths;
+	public double arcLengthTolerance = DEFAULT_ARC_LENGTH_TOLERANCE;
 	public boolean needsUpdate;
 
+	// arc length table: parameters t and cumulative lengths at them
+	private double[] arcParameters;
+	private double[] arcLengths;
+	private int arcLengthCount;
+	// divisions the table was built for, 0 if adaptive
+	private int arcLengthTableDivisions;
+
 	/*
 	 * Virtual base class method to overwrite and implement in subclasses - t [0 .. 1]
 	 */
 	public abstract Vector2 getPoint(double t);
 
+	/*
+	 * Same as getPoint( t ), but writes the point to the target, which has to be a
+	 * Vector3 for 3D curves. Subclasses override it to avoid allocations.
+	 */
+	public Vector2 getPoint(double t, Vector2 target)
+	{
+		Vector2 point = getPoint(t);
+
+		if (target instanceof Vector3 && point instanceof Vector3)
+			((Vector3) target).copy((Vector3) point);
+		else
+			target.copy(point);
+
+		return target;
+	}
+
 	/*
 	 * Get point at relative position in curve according to arc length - u [0 .. 1]
 	 */
@@ -47,6 +85,11 @@ public abstract class Curve
 		return getPoint(t);
 	}
 
+	public Vector2 getPointAt(double u, Vector2 target)
+	{
+		return getPoint(getUtoTmapping(u), target);
+	}
+
 	public List<Vector2> getPoints()
 	{
 		return getPoints(5);
@@ -87,54 +130,169 @@ public abstract class Curve
 	 */
 	public double getLength()
 	{
-		List<Double> lengths = this.getLengths();
-		return lengths.get(lengths.size() - 1);
+		double[] lengths = this.getArcLengths();
+		return lengths[lengths.length - 1];
 	}
 
 	public List<Double> getLengths()
 	{
-		if (this.__arcLengthDivisions > 0)
-			return getLengths(this.__arcLengthDivisions);
-
-		return getLengths(200);
+		return getLengths(this.__arcLengthDivisions);
 	}
 
 	/*
-	 * Get list of cumulative segment lengths
+	 * Get list of cumulative segment lengths, see getArcLengths( divisions )
 	 */
 	public List<Double> getLengths(int divisions)
 	{
-		if (this.cacheArcLengths != null
-				&& (this.cacheArcLengths.size() == (divisions + 1))
-				&& !this.needsUpdate
-				){
-			return this.cacheArcLengths;
+		return asList(getArcLengths(divisions));
+	}
+
+	/*
+	 * Cumulative lengths of the arc length table
+	 */
+	public double[] getArcLengths()
+	{
+		return getArcLengths(this.__arcLengthDivisions);
+	}
+
+	/*
+	 * Cumulative lengths at uniform parameters t = i / divisions, or at
+	 * the parameters returned by getArcParameters() if divisions is 0
+	 */
+	public double[] getArcLengths(int divisions)
+	{
+		if (this.arcLengths != null
+				&& this.arcLengthTableDivisions == divisions
+				&& !this.needsUpdate) {
+			return this.arcLengths;
 		}
 
 		this.needsUpdate = false;
 
-		List<Double> cache = new ArrayList<Double>();
-		cache.add(0.0);
+		// new arrays, the old ones may still be used by the callers
+		this.arcParameters = null;
+		this.arcLengths = null;
+		this.arcLengthCount = 0;
+		this.arcLengthTableDivisions = divisions;
+
+		if (divisions > 0)
+			computeUniformArcLengths(divisions);
+		else
+			computeAdaptiveArcLengths();
 
+		if (this.arcLengths.length != this.arcLengthCount)
+		{
+			this.arcParameters = copyOf(this.arcParameters, this.arcLengthCount);
+			this.arcLengths = copyOf(this.arcLengths, this.arcLengthCount);
+		}
+
+		return this.arcLengths;
+	}
+
+	/*
+	 * Parameters t of the arc length table
+	 */
+	public double[] getArcParameters()
+	{
+		return getArcParameters(this.__arcLengthDivisions);
+	}
+
+	public double[] getArcParameters(int divisions)
+	{
+		getArcLengths(divisions);
+		return this.arcParameters;
+	}
+
+	public void updateArcLengths()
+	{
+		this.needsUpdate = true;
+		this.getLengths();
+	}
+
+	private void computeUniformArcLengths(int divisions)
+	{
 		Vector2 last = this.getPoint(0.0);
+		Vector2 current = last.clone();
+
+		addArcLength(0.0, 0.0);
+
 		double sum = 0;
 		for (int p = 1; p <= divisions; p++)
 		{
-			Vector2 current = getPoint(p / (double)divisions);
-			sum += current.distanceTo(last);
+			double t = p / (double)divisions;
+			getPoint(t, current);
+			sum += distance(current, last);
 
+			Vector2 swap = last;
 			last = current;
-			cache.add(sum);
+			current = swap;
+
+			addArcLength(t, sum);
 		}
+	}
+
+	private void computeAdaptiveArcLengths()
+	{
+		Vector2 point = this.getPoint(0.0);
+		double x0 = point.getX(), y0 = point.getY(), z0 = getZ(point);
+
+		addArcLength(0.0, 0.0);
 
-		this.cacheArcLengths = cache;
-		return cache;
+		for (int i = 1; i <= ADAPTIVE_SEGMENTS; i++)
+		{
+			double t0 = (i - 1) / (double)ADAPTIVE_SEGMENTS;
+			double t1 = i / (double)ADAPTIVE_SEGMENTS;
+
+			getPoint(t1, point);
+			double x1 = point.getX(), y1 = point.getY(), z1 = getZ(point);
+
+			subdivide(point, t0, x0, y0, z0, t1, x1, y1, z1, 0);
+
+			x0 = x1; y0 = y1; z0 = z1;
+		}
 	}
 
-	public void updateArcLengths()
+	/*
+	 * Splits the segment in the middle while the two halves are longer than
+	 * the chord by more than the tolerance, which happens where the curve bends
+	 */
+	private void subdivide(Vector2 point, double t0, double x0, double y0, double z0,
+			double t1, double x1, double y1, double z1, int depth)
 	{
-		this.needsUpdate = true;
-		this.getLengths();
+		double t = (t0 + t1) / 2.0;
+
+		getPoint(t, point);
+		double x = point.getX(), y = point.getY(), z = getZ(point);
+
+		double before = distance(x0, y0, z0, x, y, z);
+		double after = distance(x, y, z, x1, y1, z1);
+		double chord = distance(x0, y0, z0, x1, y1, z1);
+
+		if (depth < ADAPTIVE_DEPTH && before + after - chord > this.arcLengthTolerance * (before + after))
+		{
+			subdivide(point, t0, x0, y0, z0, t, x, y, z, depth + 1);
+			subdivide(point, t, x, y, z, t1, x1, y1, z1, depth + 1);
+		}
+		else
+		{
+			double sum = this.arcLengths[this.arcLengthCount - 1];
+			addArcLength(t, sum + before);
+			addArcLength(t1, sum + before + after);
+		}
+	}
+
+	private void addArcLength(double t, double length)
+	{
+		if (this.arcLengths == null || this.arcLengths.length == this.arcLengthCount)
+		{
+			int capacity = Math.max(this.arcLengthCount * 2, 64);
+			this.arcParameters = copyOf(this.arcParameters, capacity);
+			this.arcLengths = copyOf(this.arcLengths, capacity);
+		}
+
+		this.arcParameters[this.arcLengthCount] = t;
+		this.arcLengths[this.arcLengthCount] = length;
+		this.arcLengthCount++;
 	}
 
 	/*
@@ -143,65 +301,43 @@ public abstract class Curve
 	 */
 	public double getUtoTmapping(double u)
 	{
-		List<Double> arcLengths = this.getLengths();
-		return getUtoTmapping(u, u * arcLengths.get(arcLengths.size() - 1));
+		return getUtoTmapping(u, u * getLength());
 	}
 
 	public double getUtoTmapping(double u, double distance)
 	{
-		List<Double> arcLengths = this.getLengths();
-
-		// The targeted u distance value to get
-		double targetArcLength = distance;
+		double[] arcLengths = this.getArcLengths();
+		double[] arcParameters = this.arcParameters;
 
-		// binary search for the index with largest value smaller than target u
-		// distance
+		// binary search for the index with largest value not greater than the distance
 		int low = 0;
-		int high = arcLengths.size() - 1;
-		double comparison;
+		int high = arcLengths.length - 1;
 
 		while (low <= high)
 		{
-			/*
-			 * less likely to overflow, though probably not issue
-			 * here, JS doesn't really have integers, all numbers are floats
-			 */
-			int i = (int) Math.floor(low + (high - low) / 2.0);
+			int i = (low + high) >>> 1;
 
-			comparison = arcLengths.get(i) - targetArcLength;
-
-			if (comparison < 0)
-			{
+			if (arcLengths[i] < distance)
 				low = i + 1;
-			}
-			else if (comparison > 0)
-			{
+			else if (arcLengths[i] > distance)
 				high = i - 1;
-			}
 			else
-			{
-				high = i;
-				break;
-			}
+				return arcParameters[i];
 		}
 
-		if (arcLengths.get(high) == targetArcLength)
-		{
-			return high / (double)(arcLengths.size() - 1);
-		}
+		if (high < 0)
+			return arcParameters[0];
 
-		// we could get finer grain at lengths, or use simple interpolatation
-		// between two points
-		double lengthBefore = arcLengths.get(high);
-		double lengthAfter  = arcLengths.get(high + 1);
+		if (high >= arcLengths.length - 1)
+			return arcParameters[arcLengths.length - 1];
 
-		double segmentLength = lengthAfter - lengthBefore;
+		// interpolate between the parameters of the entries around the distance
+		double lengthBefore = arcLengths[high];
+		double segmentLength = arcLengths[high + 1] - lengthBefore;
 
-		// determine where we are between the 'before' and 'after' points
-		double segmentFraction = (targetArcLength - lengthBefore) / segmentLength;
+		double segmentFraction = (distance - lengthBefore) / segmentLength;
 
-		// add that fractional amount to t
-		return (high + segmentFraction) / ((double)arcLengths.size() - 1.0);
+		return arcParameters[high] + segmentFraction * (arcParameters[high + 1] - arcParameters[high]);
 	}
 
 	/*
@@ -247,4 +383,49 @@ public abstract class Curve
 	{
 		return this.getTangent(this.getUtoTmapping(u));
 	}
+
+	/*
+	 * Read-only list view of the values
+	 */
+	protected static List<Double> asList(final double[] values)
+	{
+		return new AbstractList<Double>() {
+
+			@Override
+			public Double get(int index) {
+				return values[index];
+			}
+
+			@Override
+			public int size() {
+				return values.length;
+			}
+		};
+	}
+
+	private static double[] copyOf(double[] array, int length)
+	{
+		double[] copy = new double[length];
+
+		if (array != null)
+			System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+
+		return copy;
+	}
+
+	private static double getZ(Vector2 point)
+	{
+		return point instanceof Vector3 ? ((Vector3) point).getZ() : 0.0;
+	}
+
+	private static double distance(Vector2 a, Vector2 b)
+	{
+		return distance(a.getX(), a.getY(), getZ(a), b.getX(), b.getY(), getZ(b));
+	}
+
+	private static double distance(double x0, double y0, double z0, double x1, double y1, double z1)
+	{
+		double dx = x1 - x0, dy = y1 - y0, dz = z1 - z0;
+		return Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
 }
@@ -38,7 +38,7 @@ public class CurvePath extends Curve
 	private List<Curve> curves;
 	private List<CurvePath> bends;
 
-	private List<Double> cacheLengths;
+	private double[] cacheLengths;
 
 	// Automatically closes the path
 	public boolean autoClose = false;
@@ -103,29 +103,58 @@ public class CurvePath extends Curve
 	@Override
 	public Vector2 getPoint(double t)
 	{
-		double d = t * this.getLength();
-		List<Double> curveLengths = this.getCurveLengths();
-		int i = 0;
+		int i = getCurveIndex( t );
 
-		// To think about boundaries points.
-		while ( i < curveLengths.size() )
-		{
-			if ( curveLengths.get( i ) >= d )
-			{
-				double diff = curveLengths.get( i ) - d;
-				Curve curve = getCurves().get( i );
+		if ( i < 0 )
+			return null;
+
+		return getCurves().get( i ).getPointAt( getCurveU( i, t ) );
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
+	{
+		int i = getCurveIndex( t );
+
+		if ( i < 0 )
+			return null;
 
-				double u = 1.0 - diff / curve.getLength();
+		return getCurves().get( i ).getPointAt( getCurveU( i, t ), target );
+	}
 
-				return curve.getPointAt( u );
-			}
+	/*
+	 * Binary search for the first curve which ends at or after the distance t * length
+	 */
+	private int getCurveIndex( double t )
+	{
+		double[] curveLengths = this.getCurveLengthsArray();
+		double d = t * curveLengths[ curveLengths.length - 1 ];
+
+		int low = 0;
+		int high = curveLengths.length;
+
+		while ( low < high )
+		{
+			int i = ( low + high ) >>> 1;
 
-			i ++;
+			if ( curveLengths[ i ] < d )
+				low = i + 1;
+			else
+				high = i;
 		}
 
-		return null;
+		return low < curveLengths.length ? low : -1;
+	}
+
+	private double getCurveU( int i, double t )
+	{
+		double[] curveLengths = this.getCurveLengthsArray();
+		double d = t * curveLengths[ curveLengths.length - 1 ];
+
+		double diff = curveLengths[ i ] - d;
+		Curve curve = getCurves().get( i );
 
-		// loop where sum != 0, sum > d , sum+1 <d
+		return 1.0 - diff / curve.getLength();
 	}
 
 	/*
@@ -135,8 +164,8 @@ public class CurvePath extends Curve
 	 */
 	public double getLength()
 	{
-		List<Double> lens = this.getCurveLengths();
-		return lens.get( lens.size() - 1 );
+		double[] lens = this.getCurveLengthsArray();
+		return lens[ lens.length - 1 ];
 	}
 
 	/*
@@ -144,24 +173,39 @@ public class CurvePath extends Curve
 	 * We cannot overwrite getLengths() because UtoT mapping uses it.
 	 */
 	public List<Double> getCurveLengths()
+	{
+		return asList( getCurveLengthsArray() );
+	}
+
+	/*
+	 * Cumulative lengths of the curves
+	 */
+	public double[] getCurveLengthsArray()
 	{
 		// We use cache values if curves and cache array are same length
-		if ( this.cacheLengths != null && this.cacheLengths.size() == this.curves.size() )
+		if ( this.cacheLengths != null && this.cacheLengths.length == this.curves.size() )
 			return this.cacheLengths;
 
 		// Get length of subsurve
 		// Push sums into cached array
-		this.cacheLengths = new ArrayList<Double>();
+		this.cacheLengths = new double[ this.curves.size() ];
 		double sums = 0.0;
 		for ( int i = 0; i < this.curves.size(); i ++ )
 		{
 			sums += this.curves.get( i ).getLength();
-			this.cacheLengths.add( sums );
+			this.cacheLengths[ i ] = sums;
 		}
 
 		return this.cacheLengths;
 	}
 
+	@Override
+	public void updateArcLengths()
+	{
+		this.cacheLengths = null;
+		super.updateArcLengths();
+	}
+
 	/*
 	 * Returns min and max coordinates, as well as centroid
 	 */
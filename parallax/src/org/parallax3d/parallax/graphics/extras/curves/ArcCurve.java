@@ -49,6 +49,12 @@ public class ArcCurve extends Curve
 
 	@Override
 	public Vector2 getPoint(double t)
+	{
+		return getPoint( t, new Vector2() );
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
 	{
 		double deltaAngle = this.aEndAngle - this.aStartAngle;
 
@@ -60,7 +66,7 @@ public class ArcCurve extends Curve
 		double tx = this.aX + this.aRadius * Math.cos( angle );
 		double ty = this.aY + this.aRadius * Math.sin( angle );
 
-		return new Vector2( tx, ty );
+		return target.set( tx, ty );
 	}
 
 }
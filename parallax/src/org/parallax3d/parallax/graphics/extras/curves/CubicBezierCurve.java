@@ -40,12 +40,19 @@ public class CubicBezierCurve extends Curve
 		this.v3 = v3;
 	}
 
+	@Override
 	public Vector2 getPoint(double t)
+	{
+		return getPoint(t, new Vector2());
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
 	{
 		double tx = ShapeUtils.b3(t, this.v0.getX(), this.v1.getX(), this.v2.getX(), this.v3.getX());
 		double ty = ShapeUtils.b3(t, this.v0.getY(), this.v1.getY(), this.v2.getY(), this.v3.getY());
 
-		return new Vector2(tx, ty);
+		return target.set(tx, ty);
 	}
 
 	@Override
@@ -54,6 +54,12 @@ public final class EllipseCurve extends Curve
 
 	@Override
 	public Vector2 getPoint(double t)
+	{
+		return getPoint( t, new Vector2() );
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
 	{
 		double deltaAngle = this.aEndAngle - this.aStartAngle;
 
@@ -67,6 +73,6 @@ public final class EllipseCurve extends Curve
 		double tx = this.aX + this.xRadius * Math.cos( angle );
 		double ty = this.aY + this.yRadius * Math.sin( angle );
 
-		return new Vector2( tx, ty );
+		return target.set( tx, ty );
 	}
 }
@@ -38,12 +38,15 @@ public class LineCurve extends Curve
 	@Override
 	public Vector2 getPoint(double t)
 	{
-		Vector2 point = this.v2.clone();
-		point.sub(this.v1);
-		point.multiply(t);
-		point.add(this.v1);
+		return getPoint(t, new Vector2());
+	}
 
-		return point;
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
+	{
+		return target.set(
+				this.v1.getX() + (this.v2.getX() - this.v1.getX()) * t,
+				this.v1.getY() + (this.v2.getY() - this.v1.getY()) * t);
 	}
 
 	/*
@@ -55,6 +58,12 @@ public class LineCurve extends Curve
 		return this.getPoint(u);
 	}
 
+	@Override
+	public Vector2 getPointAt(double u, Vector2 target)
+	{
+		return this.getPoint(u, target);
+	}
+
 	@Override
 	public Vector2 getTangent(double t)
 	{
@@ -20,6 +20,7 @@ package org.parallax3d.parallax.graphics.extras.curves;
 
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.graphics.extras.core.Curve;
+import org.parallax3d.parallax.math.Vector2;
 import org.parallax3d.parallax.math.Vector3;
 
 @ThreejsObject("THREE.LineCurve3")
@@ -38,12 +39,31 @@ public class LineCurve3 extends Curve
 	@Override
 	public Vector3 getPoint(double t)
 	{
-		Vector3 point = this.v2.clone();
-		point.sub(this.v1);
-		point.multiply(t);
-		point.add(this.v1);
+		return (Vector3) getPoint(t, new Vector3());
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
+	{
+		return ((Vector3) target).set(
+				this.v1.getX() + (this.v2.getX() - this.v1.getX()) * t,
+				this.v1.getY() + (this.v2.getY() - this.v1.getY()) * t,
+				this.v1.getZ() + (this.v2.getZ() - this.v1.getZ()) * t);
+	}
 
-		return point;
+	/*
+	 * Line curve is linear, so we can overwrite default getPointAt
+	 */
+	@Override
+	public Vector2 getPointAt(double u)
+	{
+		return this.getPoint(u);
+	}
+
+	@Override
+	public Vector2 getPointAt(double u, Vector2 target)
+	{
+		return this.getPoint(u, target);
 	}
 
 }
@@ -40,11 +40,17 @@ public class QuadraticBezierCurve extends Curve
 
 	@Override
 	public Vector2 getPoint(double t)
+	{
+		return getPoint( t, new Vector2() );
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
 	{
 		double tx = ShapeUtils.b2( t, this.v0.getX(), this.v1.getX(), this.v2.getX() );
 		double ty = ShapeUtils.b2( t, this.v0.getY(), this.v1.getY(), this.v2.getY() );
 
-		return new Vector2( tx, ty );
+		return target.set( tx, ty );
 	}
 
 	@Override
@@ -20,6 +20,7 @@ package org.parallax3d.parallax.graphics.extras.curves;
 
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.graphics.extras.core.Curve;
+import org.parallax3d.parallax.math.Vector2;
 import org.parallax3d.parallax.math.Vector3;
 import org.parallax3d.parallax.graphics.extras.ShapeUtils;
 
@@ -39,11 +40,17 @@ public class QuadraticBezierCurve3 extends Curve
 
 	@Override
 	public Vector3 getPoint(double t)
+	{
+		return (Vector3) getPoint(t, new Vector3());
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
 	{
 		double tx = ShapeUtils.b2(t, this.v0.getX(), this.v1.getX(), this.v2.getX());
 		double ty = ShapeUtils.b2(t, this.v0.getY(), this.v1.getY(), this.v2.getY());
 		double tz = ShapeUtils.b2(t, this.v0.getZ(), this.v1.getZ(), this.v2.getZ());
 
-		return new Vector3(tx, ty, tz);
+		return ((Vector3) target).set(tx, ty, tz);
 	}
 }
@@ -45,8 +45,12 @@ public class SplineCurve extends Curve
 	@Override
 	public Vector2 getPoint(double t)
 	{
-		Vector2 v = new Vector2();
+		return getPoint( t, new Vector2() );
+	}
 
+	@Override
+	public Vector2 getPoint(double t, Vector2 v)
+	{
 		double point = ( points.size() - 1.0 ) * t;
 		int intPoint = (int) Math.floor( point );
 
@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.graphics.extras.core.Curve;
+import org.parallax3d.parallax.math.Vector2;
 import org.parallax3d.parallax.math.Vector3;
 import org.parallax3d.parallax.graphics.extras.CurveUtils;
 
@@ -44,7 +45,13 @@ public class SplineCurve3 extends Curve
 	@Override
 	public Vector3 getPoint(double t)
 	{
-		Vector3 v = new Vector3();
+		return (Vector3) getPoint( t, new Vector3() );
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
+	{
+		Vector3 v = (Vector3) target;
 
 		double point = ( points.size() - 1.0 ) * t;
 		int intPoint = (int) Math.floor( point );
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.parallax3d.parallax.graphics.extras.core.Curve;
+import org.parallax3d.parallax.math.Vector2;
 import org.parallax3d.parallax.math.Vector3;
 import org.parallax3d.parallax.graphics.extras.CurveUtils;
 
@@ -42,7 +43,13 @@ public class SplineCurve3Closed extends Curve
 	@Override
 	public Vector3 getPoint(double t)
 	{
-		Vector3 v = new Vector3();
+		return (Vector3) getPoint( t, new Vector3() );
+	}
+
+	@Override
+	public Vector2 getPoint(double t, Vector2 target)
+	{
+		Vector3 v = (Vector3) target;
 
 		// This needs to be from 0-length +1
 		double point = points.size() * t;
@@ -73,13 +73,15 @@ public final class TubeGeometry extends Geometry
 
 		// consruct the grid
 
+		Vector3 pos = new Vector3();
+
 		for ( int i = 0; i < numpoints; i++ )
 		{
 			this.grid.add( i, new ArrayList<Integer>());
 
 			double u = i / (double)( numpoints - 1 );
 
-			Vector3 pos = (Vector3) path.getPointAt( u );
+			path.getPointAt( u, pos );
 //
 //			if ( debug )
 //			{
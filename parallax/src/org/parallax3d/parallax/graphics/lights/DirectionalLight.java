@@ -18,6 +18,7 @@
 
 package org.parallax3d.parallax.graphics.lights;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.parallax3d.parallax.graphics.renderers.shaders.Uniform;
@@ -55,8 +56,8 @@ public class DirectionalLight extends ShadowLight
 		@Override
 		public void reset()
 		{
-			this.colors    = Float32Array.createArray();
-			this.positions = Float32Array.createArray();
+			this.colors    = resetArray( this.colors );
+			this.positions = resetArray( this.positions );
 
 		}
 
@@ -87,6 +88,8 @@ public class DirectionalLight extends ShadowLight
 	private double[] shadowCascadeNearZ = { -1.000, 0.990, 0.998 };
 	private double[] shadowCascadeFarZ = { 0.990, 0.998, 1.000 };
 
+	private int[] shadowCascadeUpdateInterval = { 1, 1, 1 };
+
 	private List<VirtualLight> shadowCascadeArray;
 
 	public DirectionalLight(int hex)
@@ -101,6 +104,7 @@ public class DirectionalLight extends ShadowLight
 		setIntensity(intensity);
 
 		this.shadowCascadeOffset = new Vector3(0, 0, -1000);
+		this.shadowCascadeArray = new ArrayList<VirtualLight>();
 	}
 
 	public Vector3 getShadowCascadeOffset() {
@@ -166,6 +170,19 @@ public class DirectionalLight extends ShadowLight
 		return this;
 	}
 
+	public int[] getShadowCascadeUpdateInterval() {
+		return shadowCascadeUpdateInterval;
+	}
+
+	/**
+	 * Sets how often each cascade is rendered, see {@link #setShadowMapUpdateInterval(int)}.
+	 * Far cascades cover more of the scene with less detail and can be updated less often.
+	 */
+	public DirectionalLight setShadowCascadeUpdateInterval(int[] shadowCascadeUpdateInterval) {
+		this.shadowCascadeUpdateInterval = shadowCascadeUpdateInterval;
+		return this;
+	}
+
 	public List<VirtualLight> getShadowCascadeArray() {
 		return shadowCascadeArray;
 	}
@@ -70,6 +70,19 @@ public abstract class Light extends Object3D
 
 	public abstract void setupRendererLights(RendererLights zlights, boolean isGammaInput);
 
+	/**
+	 * Empties the uniform array before the lights are set up again.
+	 * The array is created the first time and keeps its capacity afterwards.
+	 */
+	protected static Float32Array resetArray( Float32Array array )
+	{
+		if ( array == null )
+			return Float32Array.createArray();
+
+		array.setLength( 0 );
+		return array;
+	}
+
 	protected void setColorGamma( Float32Array array, int offset, Color color, double intensity )
 	{
 		array.set(offset, color.getR() * color.getR() * intensity * intensity);
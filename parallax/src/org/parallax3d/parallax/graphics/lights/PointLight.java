@@ -53,9 +53,9 @@ public class PointLight extends Light implements HasIntensity
 		@Override
 		public void reset()
 		{
-			this.distances = Float32Array.createArray(); // 1N
-			this.colors    = Float32Array.createArray(); // 3N
-			this.positions = Float32Array.createArray(); // 3N
+			this.distances = resetArray( this.distances ); // 1N
+			this.colors    = resetArray( this.colors ); // 3N
+			this.positions = resetArray( this.positions ); // 3N
 
 		}
 
@@ -26,6 +26,7 @@ import org.parallax3d.parallax.graphics.extras.helpers.CameraHelper;
 import org.parallax3d.parallax.math.Vector3;
 import org.parallax3d.parallax.math.Matrix4;
 import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector4;
 
 @ThreejsObject("THREE.LightShadow")
 public abstract class ShadowLight extends Light implements HasIntensity
@@ -54,6 +55,10 @@ public abstract class ShadowLight extends Light implements HasIntensity
 	private RenderTargetTexture shadowMap;
 	private Vector2 shadowMapSize;
 	private Matrix4 shadowMatrix;
+	private Vector4 shadowMapTile = new Vector4( 0, 0, 1, 1 );
+
+	private boolean shadowMapNeedsUpdate = false;
+	private int shadowMapUpdateInterval = 1;
 
 	private CameraHelper cameraHelper;
 
@@ -223,6 +228,48 @@ public abstract class ShadowLight extends Light implements HasIntensity
 		return this;
 	}
 
+	/**
+	 * Gets the area of the shadow map texture used by the light:
+	 * offset in X and Y, width in Z and height in W, in texture coordinates.
+	 * The whole texture unless the light is packed into a {@link org.parallax3d.parallax.graphics.renderers.ShadowAtlas}.
+	 */
+	public Vector4 getShadowMapTile() {
+		return shadowMapTile;
+	}
+
+	public ShadowLight setShadowMapTile(Vector4 shadowMapTile) {
+		this.shadowMapTile = shadowMapTile;
+		return this;
+	}
+
+	public boolean isShadowMapNeedsUpdate() {
+		return shadowMapNeedsUpdate;
+	}
+
+	/**
+	 * Forces the shadow map to be rendered again on the next frame, even if it is cached.
+	 * Has to be set when the geometry of a shadow caster was changed in place.
+	 */
+	public ShadowLight setShadowMapNeedsUpdate(boolean shadowMapNeedsUpdate) {
+		this.shadowMapNeedsUpdate = shadowMapNeedsUpdate;
+		return this;
+	}
+
+	public int getShadowMapUpdateInterval() {
+		return shadowMapUpdateInterval;
+	}
+
+	/**
+	 * Sets how often the shadow map is rendered: every frame for 1, every second frame for 2
+	 * and so on. The shadow matrix is kept together with the map in between.
+	 * <p>
+	 * Default: 1.
+	 */
+	public ShadowLight setShadowMapUpdateInterval(int shadowMapUpdateInterval) {
+		this.shadowMapUpdateInterval = shadowMapUpdateInterval;
+		return this;
+	}
+
 	public CameraHelper getCameraHelper() {
 		return cameraHelper;
 	}
@@ -68,13 +68,13 @@ public class SpotLight extends ShadowLight
 		@Override
 		public void reset()
 		{
-			this.colors    =  Float32Array.createArray();
-			this.distances =  Float32Array.createArray();
-			this.positions =  Float32Array.createArray();
+			this.colors    = resetArray( this.colors );
+			this.distances = resetArray( this.distances );
+			this.positions = resetArray( this.positions );
 
-			this.directions =  Float32Array.createArray();
-			this.angles     =  Float32Array.createArray();
-			this.exponents  =  Float32Array.createArray();
+			this.directions = resetArray( this.directions );
+			this.angles     = resetArray( this.angles );
+			this.exponents  = resetArray( this.exponents );
 		}
 
 		@Override
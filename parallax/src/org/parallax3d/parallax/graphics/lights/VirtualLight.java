@@ -41,8 +41,8 @@ public final class VirtualLight extends DirectionalLight
 
 		for ( int i = 0; i < 8; i ++ )
 		{
-			getPointsWorld().set( i, new Vector3() );
-			getPointsFrustum().set( i, new Vector3() );
+			getPointsWorld().add( new Vector3() );
+			getPointsFrustum().add( new Vector3() );
 		}
 	}
 
@@ -104,6 +104,7 @@ public abstract class Material
 		MAX_POINT_LIGHTS, // param
 		MAX_SPOT_LIGHTS, // param
 		MAX_HEMI_LIGHTS, // param
+		MAX_CLUSTER_LIGHTS, // param
 		MAX_SHADOWS, // param
 		MAX_BONES, // param
 
@@ -112,10 +113,14 @@ public abstract class Material
 		BONE_TEXTURE,
 		WRAP_AROUND, DOUBLE_SIDED, FLIP_SIDED,
 
+		USE_CLUSTERED_LIGHTS,
+
 		USE_SHADOWMAP, SHADOWMAP_TYPE_BASIC, SHADOWMAP_TYPE_PCF, SHADOWMAP_TYPE_PCF_SOFT, SHADOWMAP_DEBUG, SHADOWMAP_CASCADE,
 
 		USE_SIZEATTENUATION,
 
+		USE_INSTANCING, USE_INSTANCING_COLOR,
+
 		USE_LOGDEPTHBUF,
 
 		ALPHATEST,
@@ -542,8 +547,8 @@ public abstract class Material
 		shader.setVertexExtensions(getExtensionsVertex(parameters));
 		shader.setFragmentExtensions(getExtensionsFragment(parameters));
 
-		shader.setVertexSource(getPrefixVertex(parameters) + "\n" + shader.getVertexSource());
-		shader.setFragmentSource(getPrefixFragment(parameters) + "\n" + shader.getFragmentSource());
+		shader.setVertexPrefix(getPrefixVertex(parameters) + "\n");
+		shader.setFragmentPrefix(getPrefixFragment(parameters) + "\n");
 
 		this.shader = shader.buildProgram(gl, parameters.useVertexTexture, parameters.maxMorphTargets, parameters.maxMorphNormals);
 
@@ -576,6 +581,12 @@ public abstract class Material
 		options.add(SHADER_DEFINE.MAX_SPOT_LIGHTS.getValue(parameters.maxSpotLights));
 		options.add(SHADER_DEFINE.MAX_HEMI_LIGHTS.getValue(parameters.maxHemiLights));
 
+		if (parameters.maxClusterLights > 0)
+		{
+			options.add(SHADER_DEFINE.USE_CLUSTERED_LIGHTS.getValue());
+			options.add(SHADER_DEFINE.MAX_CLUSTER_LIGHTS.getValue(parameters.maxClusterLights));
+		}
+
 		options.add(SHADER_DEFINE.MAX_SHADOWS.getValue(parameters.maxShadows));
 
 		options.add(SHADER_DEFINE.MAX_BONES.getValue(parameters.maxBones));
@@ -596,12 +607,17 @@ public abstract class Material
 			options.add(SHADER_DEFINE.USE_ALPHAMAP.getValue());
 		if (parameters.vertexColors)
 			options.add(SHADER_DEFINE.USE_COLOR.getValue());
+		if (parameters.instancingColor)
+			options.add(SHADER_DEFINE.USE_INSTANCING_COLOR.getValue());
 
 		if (parameters.skinning)
 			options.add(SHADER_DEFINE.USE_SKINNING.getValue());
 		if (parameters.useVertexTexture)
 			options.add(SHADER_DEFINE.BONE_TEXTURE.getValue());
 
+		if (parameters.instancing)
+			options.add(SHADER_DEFINE.USE_INSTANCING.getValue());
+
 		if (parameters.morphTargets)
 			options.add(SHADER_DEFINE.USE_MORPHTARGETS.getValue());
 		if (parameters.morphNormals)
@@ -656,6 +672,18 @@ public abstract class Material
 
 				"#endif",
 
+				"#ifdef USE_INSTANCING",
+
+				"	attribute mat4 instanceMatrix;",
+
+				"#endif",
+
+				"#ifdef USE_INSTANCING_COLOR",
+
+				"	attribute vec3 instanceColor;",
+
+				"#endif",
+
 				"#ifdef USE_MORPHTARGETS",
 
 				"	attribute vec3 morphTarget0;",
@@ -715,6 +743,12 @@ public abstract class Material
 		options.add(SHADER_DEFINE.MAX_SPOT_LIGHTS.getValue(parameters.maxSpotLights));
 		options.add(SHADER_DEFINE.MAX_HEMI_LIGHTS.getValue(parameters.maxHemiLights));
 
+		if (parameters.maxClusterLights > 0)
+		{
+			options.add(SHADER_DEFINE.USE_CLUSTERED_LIGHTS.getValue());
+			options.add(SHADER_DEFINE.MAX_CLUSTER_LIGHTS.getValue(parameters.maxClusterLights));
+		}
+
 		options.add(SHADER_DEFINE.MAX_SHADOWS.getValue(parameters.maxShadows));
 
 		if (parameters.alphaTest > 0)
@@ -746,6 +780,8 @@ public abstract class Material
 			options.add(SHADER_DEFINE.USE_ALPHAMAP.getValue());
 		if (parameters.vertexColors)
 			options.add(SHADER_DEFINE.USE_COLOR.getValue());
+		if (parameters.instancingColor)
+			options.add(SHADER_DEFINE.USE_INSTANCING_COLOR.getValue());
 
 		if (parameters.metal)
 			options.add(SHADER_DEFINE.METAL.getValue());
@@ -939,39 +975,11 @@ public abstract class Material
 
 	public void deallocate( GLRenderer renderer )
 	{
-		int program = getShader().getProgram();
-		if ( program == 0 ) {
-			return;
-		}
-
-//		getShader().setPrecision(null);
-
-		// only deallocate GL program if this was the last use of shared program
-		// assumed there is only single copy of any program in the _programs list
-		// (that's how it's constructed)
-
-		boolean deleteProgram = false;
-
-		for ( String key: renderer._programs.keySet())
-		{
-			Shader shader = renderer._programs.get(key);
-
-			if ( shader == getShader() )
-			{
-				renderer._programs.remove(key);
-				deleteProgram = true;
-				break;
-			}
-		}
-
-		if ( deleteProgram )
-		{
-
-			renderer.gl.glDeleteProgram(program);
-
-			renderer.getInfo().getMemory().programs --;
-		}
+		// the program is deleted only if this was the last material using it
+		renderer.getPrograms().release( this );
 
+		setShader( null );
+		setNeedsUpdate( true );
 	}
 
 	public String toString()
@@ -0,0 +1,462 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.objects;
+
+import java.util.List;
+
+import org.parallax3d.parallax.graphics.core.AbstractGeometry;
+import org.parallax3d.parallax.graphics.core.BufferAttribute;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.core.Raycaster;
+import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.math.Color;
+import org.parallax3d.parallax.math.Matrix3;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.arrays.TypeArray;
+import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
+import org.parallax3d.parallax.system.gl.enums.BufferTarget;
+import org.parallax3d.parallax.system.gl.enums.BufferUsage;
+
+/**
+ * Mesh which draws many copies of one {@link BufferGeometry} with a single material.
+ * <p>
+ * Every instance has its own transform, relative to the mesh, and an optional color,
+ * stored in the per-instance attributes {@link #INSTANCE_MATRIX} and {@link #INSTANCE_COLOR}.
+ * When the ANGLE_instanced_arrays extension is available all instances are drawn
+ * with one draw call. Otherwise the renderer draws {@link #getBatchGeometry()},
+ * the instances merged into as few 16-bit indexed draw calls as possible.
+ * <p>
+ * The geometry has to be either non-indexed or indexed with a {@link Uint16Array}.
+ * The material is compiled for instancing, so it should not be shared with other meshes.
+ * Frustum culling is disabled by default, as the geometry bounds do not cover the instances.
+ */
+public class InstancedMesh extends Mesh
+{
+	public static final String INSTANCE_MATRIX = "instanceMatrix";
+	public static final String INSTANCE_COLOR = "instanceColor";
+
+	private static final int MAX_BATCH_VERTICES = 65536;
+
+	private BufferAttribute instanceMatrix;
+	private BufferAttribute instanceColor;
+	private int count;
+
+	private BufferGeometry batchGeometry;
+	private boolean batchNeedsUpdate = true;
+
+	// Temporary variables
+	static Matrix4 _instanceMatrix = new Matrix4();
+	static Matrix4 _instanceWorld = new Matrix4();
+	static Matrix3 _instanceNormalMatrix = new Matrix3();
+
+	public InstancedMesh(BufferGeometry geometry, Material material, int count)
+	{
+		super(geometry, material);
+
+		checkIndex( geometry );
+
+		this.count = count;
+		this.instanceMatrix = new BufferAttribute( Float32Array.create( count * 16 ), 16 );
+
+		for ( int i = 0; i < count; i ++ )
+			setMatrixAt( i, _instanceMatrix.identity() );
+
+		setFrustumCulled( false );
+	}
+
+	@Override
+	public BufferGeometry getGeometry() {
+		return (BufferGeometry) super.getGeometry();
+	}
+
+	@Override
+	public void setGeometry(AbstractGeometry geometry) {
+		checkIndex( (BufferGeometry) geometry );
+
+		super.setGeometry( geometry );
+		this.batchNeedsUpdate = true;
+	}
+
+	/**
+	 * Instances are drawn with 16-bit indices, both with instanced arrays
+	 * and in the batch geometry.
+	 */
+	private static void checkIndex( BufferGeometry geometry )
+	{
+		BufferAttribute index = geometry.getAttribute( "index" );
+
+		if ( index != null && !( index.getArray() instanceof Uint16Array ) )
+			throw new IllegalArgumentException( "InstancedMesh: only 16-bit indices are supported, got "
+					+ index.getArray().getClass().getSimpleName() );
+	}
+
+	/**
+	 * Gets the number of rendered instances.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Sets the number of rendered instances, which can not exceed the
+	 * number of instances the mesh was created with.
+	 */
+	public void setCount(int count) {
+		if ( count < 0 || count > getMaxCount() )
+			throw new IllegalArgumentException( "Instance count " + count + " is out of range [0, " + getMaxCount() + "]" );
+
+		this.count = count;
+		this.batchNeedsUpdate = true;
+	}
+
+	/**
+	 * Gets the number of instances the mesh was created with.
+	 */
+	public int getMaxCount() {
+		return instanceMatrix.getArray().getLength() / 16;
+	}
+
+	public BufferAttribute getInstanceMatrix() {
+		return instanceMatrix;
+	}
+
+	/**
+	 * Gets the instance colors, or null when no color was set.
+	 */
+	public BufferAttribute getInstanceColor() {
+		return instanceColor;
+	}
+
+	public Matrix4 getMatrixAt( int index, Matrix4 target )
+	{
+		Float32Array src = (Float32Array) instanceMatrix.getArray();
+		float[] dst = target.getArray();
+
+		for ( int i = 0, offset = index * 16; i < 16; i ++ )
+			dst[ i ] = (float) src.get( offset + i );
+
+		return target;
+	}
+
+	public void setMatrixAt( int index, Matrix4 matrix )
+	{
+		float[] src = matrix.getArray();
+		Float32Array dst = (Float32Array) instanceMatrix.getArray();
+
+		for ( int i = 0, offset = index * 16; i < 16; i ++ )
+			dst.set( offset + i, src[ i ] );
+
+		instanceMatrix.updateRange( index * 16, 16 );
+		this.batchNeedsUpdate = true;
+	}
+
+	public Color getColorAt( int index, Color target )
+	{
+		if ( instanceColor == null )
+			return target.setRGB( 1, 1, 1 );
+
+		Float32Array src = (Float32Array) instanceColor.getArray();
+		return target.setRGB( src.get( index * 3 ), src.get( index * 3 + 1 ), src.get( index * 3 + 2 ) );
+	}
+
+	public void setColorAt( int index, Color color )
+	{
+		if ( instanceColor == null )
+		{
+			Float32Array colors = Float32Array.create( getMaxCount() * 3 );
+			for ( int i = 0, l = colors.getLength(); i < l; i ++ )
+				colors.set( i, 1.0 );
+
+			instanceColor = new BufferAttribute( colors, 3 );
+
+			// The program has to be rebuilt with instance colors
+			getMaterial().setNeedsUpdate( true );
+		}
+
+		instanceColor.setXYZ( index, color.getR(), color.getG(), color.getB() );
+		instanceColor.updateRange( index * 3, 3 );
+		this.batchNeedsUpdate = true;
+	}
+
+	/**
+	 * Uploads the per-instance attributes which have changed.
+	 */
+	public void setInstanceBuffers( GL20 gl )
+	{
+		checkIndex( getGeometry() );
+
+		setInstanceBuffer( gl, instanceMatrix );
+
+		if ( instanceColor != null )
+			setInstanceBuffer( gl, instanceColor );
+	}
+
+	private static void setInstanceBuffer( GL20 gl, BufferAttribute attribute )
+	{
+		if ( attribute.getBuffer() == 0 ) {
+
+			attribute.setBuffer( gl.glGenBuffer() );
+			attribute.setNeedsUpdate( true );
+
+		}
+
+		attribute.upload( gl, BufferTarget.ARRAY_BUFFER.getValue(), BufferUsage.DYNAMIC_DRAW.getValue() );
+	}
+
+	/**
+	 * Gets the instances merged into one geometry, for platforms which can
+	 * not draw instanced arrays. Instance transforms are baked into the
+	 * positions and normals, instance colors become a per-vertex
+	 * {@link #INSTANCE_COLOR} attribute. The geometry is only rebuilt
+	 * after the instances have changed.
+	 */
+	public BufferGeometry getBatchGeometry()
+	{
+		if ( batchGeometry == null || batchNeedsUpdate )
+		{
+			updateBatchGeometry();
+			batchNeedsUpdate = false;
+		}
+
+		return batchGeometry;
+	}
+
+	private void updateBatchGeometry()
+	{
+		BufferGeometry geometry = getGeometry();
+
+		BufferAttribute position = geometry.getAttribute( "position" );
+		BufferAttribute normal = geometry.getAttribute( "normal" );
+		BufferAttribute index = geometry.getAttribute( "index" );
+
+		int vertexCount = position.getArray().getLength() / 3;
+		int batchVertexCount = vertexCount * count;
+
+		if ( batchGeometry == null || batchGeometry.getAttribute( "position" ).getArray().getLength() != batchVertexCount * 3 )
+		{
+			// attributes are resized in place, so they keep their GL buffers
+			if ( batchGeometry == null )
+				batchGeometry = new BufferGeometry();
+			else
+				batchGeometry.getDrawcalls().clear();
+
+			for ( String name : geometry.getAttributes().keySet() )
+			{
+				BufferAttribute attribute = geometry.getAttribute( name );
+
+				if ( name.equals( "index" ) )
+					continue;
+
+				setBatchArray( name, Float32Array.create( batchVertexCount * attribute.getItemSize() ), attribute.getItemSize() );
+			}
+
+			if ( index != null )
+			{
+				checkIndex( geometry );
+				createBatchIndex( (Uint16Array) index.getArray(), vertexCount );
+			}
+		}
+
+		Float32Array instances = (Float32Array) instanceMatrix.getArray();
+
+		for ( String name : geometry.getAttributes().keySet() )
+		{
+			if ( name.equals( "index" ) )
+				continue;
+
+			Float32Array src = (Float32Array) geometry.getAttribute( name ).getArray();
+			BufferAttribute attribute = batchGeometry.getAttribute( name );
+			Float32Array dst = (Float32Array) attribute.getArray();
+
+			int length = src.getLength();
+
+			for ( int i = 0; i < count; i ++ )
+			{
+				if ( name.equals( "position" ) )
+				{
+					getMatrixAt( i, _instanceMatrix );
+					transform( src, dst, i * length, _instanceMatrix.getArray(), true );
+				}
+				else if ( name.equals( "normal" ) )
+				{
+					_instanceNormalMatrix.getNormalMatrix( getMatrixAt( i, _instanceMatrix ) );
+					transform( src, dst, i * length, _instanceNormalMatrix.getArray(), false );
+				}
+				else
+				{
+					for ( int j = 0; j < length; j ++ )
+						dst.set( i * length + j, src.get( j ) );
+				}
+			}
+
+			attribute.setNeedsUpdate( true );
+		}
+
+		if ( instanceColor != null )
+		{
+			BufferAttribute attribute = batchGeometry.getAttribute( INSTANCE_COLOR );
+
+			if ( attribute == null || attribute.getArray().getLength() != batchVertexCount * 3 )
+				attribute = setBatchArray( INSTANCE_COLOR, Float32Array.create( batchVertexCount * 3 ), 3 );
+
+			Float32Array colors = (Float32Array) instanceColor.getArray();
+			Float32Array dst = (Float32Array) attribute.getArray();
+
+			for ( int i = 0, offset = 0; i < count; i ++ )
+				for ( int j = 0; j < vertexCount; j ++, offset += 3 )
+				{
+					dst.set( offset,     colors.get( i * 3 ) );
+					dst.set( offset + 1, colors.get( i * 3 + 1 ) );
+					dst.set( offset + 2, colors.get( i * 3 + 2 ) );
+				}
+
+			attribute.setNeedsUpdate( true );
+		}
+	}
+
+	/**
+	 * Splits the merged index into draw calls, each of which addresses
+	 * less than 65536 vertices, so indices stay 16-bit.
+	 */
+	private void createBatchIndex( Uint16Array source, int vertexCount )
+	{
+		int indexCount = source.getLength();
+		int instancesPerCall = Math.max( 1, MAX_BATCH_VERTICES / Math.max( 1, vertexCount ) );
+
+		Uint16Array indices = Uint16Array.create( indexCount * count );
+
+		for ( int i = 0; i < count; i ++ )
+		{
+			int base = ( i % instancesPerCall ) * vertexCount;
+
+			for ( int j = 0; j < indexCount; j ++ )
+				indices.set( i * indexCount + j, base + source.getUnsigned( j ) );
+		}
+
+		setBatchArray( "index", indices, 1 );
+
+		for ( int i = 0; i < count; i += instancesPerCall )
+		{
+			int instances = Math.min( instancesPerCall, count - i );
+			batchGeometry.addDrawCall( i * indexCount, instances * indexCount, i * vertexCount );
+		}
+	}
+
+	private BufferAttribute setBatchArray( String name, TypeArray array, int itemSize )
+	{
+		BufferAttribute attribute = batchGeometry.getAttribute( name );
+
+		if ( attribute == null )
+		{
+			attribute = new BufferAttribute( array, itemSize );
+			batchGeometry.addAttribute( name, attribute );
+		}
+		else
+		{
+			attribute.setArray( array );
+		}
+
+		attribute.setNeedsUpdate( true );
+		return attribute;
+	}
+
+	private static void transform( Float32Array src, Float32Array dst, int offset, float[] e, boolean isPoint )
+	{
+		for ( int j = 0, l = src.getLength(); j < l; j += 3 )
+		{
+			double x = src.get( j ), y = src.get( j + 1 ), z = src.get( j + 2 );
+
+			if ( isPoint )
+			{
+				dst.set( offset + j,     e[ 0 ] * x + e[ 4 ] * y + e[ 8 ]  * z + e[ 12 ] );
+				dst.set( offset + j + 1, e[ 1 ] * x + e[ 5 ] * y + e[ 9 ]  * z + e[ 13 ] );
+				dst.set( offset + j + 2, e[ 2 ] * x + e[ 6 ] * y + e[ 10 ] * z + e[ 14 ] );
+			}
+			else
+			{
+				double nx = e[ 0 ] * x + e[ 3 ] * y + e[ 6 ] * z;
+				double ny = e[ 1 ] * x + e[ 4 ] * y + e[ 7 ] * z;
+				double nz = e[ 2 ] * x + e[ 5 ] * y + e[ 8 ] * z;
+				double length = Math.sqrt( nx * nx + ny * ny + nz * nz );
+
+				if ( length > 0 )
+				{
+					nx /= length;
+					ny /= length;
+					nz /= length;
+				}
+
+				dst.set( offset + j, nx );
+				dst.set( offset + j + 1, ny );
+				dst.set( offset + j + 2, nz );
+			}
+		}
+	}
+
+	/**
+	 * Raycasts every rendered instance. {@link Raycaster.Intersect#instanceId}
+	 * tells which instance was hit.
+	 */
+	@Override
+	public void raycast( Raycaster raycaster, List<Raycaster.Intersect> intersects )
+	{
+		Matrix4 matrixWorld = this.matrixWorld;
+
+		try
+		{
+			for ( int i = 0; i < count; i ++ )
+			{
+				this.matrixWorld = _instanceWorld.multiply( matrixWorld, getMatrixAt( i, _instanceMatrix ) );
+
+				int first = intersects.size();
+
+				super.raycast( raycaster, intersects );
+
+				for ( int j = first, l = intersects.size(); j < l; j ++ )
+					intersects.get( j ).instanceId = i;
+			}
+		}
+		finally
+		{
+			this.matrixWorld = matrixWorld;
+		}
+	}
+
+	public InstancedMesh clone() {
+		return clone(false);
+	}
+
+	public InstancedMesh clone( boolean recursive ) {
+
+		InstancedMesh object = new InstancedMesh( getGeometry(), getMaterial(), getMaxCount() );
+
+		super.clone( object, recursive );
+
+		object.count = this.count;
+		object.instanceMatrix.set( this.instanceMatrix.getArray() );
+
+		if ( this.instanceColor != null )
+			object.instanceColor = this.instanceColor.clone();
+
+		return object;
+
+	}
+}
@@ -24,7 +24,6 @@ import java.util.List;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.graphics.cameras.Camera;
 import org.parallax3d.parallax.graphics.core.Object3D;
-import org.parallax3d.parallax.math.Matrix4;
 
 @ThreejsObject("THREE.LOD")
 public class LOD extends Object3D
@@ -67,11 +66,11 @@ public class LOD extends Object3D
 
 		camera.getMatrixWorldInverse().getInverse( camera.getMatrixWorld() );
 
-		Matrix4 inverse  = camera.getMatrixWorldInverse();
-		double distance = -( inverse.getArray().get(2)
-				* this.matrixWorld.getArray().get(12) + inverse.getArray().get(6)
-				* this.matrixWorld.getArray().get(13) + inverse.getArray().get(10)
-				* this.matrixWorld.getArray().get(14) + inverse.getArray().get(14) );
+		float[] inverse = camera.getMatrixWorldInverse().getArray();
+		float[] position = this.matrixWorld.getArray();
+		double distance = -( (double) inverse[2] * position[12]
+				+ (double) inverse[6] * position[13]
+				+ (double) inverse[10] * position[14] + inverse[14] );
 
 		this.getLODs().get(0).getObject3D().setVisible(true);
 
@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.parallax3d.parallax.graphics.core.AbstractGeometry;
 import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.graphics.core.GeometryBVH;
 import org.parallax3d.parallax.graphics.core.GeometryObject;
 import org.parallax3d.parallax.graphics.core.Raycaster;
 import org.parallax3d.parallax.graphics.renderers.GLRendererInfo;
@@ -154,26 +155,55 @@ public class Line extends GeometryObject
 		Vector3 interRay = new Vector3();
 		int step = this.mode == Line.MODE.STRIPS ? 1 : 2;
 
-		for ( int i = 0; i < nbVertices - 1; i = i + step ) {
+		GeometryBVH boundsTree = geometry.getBoundsTree();
+		GeometryBVH.PRIMITIVE primitive = this.mode == Line.MODE.STRIPS
+				? GeometryBVH.PRIMITIVE.LINE_STRIP : GeometryBVH.PRIMITIVE.LINE_PIECES;
 
-			double distSq = ray.distanceSqToSegment( vertices.get( i ), vertices.get( i + 1 ), interRay, interSegment );
+		if ( boundsTree != null && boundsTree.getPrimitive() == primitive ) {
 
-			if ( distSq > precisionSq ) {
-				continue;
-			}
+			// Only segments closer than the precision to the ray are tested
+			int count = boundsTree.intersectRay( ray, precision );
+			int[] candidates = boundsTree.getResults();
+
+			for ( int c = 0; c < count; c ++ ) {
 
-			double distance = ray.getOrigin().distanceTo( interRay );
+				int i = boundsTree.getVertexIndex( candidates[ c ], 0 );
+
+				testSegment( raycaster, intersects, ray, vertices.get( i ), vertices.get( i + 1 ), interRay, interSegment, precisionSq );
 
-			if ( distance < raycaster.getNear() || distance > raycaster.getFar() ) {
-				continue;
 			}
 
-			Raycaster.Intersect intersect = new Raycaster.Intersect();
-			intersect.distance = distance;
-			intersect.point = interSegment.clone().apply( this.matrixWorld );
-			intersects.add( intersect );
+			return;
 
 		}
+
+		for ( int i = 0; i < nbVertices - 1; i = i + step ) {
+
+			testSegment( raycaster, intersects, ray, vertices.get( i ), vertices.get( i + 1 ), interRay, interSegment, precisionSq );
+
+		}
+	}
+
+	private void testSegment( Raycaster raycaster, List<Raycaster.Intersect> intersects, Ray ray, Vector3 v0, Vector3 v1,
+							  Vector3 interRay, Vector3 interSegment, double precisionSq ) {
+
+		double distSq = ray.distanceSqToSegment( v0, v1, interRay, interSegment );
+
+		if ( distSq > precisionSq ) {
+			return;
+		}
+
+		double distance = ray.getOrigin().distanceTo( interRay );
+
+		if ( distance < raycaster.getNear() || distance > raycaster.getFar() ) {
+			return;
+		}
+
+		Raycaster.Intersect intersect = new Raycaster.Intersect();
+		intersect.distance = distance;
+		intersect.point = interSegment.clone().apply( this.matrixWorld );
+		intersect.object = this;
+		intersects.add( intersect );
 	}
 
 	public Line clone() {
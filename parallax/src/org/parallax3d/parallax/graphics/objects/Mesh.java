@@ -66,7 +66,7 @@ public class Mesh extends GeometryObject
 {
 	//	private Boolean overdraw;
 	public Integer morphTargetBase = null;
-	public List<Double> morphTargetInfluences;
+	public double[] morphTargetInfluences;
 	public List<Integer> morphTargetForcedOrder;
 	private FastMap<Integer> morphTargetDictionary;
 
@@ -112,13 +112,12 @@ public class Mesh extends GeometryObject
 
 			this.morphTargetBase = -1;
 			this.morphTargetForcedOrder = new ArrayList<Integer>();
-			this.morphTargetInfluences = new ArrayList<Double>();
+			this.morphTargetInfluences = new double[ ((Geometry)this.getGeometry()).getMorphTargets().size() ];
 			this.morphTargetDictionary = new FastMap<Integer>();
 
 			List<Geometry.MorphTarget> morphTargets = ((Geometry)this.getGeometry()).getMorphTargets();
 			for ( int m = 0, ml = ((Geometry)this.getGeometry()).getMorphTargets().size(); m < ml; m ++ ) {
 
-				this.morphTargetInfluences.add( 0.0 );
 				this.morphTargetDictionary.put(morphTargets.get(m).name, m);
 
 			}
@@ -153,9 +152,14 @@ public class Mesh extends GeometryObject
 			return;
 		}
 
-		double precision = Raycaster.PRECISION;
+		GeometryBVH boundsTree = geometry.getBoundsTree();
 
-		if ( geometry instanceof BufferGeometry )
+		// Morphed faces are not covered by the bounds tree
+		if ( boundsTree != null && boundsTree.getPrimitive() == GeometryBVH.PRIMITIVE.TRIANGLES && !isMorphTargets() )
+		{
+			raycast( raycaster, intersects, boundsTree );
+		}
+		else if ( geometry instanceof BufferGeometry )
 		{
 			Material material = this.getMaterial();
 
@@ -183,38 +187,19 @@ public class Mesh extends GeometryObject
 					for ( int i = start, il = start + count; i < il; i += 3 )
 					{
 
-						int a = index + indices.get( i );
-						int b = index + indices.get( i + 1 );
-						int c = index + indices.get( i + 2 );
+						int a = index + indices.getUnsigned( i );
+						int b = index + indices.getUnsigned( i + 1 );
+						int c = index + indices.getUnsigned( i + 2 );
 
 						_vA.fromArray( positions, a * 3 );
 						_vB.fromArray( positions, b * 3 );
 						_vC.fromArray( positions, c * 3 );
 
-						Vector3 intersectionPoint;
-
-						if ( material.getSides() == Material.SIDE.BACK )
-						{
-							intersectionPoint = _ray.intersectTriangle( _vC, _vB, _vA, true);
-						}
-						else
-						{
-							intersectionPoint = _ray.intersectTriangle( _vA, _vB, _vC, material.getSides() != Material.SIDE.DOUBLE );
-						}
-
-						if ( intersectionPoint == null ) continue;
+						Raycaster.Intersect intersect = intersectTriangle( raycaster, material, _vA, _vB, _vC );
 
-						intersectionPoint.apply( this.matrixWorld );
+						if ( intersect == null ) continue;
 
-						double distance = raycaster.getRay().getOrigin().distanceTo( intersectionPoint );
-
-						if ( distance < precision || distance < raycaster.getNear() || distance > raycaster.getFar() ) continue;
-
-						Raycaster.Intersect intersect = new Raycaster.Intersect();
-						intersect.distance = distance;
-						intersect.point = intersectionPoint;
 						intersect.face = new Face3( a, b, c, Triangle.normal( _vA, _vB, _vC ) );
-						intersect.object = this;
 						intersects.add( intersect );
 
 					}
@@ -225,7 +210,7 @@ public class Mesh extends GeometryObject
 
 				Float32Array positions = (Float32Array)bGeometry.getAttribute("position").getArray();
 
-				for ( int i = 0, j = 0, il = positions.getLength(); i < il; i += 3, j += 9 ) {
+				for ( int i = 0, j = 0, il = positions.getLength() / 3; i < il; i += 3, j += 9 ) {
 
 					int a = i;
 					int b = i + 1;
@@ -235,31 +220,11 @@ public class Mesh extends GeometryObject
 					_vB.fromArray( positions, j + 3 );
 					_vC.fromArray( positions, j + 6 );
 
-					Vector3 intersectionPoint;
-
-					if ( material.getSides() == Material.SIDE.BACK ) {
+					Raycaster.Intersect intersect = intersectTriangle( raycaster, material, _vA, _vB, _vC );
 
-						intersectionPoint = _ray.intersectTriangle( _vC, _vB, _vA, true, null );
+					if ( intersect == null ) continue;
 
-					} else {
-
-						intersectionPoint = _ray.intersectTriangle( _vA, _vB, _vC, material.getSides() != Material.SIDE.DOUBLE, null );
-
-					}
-
-					if ( intersectionPoint == null ) continue;
-
-					intersectionPoint.apply( this.matrixWorld );
-
-					double distance = raycaster.getRay().getOrigin().distanceTo( intersectionPoint );
-
-					if ( distance < precision || distance < raycaster.getNear() || distance > raycaster.getFar() ) continue;
-
-					Raycaster.Intersect intersect = new Raycaster.Intersect();
-					intersect.distance = distance;
-					intersect.point = intersectionPoint;
 					intersect.face = new Face3( a, b, c, Triangle.normal( _vA, _vB, _vC ) );
-					intersect.object = this;
 					intersects.add( intersect );
 
 				}
@@ -297,7 +262,7 @@ public class Mesh extends GeometryObject
 
 					for ( int t = 0, tl = morphTargets.size(); t < tl; t ++ ) {
 
-						double influence = this.morphTargetInfluences.get( t );
+						double influence = this.morphTargetInfluences[ t ];
 
 						if ( influence == 0 ) continue;
 
@@ -327,40 +292,124 @@ public class Mesh extends GeometryObject
 
 				}
 
-				Vector3 intersectionPoint;
+				Raycaster.Intersect intersect = intersectTriangle( raycaster, material, a, b, c );
 
-				if ( material.getSides() == Material.SIDE.BACK ) {
+				if ( intersect == null ) continue;
 
-					intersectionPoint = _ray.intersectTriangle( c, b, a, true );
+				intersect.face = face;
+				intersect.faceIndex = f;
+				intersects.add( intersect );
 
-				} else {
+			}
 
-					intersectionPoint = _ray.intersectTriangle( a, b, c, material.getSides() != Material.SIDE.DOUBLE );
+		}
 
-				}
+	}
+
+	/*
+	 * Tests only the faces found in the leaves of the bounds tree hit by the ray
+	 */
+	private void raycast( Raycaster raycaster, List<Raycaster.Intersect> intersects, GeometryBVH boundsTree ) {
+
+		boolean isGeometry = boundsTree.getGeometry() instanceof Geometry;
+		List<Face3> faces = isGeometry ? ((Geometry)boundsTree.getGeometry()).getFaces() : null;
+
+		boolean isFaceMaterial = this.getMaterial() instanceof MeshFaceMaterial;
+		List<Material> objectMaterials = isFaceMaterial ? ((MeshFaceMaterial)this.getMaterial()).getMaterials() : null;
+
+		int count = boundsTree.intersectRay( _ray, 0 );
+		int[] candidates = boundsTree.getResults();
+
+		for ( int i = 0; i < count; i ++ ) {
+
+			int f = candidates[ i ];
+
+			Face3 face = isGeometry ? faces.get( f ) : null;
+
+			Material material = isFaceMaterial && face != null ? objectMaterials.get( face.getMaterialIndex() ) : this.getMaterial();
+
+			if ( material == null ) continue;
 
-				if ( intersectionPoint == null ) continue;
+			int a = boundsTree.getVertexIndex( f, 0 );
+			int b = boundsTree.getVertexIndex( f, 1 );
+			int c = boundsTree.getVertexIndex( f, 2 );
 
-				intersectionPoint.apply( this.matrixWorld );
+			boundsTree.getVertex( a, _vA );
+			boundsTree.getVertex( b, _vB );
+			boundsTree.getVertex( c, _vC );
 
-				double distance = raycaster.getRay().getOrigin().distanceTo( intersectionPoint );
+			Raycaster.Intersect intersect = intersectTriangle( raycaster, material, _vA, _vB, _vC );
 
-				if ( distance < precision || distance < raycaster.getNear() || distance > raycaster.getFar() ) continue;
+			if ( intersect == null ) continue;
+
+			if ( isGeometry ) {
 
-				Raycaster.Intersect intersect = new Raycaster.Intersect();
-				intersect.distance = distance;
-				intersect.point = intersectionPoint;
 				intersect.face = face;
 				intersect.faceIndex = f;
-				intersect.object = this;
-				intersects.add( intersect );
+
+			} else {
+
+				intersect.face = new Face3( a, b, c, Triangle.normal( _vA, _vB, _vC ) );
 
 			}
 
+			intersects.add( intersect );
+
 		}
 
 	}
 
+	/*
+	 * Intersects the local space ray with the triangle and returns the intersection
+	 * in world space, or null if there is none in the raycaster range.
+	 */
+	private Raycaster.Intersect intersectTriangle( Raycaster raycaster, Material material, Vector3 a, Vector3 b, Vector3 c ) {
+
+		Vector3 intersectionPoint;
+
+		if ( material.getSides() == Material.SIDE.BACK ) {
+
+			intersectionPoint = _ray.intersectTriangle( c, b, a, true );
+
+		} else {
+
+			intersectionPoint = _ray.intersectTriangle( a, b, c, material.getSides() != Material.SIDE.DOUBLE );
+
+		}
+
+		if ( intersectionPoint == null ) return null;
+
+		intersectionPoint.apply( this.matrixWorld );
+
+		double distance = raycaster.getRay().getOrigin().distanceTo( intersectionPoint );
+
+		if ( distance < Raycaster.PRECISION || distance < raycaster.getNear() || distance > raycaster.getFar() ) return null;
+
+		Raycaster.Intersect intersect = new Raycaster.Intersect();
+		intersect.distance = distance;
+		intersect.point = intersectionPoint;
+		intersect.object = this;
+
+		return intersect;
+
+	}
+
+	private boolean isMorphTargets() {
+
+		if ( this.getMaterial() instanceof MeshFaceMaterial ) {
+
+			for ( Material material : ((MeshFaceMaterial)this.getMaterial()).getMaterials() )
+				if ( material instanceof HasSkinning && ((HasSkinning)material).isMorphTargets() )
+					return true;
+
+			return false;
+
+		}
+
+		return this.getMaterial() instanceof HasSkinning && ((HasSkinning)this.getMaterial()).isMorphTargets();
+
+	}
+
 	public Mesh clone() {
 		return clone(false);
 	}
@@ -404,7 +453,7 @@ public class Mesh extends GeometryObject
 //		return morphTargetBase;
 //	}
 //
-//	public List<Double> getMorphTargetInfluences() {
+//	public double[] getMorphTargetInfluences() {
 //		return this.morphTargetInfluences;
 //	}
 //
@@ -423,7 +472,7 @@ public class Mesh extends GeometryObject
 			setLineWidth(renderer.gl, ((HasWireframe) getMaterial()).getWireframeLineWidth());
 
 			if ( updateBuffers )
-				renderer.gl.glBindBuffer(BufferTarget.ELEMENT_ARRAY_BUFFER.getValue(), geometryGroup.__webglLineBuffer);
+				renderer.bindBuffer(BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglLineBuffer);
 
 			renderer.gl.glDrawElements(BeginMode.LINES.getValue(), geometryGroup.__webglLineCount, DrawElementsType.UNSIGNED_SHORT.getValue(), 0);
 
@@ -433,7 +482,7 @@ public class Mesh extends GeometryObject
 		else
 		{
 			if ( updateBuffers )
-				renderer.gl.glBindBuffer(BufferTarget.ELEMENT_ARRAY_BUFFER.getValue(), geometryGroup.__webglFaceBuffer);
+				renderer.bindBuffer(BufferTarget.ELEMENT_ARRAY_BUFFER, geometryGroup.__webglFaceBuffer);
 
 			renderer.gl.glDrawElements(BeginMode.TRIANGLES.getValue(), geometryGroup.__webglFaceCount, DrawElementsType.UNSIGNED_SHORT.getValue(), 0);
 		}
@@ -617,6 +666,7 @@ public class Mesh extends GeometryObject
 		GLRendererInfo info = renderer.getInfo();
 
 		geometryGroup.__webglVertexBuffer = renderer.gl.glGenBuffer();
+		geometryGroup.__vertexBufferLength = 0;
 
 		geometryGroup.__webglNormalBuffer = renderer.gl.glGenBuffer();
 		geometryGroup.__webglTangentBuffer = renderer.gl.glGenBuffer();
@@ -704,6 +754,24 @@ public class Mesh extends GeometryObject
 //		}
 //	}
 
+	/*
+	 * Writes the vertex into the array.
+	 * Returns false if the array already had the same values.
+	 */
+	private static boolean setVertex(Float32Array array, int offset, Vector3 vertex)
+	{
+		float x = (float) vertex.getX(), y = (float) vertex.getY(), z = (float) vertex.getZ();
+
+		if ( array.get(offset) == x && array.get(offset + 1) == y && array.get(offset + 2) == z )
+			return false;
+
+		array.set(offset, x);
+		array.set(offset + 1, y);
+		array.set(offset + 2, z);
+
+		return true;
+	}
+
 	// setMeshBuffers
 	public void setBuffers(GL20 gl, GeometryGroup geometryGroup, BufferUsage hint, boolean dispose, Material material)
 	{
@@ -772,33 +840,47 @@ public class Mesh extends GeometryObject
 		List<Geometry.MorphTarget> morphTargets = geometry.getMorphTargets();
 		List<Geometry.MorphNormal> morphNormals = geometry.getMorphNormals();
 
-		if ( dirtyVertices )
+		// compact geometry packs its arrays directly, without Face3 and Vector3 views
+		CompactGeometry compact = geometry instanceof CompactGeometry ? (CompactGeometry) geometry : null;
+
+		if ( dirtyVertices && compact != null )
+		{
+			offset = compact.packPositions( chunk_faces3, vertexArray );
+
+			gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometryGroup.__webglVertexBuffer);
+			gl.glBufferData(BufferTarget.ARRAY_BUFFER.getValue(), vertexArray.getByteLength(), vertexArray.getTypedBuffer(), hint.getValue() );
+		}
+		else if ( dirtyVertices )
 		{
+			// once the buffer is allocated only the faces which have moved are uploaded
+			UpdateRanges ranges = geometryGroup.__vertexUpdateRanges;
+			boolean partial = geometryGroup.__vertexBufferLength == vertexArray.getByteLength();
+
 			for ( int f = 0, fl = chunk_faces3.size(); f < fl; f ++ )
 			{
 				Face3 face = obj_faces.get( chunk_faces3.get( f ) );
 
-				Vector3 v1 = vertices.get( face.getA() );
-				Vector3 v2 = vertices.get( face.getB() );
-				Vector3 v3 = vertices.get( face.getC() );
-
-				vertexArray.set(offset, v1.getX());
-				vertexArray.set(offset + 1, v1.getY());
-				vertexArray.set(offset + 2, v1.getZ());
+				boolean changed = setVertex( vertexArray, offset, vertices.get( face.getA() ) );
+				changed |= setVertex( vertexArray, offset + 3, vertices.get( face.getB() ) );
+				changed |= setVertex( vertexArray, offset + 6, vertices.get( face.getC() ) );
 
-				vertexArray.set(offset + 3, v2.getX());
-				vertexArray.set(offset + 4, v2.getY());
-				vertexArray.set(offset + 5, v2.getZ());
-
-				vertexArray.set(offset + 6, v3.getX());
-				vertexArray.set(offset + 7, v3.getY());
-				vertexArray.set(offset + 8, v3.getZ());
+				if ( changed && partial )
+					ranges.add( offset, 9 );
 
 				 offset += 9;
 			 }
 
 			 gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometryGroup.__webglVertexBuffer);
-			 gl.glBufferData(BufferTarget.ARRAY_BUFFER.getValue(), vertexArray.getByteLength(), vertexArray.getTypedBuffer(), hint.getValue() );
+
+			 if ( partial )
+			 {
+				 ranges.upload( gl, BufferTarget.ARRAY_BUFFER.getValue(), vertexArray );
+			 }
+			 else
+			 {
+				 gl.glBufferData(BufferTarget.ARRAY_BUFFER.getValue(), vertexArray.getByteLength(), vertexArray.getTypedBuffer(), hint.getValue() );
+				 geometryGroup.__vertexBufferLength = vertexArray.getByteLength();
+			 }
 		}
 
 		if ( dirtyMorphTargets )
@@ -1030,7 +1112,14 @@ public class Mesh extends GeometryObject
 
 		}
 
-		if ( dirtyNormals )
+		if ( dirtyNormals && compact != null )
+		{
+			offset_normal = compact.packNormals( chunk_faces3, normalArray, needsSmoothNormals );
+
+			gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometryGroup.__webglNormalBuffer);
+			gl.glBufferData(BufferTarget.ARRAY_BUFFER.getValue(), normalArray.getByteLength(),  normalArray.getTypedBuffer(), hint.getValue() );
+		}
+		else if ( dirtyNormals )
 		{
 
 			for ( int f = 0, fl = chunk_faces3.size(); f < fl; f ++ )
@@ -1076,7 +1165,17 @@ public class Mesh extends GeometryObject
 
 		}
 
-		if ( dirtyUvs && obj_uvs != null && !obj_uvs.isEmpty() )
+		if ( dirtyUvs && compact != null )
+		{
+			offset_uv = compact.packUvs( chunk_faces3, uvArray );
+
+			if ( offset_uv > 0 )
+			{
+				gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometryGroup.__webglUVBuffer);
+				gl.glBufferData(BufferTarget.ARRAY_BUFFER.getValue(), uvArray.getByteLength(), uvArray.getTypedBuffer(), hint.getValue() );
+			}
+		}
+		else if ( dirtyUvs && obj_uvs != null && !obj_uvs.isEmpty() )
 		{
 			for (int  f = 0, fl = chunk_faces3.size(); f < fl; f ++ )
 			{
@@ -18,7 +18,6 @@
 
 package org.parallax3d.parallax.graphics.objects;
 
-import java.util.List;
 
 import org.parallax3d.parallax.Log;
 import org.parallax3d.parallax.graphics.core.Geometry;
@@ -165,10 +164,10 @@ public class MorphAnimMesh extends Mesh
 
 		if ( keyframe != this.currentKeyframe )
 		{
-			this.morphTargetInfluences.set( this.lastKeyframe, 0.0);
-			this.morphTargetInfluences.set( this.currentKeyframe, 1.0);
+			this.morphTargetInfluences[ this.lastKeyframe ] = 0.0;
+			this.morphTargetInfluences[ this.currentKeyframe ] = 1.0;
 
-			this.morphTargetInfluences.set( keyframe, 0.0 );
+			this.morphTargetInfluences[ keyframe ] = 0.0;
 
 			this.lastKeyframe = this.currentKeyframe;
 			this.currentKeyframe = keyframe;
@@ -179,25 +178,25 @@ public class MorphAnimMesh extends Mesh
 		if ( this.directionBackwards )
 			mix = 1 - mix;
 
-		this.morphTargetInfluences.set( this.currentKeyframe, mix);
-		this.morphTargetInfluences.set( this.lastKeyframe, 1.0 - mix);
+		this.morphTargetInfluences[ this.currentKeyframe ] = mix;
+		this.morphTargetInfluences[ this.lastKeyframe ] = 1.0 - mix;
 	}
 
 	public void interpolateTargets ( int a, int b, double t ) {
 
-		List<Double> influences = this.morphTargetInfluences;
+		double[] influences = this.morphTargetInfluences;
 
-		for ( int i = 0, l = influences.size(); i < l; i ++ ) {
+		for ( int i = 0, l = influences.length; i < l; i ++ ) {
 
-			influences.set( i, 0.0 );
+			influences[ i ] = 0.0;
 
 		}
 
 		if ( a > -1 ) {
-			influences.set( a, 1.0 - t);
+			influences[ a ] = 1.0 - t;
 		}
 		if ( b > -1 ) {
-			influences.set( b, t);
+			influences[ b ] = t;
 		}
 
 	}
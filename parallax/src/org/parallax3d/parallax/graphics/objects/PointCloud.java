@@ -97,6 +97,28 @@ public class PointCloud extends GeometryObject
 
 		Vector3 position = new Vector3();
 
+		GeometryBVH boundsTree = geometry.getBoundsTree();
+
+		if ( boundsTree != null && boundsTree.getPrimitive() == GeometryBVH.PRIMITIVE.POINTS ) {
+
+			// Only points within the threshold of the ray are tested
+			double localThreshold = RAYCASTER_THRESHOLD / ( ( this.scale.getX() + this.scale.getY() + this.scale.getZ() ) / 3.0 );
+
+			int count = boundsTree.intersectRay( ray, localThreshold );
+			int[] candidates = boundsTree.getResults();
+
+			for ( int i = 0; i < count; i ++ ) {
+
+				int index = boundsTree.getVertexIndex( candidates[ i ], 0 );
+
+				testPoint( raycaster, intersects, ray, boundsTree.getVertex( index, position ), index );
+
+			}
+
+			return;
+
+		}
+
 		if ( geometry instanceof BufferGeometry ) {
 
 			BufferGeometry bGeometry = (BufferGeometry)geometry;
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.objects;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.parallax3d.parallax.Log;
+import org.parallax3d.parallax.graphics.core.Object3D;
+import org.parallax3d.parallax.graphics.textures.DataTexture;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.system.ThreejsObject;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.enums.PixelFormat;
+import org.parallax3d.parallax.system.gl.enums.PixelType;
+import org.parallax3d.parallax.system.gl.enums.TextureMagFilter;
+import org.parallax3d.parallax.system.gl.enums.TextureMinFilter;
+
+/**
+ * Bones and their bind pose, which can be shared by several {@link SkinnedMesh}es.
+ * <p>
+ * The bone matrices are calculated by {@link #update()} only when some of
+ * the bones have moved, so skinned meshes sharing the skeleton share its
+ * bone palette, and its bone texture is uploaded once per pose.
+ */
+@ThreejsObject("THREE.Skeleton")
+public class Skeleton
+{
+	private List<Bone> bones;
+	private List<Matrix4> boneInverses;
+
+	private boolean useVertexTexture;
+
+	private Float32Array boneMatrices;
+
+	private DataTexture boneTexture;
+	private int boneTextureWidth;
+	private int boneTextureHeight;
+
+	// world matrix versions of the bones the palette was calculated from
+	private int[] boneVersions;
+	private boolean isPoseChanged = true;
+	private int poseVersion;
+
+	private Matrix4 offsetMatrix = new Matrix4();
+
+	public Skeleton( List<Bone> bones, boolean useVertexTexture )
+	{
+		this( bones, null, useVertexTexture );
+	}
+
+	/**
+	 * @param bones            the bones
+	 * @param boneInverses     inverses of the bone world matrices in the bind pose,
+	 *                         calculated from the current pose if null
+	 * @param useVertexTexture keep the bone matrices in a float texture
+	 */
+	public Skeleton( List<Bone> bones, List<Matrix4> boneInverses, boolean useVertexTexture )
+	{
+		this.useVertexTexture = useVertexTexture;
+		this.bones = new ArrayList<Bone>( bones );
+		this.boneVersions = new int[ this.bones.size() ];
+
+		if ( this.useVertexTexture )
+		{
+			// layout (1 matrix = 4 pixels)
+			//      RGBA RGBA RGBA RGBA (=> column1, column2, column3, column4)
+			//  with  8x8  pixel texture max   16 bones  (8 * 8  / 4)
+			//       16x16 pixel texture max   64 bones (16 * 16 / 4)
+			//       32x32 pixel texture max  256 bones (32 * 32 / 4)
+			//       64x64 pixel texture max 1024 bones (64 * 64 / 4)
+
+			int size;
+
+			if ( this.bones.size() > 256 )
+				size = 64;
+			else if ( this.bones.size() > 64 )
+				size = 32;
+			else if ( this.bones.size() > 16 )
+				size = 16;
+			else
+				size = 8;
+
+			this.boneTextureWidth = size;
+			this.boneTextureHeight = size;
+
+			this.boneMatrices = Float32Array.create( size * size * 4 );
+
+			this.boneTexture = new DataTexture( this.boneMatrices, size, size, PixelFormat.RGBA, PixelType.FLOAT );
+			this.boneTexture.setMinFilter( TextureMinFilter.NEAREST );
+			this.boneTexture.setMagFilter( TextureMagFilter.NEAREST );
+			this.boneTexture.setGenerateMipmaps( false );
+			this.boneTexture.setFlipY( false );
+		}
+		else
+		{
+			this.boneMatrices = Float32Array.create( 16 * this.bones.size() );
+		}
+
+		if ( boneInverses == null )
+		{
+			this.calculateInverses();
+		}
+		else if ( boneInverses.size() == this.bones.size() )
+		{
+			this.boneInverses = new ArrayList<Matrix4>( boneInverses );
+		}
+		else
+		{
+			Log.warn( "Skeleton: the number of bone inverses does not match the number of bones." );
+
+			this.boneInverses = new ArrayList<Matrix4>();
+
+			for ( int b = 0, bl = this.bones.size(); b < bl; b ++ )
+				this.boneInverses.add( new Matrix4() );
+		}
+	}
+
+	public List<Bone> getBones() {
+		return bones;
+	}
+
+	public List<Matrix4> getBoneInverses() {
+		return boneInverses;
+	}
+
+	public boolean isUseVertexTexture() {
+		return useVertexTexture;
+	}
+
+	/**
+	 * Gets the bone palette: the matrices which transform the vertices
+	 * from the bind pose to the current pose.
+	 */
+	public Float32Array getBoneMatrices() {
+		return boneMatrices;
+	}
+
+	/**
+	 * Gets the texture of the bone palette, null if the skeleton does not
+	 * use vertex texture.
+	 */
+	public DataTexture getBoneTexture() {
+		return boneTexture;
+	}
+
+	public int getBoneTextureWidth() {
+		return boneTextureWidth;
+	}
+
+	public int getBoneTextureHeight() {
+		return boneTextureHeight;
+	}
+
+	/**
+	 * Gets the number of times the bone palette has changed.
+	 */
+	public int getPoseVersion() {
+		return poseVersion;
+	}
+
+	/**
+	 * Makes the current pose the bind pose.
+	 */
+	public void calculateInverses()
+	{
+		this.boneInverses = new ArrayList<Matrix4>();
+
+		for ( int b = 0, bl = this.bones.size(); b < bl; b ++ )
+		{
+			Matrix4 inverse = new Matrix4();
+			inverse.getInverse( this.bones.get( b ).getMatrixWorld() );
+
+			this.boneInverses.add( inverse );
+		}
+
+		this.isPoseChanged = true;
+	}
+
+	/**
+	 * Returns the bones to the bind pose.
+	 */
+	public void pose()
+	{
+		// recover the bind-time world matrices
+
+		for ( int b = 0, bl = this.bones.size(); b < bl; b ++ )
+			this.bones.get( b ).getMatrixWorld().getInverse( this.boneInverses.get( b ) );
+
+		// compute the local matrices, positions, rotations and scales
+
+		for ( int b = 0, bl = this.bones.size(); b < bl; b ++ )
+		{
+			Bone bone = this.bones.get( b );
+			Object3D parent = bone.getParent();
+
+			if ( parent != null )
+			{
+				bone.getMatrix().getInverse( parent.getMatrixWorld() );
+				bone.getMatrix().multiply( bone.getMatrixWorld() );
+			}
+			else
+			{
+				bone.getMatrix().copy( bone.getMatrixWorld() );
+			}
+
+			bone.getMatrix().decompose( bone.getPosition(), bone.getQuaternion(), bone.getScale() );
+		}
+
+		this.isPoseChanged = true;
+	}
+
+	/**
+	 * Calculates the bone palette if some of the bones have moved since
+	 * the last update.
+	 *
+	 * @return true if the palette has changed
+	 */
+	public boolean update()
+	{
+		boolean changed = this.isPoseChanged;
+
+		for ( int b = 0, bl = this.bones.size(); b < bl; b ++ )
+		{
+			int version = this.bones.get( b ).getMatrixWorldVersion();
+
+			if ( version != this.boneVersions[ b ] )
+			{
+				this.boneVersions[ b ] = version;
+				changed = true;
+			}
+		}
+
+		if ( !changed )
+			return false;
+
+		// flatten bone matrices to array
+
+		float[] offset = this.offsetMatrix.getArray();
+
+		for ( int b = 0, bl = this.bones.size(); b < bl; b ++ )
+		{
+			// compute the offset between the current and the original transform
+
+			this.offsetMatrix.multiply( this.bones.get( b ).getMatrixWorld(), this.boneInverses.get( b ) );
+			this.boneMatrices.set( offset, 0, 16, b * 16 );
+		}
+
+		if ( this.useVertexTexture )
+			this.boneTexture.setNeedsUpdate( true );
+
+		this.isPoseChanged = false;
+		this.poseVersion ++;
+
+		return true;
+	}
+
+	public Skeleton clone()
+	{
+		return new Skeleton( this.bones, this.boneInverses, this.useVertexTexture );
+	}
+}
@@ -23,7 +23,7 @@ import java.util.List;
 
 import org.parallax3d.parallax.Log;
 import org.parallax3d.parallax.system.ThreejsObject;
-import org.parallax3d.parallax.graphics.textures.Texture;
+import org.parallax3d.parallax.graphics.textures.DataTexture;
 import org.parallax3d.parallax.graphics.core.AbstractGeometry;
 import org.parallax3d.parallax.graphics.core.Geometry;
 import org.parallax3d.parallax.graphics.materials.Material;
@@ -36,18 +36,20 @@ import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 @ThreejsObject("THREE.SkinnedMesh")
 public class SkinnedMesh extends Mesh {
 
-	public Texture boneTexture;
-	public Float32Array boneMatrices = (Float32Array) Float32Array.createArray();
-
 	private String bindMode = "attached";
 	private Matrix4 bindMatrix = new Matrix4();
 	private Matrix4 bindMatrixInverse = new Matrix4();
-	private boolean useVertexTexture;
-	List<Bone> bones = new ArrayList<Bone>();
+
+	private Skeleton skeleton;
+
+	// world matrix version the bind matrix inverse was calculated for
+	private int bindMatrixVersion = -1;
 
 	public SkinnedMesh(AbstractGeometry geometry, Material material, boolean useVertexTexture) {
 		super(geometry, material);
 
+		List<Bone> bones = new ArrayList<Bone>();
+
 		// init bones
 
 		// TODO: remove bone creation as there is no reason (other than
@@ -104,40 +106,102 @@ public class SkinnedMesh extends Mesh {
 		this.normalizeSkinWeights();
 
 		this.updateMatrixWorld( true );
-//		this.bind( new THREE.Skeleton( bones, undefined, useVertexTexture ) );
+		this.bind( new Skeleton( bones, useVertexTexture ) );
 
 	}
 
-	public List<Bone> getBones() {
-		return bones;
+	/**
+	 * Creates the mesh skinned by the skeleton, which can be shared with
+	 * other meshes. The bind pose of the skeleton is kept.
+	 */
+	public SkinnedMesh(AbstractGeometry geometry, Material material, Skeleton skeleton) {
+		super(geometry, material);
+
+		this.normalizeSkinWeights();
+
+		this.updateMatrixWorld( true );
+		this.bind( skeleton, this.matrixWorld );
 	}
 
-	public void setBones(List<Bone> bones) {
-		this.bones = bones;
+	/**
+	 * Binds the skeleton in its current pose, which becomes the bind pose.
+	 */
+	public void bind( Skeleton skeleton ) {
+		this.bind( skeleton, null );
 	}
 
-	public boolean isUseVertexTexture() {
-		return useVertexTexture;
+	/**
+	 * Binds the skeleton.
+	 *
+	 * @param bindMatrix the world matrix of the mesh in the bind pose, if null
+	 *                   the current pose of the skeleton becomes the bind pose
+	 */
+	public void bind( Skeleton skeleton, Matrix4 bindMatrix ) {
+
+		this.skeleton = skeleton;
+
+		if ( bindMatrix == null ) {
+
+			this.updateMatrixWorld( true );
+
+			this.skeleton.calculateInverses();
+
+			bindMatrix = this.matrixWorld;
+
+		}
+
+		this.bindMatrix.copy( bindMatrix );
+		this.bindMatrixInverse.getInverse( bindMatrix );
+		this.bindMatrixVersion = -1;
+
+	}
+
+	/**
+	 * Returns the skeleton to the bind pose.
+	 */
+	public void pose() {
+		this.skeleton.pose();
 	}
 
-	public void setUseVertexTexture(boolean useVertexTexture) {
-		this.useVertexTexture = useVertexTexture;
+	public Skeleton getSkeleton() {
+		return skeleton;
 	}
 
-	public Texture getBoneTexture() {
-		return boneTexture;
+	public List<Bone> getBones() {
+		return skeleton.getBones();
+	}
+
+	public boolean isUseVertexTexture() {
+		return skeleton.isUseVertexTexture();
 	}
 
-	public void setBoneTexture(Texture boneTexture) {
-		this.boneTexture = boneTexture;
+	public DataTexture getBoneTexture() {
+		return skeleton.getBoneTexture();
 	}
 
 	public Float32Array getBoneMatrices() {
-		return boneMatrices;
+		return skeleton.getBoneMatrices();
 	}
 
-	public void setBoneMatrices(Float32Array boneMatrices) {
-		this.boneMatrices = boneMatrices;
+	public String getBindMode() {
+		return bindMode;
+	}
+
+	/**
+	 * @param bindMode "attached" if the skeleton moves with the mesh,
+	 *                 "detached" if it is positioned independently
+	 */
+	public void setBindMode(String bindMode) {
+		this.bindMode = bindMode;
+		this.bindMatrixVersion = -1;
+	}
+
+	public Matrix4 getBindMatrix() {
+		return bindMatrix;
+	}
+
+	public Matrix4 getBindMatrixInverse() {
+		return bindMatrixInverse;
 	}
 
 	public void normalizeSkinWeights () {
@@ -172,13 +236,19 @@ public class SkinnedMesh extends Mesh {
 
 	public void updateMatrixWorld( boolean force ) {
 
-		super.updateMatrixWorld( true );
+		// the bones are not forced, so the skeleton can tell whether they have moved
+		super.updateMatrixWorld( force );
+
+		if ( this.bindMatrixVersion == this.matrixWorldVersion )
+			return;
+
+		this.bindMatrixVersion = this.matrixWorldVersion;
 
-		if ( this.bindMode == "attached" ) {
+		if ( "attached".equals( this.bindMode ) ) {
 
 			this.bindMatrixInverse.getInverse( this.matrixWorld );
 
-		} else if ( this.bindMode == "detached" ) {
+		} else if ( "detached".equals( this.bindMode ) ) {
 
 			this.bindMatrixInverse.getInverse( this.bindMatrix );
 
@@ -191,7 +261,7 @@ public class SkinnedMesh extends Mesh {
 	}
 
 	public SkinnedMesh clone() {
-		return clone(new SkinnedMesh( getGeometry(), getMaterial(), this.useVertexTexture ));
+		return clone(new SkinnedMesh( getGeometry(), getMaterial(), isUseVertexTexture() ));
 	}
 
 	public SkinnedMesh clone( SkinnedMesh object ) {
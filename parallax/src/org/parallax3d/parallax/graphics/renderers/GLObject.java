@@ -22,9 +22,17 @@ import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.graphics.core.AbstractGeometry;
 import org.parallax3d.parallax.graphics.core.GeometryGroup;
 import org.parallax3d.parallax.graphics.core.GeometryObject;
+import org.parallax3d.parallax.graphics.materials.HasAlphaMap;
+import org.parallax3d.parallax.graphics.materials.HasBumpMap;
+import org.parallax3d.parallax.graphics.materials.HasEnvMap;
+import org.parallax3d.parallax.graphics.materials.HasLightMap;
+import org.parallax3d.parallax.graphics.materials.HasMap;
+import org.parallax3d.parallax.graphics.materials.HasNormalMap;
+import org.parallax3d.parallax.graphics.materials.HasSpecularMap;
 import org.parallax3d.parallax.graphics.materials.Material;
 import org.parallax3d.parallax.graphics.materials.MeshFaceMaterial;
 import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.textures.Texture;
 
 @ThreejsObject("THREE.WebGLObjects")
 public class GLObject implements Comparable<GLObject>
@@ -40,6 +48,8 @@ public class GLObject implements Comparable<GLObject>
 	public Material transparent;
 	// render depth
 	public double z;
+	// packed render state and depth, see updateSortKey()
+	public long sortKey;
 
 	public GLObject(GLGeometry buffer, GeometryObject object)
 	{
@@ -117,6 +127,84 @@ public class GLObject implements Comparable<GLObject>
 		}
 	}
 
+	/**
+	 * Packs the render state and {@link #z} of the object into {@link #sortKey}.
+	 * <p>
+	 * Render lists are drawn from the last object to the first one, so the
+	 * objects with larger keys are drawn first. Opaque objects are grouped by
+	 * program, material and textures and drawn front-to-back inside each group:
+	 * <pre>
+	 * | program 16 | material 16 | textures 12 | inverted depth 20 |
+	 * </pre>
+	 * Transparent objects have to be drawn back-to-front, so depth goes first
+	 * and the state only orders objects at the same depth:
+	 * <pre>
+	 * | depth 24 | program 16 | material 12 | textures 12 |
+	 * </pre>
+	 */
+	public void updateSortKey()
+	{
+		long program = material.getShader().getProgram() & 0xffffL;
+		long textures = getTexturesKey( material ) & 0xfffL;
+
+		if ( material.isTransparent() )
+		{
+			this.sortKey = getDepthBucket( z, 24 ) << 40
+					| program << 24
+					| ( material.getId() & 0xfffL ) << 12
+					| textures;
+		}
+		else
+		{
+			this.sortKey = program << 48
+					| ( material.getId() & 0xffffL ) << 32
+					| textures << 20
+					| ( 0xfffffL - getDepthBucket( z, 20 ) );
+		}
+	}
+
+	/*
+	 * Quantizes the depth to the given number of bits, keeping the order of any
+	 * values: normalized device coordinates as well as custom render depths.
+	 */
+	private static long getDepthBucket( double z, int bits )
+	{
+		double t = 0.5 + 0.5 * z / ( 1.0 + Math.abs( z ) );
+		long max = ( 1L << bits ) - 1;
+
+		return Math.max( 0, Math.min( max, (long)( t * max ) ) );
+	}
+
+	/*
+	 * Hash of the textures the material binds, only equal sets matter here
+	 */
+	private static int getTexturesKey( Material material )
+	{
+		int key = 0;
+
+		if ( material instanceof HasMap )
+			key = getTexturesKey( key, ((HasMap) material).getMap() );
+		if ( material instanceof HasEnvMap )
+			key = getTexturesKey( key, ((HasEnvMap) material).getEnvMap() );
+		if ( material instanceof HasLightMap )
+			key = getTexturesKey( key, ((HasLightMap) material).getLightMap() );
+		if ( material instanceof HasNormalMap )
+			key = getTexturesKey( key, ((HasNormalMap) material).getNormalMap() );
+		if ( material instanceof HasBumpMap )
+			key = getTexturesKey( key, ((HasBumpMap) material).getBumpMap() );
+		if ( material instanceof HasSpecularMap )
+			key = getTexturesKey( key, ((HasSpecularMap) material).getSpecularMap() );
+		if ( material instanceof HasAlphaMap )
+			key = getTexturesKey( key, ((HasAlphaMap) material).getAlphaMap() );
+
+		return key ^ ( key >>> 12 ) ^ ( key >>> 24 );
+	}
+
+	private static int getTexturesKey( int key, Texture texture )
+	{
+		return 31 * key + ( texture != null ? texture.getId() + 1 : 0 );
+	}
+
 	@Override
 	public int compareTo(GLObject o)
 	{
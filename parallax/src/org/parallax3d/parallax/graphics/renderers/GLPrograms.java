@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.graphics.renderers.shaders.ProgramParameters;
+import org.parallax3d.parallax.graphics.renderers.shaders.Shader;
+import org.parallax3d.parallax.system.IntMap;
+import org.parallax3d.parallax.system.gl.GL20;
+
+/**
+ * Cache of the shader programs built by the renderer.
+ * <p>
+ * Programs are looked up by the fingerprint of the material shader sources and
+ * the {@link ProgramParameters}, and are shared between materials. Each material
+ * holds a reference to its program, the program is deleted once no material
+ * uses it.
+ */
+public class GLPrograms
+{
+	private static class Key
+	{
+		private final long fingerprint;
+		private final String vertexSource;
+		private final String fragmentSource;
+		private final ProgramParameters parameters;
+
+		public Key(Shader shader, ProgramParameters parameters)
+		{
+			this.fingerprint = shader.getFingerprint();
+			this.vertexSource = shader.getVertexSource();
+			this.fragmentSource = shader.getFragmentSource();
+			this.parameters = parameters;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (int)( fingerprint ^ ( fingerprint >>> 32 ) ) * 31 + parameters.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if ( !( obj instanceof Key ) )
+				return false;
+
+			Key key = (Key) obj;
+
+			// the sources are compared in full, fingerprints of different sources can collide
+			return fingerprint == key.fingerprint && parameters.equals( key.parameters )
+					&& vertexSource.equals( key.vertexSource ) && fragmentSource.equals( key.fragmentSource );
+		}
+	}
+
+	private static class Program
+	{
+		private final Key key;
+		private final Shader shader;
+		// the shader of a material can be built again into another program
+		private final int glProgram;
+		private int usedTimes;
+
+		public Program(Key key, Shader shader)
+		{
+			this.key = key;
+			this.shader = shader;
+			this.glProgram = shader.getProgram();
+		}
+	}
+
+	private final GL20 gl;
+	private final GLRendererInfo info;
+
+	private final Map<Key, Program> programs = new HashMap<Key, Program>();
+
+	// program which each material holds, by material id
+	private final IntMap<Program> materialPrograms = new IntMap<Program>();
+
+	public GLPrograms(GL20 gl, GLRendererInfo info)
+	{
+		this.gl = gl;
+		this.info = info;
+	}
+
+	/**
+	 * Sets the program for the parameters to the material, building it if there is
+	 * no such program yet. The program the material used before is released.
+	 *
+	 * @return the program shader
+	 */
+	public Shader acquire( Material material, ProgramParameters parameters )
+	{
+		Program previous = materialPrograms.get( material.getId() );
+
+		// find the program by the source shader, not the built one
+		if ( previous != null && material.getShader() == previous.shader )
+			material.setShader( null );
+
+		Key key = new Key( material.getShader(), parameters );
+		Program program = programs.get( key );
+
+		if ( program == null )
+		{
+			program = new Program( key, material.buildShader( gl, parameters ) );
+			programs.put( key, program );
+
+			info.getMemory().programs = programs.size();
+		}
+		else
+		{
+			material.setShader( program.shader );
+		}
+
+		program.usedTimes ++;
+		materialPrograms.put( material.getId(), program );
+
+		if ( previous != null )
+			release( previous );
+
+		return program.shader;
+	}
+
+	/**
+	 * Releases the program the material holds. The program is deleted if it was
+	 * the last material using it.
+	 */
+	public void release( Material material )
+	{
+		Program program = materialPrograms.remove( material.getId() );
+
+		if ( program != null )
+			release( program );
+	}
+
+	private void release( Program program )
+	{
+		if ( -- program.usedTimes > 0 )
+			return;
+
+		programs.remove( program.key );
+		gl.glDeleteProgram( program.glProgram );
+
+		info.getMemory().programs = programs.size();
+	}
+
+	/**
+	 * Gets how many materials use the program of the material.
+	 */
+	public int getUsedTimes( Material material )
+	{
+		Program program = materialPrograms.get( material.getId() );
+		return program != null ? program.usedTimes : 0;
+	}
+
+	/**
+	 * Gets the number of programs in the cache.
+	 */
+	public int size()
+	{
+		return programs.size();
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.util.AbstractList;
+
+/**
+ * Render list which is kept by the renderer between frames.
+ * <p>
+ * Clearing does not release the backing storage and sorting uses buffers
+ * owned by the list, so once the list has grown to the size of the scene
+ * no more allocations happen while filling and sorting it every frame.
+ */
+public class GLRenderList extends AbstractList<GLObject>
+{
+	private GLObject[] items;
+	private GLObject[] buffer;
+	private int size;
+
+	// radix sort buffers
+	private long[] keys;
+	private long[] keysBuffer;
+	private int[] counts;
+
+	public GLRenderList()
+	{
+		this(16);
+	}
+
+	public GLRenderList(int initialCapacity)
+	{
+		this.items = new GLObject[ Math.max( initialCapacity, 1 ) ];
+	}
+
+	@Override
+	public GLObject get(int index)
+	{
+		if ( index >= size )
+			throw new IndexOutOfBoundsException( "Index: " + index + ", size: " + size );
+
+		return items[ index ];
+	}
+
+	@Override
+	public GLObject set(int index, GLObject object)
+	{
+		GLObject old = get( index );
+		items[ index ] = object;
+		return old;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public boolean add(GLObject object)
+	{
+		ensureCapacity( size + 1 );
+		items[ size++ ] = object;
+		return true;
+	}
+
+	@Override
+	public void add(int index, GLObject object)
+	{
+		if ( index > size || index < 0 )
+			throw new IndexOutOfBoundsException( "Index: " + index + ", size: " + size );
+
+		ensureCapacity( size + 1 );
+		System.arraycopy( items, index, items, index + 1, size - index );
+		items[ index ] = object;
+		size++;
+	}
+
+	@Override
+	public GLObject remove(int index)
+	{
+		GLObject old = get( index );
+		System.arraycopy( items, index + 1, items, index, size - index - 1 );
+		items[ --size ] = null;
+		return old;
+	}
+
+	/**
+	 * Removes all objects from the list but keeps the storage.
+	 */
+	@Override
+	public void clear()
+	{
+		for ( int i = 0; i < size; i++ )
+			items[ i ] = null;
+
+		size = 0;
+	}
+
+	/**
+	 * Stable radix sort of the list by {@link GLObject#sortKey}, keys are compared
+	 * as unsigned values. It makes a counting pass per byte of the keys and skips
+	 * the bytes which are the same for all objects.
+	 */
+	public void sortByKey()
+	{
+		if ( size < 2 )
+			return;
+
+		if ( buffer == null || buffer.length < size )
+			buffer = new GLObject[ items.length ];
+
+		if ( keys == null || keys.length < size )
+		{
+			keys = new long[ items.length ];
+			keysBuffer = new long[ items.length ];
+			counts = new int[ 256 ];
+		}
+
+		GLObject[] src = items;
+		GLObject[] dst = buffer;
+		long[] srcKeys = keys;
+		long[] dstKeys = keysBuffer;
+
+		for ( int i = 0; i < size; i++ )
+			srcKeys[ i ] = items[ i ].sortKey;
+
+		for ( int shift = 0; shift < 64; shift += 8 )
+		{
+			for ( int i = 0; i < 256; i++ )
+				counts[ i ] = 0;
+
+			for ( int i = 0; i < size; i++ )
+				counts[ (int)( srcKeys[ i ] >>> shift ) & 0xff ]++;
+
+			if ( counts[ (int)( srcKeys[ 0 ] >>> shift ) & 0xff ] == size )
+				continue;
+
+			for ( int i = 0, offset = 0; i < 256; i++ )
+			{
+				int count = counts[ i ];
+				counts[ i ] = offset;
+				offset += count;
+			}
+
+			for ( int i = 0; i < size; i++ )
+			{
+				int k = counts[ (int)( srcKeys[ i ] >>> shift ) & 0xff ]++;
+				dst[ k ] = src[ i ];
+				dstKeys[ k ] = srcKeys[ i ];
+			}
+
+			GLObject[] tmp = src;
+			src = dst;
+			dst = tmp;
+
+			long[] tmpKeys = srcKeys;
+			srcKeys = dstKeys;
+			dstKeys = tmpKeys;
+		}
+
+		if ( src != items )
+			System.arraycopy( src, 0, items, 0, size );
+
+		for ( int i = 0; i < size; i++ )
+			buffer[ i ] = null;
+	}
+
+	private void ensureCapacity(int capacity)
+	{
+		if ( capacity <= items.length )
+			return;
+
+		GLObject[] grown = new GLObject[ Math.max( capacity, items.length << 1 ) ];
+		System.arraycopy( items, 0, grown, 0, size );
+		items = grown;
+	}
+}
@@ -19,10 +19,9 @@
 
 package org.parallax3d.parallax.graphics.renderers;
 
+import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import org.parallax3d.parallax.Log;
@@ -36,9 +35,12 @@ import org.parallax3d.parallax.graphics.lights.SpotLight;
 import org.parallax3d.parallax.graphics.textures.CompressedTexture;
 import org.parallax3d.parallax.graphics.textures.CubeTexture;
 import org.parallax3d.parallax.math.Frustum;
+import org.parallax3d.parallax.math.Sphere;
 import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.graphics.objects.InstancedMesh;
 import org.parallax3d.parallax.graphics.objects.Line;
 import org.parallax3d.parallax.graphics.objects.PointCloud;
+import org.parallax3d.parallax.graphics.objects.Skeleton;
 import org.parallax3d.parallax.graphics.objects.SkinnedMesh;
 import org.parallax3d.parallax.graphics.textures.DataTexture;
 import org.parallax3d.parallax.graphics.textures.Texture;
@@ -47,7 +49,6 @@ import org.parallax3d.parallax.graphics.core.AbstractGeometry;
 import org.parallax3d.parallax.graphics.core.BufferAttribute;
 import org.parallax3d.parallax.graphics.core.BufferGeometry;
 import org.parallax3d.parallax.graphics.core.BufferGeometry.DrawCall;
-import org.parallax3d.parallax.graphics.core.Face3;
 import org.parallax3d.parallax.graphics.core.Geometry;
 import org.parallax3d.parallax.graphics.core.GeometryGroup;
 import org.parallax3d.parallax.graphics.core.GeometryObject;
@@ -77,16 +78,19 @@ import org.parallax3d.parallax.graphics.objects.Mesh;
 import org.parallax3d.parallax.graphics.scenes.AbstractFog;
 import org.parallax3d.parallax.graphics.scenes.FogExp2;
 import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.graphics.scenes.StaticBatching;
 
 import org.parallax3d.parallax.system.FastMap;
+import org.parallax3d.parallax.system.IntMap;
+import org.parallax3d.parallax.system.ParallelExecutor;
 import org.parallax3d.parallax.graphics.textures.TextureData;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.system.gl.GL20;
 import org.parallax3d.parallax.system.gl.GLES20Ext;
+import org.parallax3d.parallax.system.gl.GLInstancedArrays;
 import org.parallax3d.parallax.system.gl.WebGLShaderPrecisionFormat;
 import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 import org.parallax3d.parallax.system.gl.arrays.Int32Array;
-import org.parallax3d.parallax.system.gl.arrays.TypeArray;
 import org.parallax3d.parallax.system.gl.arrays.Uint8Array;
 import org.parallax3d.parallax.system.gl.enums.*;
 
@@ -111,14 +115,15 @@ public class GLRenderer extends Renderer
 
 	private GLRendererInfo info;
 
+	// render lists are kept between frames and only cleared
 	private List<Light> lights = new ArrayList<Light>();
 
-	public FastMap<List<GLObject>> _webglObjects =  new FastMap<List<GLObject>>();
+	public IntMap<List<GLObject>> _webglObjects =  new IntMap<List<GLObject>>();
 
 	public List<GLObject> _webglObjectsImmediate  = new ArrayList<GLObject>();
 
-	public List<GLObject> opaqueObjects = new ArrayList<GLObject>();
-	public List<GLObject> transparentObjects = new ArrayList<GLObject>();
+	public GLRenderList opaqueObjects = new GLRenderList();
+	public GLRenderList transparentObjects = new GLRenderList();
 
 	public boolean _logarithmicDepthBuffer = false;
 
@@ -147,7 +152,7 @@ public class GLRenderer extends Renderer
 
 	// ---- Internal properties ----------------------------
 
-	public FastMap<Shader> _programs;
+	private GLPrograms _programs;
 
 	private int _currentProgram = 0; //WebGLProgram
 	private int _currentFramebuffer = 0; //WebGLFramebuffer
@@ -160,8 +165,11 @@ public class GLRenderer extends Renderer
 	// GL state cache
 
 	private Material.SIDE cache_oldMaterialSided = null;
+	private Boolean _oldCullFace = null;
+	private FrontFaceDirection _oldFrontFace = null;
 
 	private Material.BLENDING _oldBlending = null;
+	private Boolean _oldBlendEnabled = null;
 
 	private BlendEquationMode _oldBlendEquation = null;
 	private BlendingFactorSrc _oldBlendSrc = null;
@@ -186,9 +194,36 @@ public class GLRenderer extends Renderer
 	private Uint8Array _newAttributes = Uint8Array.create( 16 );
 	private Uint8Array _enabledAttributes = Uint8Array.create( 16 );
 
+	// GL bindings cache, -1 when the binding is unknown
+
+	private int _currentArrayBuffer = -1;
+	private int _currentElementArrayBuffer = -1;
+
+	// buffer, size, stride and offset of each attribute pointer
+	private int[] _attributePointers = new int[ 16 * 4 ];
+
+	private int _currentTextureSlot = -1;
+	// textures bound to the 2D and cube map targets of each unit
+	private int[] _currentTextures = new int[ 16 * 2 ];
+
 	// frustum
 	public Frustum _frustum = new Frustum();
 
+	// objects found in the scene index
+	private List<GeometryObject> _sceneIndexObjects = new ArrayList<GeometryObject>();
+
+	// objects to be culled and projected, and the results of the culling
+	private List<GeometryObject> _projectedObjects = new ArrayList<GeometryObject>();
+	private boolean[] _projectedVisible = new boolean[ 64 ];
+	private CullTask _cullTask = new CullTask();
+
+	// morph targets of the object being drawn, by descending influence
+	private int[] _morphTargetIndices = new int[ 8 ];
+	private double[] _morphTargetValues = new double[ 8 ];
+
+	// static batching of the scene being rendered
+	private StaticBatching _staticBatching;
+
 	// camera matrices cache
 
 	public Matrix4 _projScreenMatrix = new Matrix4();
@@ -196,10 +231,18 @@ public class GLRenderer extends Renderer
 
 	public Vector3 _vector3 = new Vector3();
 
+	// matrices keep their elements on the heap, they are copied here
+	// right before glUniformMatrix*fv
+	private Float32Array _matrixStaging = Float32Array.create( 16 );
+
 	private boolean _lightsNeedUpdate = true;
 
 	private RendererLights _lights;
 
+	private LightClusters _lightClusters;
+
+	private TextureResidency _textureResidency;
+
 	private List<Plugin> plugins;
 
 	// GPU capabilities
@@ -209,6 +252,7 @@ public class GLRenderer extends Renderer
 
 	private boolean _supportsVertexTextures;
 	private boolean _supportsBoneTextures;
+	private boolean _supportsInstancedArrays;
 
 	private WebGLShaderPrecisionFormat _vertexShaderPrecisionHighpFloat;
 	private WebGLShaderPrecisionFormat _vertexShaderPrecisionMediumpFloat;
@@ -236,7 +280,7 @@ public class GLRenderer extends Renderer
 		this.setInfo(new GLRendererInfo());
 
 		this._lights           = new RendererLights();
-		this._programs         = new FastMap<Shader>();
+		this._programs         = new GLPrograms( gl, this.getInfo() );
 
 		this._maxTextures       = this.getIntGlParam(GL20.GL_MAX_TEXTURE_IMAGE_UNITS);
 		this._maxVertexTextures = this.getIntGlParam(GL20.GL_MAX_VERTEX_TEXTURE_IMAGE_UNITS);
@@ -244,6 +288,7 @@ public class GLRenderer extends Renderer
 
 		this._supportsVertexTextures = this._maxVertexTextures > 0 ;
 		this._supportsBoneTextures = this._supportsVertexTextures && GLExtensions.isSupported(gl, GLES20Ext.List.OES_texture_float);
+		this._supportsInstancedArrays = gl instanceof GLInstancedArrays && GLExtensions.isSupported(gl, GLES20Ext.List.ANGLE_instanced_arrays);
 
 		this._vertexShaderPrecisionHighpFloat = new
 				WebGLShaderPrecisionFormat(gl, Shaders.VERTEX_SHADER, ShaderPrecisionSpecifiedTypes.HIGH_FLOAT);
@@ -353,6 +398,23 @@ public class GLRenderer extends Renderer
 		return GLExtensions.isSupported(this.gl, GLES20Ext.List.EXT_blend_minmax);
 	}
 
+	/**
+	 * Whether {@link InstancedMesh} is drawn with one instanced draw call,
+	 * rather than with its merged batch geometry.
+	 */
+	public boolean supportsInstancedArrays()
+	{
+		return this._supportsInstancedArrays;
+	}
+
+	/**
+	 * Gets the cache of the shader programs used by the materials.
+	 */
+	public GLPrograms getPrograms()
+	{
+		return this._programs;
+	}
+
 	public int getMaxAnisotropy()
 	{
 		if (GLExtensions.isSupported(this.gl, GLES20Ext.List.EXT_texture_filter_anisotropic)) {
@@ -459,6 +521,44 @@ public class GLRenderer extends Renderer
 		return isAutoUpdateScene;
 	}
 
+	public LightClusters getLightClusters() {
+		return this._lightClusters;
+	}
+
+	/**
+	 * Enables clustered shading of the point and spot lights with a distance,
+	 * so Lambert and Phong materials evaluate only the lights near each
+	 * pixel or vertex and keep their programs for any number of such lights.
+	 * Requires float and vertex textures, otherwise the clusters are ignored.
+	 * Should be set before the materials are initialized.
+	 *
+	 * @param lightClusters the clusters or null to use the uniforms for all lights
+	 */
+	public void setLightClusters(LightClusters lightClusters) {
+		if ( lightClusters != null && !( this._supportsVertexTextures && supportsFloatTextures() ) )
+		{
+			Log.warn("GLRenderer: clustered lights need float and vertex textures, falling back to the uniforms");
+			lightClusters = null;
+		}
+
+		this._lightClusters = lightClusters;
+		this._lights.clusters = lightClusters;
+	}
+
+	public TextureResidency getTextureResidency() {
+		return this._textureResidency;
+	}
+
+	/**
+	 * Limits the memory of the textures and spreads their uploads over the frames.
+	 *
+	 * @param textureResidency the residency manager or null to upload every texture
+	 *                         when it is bound and keep it until it is deallocated
+	 */
+	public void setTextureResidency(TextureResidency textureResidency) {
+		this._textureResidency = textureResidency;
+	}
+
 	public boolean isLogarithmicDepthBufferEnabled(){
 		return _logarithmicDepthBuffer;
 	}
@@ -524,6 +624,13 @@ public class GLRenderer extends Renderer
 
 		this.gl.glViewport(_viewportX, _viewportY, _viewportWidth, _viewportHeight);
 		this.gl.glClearColor((float)clearColor.getR(), (float)clearColor.getG(), (float)clearColor.getB(), (float)clearAlpha);
+
+		this._oldCullFace = null;
+		this._oldFrontFace = null;
+		this._oldBlendEnabled = null;
+		this._oldDepthTest = null;
+
+		resetBindings();
 	}
 
 	/**
@@ -650,12 +757,139 @@ public class GLRenderer extends Renderer
 		_currentCamera = null;
 
 		_oldBlending = null;
+		_oldBlendEnabled = null;
 		_oldDepthTest = null;
 		_oldDepthWrite = null;
+		_oldCullFace = null;
+		_oldFrontFace = null;
 		_currentGeometryGroupHash = -1;
 		_currentMaterialId = -1;
 
 		_lightsNeedUpdate = true;
+
+		resetBindings();
+	}
+
+	/*
+	 * Forgets cached buffer, attribute pointer and texture bindings. Has to be called
+	 * when somebody else could have bound them directly, like on buffers upload.
+	 */
+	private void resetBindings()
+	{
+		_currentArrayBuffer = -1;
+		_currentElementArrayBuffer = -1;
+
+		for ( int i = 0; i < _attributePointers.length; i ++ )
+			_attributePointers[ i ] = -1;
+
+		resetTextureBindings();
+	}
+
+	private void resetTextureBindings()
+	{
+		_currentTextureSlot = -1;
+
+		for ( int i = 0; i < _currentTextures.length; i ++ )
+			_currentTextures[ i ] = -1;
+	}
+
+	/**
+	 * Binds the buffer unless it is already bound to the target. Objects which
+	 * bind buffers while rendering should use it to keep the binding cache valid.
+	 */
+	public void bindBuffer( BufferTarget target, int buffer )
+	{
+		if ( target == BufferTarget.ELEMENT_ARRAY_BUFFER )
+		{
+			if ( buffer == _currentElementArrayBuffer )
+			{
+				this.getInfo().getState().buffers ++;
+				return;
+			}
+
+			_currentElementArrayBuffer = buffer;
+		}
+		else
+		{
+			if ( buffer == _currentArrayBuffer )
+			{
+				this.getInfo().getState().buffers ++;
+				return;
+			}
+
+			_currentArrayBuffer = buffer;
+		}
+
+		this.gl.glBindBuffer(target.getValue(), buffer);
+	}
+
+	/*
+	 * Points the float attribute to the buffer. The buffer is bound only if the
+	 * pointer is really changed.
+	 */
+	private void vertexAttribPointer( int attribute, int buffer, int size, int stride, int offset )
+	{
+		int i = attribute * 4;
+
+		if ( i >= _attributePointers.length )
+		{
+			int[] pointers = new int[ i + 4 ];
+			System.arraycopy( _attributePointers, 0, pointers, 0, _attributePointers.length );
+
+			for ( int j = _attributePointers.length; j < pointers.length; j ++ )
+				pointers[ j ] = -1;
+
+			_attributePointers = pointers;
+		}
+
+		if ( _attributePointers[ i ] == buffer && _attributePointers[ i + 1 ] == size
+				&& _attributePointers[ i + 2 ] == stride && _attributePointers[ i + 3 ] == offset )
+		{
+			this.getInfo().getState().attributes ++;
+			return;
+		}
+
+		bindBuffer( BufferTarget.ARRAY_BUFFER, buffer );
+		this.gl.glVertexAttribPointer(attribute, size, DataType.FLOAT.getValue(), false, stride, offset);
+
+		_attributePointers[ i ] = buffer;
+		_attributePointers[ i + 1 ] = size;
+		_attributePointers[ i + 2 ] = stride;
+		_attributePointers[ i + 3 ] = offset;
+	}
+
+	/*
+	 * Binds the texture to the unit unless it is already bound there
+	 */
+	private void bindTexture( int slot, TextureTarget target, int texture )
+	{
+		int i = slot * 2 + ( target == TextureTarget.TEXTURE_CUBE_MAP ? 1 : 0 );
+
+		if ( i >= _currentTextures.length )
+		{
+			int[] textures = new int[ i + 2 ];
+			System.arraycopy( _currentTextures, 0, textures, 0, _currentTextures.length );
+
+			for ( int j = _currentTextures.length; j < textures.length; j ++ )
+				textures[ j ] = -1;
+
+			_currentTextures = textures;
+		}
+
+		if ( _currentTextures[ i ] == texture )
+		{
+			this.getInfo().getState().textures ++;
+			return;
+		}
+
+		if ( slot != _currentTextureSlot )
+		{
+			this.gl.glActiveTexture(TextureUnit.TEXTURE0.getValue() + slot);
+			_currentTextureSlot = slot;
+		}
+
+		this.gl.glBindTexture(target.getValue(), texture);
+		_currentTextures[ i ] = texture;
 	}
 
 	private void initAttributes() {
@@ -709,16 +943,14 @@ public class GLRenderer extends Renderer
 
 		if ( object.morphTargetBase != - 1 && attributes.get(POSITION) >= 0)
 		{
-			this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometrybuffer.__webglMorphTargetsBuffers.get(object.morphTargetBase));
 			enableAttribute( attributes.get(POSITION) );
-			this.gl.glVertexAttribPointer(attributes.get(POSITION), 3, DataType.FLOAT.getValue(), false, 0, 0);
+			vertexAttribPointer(attributes.get(POSITION), geometrybuffer.__webglMorphTargetsBuffers.get(object.morphTargetBase), 3, 0, 0);
 
 		}
 		else if ( attributes.get(POSITION) >= 0 )
 		{
-			this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometrybuffer.__webglVertexBuffer);
 			enableAttribute( attributes.get(POSITION) );
-			this.gl.glVertexAttribPointer(attributes.get(POSITION), 3, DataType.FLOAT.getValue(), false, 0, 0);
+			vertexAttribPointer(attributes.get(POSITION), geometrybuffer.__webglVertexBuffer, 3, 0, 0);
 		}
 
 		if ( !object.morphTargetForcedOrder.isEmpty() )
@@ -727,7 +959,7 @@ public class GLRenderer extends Renderer
 
 			int m = 0;
 			List<Integer> order = object.morphTargetForcedOrder;
-			List<Double> influences = object.morphTargetInfluences;
+			double[] influences = object.morphTargetInfluences;
 
 			while ( material instanceof HasSkinning
 					&& m < ((HasSkinning)material).getNumSupportedMorphTargets()
@@ -735,21 +967,19 @@ public class GLRenderer extends Renderer
 					) {
 				if ( attributes.get(MORPH_TARGET + m )  >= 0 )
 				{
-					this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometrybuffer.__webglMorphTargetsBuffers.get(order.get(m)));
 					enableAttribute( attributes.get(MORPH_TARGET + m ) );
-					this.gl.glVertexAttribPointer(attributes.get(MORPH_TARGET + m), 3, DataType.FLOAT.getValue(), false, 0, 0);
+					vertexAttribPointer(attributes.get(MORPH_TARGET + m), geometrybuffer.__webglMorphTargetsBuffers.get(order.get(m)), 3, 0, 0);
 
 				}
 
 				if (  attributes.get(MORPH_NORMAL + m )  >= 0 &&
 						material instanceof HasSkinning && ((HasSkinning)material).isMorphNormals())
 				{
-					this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometrybuffer.__webglMorphNormalsBuffers.get(order.get(m)));
 					enableAttribute( attributes.get(MORPH_NORMAL + m ));
-					this.gl.glVertexAttribPointer(attributes.get(MORPH_NORMAL + m), 3, DataType.FLOAT.getValue(), false, 0, 0);
+					vertexAttribPointer(attributes.get(MORPH_NORMAL + m), geometrybuffer.__webglMorphNormalsBuffers.get(order.get(m)), 3, 0, 0);
 				}
 
-				object.__webglMorphTargetInfluences.set( m , influences.get( order.get( m ) ));
+				object.__webglMorphTargetInfluences.set( m , influences[ order.get( m ) ]);
 
 				m ++;
 			}
@@ -758,89 +988,99 @@ public class GLRenderer extends Renderer
 		{
 			// find most influencing
 
-			List<Double> influences = object.morphTargetInfluences;
-			List<Double[]> activeInfluenceIndices = new ArrayList<Double[]>();
-
-			for ( int i = 0; i < influences.size(); i ++ ) {
-
-				double influence = influences.get( i );
-
-				if ( influence > 0 ) {
-
-					Double[] tmp = new Double[]{influence, (double)i};
-					activeInfluenceIndices.add( tmp );
-
-				}
+			double[] influences = object.morphTargetInfluences;
+			int numSupportedMorphTargets = ((HasSkinning)material).getNumSupportedMorphTargets();
 
+			if ( _morphTargetIndices.length < numSupportedMorphTargets )
+			{
+				_morphTargetIndices = new int[ numSupportedMorphTargets ];
+				_morphTargetValues = new double[ numSupportedMorphTargets ];
 			}
 
-			if ( activeInfluenceIndices.size() > ((HasSkinning)material).getNumSupportedMorphTargets() ) {
-
-				Collections.sort(activeInfluenceIndices, new Comparator<Double[]>() {
-					public int compare(Double[] a, Double[] b) {
-						return (int)(b[ 0 ] - a[ 0 ]);
-					}
-				});
-
-
-			} else if ( activeInfluenceIndices.size() > ((HasSkinning)material).getNumSupportedMorphNormals() ) {
-
-				Collections.sort(activeInfluenceIndices, new Comparator<Double[]>() {
-					public int compare(Double[] a, Double[] b) {
-						return (int)(b[ 0 ] - a[ 0 ]);
-					}
-				});
-
-			} else if ( activeInfluenceIndices.isEmpty() ) {
-
-				activeInfluenceIndices.add(  new Double[]{0.0, 0.0} );
+			int active = selectMorphTargets( influences, numSupportedMorphTargets,
+					_morphTargetIndices, _morphTargetValues );
 
+			if ( active == 0 && influences.length > 0 && numSupportedMorphTargets > 0 )
+			{
+				_morphTargetIndices[ 0 ] = 0;
+				_morphTargetValues[ 0 ] = influences[ 0 ];
+				active = 1;
 			}
 
-			int influenceIndex;
-			int m = 0;
-
-			while ( material instanceof HasSkinning
-					&& m < ((HasSkinning)material).getNumSupportedMorphTargets() )
+			for ( int m = 0; m < numSupportedMorphTargets; m ++ )
 			{
-
-				if ( activeInfluenceIndices.size() > m && activeInfluenceIndices.get( m ) != null )
+				if ( m < active )
 				{
-					influenceIndex = activeInfluenceIndices.get( m )[ 1 ].intValue();
+					int influenceIndex = _morphTargetIndices[ m ];
 
 					if ( attributes.get( MORPH_TARGET + m ) >= 0 ) {
 
-						this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometrybuffer.__webglMorphTargetsBuffers.get(influenceIndex));
 						enableAttribute( attributes.get( MORPH_TARGET + m ) );
-						this.gl.glVertexAttribPointer(attributes.get(MORPH_TARGET + m), 3, DataType.FLOAT.getValue(), false, 0, 0);
+						vertexAttribPointer(attributes.get(MORPH_TARGET + m), geometrybuffer.__webglMorphTargetsBuffers.get(influenceIndex), 3, 0, 0);
 
 					}
 
 					if ( attributes.get( MORPH_NORMAL + m ) >= 0 &&
 							((HasSkinning)material).isMorphNormals() ) {
 
-						this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometrybuffer.__webglMorphNormalsBuffers.get(influenceIndex));
 						enableAttribute( attributes.get( MORPH_NORMAL + m ) );
-						this.gl.glVertexAttribPointer(attributes.get(MORPH_NORMAL + m), 3, DataType.FLOAT.getValue(), false, 0, 0);
+						vertexAttribPointer(attributes.get(MORPH_NORMAL + m), geometrybuffer.__webglMorphNormalsBuffers.get(influenceIndex), 3, 0, 0);
 
 					}
 
-					object.__webglMorphTargetInfluences.set( m, influences.get( influenceIndex ));
+					object.__webglMorphTargetInfluences.set( m, _morphTargetValues[ m ] );
 
 				} else {
 					object.__webglMorphTargetInfluences.set( m, 0);
 				}
-
-				m ++;
 			}
 		}
 
 		// load updated influences uniform
 		if( uniforms.get("morphTargetInfluences").getLocation() != -1 )
+			uniformVector( uniforms.get("morphTargetInfluences"), 1, object.__webglMorphTargetInfluences );
+	}
+
+	/**
+	 * Selects the most influencing morph targets without allocations.
+	 *
+	 * @param influences morph target influences of the object
+	 * @param count      maximum number of targets to select
+	 * @param indices    receives the indices of the selected targets
+	 * @param values     receives the influences of the selected targets
+	 *
+	 * @return the number of targets with positive influence selected,
+	 * ordered by descending influence, then by index
+	 */
+	static int selectMorphTargets( double[] influences, int count, int[] indices, double[] values )
+	{
+		if ( count <= 0 )
+			return 0;
+
+		int selected = 0;
+
+		for ( int i = 0; i < influences.length; i ++ )
 		{
-			Float32Array vals = object.__webglMorphTargetInfluences;
-			this.gl.glUniform1fv(uniforms.get("morphTargetInfluences").getLocation(), 1, vals.getTypedBuffer());
+			double influence = influences[ i ];
+
+			if ( !( influence > 0 ) || ( selected == count && influence <= values[ count - 1 ] ) )
+				continue;
+
+			// insertion keeps the order, the smallest influence drops out when full
+			int j = selected < count ? selected ++ : count - 1;
+
+			while ( j > 0 && values[ j - 1 ] < influence )
+			{
+				indices[ j ] = indices[ j - 1 ];
+				values[ j ] = values[ j - 1 ];
+				j --;
+			}
+
+			indices[ j ] = i;
+			values[ j ] = influence;
 		}
+
+		return selected;
 	}
 
 	public void renderBufferImmediate( GeometryObject object, Shader program, Material material ) {
@@ -849,6 +1089,13 @@ public class GLRenderer extends Renderer
 
 	private void setupVertexAttributes( Material material, Shader program, BufferGeometry geometry, int startIndex ) {
 
+		bindVertexAttributes( program, geometry, startIndex );
+
+		disableUnusedAttributes();
+	}
+
+	private void bindVertexAttributes( Shader program, BufferGeometry geometry, int startIndex ) {
+
 		FastMap<BufferAttribute> geometryAttributes = geometry.getAttributes();
 
 		FastMap<Integer> programAttributes = program.getAttributesLocations();
@@ -864,18 +1111,150 @@ public class GLRenderer extends Renderer
 				if ( geometryAttribute != null ) {
 
 					int size = geometryAttribute.getItemSize();
-					this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometryAttribute.getBuffer());
 
 					enableAttribute( programAttribute );
 
-					this.gl.glVertexAttribPointer(programAttribute, size, DataType.FLOAT.getValue(), false, 0, startIndex * size * 4); // 4 bytes per Float32
+					vertexAttribPointer(programAttribute, geometryAttribute.getBuffer(), size, 0, startIndex * size * 4); // 4 bytes per Float32
 
 				}
 			}
 
 		}
+	}
+
+	private void bindInstanceAttributes( Shader program, InstancedMesh object ) {
+
+		GLInstancedArrays ext = (GLInstancedArrays) this.gl;
+		FastMap<Integer> programAttributes = program.getAttributesLocations();
+
+		Integer matrixAttribute = programAttributes.get( InstancedMesh.INSTANCE_MATRIX );
+
+		if ( matrixAttribute != null && matrixAttribute >= 0 ) {
+
+			// mat4 attribute takes four consecutive locations, one per column
+			for ( int i = 0; i < 4; i ++ ) {
+
+				enableAttribute( matrixAttribute + i );
+				vertexAttribPointer(matrixAttribute + i, object.getInstanceMatrix().getBuffer(), 4, 64, i * 16);
+				ext.glVertexAttribDivisorANGLE( matrixAttribute + i, 1 );
+
+			}
+
+		}
+
+		Integer colorAttribute = programAttributes.get( InstancedMesh.INSTANCE_COLOR );
+
+		if ( colorAttribute != null && colorAttribute >= 0 && object.getInstanceColor() != null ) {
+
+			enableAttribute( colorAttribute );
+			vertexAttribPointer(colorAttribute, object.getInstanceColor().getBuffer(), 3, 0, 0);
+			ext.glVertexAttribDivisorANGLE( colorAttribute, 1 );
+
+		}
+
+	}
+
+	private void resetInstanceAttributes( Shader program ) {
+
+		// Divisors are attribute state, leaving them set would break the next draw
+		GLInstancedArrays ext = (GLInstancedArrays) this.gl;
+		FastMap<Integer> programAttributes = program.getAttributesLocations();
+
+		Integer matrixAttribute = programAttributes.get( InstancedMesh.INSTANCE_MATRIX );
+
+		if ( matrixAttribute != null && matrixAttribute >= 0 )
+			for ( int i = 0; i < 4; i ++ )
+				ext.glVertexAttribDivisorANGLE( matrixAttribute + i, 0 );
+
+		Integer colorAttribute = programAttributes.get( InstancedMesh.INSTANCE_COLOR );
+
+		if ( colorAttribute != null && colorAttribute >= 0 )
+			ext.glVertexAttribDivisorANGLE( colorAttribute, 0 );
+
+	}
+
+	/**
+	 * Draws all instances of the mesh with the instanced arrays extension.
+	 */
+	private void renderInstances( Material material, Shader program, BufferGeometry geometry, InstancedMesh object ) {
+
+		int count = object.getCount();
+
+		if ( count == 0 )
+			return;
+
+		GLInstancedArrays ext = (GLInstancedArrays) this.gl;
+
+		BeginMode mode = material instanceof HasWireframe && ((HasWireframe)material).isWireframe() ? BeginMode.LINES : BeginMode.TRIANGLES;
+
+		// instance attributes are not part of the geometry group hash
+		this._currentGeometryGroupHash = -1;
+
+		initAttributes();
+
+		BufferAttribute index = geometry.getAttribute("index");
+
+		if ( index != null ) {
+
+			DrawElementsType type = DrawElementsType.UNSIGNED_SHORT;
+			int size = 2;
+
+			List<DrawCall> drawcalls = geometry.getDrawcalls();
+
+			if ( drawcalls.isEmpty() ) {
+
+				bindVertexAttributes( program, geometry, 0 );
+				bindInstanceAttributes( program, object );
+				disableUnusedAttributes();
+
+				bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, index.getBuffer() );
+
+				ext.glDrawElementsInstancedANGLE( mode.getValue(), index.getArray().getLength(), type.getValue(), 0, count );
+
+				this.info.getRender().calls ++;
+				this.info.getRender().vertices += index.getArray().getLength() * count;
+				this.info.getRender().faces += index.getArray().getLength() / 3 * count;
+
+			} else {
+
+				for ( int i = 0, il = drawcalls.size(); i < il; i ++ ) {
+
+					DrawCall drawcall = drawcalls.get( i );
+
+					bindVertexAttributes( program, geometry, drawcall.index );
+					bindInstanceAttributes( program, object );
+					disableUnusedAttributes();
+
+					bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, index.getBuffer() );
+
+					ext.glDrawElementsInstancedANGLE( mode.getValue(), drawcall.count, type.getValue(), drawcall.start * size, count );
+
+					this.info.getRender().calls ++;
+					this.info.getRender().vertices += drawcall.count * count;
+					this.info.getRender().faces += drawcall.count / 3 * count;
+
+				}
+
+			}
+
+		} else {
+
+			bindVertexAttributes( program, geometry, 0 );
+			bindInstanceAttributes( program, object );
+			disableUnusedAttributes();
+
+			int vertices = geometry.getAttribute(POSITION).getArray().getLength() / 3;
+
+			ext.glDrawArraysInstancedANGLE( mode.getValue(), 0, vertices, count );
+
+			this.info.getRender().calls ++;
+			this.info.getRender().vertices += vertices * count;
+			this.info.getRender().faces += vertices / 3 * count;
+
+		}
+
+		resetInstanceAttributes( program );
 
-		disableUnusedAttributes();
 	}
 
 
@@ -888,7 +1267,18 @@ public class GLRenderer extends Renderer
 
 		Shader program = setProgram(camera, lights, fog, material, object);
 
-		material.getShader().getAttributesLocations();
+		if ( object instanceof InstancedMesh ) {
+
+			if ( this._supportsInstancedArrays ) {
+
+				renderInstances( material, program, geometry, (InstancedMesh) object );
+				return;
+
+			}
+
+			geometry = ((InstancedMesh) object).getBatchGeometry();
+
+		}
 
 		boolean updateBuffers = false;
 		int wireframeBit = material instanceof HasWireframe &&
@@ -930,7 +1320,7 @@ public class GLRenderer extends Renderer
 
 						setupVertexAttributes( material, program, geometry, 0 );
 
-						this.gl.glBindBuffer(BufferTarget.ELEMENT_ARRAY_BUFFER.getValue(), index.getBuffer());
+						bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, index.getBuffer() );
 
 					}
 
@@ -952,7 +1342,7 @@ public class GLRenderer extends Renderer
 						int startIndex = offsets.get( i ).index;
 
 						setupVertexAttributes( material, program, geometry, startIndex );
-						this.gl.glBindBuffer(BufferTarget.ELEMENT_ARRAY_BUFFER.getValue(), index.getBuffer());
+						bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, index.getBuffer() );
 
 						this.gl.glDrawElements( mode.getValue(), offsets.get( i ).count, type.getValue(), offsets.get( i ).start * size  );
 
@@ -1028,7 +1418,7 @@ public class GLRenderer extends Renderer
 					if ( updateBuffers ) {
 
 						setupVertexAttributes( material, program, geometry, 0 );
-						this.gl.glBindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER.getValue(), index.getBuffer() );
+						bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, index.getBuffer() );
 
 					}
 
@@ -1055,7 +1445,7 @@ public class GLRenderer extends Renderer
 						if ( updateBuffers ) {
 
 							setupVertexAttributes( material, program, geometry, startIndex );
-							this.gl.glBindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER.getValue(), index.getBuffer() );
+							bindBuffer( BufferTarget.ELEMENT_ARRAY_BUFFER, index.getBuffer() );
 
 						}
 
@@ -1109,8 +1499,7 @@ public class GLRenderer extends Renderer
 
 		for ( int f = 0, fl = geometry.getFaces().size(); f < fl; f ++ ) {
 
-			Face3 face = geometry.getFaces().get(f);
-			Integer materialIndex = usesFaceMaterial ? face.getMaterialIndex() : 0;
+			Integer materialIndex = usesFaceMaterial ? geometry.getFaces().get(f).getMaterialIndex() : 0;
 
 			if ( ! hashMap.containsKey(materialIndex) ) {
 
@@ -1160,12 +1549,12 @@ public class GLRenderer extends Renderer
 		Material material = object.getMaterial();
 		boolean addBuffers;
 
-		if ( GeometryGroup.geometryGroups.get( Integer.toString(geometry.getId()) ) == null ||
+		if ( GeometryGroup.geometryGroups.get( geometry.getId() ) == null ||
 				geometry.isGroupsNeedUpdate() ) {
 
-			this._webglObjects.put(Integer.toString(object.getId()), new ArrayList<GLObject>());
+			this._webglObjects.put( object.getId(), new ArrayList<GLObject>() );
 
-			GeometryGroup.geometryGroups.put( Integer.toString(geometry.getId()),
+			GeometryGroup.geometryGroups.put( geometry.getId(),
 					makeGroups( geometry, material instanceof MeshFaceMaterial ));
 
 			geometry.setGroupsNeedUpdate( false );
@@ -1173,7 +1562,7 @@ public class GLRenderer extends Renderer
 		}
 
 		List<GeometryGroup> geometryGroupsList =
-				GeometryGroup.geometryGroups.get( Integer.toString(geometry.getId()) );
+				GeometryGroup.geometryGroups.get( geometry.getId() );
 
 		// create separate VBOs per geometry chunk
 		for ( int i = 0, il = geometryGroupsList.size(); i < il; i ++ ) {
@@ -1249,132 +1638,304 @@ public class GLRenderer extends Renderer
 					((Line)object).createBuffers(this);
 					((Line)object).initBuffers(this.gl);
 
-					geometry.setVerticesNeedUpdate( true );
-					geometry.setColorsNeedUpdate( true );
-					geometry.setLineDistancesNeedUpdate( true );
+					geometry.setVerticesNeedUpdate( true );
+					geometry.setColorsNeedUpdate( true );
+					geometry.setLineDistancesNeedUpdate( true );
+
+				}
+
+			} else if ( object instanceof PointCloud && geometry.__webglVertexBuffer == 0 ) {
+
+					((PointCloud)object).createBuffers(this);
+					((PointCloud)object).initBuffers(this.gl);
+
+					geometry.setVerticesNeedUpdate( true );
+					geometry.setColorsNeedUpdate( true );
+
+			}
+
+		}
+
+		if ( !object.__webglActive ) {
+
+			object.__webglActive = true;
+
+			if ( object instanceof Mesh ) {
+
+				if ( geometry instanceof BufferGeometry ) {
+
+					addBuffer( geometry, (GeometryObject) object );
+
+				} else if ( geometry instanceof Geometry ) {
+
+					List<GeometryGroup> geometryGroupsList =
+							GeometryGroup.geometryGroups.get( geometry.getId() );
+
+					for ( int i = 0,l = geometryGroupsList.size(); i < l; i ++ ) {
+
+						addBuffer( geometryGroupsList.get( i ), (GeometryObject) object );
+
+					}
+
+				}
+
+			} else if ( object instanceof Line || object instanceof PointCloud ) {
+				addBuffer( geometry, (GeometryObject) object );
+			}
+		}
+
+	}
+
+	private void addBuffer( GLGeometry buffer, GeometryObject object ) {
+
+		int id = object.getId();
+		List<GLObject> list = _webglObjects.get(id);
+		if(list == null) {
+			list = new ArrayList<GLObject>();
+			_webglObjects.put(id, list);
+		}
+
+		GLObject webGLObject = new GLObject(buffer, object);
+		webGLObject.id = id;
+		list.add(webGLObject);
+	}
+
+	private void projectObject( Object3D scene, Object3D object ) {
+
+		if ( !object.isVisible() ) {
+			return;
+		}
+
+		if ( object instanceof Scene /*|| object instanceof Group */) {
+
+			// skip
+
+		} else {
+
+			if ( object instanceof Light ) {
+
+				lights.add( (Light) object );
+
+			} else if ( !isStaticBatched( object ) ) {
+
+				addProjectedObject( scene, object );
+
+			}
+
+		}
+
+		for ( int i = 0, l = object.getChildren().size(); i < l; i ++ ) {
+
+			projectObject( scene, object.getChildren().get( i ) );
+
+		}
+
+	}
+
+	/*
+	 * Collects lights and visible objects from the scene index instead of walking the scene graph
+	 */
+	private void projectSceneIndex( Scene scene ) {
+
+		List<Light> sceneLights = scene.getLights();
+
+		for ( int i = 0, l = sceneLights.size(); i < l; i ++ ) {
+
+			Light light = sceneLights.get( i );
+
+			if ( isVisibleInScene( light ) )
+				lights.add( light );
+
+		}
+
+		_sceneIndexObjects.clear();
+		scene.getSceneIndex().intersectFrustum( _frustum, _sceneIndexObjects );
+
+		// The index is conservative, the bounding spheres are tested as for the scene graph
+		for ( int i = 0, l = _sceneIndexObjects.size(); i < l; i ++ )
+			addIndexedObject( scene, _sceneIndexObjects.get( i ) );
+
+		List<GeometryObject> unindexedObjects = scene.getUnindexedObjects();
+
+		for ( int i = 0, l = unindexedObjects.size(); i < l; i ++ )
+			addIndexedObject( scene, unindexedObjects.get( i ) );
+
+	}
+
+	private void addIndexedObject( Scene scene, GeometryObject object ) {
+
+		if ( !isVisibleInScene( object ) || isStaticBatched( object ) )
+			return;
+
+		addProjectedObject( scene, object );
+
+	}
+
+	/*
+	 * Initializes the object and queues it for culling
+	 */
+	private void addProjectedObject( Object3D scene, Object3D object ) {
+
+		initObject( object, scene );
+
+		if ( this._webglObjects.get( object.getId() ) == null )
+			return;
+
+		GeometryObject geometryObject = (GeometryObject) object;
+
+		// shared skeletons calculate the bone palette once per pose
+		if ( object instanceof SkinnedMesh )
+			((SkinnedMesh) object).getSkeleton().update();
+
+		// computed here, the culling may run on several threads
+		if ( geometryObject.isFrustumCulled() && geometryObject.getGeometry().getBoundingSphere() == null )
+			geometryObject.getGeometry().computeBoundingSphere();
+
+		_projectedObjects.add( geometryObject );
+
+	}
+
+	/*
+	 * Culls the queued objects, in parallel if possible, and projects the visible
+	 * ones in the order they were queued.
+	 */
+	private void projectQueuedObjects( Object3D scene ) {
+
+		int count = _projectedObjects.size();
+
+		if ( _projectedVisible.length < count )
+			_projectedVisible = new boolean[ Math.max( count, _projectedVisible.length * 2 ) ];
 
-				}
+		boolean[] visible = _projectedVisible;
 
-			} else if ( object instanceof PointCloud && geometry.__webglVertexBuffer == 0 ) {
+		ParallelExecutor.get().run( count, _cullTask );
 
-					((PointCloud)object).createBuffers(this);
-					((PointCloud)object).initBuffers(this.gl);
+		for ( int i = 0; i < count; i ++ ) {
 
-					geometry.setVerticesNeedUpdate( true );
-					geometry.setColorsNeedUpdate( true );
+			if ( visible[ i ] ) {
+
+				GeometryObject object = _projectedObjects.get( i );
+				projectObject( scene, object, this._webglObjects.get( object.getId() ) );
 
 			}
 
 		}
 
-		if ( !object.__webglActive ) {
+		_projectedObjects.clear();
 
-			object.__webglActive = true;
+	}
 
-			if ( object instanceof Mesh ) {
+	/*
+	 * Culls a range of the queued objects. Each running range borrows a
+	 * scratch sphere from the pool, so no spheres are allocated once the pool
+	 * has one for every thread.
+	 */
+	private class CullTask implements ParallelExecutor.Task {
 
-				if ( geometry instanceof BufferGeometry ) {
+		private final List<Sphere> spheres = new ArrayList<Sphere>();
 
-					addBuffer( geometry, (GeometryObject) object );
+		@Override
+		public void run(int start, int end) {
 
-				} else if ( geometry instanceof Geometry ) {
+			Sphere sphere = acquire();
 
-					List<GeometryGroup> geometryGroupsList =
-							GeometryGroup.geometryGroups.get( Integer.toString(geometry.getId()) );
+			for ( int i = start; i < end; i ++ ) {
 
-					for ( int i = 0,l = geometryGroupsList.size(); i < l; i ++ ) {
+				GeometryObject object = _projectedObjects.get( i );
+				_projectedVisible[ i ] = !object.isFrustumCulled() || _frustum.isIntersectsObject( object, sphere );
 
-						addBuffer( geometryGroupsList.get( i ), (GeometryObject) object );
+			}
 
-					}
+			release( sphere );
 
-				}
+		}
+
+		private synchronized Sphere acquire() {
+
+			return spheres.isEmpty() ? new Sphere() : spheres.remove( spheres.size() - 1 );
 
-			} else if ( object instanceof Line || object instanceof PointCloud ) {
-				addBuffer( geometry, (GeometryObject) object );
-			}
 		}
 
-	}
+		private synchronized void release( Sphere sphere ) {
 
-	private void addBuffer( GLGeometry buffer, GeometryObject object ) {
+			spheres.add( sphere );
 
-		int id = object.getId();
-		List<GLObject> list = _webglObjects.get(Integer.toString(id));
-		if(list == null) {
-			list = new ArrayList<GLObject>();
-			_webglObjects.put(Integer.toString(id), list);
 		}
 
-		GLObject webGLObject = new GLObject(buffer, object);
-		webGLObject.id = id;
-		list.add(webGLObject);
 	}
 
-	private void projectObject( Object3D scene, Object3D object ) {
+	/*
+	 * Projects the batches of the scene, each of them culled as one object
+	 */
+	private void projectStaticBatches( Scene scene ) {
 
-		if ( !object.isVisible() ) {
-			return;
-		}
+		List<StaticBatching.Batch> batches = scene.getStaticBatching().getBatches();
 
-		if ( object instanceof Scene /*|| object instanceof Group */) {
+		for ( int i = 0, l = batches.size(); i < l; i ++ ) {
 
-			// skip
+			StaticBatching.Batch batch = batches.get( i );
 
-		} else {
+			initObject( batch, scene );
 
-			if(!(object instanceof Light))
-				initObject( object, scene );
+			List<GLObject> webglObjects = this._webglObjects.get( batch.getId() );
 
-			if ( object instanceof Light ) {
+			if ( webglObjects != null && _frustum.isIntersectsObject( batch ) ) {
 
-				lights.add( (Light) object );
+				projectObject( scene, batch, webglObjects );
 
-			} else {
+			}
 
-				List<GLObject> webglObjects = this._webglObjects.get( Integer.toString(object.getId()) );
+		}
 
-				if ( webglObjects != null && ( !object.isFrustumCulled() ||
-						_frustum.isIntersectsObject( (GeometryObject) object ) ) ) {
+	}
 
-					updateObject( (GeometryObject) object, scene );
+	private boolean isStaticBatched( Object3D object ) {
 
-					for ( int i = 0, l = webglObjects.size(); i < l; i ++ ) {
+		return this._staticBatching != null && this._staticBatching.isBatched( object );
 
-						GLObject webglObject = webglObjects.get(i);
+	}
 
-						webglObject.unrollBufferMaterial(this);
+	boolean isVisibleInScene( Object3D object ) {
 
-						webglObject.render = true;
+		for ( Object3D o = object; o != null; o = o.getParent() )
+			if ( !o.isVisible() )
+				return false;
 
-						if ( this.sortObjects ) {
+		return true;
 
-							if ( object.getRenderDepth() > 0 ) {
+	}
 
-								webglObject.z = object.getRenderDepth();
+	private void projectObject( Object3D scene, GeometryObject object, List<GLObject> webglObjects ) {
 
-							} else {
+		updateObject( object, scene );
 
-								_vector3.setFromMatrixPosition( object.getMatrixWorld() );
-								_vector3.applyProjection( _projScreenMatrix );
+		for ( int i = 0, l = webglObjects.size(); i < l; i ++ ) {
 
-								webglObject.z = _vector3.getZ();
+			GLObject webglObject = webglObjects.get(i);
 
-							}
+			webglObject.unrollBufferMaterial(this);
 
-						}
+			webglObject.render = true;
 
-					}
+			if ( this.sortObjects ) {
 
-				}
+				if ( object.getRenderDepth() > 0 ) {
 
-			}
+					webglObject.z = object.getRenderDepth();
 
-		}
+				} else {
 
-		for ( int i = 0, l = object.getChildren().size(); i < l; i ++ ) {
+					_vector3.setFromMatrixPosition( object.getMatrixWorld() );
+					_vector3.applyProjection( _projScreenMatrix );
 
-			projectObject( scene, object.getChildren().get( i ) );
+					webglObject.z = _vector3.getZ();
+
+				}
+
+				if ( webglObject.material != null )
+					webglObject.updateSortKey();
+
+			}
 
 		}
 
@@ -1398,6 +1959,10 @@ public class GLRenderer extends Renderer
 
 	public void updateObject( GeometryObject object, Object3D scene )
 	{
+		// buffers are uploaded with their own binds
+		this._currentArrayBuffer = -1;
+		this._currentElementArrayBuffer = -1;
+
 		AbstractGeometry geometry = object.getGeometry();
 
 		Material material = null;
@@ -1406,6 +1971,15 @@ public class GLRenderer extends Renderer
 
 			((BufferGeometry)geometry).setDirectBuffers(this.gl);
 
+			if ( object instanceof InstancedMesh ) {
+
+				if ( this._supportsInstancedArrays )
+					((InstancedMesh)object).setInstanceBuffers(this.gl);
+				else
+					((InstancedMesh)object).getBatchGeometry().setDirectBuffers(this.gl);
+
+			}
+
 		} else if ( object instanceof Mesh ) {
 
 			// check all geometry groups
@@ -1417,7 +1991,7 @@ public class GLRenderer extends Renderer
 			}
 
 			List<GeometryGroup> geometryGroupsList =
-					GeometryGroup.geometryGroups.get( Integer.toString(geometry.getId()) );
+					GeometryGroup.geometryGroups.get( geometry.getId() );
 
 			for ( int i = 0, il = geometryGroupsList.size(); i < il; i ++ ) {
 
@@ -1539,9 +2113,22 @@ public class GLRenderer extends Renderer
 		this._currentMaterialId = -1;
 		this._lightsNeedUpdate = true;
 
+		// buffers and textures could be deleted since the last frame
+		resetBindings();
+
+		if ( this._textureResidency != null )
+			this._textureResidency.beginFrame();
+
+		this.getInfo().getRender().matrices = 0;
+		this.getInfo().getRender().matrixWorlds = 0;
+
 		if ( this.isAutoUpdateScene() )
 		{
+			scene.resetMatrixUpdates();
 			scene.updateMatrixWorld(false);
+
+			this.getInfo().getRender().matrices = scene.getMatrixUpdates();
+			this.getInfo().getRender().matrixWorlds = scene.getMatrixWorldUpdates();
 		}
 
 		// update camera matrices and frustum
@@ -1556,51 +2143,32 @@ public class GLRenderer extends Renderer
 				camera.getMatrixWorldInverse() );
 		_frustum.setFromMatrix( _projScreenMatrix );
 
-		this.lights = new ArrayList<Light>();
-		this.opaqueObjects = new ArrayList<GLObject>();
-		this.transparentObjects = new ArrayList<GLObject>();
-
-		projectObject( scene, scene );
-
-		if ( this.isSortObjects() ) {
-
-			Collections.sort(opaqueObjects, new Comparator<GLObject>() {
+		this.lights.clear();
+		this.opaqueObjects.clear();
+		this.transparentObjects.clear();
 
-				@Override
-				public int compare(GLObject a, GLObject b) {
-					if ( a.z != b.z ) {
+		// merge static meshes before their objects are initialized
+		this._staticBatching = scene.getStaticBatching();
 
-						return (int)(b.z - a.z);
+		if ( this._staticBatching != null )
+			this._staticBatching.update();
 
-					} else {
-
-						return a.id - b.id;
-
-					}
-
-				}
-			});
-
-			Collections.sort(transparentObjects, new Comparator<GLObject>() {
-
-				@Override
-				public int compare(GLObject a, GLObject b) {
-					if ( a.material.getId() != b.material.getId() ) {
-
-						return a.material.getId() - b.material.getId();
-
-					} else if ( a.z != b.z ) {
+		if ( scene.getSceneIndex() != null )
+			projectSceneIndex( scene );
+		else
+			projectObject( scene, scene );
 
-						return (int)(a.z - b.z);
+		projectQueuedObjects( scene );
 
-					} else {
+		if ( this._staticBatching != null )
+			projectStaticBatches( scene );
 
-						return a.id - b.id;
+		this._staticBatching = null;
 
-					}
+		if ( this.isSortObjects() ) {
 
-				}
-			});
+			opaqueObjects.sortByKey();
+			transparentObjects.sortByKey();
 
 		}
 
@@ -1611,9 +2179,20 @@ public class GLRenderer extends Renderer
 		this.getInfo().getRender().vertices = 0;
 		this.getInfo().getRender().faces = 0;
 		this.getInfo().getRender().points = 0;
+		this.getInfo().getState().reset();
 
 		setRenderTarget( renderTarget );
 
+		if ( this._lightClusters != null )
+		{
+			if ( renderTarget != null )
+				this._lightClusters.setViewport( 0, 0, _currentWidth, _currentHeight );
+			else
+				this._lightClusters.setViewport( _viewportX, _viewportY, _currentWidth, _currentHeight );
+
+			this._lightClusters.update( camera, this.lights, this.gammaInput );
+		}
+
 		if ( this.isAutoClear() || forceClear )
 		{
 			clear( this.isAutoClearColor(), this.isAutoClearDepth(), this.isAutoClearStencil() );
@@ -1676,6 +2255,7 @@ public class GLRenderer extends Renderer
 				&& renderTarget.getMinFilter() != TextureMinFilter.LINEAR)
 		{
 			renderTarget.updateRenderTargetMipmap(this.gl);
+			resetTextureBindings();
 		}
 
 		// Ensure depth buffer writing is enabled so it can be cleared on next render
@@ -1683,6 +2263,8 @@ public class GLRenderer extends Renderer
 		this.setDepthTest( true );
 		this.setDepthWrite( true );
 
+		if ( this._textureResidency != null )
+			this._textureResidency.evict( this );
 	}
 
 	public void renderObjectsImmediate ( List<GLObject> renderList,
@@ -1766,9 +2348,14 @@ public class GLRenderer extends Renderer
 			this._currentCamera = null;
 
 			this._oldBlending = null;
+			this._oldBlendEnabled = null;
 			this._oldDepthTest = null;
 			this._oldDepthWrite = null;
 			this.cache_oldMaterialSided = null;
+			this._oldCullFace = null;
+			this._oldFrontFace = null;
+
+			resetBindings();
 
 			this._currentGeometryGroupHash = -1;
 			this._currentMaterialId = -1;
@@ -1783,9 +2370,14 @@ public class GLRenderer extends Renderer
 			this._currentCamera = null;
 
 			this._oldBlending = null;
+			this._oldBlendEnabled = null;
 			this._oldDepthTest = null;
 			this._oldDepthWrite = null;
 			this.cache_oldMaterialSided = null;
+			this._oldCullFace = null;
+			this._oldFrontFace = null;
+
+			resetBindings();
 
 			this._currentGeometryGroupHash = -1;
 			this._currentMaterialId = -1;
@@ -1902,9 +2494,8 @@ public class GLRenderer extends Renderer
 		{
 			if ( updateBuffers )
 			{
-				this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglVertexBuffer);
 				enableAttribute( attributes.get(POSITION) );
-				this.gl.glVertexAttribPointer(attributes.get(POSITION), 3, DataType.FLOAT.getValue(), false, 0, 0);
+				vertexAttribPointer(attributes.get(POSITION), geometry.__webglVertexBuffer, 3, 0, 0);
 			}
 
 		}
@@ -1928,9 +2519,8 @@ public class GLRenderer extends Renderer
 
 					if( attributes.get( attribute.belongsToAttribute ) >= 0 )
 					{
-						this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), attribute.buffer);
 						enableAttribute( attributes.get( attribute.belongsToAttribute ) );
-						this.gl.glVertexAttribPointer(attributes.get(attribute.belongsToAttribute), attribute.size, DataType.FLOAT.getValue(), false, 0, 0);
+						vertexAttribPointer(attributes.get(attribute.belongsToAttribute), attribute.buffer, attribute.size, 0, 0);
 					}
 				}
 			}
@@ -1941,9 +2531,8 @@ public class GLRenderer extends Renderer
 				if ( !((Geometry)object.getGeometry()).getColors().isEmpty() ||
 						!((Geometry)object.getGeometry()).getFaces().isEmpty() ) {
 
-					this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglColorBuffer);
 					enableAttribute( attributes.get(COLOR) );
-					this.gl.glVertexAttribPointer(attributes.get(COLOR), 3, DataType.FLOAT.getValue(), false, 0, 0);
+					vertexAttribPointer(attributes.get(COLOR), geometry.__webglColorBuffer, 3, 0, 0);
 
 				} else {
 
@@ -1955,17 +2544,15 @@ public class GLRenderer extends Renderer
 			// normals
 			if ( attributes.get(NORMAL) >= 0 )
 			{
-				this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglNormalBuffer);
 				enableAttribute( attributes.get(NORMAL) );
-				this.gl.glVertexAttribPointer(attributes.get(NORMAL), 3, DataType.FLOAT.getValue(), false, 0, 0);
+				vertexAttribPointer(attributes.get(NORMAL), geometry.__webglNormalBuffer, 3, 0, 0);
 			}
 
 			// tangents
 			if ( attributes.get(TANGENT) >= 0 )
 			{
-				this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglTangentBuffer);
 				enableAttribute( attributes.get(TANGENT) );
-				this.gl.glVertexAttribPointer(attributes.get(TANGENT), 4, DataType.FLOAT.getValue(), false, 0, 0);
+				vertexAttribPointer(attributes.get(TANGENT), geometry.__webglTangentBuffer, 4, 0, 0);
 			}
 
 			// uvs
@@ -1973,9 +2560,8 @@ public class GLRenderer extends Renderer
 			{
 				if ( ((Geometry)object.getGeometry()).getFaceVertexUvs().get( 0 ) != null )
 				{
-					this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglUVBuffer);
 					enableAttribute( attributes.get("uv") );
-					this.gl.glVertexAttribPointer(attributes.get("uv"), 2, DataType.FLOAT.getValue(), false, 0, 0);
+					vertexAttribPointer(attributes.get("uv"), geometry.__webglUVBuffer, 2, 0, 0);
 
 				} else {
 
@@ -1985,11 +2571,11 @@ public class GLRenderer extends Renderer
 
 			if ( attributes.get("uv2") >= 0 )
 			{
-				if ( ((Geometry)object.getGeometry()).getFaceVertexUvs().get( 1 ) != null )
+				if ( ((Geometry)object.getGeometry()).getFaceVertexUvs().size() > 1 &&
+						((Geometry)object.getGeometry()).getFaceVertexUvs().get( 1 ) != null )
 				{
-					this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglUV2Buffer);
 					enableAttribute( attributes.get("uv2") );
-					this.gl.glVertexAttribPointer(attributes.get("uv2"), 2, DataType.FLOAT.getValue(), false, 0, 0);
+					vertexAttribPointer(attributes.get("uv2"), geometry.__webglUV2Buffer, 2, 0, 0);
 
 				} else {
 
@@ -2000,22 +2586,19 @@ public class GLRenderer extends Renderer
 			if ( material instanceof HasSkinning && ((HasSkinning)material).isSkinning() &&
 					attributes.get(SKIN_INDEX) >= 0 && attributes.get(SKIN_WEIGHT) >= 0 )
 			{
-				this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglSkinIndicesBuffer);
 				enableAttribute( attributes.get(SKIN_INDEX) );
-				this.gl.glVertexAttribPointer(attributes.get(SKIN_INDEX), 4, DataType.FLOAT.getValue(), false, 0, 0);
+				vertexAttribPointer(attributes.get(SKIN_INDEX), geometry.__webglSkinIndicesBuffer, 4, 0, 0);
 
-				this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglSkinWeightsBuffer);
 				enableAttribute( attributes.get(SKIN_WEIGHT) );
-				this.gl.glVertexAttribPointer(attributes.get(SKIN_WEIGHT), 4, DataType.FLOAT.getValue(), false, 0, 0);
+				vertexAttribPointer(attributes.get(SKIN_WEIGHT), geometry.__webglSkinWeightsBuffer, 4, 0, 0);
 			}
 
 			// line distances
 
 			if ( attributes.get(LINE_DISTANCE) != null && attributes.get(LINE_DISTANCE) >= 0 ) {
 
-				this.gl.glBindBuffer(BufferTarget.ARRAY_BUFFER.getValue(), geometry.__webglLineDistanceBuffer);
 				enableAttribute( attributes.get(LINE_DISTANCE) );
-				this.gl.glVertexAttribPointer(attributes.get(LINE_DISTANCE), 1, DataType.FLOAT.getValue(), false, 0, 0);
+				vertexAttribPointer(attributes.get(LINE_DISTANCE), geometry.__webglLineDistanceBuffer, 1, 0, 0);
 
 			}
 
@@ -2058,7 +2641,13 @@ public class GLRenderer extends Renderer
 
 		if(object instanceof SkinnedMesh)
 		{
-			parameters.useVertexTexture = this._supportsBoneTextures;
+			parameters.useVertexTexture = this._supportsBoneTextures && ((SkinnedMesh)object).isUseVertexTexture();
+		}
+
+		if(object instanceof InstancedMesh)
+		{
+			parameters.instancing = this._supportsInstancedArrays;
+			parameters.instancingColor = ((InstancedMesh)object).getInstanceColor() != null;
 		}
 
 		parameters.maxMorphTargets = this.maxMorphTargets;
@@ -2069,6 +2658,9 @@ public class GLRenderer extends Renderer
 		parameters.maxSpotLights  = maxLightCount.get("spot");
 		parameters.maxHemiLights  = maxLightCount.get("hemi");
 
+		if ( this._lightClusters != null && ( material.getClass() == MeshPhongMaterial.class || material.getClass() == MeshLambertMaterial.class ) )
+			parameters.maxClusterLights = this._lightClusters.getMaxClusterLights();
+
 		parameters.maxShadows = maxShadows;
 
 		for(Plugin plugin: this.plugins) {
@@ -2085,22 +2677,7 @@ public class GLRenderer extends Renderer
 		material.updateProgramParameters(parameters);
 		Log.debug("WebGlRender: initMaterial() called new Program");
 
-		String cashKey = material.getShader().getFragmentSource()
-				+ material.getShader().getVertexSource()
-				+ parameters.toString();
-
-		if(this._programs.containsKey(cashKey))
-		{
-			material.setShader( this._programs.get(cashKey) );
-		}
-		else
-		{
-			Shader shader = material.buildShader(this.gl, parameters);
-
-			this._programs.put(cashKey, shader);
-
-			this.getInfo().getMemory().programs = _programs.size();
-		}
+		this._programs.acquire( material, parameters );
 
 		FastMap<Integer> attributes = material.getShader().getAttributesLocations();
 
@@ -2148,9 +2725,6 @@ public class GLRenderer extends Renderer
 
 		if(material.isNeedsUpdate())
 		{
-			if(material.getShader() == null || material.getShader().getProgram() == 0)
-				material.deallocate(this);
-
 			initMaterial( material, lights, fog, object );
 			material.setNeedsUpdate(false);
 		}
@@ -2168,6 +2742,7 @@ public class GLRenderer extends Renderer
 		Shader shader = material.getShader();
 		int program = shader.getProgram();
 		FastMap<Uniform> mUniforms = shader.getUniforms();
+		Shader.Builtins builtins = shader.getBuiltins();
 
 		if ( program != _currentProgram )
 		{
@@ -2178,6 +2753,10 @@ public class GLRenderer extends Renderer
 			refreshMaterial = true;
 			refreshLights = true;
 		}
+		else
+		{
+			this.getInfo().getState().programs ++;
+		}
 
 		if ( material.getId() != this._currentMaterialId )
 		{
@@ -2191,11 +2770,11 @@ public class GLRenderer extends Renderer
 
 		if ( refreshProgram || !camera.equals( this._currentCamera) )
 		{
-			this.gl.glUniformMatrix4fv(mUniforms.get("projectionMatrix").getLocation(), 1, false, camera.getProjectionMatrix().getArray().getTypedBuffer());
+			uniformMatrix( builtins.projectionMatrix, camera.getProjectionMatrix().getArray() );
 
-			if ( _logarithmicDepthBuffer ) {
+			if ( _logarithmicDepthBuffer && builtins.logDepthBufFC != null ) {
 
-				this.gl.glUniform1f(mUniforms.get("logDepthBufFC").getLocation(), (float) (2.0 / (Math.log(((HasNearFar) camera).getFar() + 1.0) / 0.6931471805599453 /*Math.LN2*/)));
+				uniform1f( builtins.logDepthBufFC, 2.0 / (Math.log(((HasNearFar) camera).getFar() + 1.0) / 0.6931471805599453 /*Math.LN2*/));
 
 			}
 
@@ -2207,10 +2786,10 @@ public class GLRenderer extends Renderer
 			if ( (material.getClass() == ShaderMaterial.class ||
 					material.getClass() == MeshPhongMaterial.class ||
 					material instanceof HasEnvMap && ((HasEnvMap)material).getEnvMap() != null) &&
-					mUniforms.get("cameraPosition").getLocation() != -1 ) {
+					builtins.cameraPosition.getLocation() != -1 ) {
 				
 				_vector3.setFromMatrixPosition( camera.getMatrixWorld() );
-				this.gl.glUniform3f(mUniforms.get("cameraPosition").getLocation(), (float)_vector3.getX(), (float)_vector3.getY(), (float)_vector3.getZ());
+				uniform3f( builtins.cameraPosition, _vector3.getX(), _vector3.getY(), _vector3.getZ() );
 			}
 
 			if ( (material.getClass() == MeshPhongMaterial.class ||
@@ -2219,33 +2798,56 @@ public class GLRenderer extends Renderer
 					material.getClass() == ShaderMaterial.class ||
 					material instanceof HasSkinning && 
 					((HasSkinning)material).isSkinning()) &&
-					mUniforms.get("viewMatrix").getLocation() != -1 ) {
+					builtins.viewMatrix.getLocation() != -1 ) {
 				
-				this.gl.glUniformMatrix4fv(mUniforms.get("viewMatrix").getLocation(), 1, false, camera.getMatrixWorldInverse().getArray().getTypedBuffer());
+				uniformMatrix( builtins.viewMatrix, camera.getMatrixWorldInverse().getArray() );
 			}
 		}
 
 		// skinning uniforms must be set even if material didn't change
 		// auto-setting of texture unit for bone texture must go before other textures
 		// not sure why, but otherwise weird things happen
-		if ( material instanceof HasSkinning && ((HasSkinning)material).isSkinning() )
+		if ( material instanceof HasSkinning && ((HasSkinning)material).isSkinning() && object instanceof SkinnedMesh )
 		{
-			if ( object instanceof SkinnedMesh && ((SkinnedMesh)object).isUseVertexTexture() &&
-					this._supportsBoneTextures)
+			SkinnedMesh skinnedMesh = (SkinnedMesh) object;
+			Skeleton skeleton = skinnedMesh.getSkeleton();
+
+			uniformMatrix( mUniforms.get("bindMatrix"), skinnedMesh.getBindMatrix().getArray() );
+			uniformMatrix( mUniforms.get("bindMatrixInverse"), skinnedMesh.getBindMatrixInverse().getArray() );
+
+			if ( skeleton.isUseVertexTexture() && this._supportsBoneTextures )
 			{
 				if ( mUniforms.get("boneTexture").getLocation() != -1 )
 				{
 					int textureUnit = getTextureUnit();
 
-					this.gl.glUniform1i(mUniforms.get("boneTexture").getLocation(), textureUnit);
-					setTexture( ((SkinnedMesh)object).boneTexture, textureUnit );
+					uniform1i( mUniforms.get("boneTexture"), textureUnit );
+					// uploaded by the first mesh drawn after the pose has changed
+					setTexture( skeleton.getBoneTexture(), textureUnit );
 				}
+
+				if ( mUniforms.get("boneTextureWidth").getLocation() != -1 )
+					uniform1i( mUniforms.get("boneTextureWidth"), skeleton.getBoneTextureWidth() );
+
+				if ( mUniforms.get("boneTextureHeight").getLocation() != -1 )
+					uniform1i( mUniforms.get("boneTextureHeight"), skeleton.getBoneTextureHeight() );
 			}
 			else
 			{
-				if ( mUniforms.get("boneGlobalMatrices").getLocation() != -1 )
+				Uniform boneGlobalMatrices = mUniforms.get("boneGlobalMatrices");
+
+				if ( boneGlobalMatrices.getLocation() != -1 )
 				{
-					this.gl.glUniformMatrix4fv(mUniforms.get("boneGlobalMatrices").getLocation(), 1, false, ((SkinnedMesh) object).boneMatrices.getTypedBuffer());
+					// the palette changes only with the pose version of the skeleton
+					if ( boneGlobalMatrices.update( skeleton, skeleton.getPoseVersion() ) )
+					{
+						Float32Array palette = skeleton.getBoneMatrices();
+						this.gl.glUniformMatrix4fv(boneGlobalMatrices.getLocation(), palette.getLength() / 16, false, palette.getTypedBuffer());
+					}
+					else
+					{
+						this.getInfo().getState().uniforms ++;
+					}
 				}
 			}
 		}
@@ -2283,10 +2885,9 @@ public class GLRenderer extends Renderer
 
 		}
 
-		loadUniformsMatrices( mUniforms, object );
+		loadUniformsMatrices( builtins, object );
 
-		if ( mUniforms.get("modelMatrix").getLocation() != 0 )
-			this.gl.glUniformMatrix4fv(mUniforms.get("modelMatrix").getLocation(), 1, false, object.getMatrixWorld().getArray().getTypedBuffer());
+		uniformMatrix( builtins.modelMatrix, object.getMatrixWorld().getArray() );
 
 		return shader;
 	}
@@ -2295,14 +2896,26 @@ public class GLRenderer extends Renderer
 	{
 		if ( uniforms.containsKey(SHADOW_MATRIX) )
 		{
-			// Make them zero
-			uniforms.get("shadowMap").setValue(new ArrayList<Texture>());
-			uniforms.get("shadowMapSize").setValue(new ArrayList<Vector2>());
-			uniforms.get(SHADOW_MATRIX).setValue(new ArrayList<Matrix4>());
+			// Make them zero, reusing the lists from the previous refresh
+			if ( uniforms.get("shadowMap").getValue() == null )
+			{
+				uniforms.get("shadowMap").setValue(new ArrayList<Texture>());
+				uniforms.get("shadowMapSize").setValue(new ArrayList<Vector2>());
+				uniforms.get("shadowMapTile").setValue(new ArrayList<Vector4>());
+				uniforms.get(SHADOW_MATRIX).setValue(new ArrayList<Matrix4>());
+			}
+
 			List<Texture> shadowMap = (List<Texture>)uniforms.get("shadowMap").getValue();
 			List<Vector2> shadowMapSize = (List<Vector2>)uniforms.get("shadowMapSize").getValue();
+			@SuppressWarnings("unchecked")
+			List<Vector4> shadowMapTile = (List<Vector4>)uniforms.get("shadowMapTile").getValue();
 			List<Matrix4> shadowMatrix = (List<Matrix4>)uniforms.get(SHADOW_MATRIX).getValue();
 
+			shadowMap.clear();
+			shadowMapSize.clear();
+			shadowMapTile.clear();
+			shadowMatrix.clear();
+
 			int j = 0;
 			for ( Light light: lights)
 			{
@@ -2316,6 +2929,7 @@ public class GLRenderer extends Renderer
 
 					shadowMap.add(shadowLight.getShadowMap() );
 					shadowMapSize.add(shadowLight.getShadowMapSize() );
+					shadowMapTile.add(shadowLight.getShadowMapTile() );
 					shadowMatrix.add(shadowLight.getShadowMatrix() );
 
 					((Float32Array)uniforms.get("shadowDarkness").getValue()).set( j,
@@ -2330,13 +2944,10 @@ public class GLRenderer extends Renderer
 
 	// Uniforms (load to GPU)
 
-	private void loadUniformsMatrices ( FastMap<Uniform> uniforms, GeometryObject object )
+	private void loadUniformsMatrices ( Shader.Builtins builtins, GeometryObject object )
 	{
-		GeometryObject objectImpl = object;
-		this.gl.glUniformMatrix4fv(uniforms.get("modelViewMatrix").getLocation(), 1, false, objectImpl._modelViewMatrix.getArray().getTypedBuffer());
-
-		if ( uniforms.containsKey("normalMatrix") )
-			this.gl.glUniformMatrix3fv(uniforms.get("normalMatrix").getLocation(), 1, false, objectImpl._normalMatrix.getArray().getTypedBuffer());
+		uniformMatrix( builtins.modelViewMatrix, object._modelViewMatrix.getArray() );
+		uniformMatrix( builtins.normalMatrix, object._normalMatrix.getArray() );
 	}
 
 	private void loadUniformsGeneric( FastMap<Uniform> materialUniforms )
@@ -2359,35 +2970,35 @@ public class GLRenderer extends Renderer
 
 			if(type == Uniform.TYPE.I) // single integer
 			{
-				this.gl.glUniform1i(location, (value instanceof Boolean) ? ((Boolean) value) ? 1 : 0 : (Integer) value);
+				uniform1i( uniform, (value instanceof Boolean) ? ((Boolean) value) ? 1 : 0 : (Integer) value );
 			}
 			else if(type == Uniform.TYPE.F) // single float
 			{
-				this.gl.glUniform1f(location, value instanceof Float ? (Float) value : ((Double)value).floatValue());
+				uniform1f( uniform, value instanceof Float ? (Float) value : (Double) value );
 			}
 			else if(type == Uniform.TYPE.V2) // single Vector2
 			{
-				this.gl.glUniform2f(location, (float)((Vector2) value).getX(), (float)((Vector2) value).getX());
+				uniform2f( uniform, ((Vector2) value).getX(), ((Vector2) value).getY() );
 			}
 			else if(type == Uniform.TYPE.V3) // single Vector3
 			{
-				this.gl.glUniform3f(location, (float)((Vector3) value).getX(), (float)((Vector3) value).getY(), (float)((Vector3) value).getZ());
+				uniform3f( uniform, ((Vector3) value).getX(), ((Vector3) value).getY(), ((Vector3) value).getZ() );
 			}
 			else if(type == Uniform.TYPE.V4) // single Vector4
 			{
-				this.gl.glUniform4f(location, (float)((Vector4) value).getX(), (float)((Vector4) value).getY(), (float)((Vector4) value).getZ(), (float)((Vector4) value).getW());
+				uniform4f( uniform, ((Vector4) value).getX(), ((Vector4) value).getY(), ((Vector4) value).getZ(), ((Vector4) value).getW() );
 			}
 			else if(type == Uniform.TYPE.C) // single Color
 			{
-				this.gl.glUniform3f(location, (float)((Color) value).getR(), (float)((Color) value).getG(), (float)((Color) value).getB());
+				uniform3f( uniform, ((Color) value).getR(), ((Color) value).getG(), ((Color) value).getB() );
 			}
 			else if(type == Uniform.TYPE.FV1) // flat array of floats (JS or typed array)
 			{
-				this.gl.glUniform1fv(location, ((Float32Array) value).getLength(), ((Float32Array) value).getTypedBuffer());
+				uniformVector( uniform, 1, (Float32Array) value );
 			}
 			else if(type == Uniform.TYPE.FV) // flat array of floats with 3 x N size (JS or typed array)
 			{
-				this.gl.glUniform3fv(location, ((Float32Array) value).getLength() / 3, ((Float32Array) value).getTypedBuffer());
+				uniformVector( uniform, 3, (Float32Array) value );
 			}
 			else if(type == Uniform.TYPE.V2V) // List of Vector2
 			{
@@ -2404,8 +3015,7 @@ public class GLRenderer extends Renderer
 					cacheArray.set(offset + 1, listVector2f.get(i).getY());
 				}
 
-				this.gl.glUniform2fv(location, uniform.getCacheArray().getLength() / 2,
-						cacheArray.getTypedBuffer());
+				uniformVector( uniform, 2, cacheArray );
 			}
 			else if(type == Uniform.TYPE.V3V) // List of Vector3
 			{
@@ -2423,8 +3033,7 @@ public class GLRenderer extends Renderer
 					uniform.getCacheArray().set(offset + 2 , listVector3f.get( i ).getZ());
 				}
 
-				this.gl.glUniform3fv(location, cacheArray.getLength() / 3,
-						cacheArray.getTypedBuffer());
+				uniformVector( uniform, 3, cacheArray );
 			}
 			else if(type == Uniform.TYPE.V4V) // List of Vector4
 			{
@@ -2444,18 +3053,11 @@ public class GLRenderer extends Renderer
 					uniform.getCacheArray().set(offset + 3, listVector4f.get( i ).getW());
 				}
 
-				this.gl.glUniform4fv(location, cacheArray.getLength() / 4,
-						cacheArray.getTypedBuffer() );
+				uniformVector( uniform, 4, cacheArray );
 			}
 			else if(type == Uniform.TYPE.M4) // single Matrix4
 			{
-				Matrix4 matrix4 = (Matrix4) value;
-				Float32Array cacheArray = uniform.getCacheArray();
-				if ( cacheArray == null )
-					uniform.setCacheArray(cacheArray = Float32Array.create( 16 ) );
-
-				matrix4.flattenToArrayOffset( cacheArray );
-				this.gl.glUniformMatrix4fv(location, 1, false, cacheArray.getTypedBuffer());
+				uniformMatrix( uniform, ((Matrix4) value).getArray() );
 			}
 			else if(type == Uniform.TYPE.M4V) // List of Matrix4
 			{
@@ -2467,15 +3069,14 @@ public class GLRenderer extends Renderer
 				for ( int i = 0, il = listMatrix4f.size(); i < il; i ++ )
 					listMatrix4f.get( i ).flattenToArrayOffset( cacheArray, i * 16 );
 
-				this.gl.glUniformMatrix4fv(location, cacheArray.getLength() / 16,
-						false, cacheArray.getTypedBuffer());
+				uniformMatrix( uniform, cacheArray );
 			}
 			else if(type == Uniform.TYPE.T) // single Texture (2d or cube)
 			{
 				Texture texture = (Texture)value;
 				int textureUnit = getTextureUnit();
 
-				this.gl.glUniform1i(location, textureUnit);
+				uniform1i( uniform, textureUnit );
 
 				if ( texture != null )
 				{
@@ -2516,6 +3117,129 @@ public class GLRenderer extends Renderer
 		}
 	}
 
+	/*
+	 * Uniform uploads, skipped if the program already has the same values
+	 */
+
+	private void uniform1i( Uniform uniform, int value )
+	{
+		if ( uniform.update( value ) )
+			this.gl.glUniform1i(uniform.getLocation(), value);
+		else
+			this.getInfo().getState().uniforms ++;
+	}
+
+	private void uniform1f( Uniform uniform, double x )
+	{
+		if ( uniform.update( (float) x ) )
+			this.gl.glUniform1f(uniform.getLocation(), (float) x);
+		else
+			this.getInfo().getState().uniforms ++;
+	}
+
+	private void uniform2f( Uniform uniform, double x, double y )
+	{
+		if ( uniform.update( (float) x, (float) y ) )
+			this.gl.glUniform2f(uniform.getLocation(), (float) x, (float) y);
+		else
+			this.getInfo().getState().uniforms ++;
+	}
+
+	private void uniform3f( Uniform uniform, double x, double y, double z )
+	{
+		if ( uniform.update( (float) x, (float) y, (float) z ) )
+			this.gl.glUniform3f(uniform.getLocation(), (float) x, (float) y, (float) z);
+		else
+			this.getInfo().getState().uniforms ++;
+	}
+
+	private void uniform4f( Uniform uniform, double x, double y, double z, double w )
+	{
+		if ( uniform.update( (float) x, (float) y, (float) z, (float) w ) )
+			this.gl.glUniform4f(uniform.getLocation(), (float) x, (float) y, (float) z, (float) w);
+		else
+			this.getInfo().getState().uniforms ++;
+	}
+
+	private void uniformVector( Uniform uniform, int itemSize, Float32Array values )
+	{
+		if ( !uniform.update( values ) )
+		{
+			this.getInfo().getState().uniforms ++;
+			return;
+		}
+
+		int location = uniform.getLocation();
+		int count = values.getLength() / itemSize;
+
+		if ( itemSize == 1 )
+			this.gl.glUniform1fv(location, count, values.getTypedBuffer());
+		else if ( itemSize == 2 )
+			this.gl.glUniform2fv(location, count, values.getTypedBuffer());
+		else if ( itemSize == 3 )
+			this.gl.glUniform3fv(location, count, values.getTypedBuffer());
+		else
+			this.gl.glUniform4fv(location, count, values.getTypedBuffer());
+	}
+
+	/*
+	 * Uploads 3x3 or 4x4 matrices, the size is taken from the array
+	 */
+	private void uniformMatrix( Uniform uniform, Float32Array values )
+	{
+		if ( uniform.getLocation() == -1 )
+			return;
+
+		if ( !uniform.update( values ) )
+		{
+			this.getInfo().getState().uniforms ++;
+			return;
+		}
+
+		if ( values.getLength() == 9 )
+			this.gl.glUniformMatrix3fv(uniform.getLocation(), 1, false, values.getTypedBuffer());
+		else
+			this.gl.glUniformMatrix4fv(uniform.getLocation(), values.getLength() / 16, false, values.getTypedBuffer());
+	}
+
+	/*
+	 * Uploads the elements of a single Matrix3 or Matrix4 through the
+	 * staging buffer
+	 */
+	private void uniformMatrix( Uniform uniform, float[] elements )
+	{
+		if ( uniform.getLocation() == -1 )
+			return;
+
+		if ( !uniform.update( elements ) )
+		{
+			this.getInfo().getState().uniforms ++;
+			return;
+		}
+
+		FloatBuffer staging = stageMatrix( elements );
+
+		if ( elements.length == 9 )
+			this.gl.glUniformMatrix3fv(uniform.getLocation(), 1, false, staging);
+		else
+			this.gl.glUniformMatrix4fv(uniform.getLocation(), 1, false, staging);
+	}
+
+	/**
+	 * Copies the elements of a {@link Matrix3} or {@link Matrix4} into the
+	 * renderer's direct staging buffer. The buffer is reused by the next call,
+	 * so it has to be passed to glUniformMatrix*fv right away.
+	 */
+	public FloatBuffer stageMatrix( float[] elements )
+	{
+		FloatBuffer staging = _matrixStaging.getTypedBuffer();
+		staging.clear();
+		staging.put( elements, 0, elements.length );
+		staging.flip();
+
+		return staging;
+	}
+
 	public int getTextureUnit()
 	{
 		int textureUnit = this._usedTextureUnits ++;
@@ -2538,18 +3262,41 @@ public class GLRenderer extends Renderer
 	{
 		if ( this.cache_oldMaterialSided == null || this.cache_oldMaterialSided != material.getSides() )
 		{
-			if(material.getSides() == Material.SIDE.DOUBLE)
-				this.gl.glDisable(EnableCap.CULL_FACE.getValue());
+			boolean cullFace = material.getSides() != Material.SIDE.DOUBLE;
+
+			if ( this._oldCullFace == null || this._oldCullFace != cullFace )
+			{
+				if ( cullFace )
+					this.gl.glEnable(EnableCap.CULL_FACE.getValue());
+				else
+					this.gl.glDisable(EnableCap.CULL_FACE.getValue());
+
+				this._oldCullFace = cullFace;
+			}
 			else
-				this.gl.glEnable(EnableCap.CULL_FACE.getValue());
+			{
+				this.getInfo().getState().faces ++;
+			}
 
-			if ( material.getSides() == Material.SIDE.BACK )
-				this.gl.glFrontFace(FrontFaceDirection.CW.getValue());
+			FrontFaceDirection frontFace = material.getSides() == Material.SIDE.BACK
+					? FrontFaceDirection.CW : FrontFaceDirection.CCW;
+
+			if ( this._oldFrontFace != frontFace )
+			{
+				this.gl.glFrontFace(frontFace.getValue());
+				this._oldFrontFace = frontFace;
+			}
 			else
-				this.gl.glFrontFace(FrontFaceDirection.CCW.getValue());
+			{
+				this.getInfo().getState().faces ++;
+			}
 
 			this.cache_oldMaterialSided = material.getSides();
 		}
+		else
+		{
+			this.getInfo().getState().faces ++;
+		}
 	}
 
 	public void setDepthTest( boolean depthTest )
@@ -2563,6 +3310,10 @@ public class GLRenderer extends Renderer
 
 			this._oldDepthTest = depthTest;
 		}
+		else
+		{
+			this.getInfo().getState().depth ++;
+		}
 	}
 
 	public void setDepthWrite(boolean depthWrite )
@@ -2572,6 +3323,10 @@ public class GLRenderer extends Renderer
 			this.gl.glDepthMask(depthWrite);
 			_oldDepthWrite = depthWrite;
 		}
+		else
+		{
+			this.getInfo().getState().depth ++;
+		}
 	}
 
 	private void setPolygonOffset( boolean polygonoffset, double factor, double units )
@@ -2585,6 +3340,10 @@ public class GLRenderer extends Renderer
 
 			this._oldPolygonOffset = polygonoffset;
 		}
+		else
+		{
+			this.getInfo().getState().depth ++;
+		}
 
 		if ( polygonoffset && ( _oldPolygonOffsetFactor == null ||
 				_oldPolygonOffsetUnits == null ||
@@ -2602,15 +3361,14 @@ public class GLRenderer extends Renderer
 	{
 		if ( blending != this._oldBlending )
 		{
+			setBlendEnabled( blending != Material.BLENDING.NO );
+
 			if( blending == Material.BLENDING.NO)
 			{
-				this.gl.glDisable(EnableCap.BLEND.getValue());
-
+				// nothing but disabled blending
 			}
 			else if( blending == Material.BLENDING.ADDITIVE)
 			{
-
-				this.gl.glEnable(EnableCap.BLEND.getValue());
 				this.gl.glBlendEquation(BlendEquationMode.FUNC_ADD.getValue());
 				this.gl.glBlendFunc(BlendingFactorSrc.SRC_ALPHA.getValue(), BlendingFactorDest.ONE.getValue());
 
@@ -2618,7 +3376,6 @@ public class GLRenderer extends Renderer
 			}
 			else if( blending == Material.BLENDING.SUBTRACTIVE)
 			{
-				this.gl.glEnable(EnableCap.BLEND.getValue());
 				this.gl.glBlendEquation(BlendEquationMode.FUNC_ADD.getValue());
 				this.gl.glBlendFunc(BlendingFactorSrc.ZERO.getValue(), BlendingFactorDest.ONE_MINUS_SRC_COLOR.getValue());
 
@@ -2626,20 +3383,17 @@ public class GLRenderer extends Renderer
 			}
 			else if( blending == Material.BLENDING.MULTIPLY)
 			{
-				this.gl.glEnable(EnableCap.BLEND.getValue());
 				this.gl.glBlendEquation(BlendEquationMode.FUNC_ADD.getValue());
 				this.gl.glBlendFunc(BlendingFactorSrc.ZERO.getValue(), BlendingFactorDest.SRC_COLOR.getValue());
 
 			}
 			else if( blending == Material.BLENDING.CUSTOM)
 			{
-				this.gl.glEnable(EnableCap.BLEND.getValue());
-
+				// equation and factors are set by the material
 			}
 			// NORMAL
 			else
 			{
-				this.gl.glEnable(EnableCap.BLEND.getValue());
 				this.gl.glBlendEquationSeparate(BlendEquationMode.FUNC_ADD.getValue(), BlendEquationMode.FUNC_ADD.getValue());
 				this.gl.glBlendFuncSeparate(BlendingFactorSrc.SRC_ALPHA.getValue(),
 						BlendingFactorDest.ONE_MINUS_SRC_ALPHA.getValue(),
@@ -2649,6 +3403,27 @@ public class GLRenderer extends Renderer
 
 			this._oldBlending = blending;
 		}
+		else
+		{
+			this.getInfo().getState().blending ++;
+		}
+	}
+
+	private void setBlendEnabled( boolean enabled )
+	{
+		if ( this._oldBlendEnabled == null || this._oldBlendEnabled != enabled )
+		{
+			if ( enabled )
+				this.gl.glEnable(EnableCap.BLEND.getValue());
+			else
+				this.gl.glDisable(EnableCap.BLEND.getValue());
+
+			this._oldBlendEnabled = enabled;
+		}
+		else
+		{
+			this.getInfo().getState().blending ++;
+		}
 	}
 
 	private void setBlending( Material.BLENDING blending, BlendEquationMode blendEquation, BlendingFactorSrc blendSrc, BlendingFactorDest blendDst )
@@ -2662,6 +3437,10 @@ public class GLRenderer extends Renderer
 				this.gl.glBlendEquation(blendEquation.getValue());
 				this._oldBlendEquation = blendEquation;
 			}
+			else
+			{
+				this.getInfo().getState().blending ++;
+			}
 
 			if ( blendSrc != _oldBlendSrc || blendDst != _oldBlendDst )
 			{
@@ -2670,6 +3449,10 @@ public class GLRenderer extends Renderer
 				this._oldBlendSrc = blendSrc;
 				this._oldBlendDst = blendDst;
 			}
+			else
+			{
+				this.getInfo().getState().blending ++;
+			}
 		}
 		else
 		{
@@ -2683,13 +3466,12 @@ public class GLRenderer extends Renderer
 
 	private void setCubeTextureDynamic(RenderTargetCubeTexture texture, int slot)
 	{
-		this.gl.glActiveTexture(TextureUnit.TEXTURE0.getValue() + slot);
-		this.gl.glBindTexture(TextureTarget.TEXTURE_CUBE_MAP.getValue(), texture.getWebGlTexture());
+		bindTexture( slot, TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
 	}
 
 	public void setTexture( Texture texture, int slot )
 	{
-		if ( texture.isNeedsUpdate())
+		if ( texture.isNeedsUpdate() && ( this._textureResidency == null || this._textureResidency.canUpload( texture ) ) )
 		{
 			if ( texture.getWebGlTexture() == 0 )
 			{
@@ -2698,8 +3480,9 @@ public class GLRenderer extends Renderer
 				this.getInfo().getMemory().textures ++;
 			}
 
-			this.gl.glActiveTexture(TextureUnit.TEXTURE0.getValue() + slot);
-			this.gl.glBindTexture(TextureTarget.TEXTURE_2D.getValue(), texture.getWebGlTexture());
+			// new texture could reuse the name of a deleted one
+			resetTextureBindings();
+			bindTexture( slot, TextureTarget.TEXTURE_2D, texture.getWebGlTexture() );
 
 			this.gl.glPixelStorei( PixelStoreParameter.UNPACK_ALIGNMENT.getValue(), texture.getUnpackAlignment() );
 
@@ -2723,15 +3506,7 @@ public class GLRenderer extends Renderer
 			}
 			else if ( texture instanceof DataTexture )
 			{
-				TypeArray texData = ((DataTexture) texture).getData();
-				this.gl.glTexImage2D(TextureTarget.TEXTURE_2D.getValue(), 0,
-						((DataTexture) texture).getWidth(),
-						((DataTexture) texture).getHeight(),
-						0,
-						texture.getFormat().getValue(),
-						texture.getType().getValue(),
-						texData.getByteLength(),
-						texData.getBuffer());
+				((DataTexture) texture).glTexImage2D( this.gl, TextureTarget.TEXTURE_2D.getValue() );
 			}
 			// glTexImage2D does not apply to render target textures
 			else if (!(texture instanceof RenderTargetTexture))
@@ -2743,12 +3518,22 @@ public class GLRenderer extends Renderer
 				this.gl.glGenerateMipmap(TextureTarget.TEXTURE_2D.getValue());
 
 			texture.setNeedsUpdate(false);
+
+			if ( this._textureResidency != null )
+				this._textureResidency.uploaded( texture );
 		}
 		// Needed to check webgl texture in case deferred loading
 		else if (texture.getWebGlTexture() != 0)
 		{
-			this.gl.glActiveTexture(TextureUnit.TEXTURE0.getValue() + slot);
-			this.gl.glBindTexture(TextureTarget.TEXTURE_2D.getValue(), texture.getWebGlTexture());
+			bindTexture( slot, TextureTarget.TEXTURE_2D, texture.getWebGlTexture() );
+
+			if ( this._textureResidency != null )
+				this._textureResidency.bound( texture );
+		}
+		// still loading or waiting for the upload
+		else if ( texture.getFallback() != null )
+		{
+			setTexture( texture.getFallback(), slot );
 		}
 	}
 
@@ -2765,8 +3550,9 @@ public class GLRenderer extends Renderer
 				this.getInfo().getMemory().textures += 6;
 			}
 
-			this.gl.glActiveTexture( TextureUnit.TEXTURE0.getValue() + slot );
-			this.gl.glBindTexture(TextureTarget.TEXTURE_CUBE_MAP.getValue(), texture.getWebGlTexture());
+			// new texture could reuse the name of a deleted one
+			resetTextureBindings();
+			bindTexture( slot, TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
 
 			List<TextureData> cubeImage = new ArrayList<TextureData>();
 
@@ -2792,8 +3578,7 @@ public class GLRenderer extends Renderer
 		}
 		else
 		{
-			this.gl.glActiveTexture( TextureUnit.TEXTURE0.getValue() + slot );
-			this.gl.glBindTexture(TextureTarget.TEXTURE_CUBE_MAP.getValue(), texture.getWebGlTexture());
+			bindTexture( slot, TextureTarget.TEXTURE_CUBE_MAP, texture.getWebGlTexture() );
 		}
 
 	}
@@ -2811,6 +3596,8 @@ public class GLRenderer extends Renderer
 		if(renderTarget != null)
 		{
 			renderTarget.setRenderTarget(this.gl);
+			// the target binds its texture while initializing
+			resetTextureBindings();
 		    framebuffer = renderTarget.getWebGLFramebuffer();
 
 			width = renderTarget.getWidth();
@@ -2898,6 +3685,10 @@ public class GLRenderer extends Renderer
 			if ( light instanceof ShadowLight && ((ShadowLight)light).isOnlyShadow() )
 				continue;
 
+			// binned into the clusters instead of the uniforms
+			if ( this._lightClusters != null && LightClusters.isClustered( light ) )
+				continue;
+
 			if ( light instanceof DirectionalLight ) {
 				dirLights ++;
 			}
@@ -65,6 +65,74 @@ public class GLRendererInfo
 		 * How many points were rendered.
 		 */
 		public int points = 0;
+		/**
+		 * How many local matrices were composed while updating the scene.
+		 */
+		public int matrices = 0;
+		/**
+		 * How many world matrices were recalculated while updating the scene.
+		 */
+		public int matrixWorlds = 0;
+	}
+
+	/**
+	 * Information about GL state calls which were skipped during the last
+	 * {@link GLRenderer#render(Scene, Camera)} because the state was already set.
+	 */
+	public class WebGLRenderInfoState
+	{
+		/**
+		 * How many program switches were skipped.
+		 */
+		public int programs = 0;
+		/**
+		 * How many blending changes were skipped.
+		 */
+		public int blending = 0;
+		/**
+		 * How many depth test, depth write and polygon offset changes were skipped.
+		 */
+		public int depth = 0;
+		/**
+		 * How many face culling changes were skipped.
+		 */
+		public int faces = 0;
+		/**
+		 * How many texture binds were skipped.
+		 */
+		public int textures = 0;
+		/**
+		 * How many vertex and index buffer binds were skipped.
+		 */
+		public int buffers = 0;
+		/**
+		 * How many vertex attribute pointer changes were skipped.
+		 */
+		public int attributes = 0;
+		/**
+		 * How many uniform uploads were skipped because the program had the same values.
+		 */
+		public int uniforms = 0;
+
+		/**
+		 * Gets total number of the redundant GL calls which were skipped.
+		 */
+		public int getRedundant()
+		{
+			return programs + blending + depth + faces + textures + buffers + attributes + uniforms;
+		}
+
+		public void reset()
+		{
+			programs = 0;
+			blending = 0;
+			depth = 0;
+			faces = 0;
+			textures = 0;
+			buffers = 0;
+			attributes = 0;
+			uniforms = 0;
+		}
 	}
 
 	/**
@@ -88,6 +156,7 @@ public class GLRendererInfo
 
 	private WebGLRenderInfoRender render;
 	private WebGLRenderInfoMemory memory;
+	private WebGLRenderInfoState state;
 	private WebGLRenderTimer timer;
 	
 	/**
@@ -97,6 +166,7 @@ public class GLRendererInfo
 	{
 		this.render = new WebGLRenderInfoRender();
 		this.memory = new WebGLRenderInfoMemory();
+		this.state = new WebGLRenderInfoState();
 		this.timer = new WebGLRenderTimer();
 	}
 
@@ -116,6 +186,14 @@ public class GLRendererInfo
 		return memory;
 	}
 
+	/**
+	 * Gets {@link GLRendererInfo.WebGLRenderInfoState} information.
+	 */
+	public WebGLRenderInfoState getState()
+	{
+		return state;
+	}
+
 	/**
 	 * Gets {@link GLRendererInfo.WebGLRenderTimer} information.
 	 */
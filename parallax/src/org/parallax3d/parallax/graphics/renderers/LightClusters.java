@@ -0,0 +1,490 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.parallax3d.parallax.graphics.cameras.Camera;
+import org.parallax3d.parallax.graphics.cameras.HasNearFar;
+import org.parallax3d.parallax.graphics.lights.HasIntensity;
+import org.parallax3d.parallax.graphics.lights.Light;
+import org.parallax3d.parallax.graphics.lights.PointLight;
+import org.parallax3d.parallax.graphics.lights.ShadowLight;
+import org.parallax3d.parallax.graphics.lights.SpotLight;
+import org.parallax3d.parallax.graphics.renderers.shaders.Uniform;
+import org.parallax3d.parallax.graphics.textures.DataTexture;
+import org.parallax3d.parallax.math.Color;
+import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.math.Vector4;
+import org.parallax3d.parallax.system.FastMap;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.enums.PixelFormat;
+import org.parallax3d.parallax.system.gl.enums.PixelType;
+import org.parallax3d.parallax.system.gl.enums.TextureMagFilter;
+import org.parallax3d.parallax.system.gl.enums.TextureMinFilter;
+import org.parallax3d.parallax.system.gl.enums.TextureWrapMode;
+
+/**
+ * Clustered forward shading of point and spot lights.
+ * <p>
+ * The view frustum is divided into screen tiles and exponential depth slices.
+ * Every frame the point and spot lights with a distance are binned on the CPU into
+ * the clusters their sphere of influence touches. The lists of light indices and
+ * the light data are uploaded as float {@link DataTexture}s, so Lambert and Phong
+ * programs loop over the lights of one cluster instead of over all lights,
+ * and are compiled the same for any number of lights.
+ * <p>
+ * Lights without a distance affect the whole scene and stay in the uniform arrays.
+ * Requires OES_texture_float, Lambert materials also need vertex textures.
+ *
+ * @see GLRenderer#setLightClusters(LightClusters)
+ */
+public class LightClusters
+{
+	// width of the index and light textures, also defined in the shader chunk
+	public static final int MAP_WIDTH = 1024;
+
+	// texels of one light: position and distance, color and exponent, direction and cosine of the angle
+	private static final int LIGHT_TEXELS = 3;
+
+	private int tilesX;
+	private int tilesY;
+	private int slices;
+
+	private int maxClusterLights = 32;
+
+	// offset and count of the lights in every cluster, tiles in X and slices in Y
+	private DataTexture clusterMap;
+	private DataTexture indexMap;
+	private DataTexture lightMap;
+
+	private double near;
+	private double sliceScale;
+
+	private Vector4 viewport = new Vector4();
+
+	private List<Light> lights = new ArrayList<Light>();
+
+	// cluster bounds of every light: tile X, tile Y and slice ranges
+	private int[] lightBounds = new int[ 6 * 16 ];
+	private int[] counts;
+	private int indexCount;
+
+	private Vector3 position = new Vector3();
+	private Vector3 direction = new Vector3();
+	private Vector3 target = new Vector3();
+
+	public LightClusters()
+	{
+		this( 16, 8, 24 );
+	}
+
+	/**
+	 * @param tilesX the number of screen tiles along X
+	 * @param tilesY the number of screen tiles along Y
+	 * @param slices the number of depth slices between the near and far plane of the camera
+	 */
+	public LightClusters( int tilesX, int tilesY, int slices )
+	{
+		this.tilesX = tilesX;
+		this.tilesY = tilesY;
+		this.slices = slices;
+
+		this.counts = new int[ tilesX * tilesY * slices ];
+
+		this.clusterMap = createTexture( Float32Array.create( tilesX * tilesY * slices * 4 ), tilesX * tilesY, slices );
+		this.indexMap = createTexture( Float32Array.create( MAP_WIDTH * 4 ), MAP_WIDTH, 1 );
+		this.lightMap = createTexture( Float32Array.create( MAP_WIDTH * 4 ), MAP_WIDTH, 1 );
+	}
+
+	private static DataTexture createTexture( Float32Array data, int width, int height )
+	{
+		DataTexture texture = new DataTexture( data, width, height, PixelFormat.RGBA, PixelType.FLOAT );
+		texture.setMinFilter( TextureMinFilter.NEAREST );
+		texture.setMagFilter( TextureMagFilter.NEAREST );
+		texture.setWrapS( TextureWrapMode.CLAMP_TO_EDGE );
+		texture.setWrapT( TextureWrapMode.CLAMP_TO_EDGE );
+		texture.setGenerateMipmaps( false );
+		texture.setFlipY( false );
+		return texture;
+	}
+
+	public int getTilesX() {
+		return tilesX;
+	}
+
+	public int getTilesY() {
+		return tilesY;
+	}
+
+	public int getSlices() {
+		return slices;
+	}
+
+	public int getMaxClusterLights() {
+		return maxClusterLights;
+	}
+
+	/**
+	 * Sets how many lights are evaluated for a cluster at most, lights over
+	 * the limit are dropped. The shaders are compiled with this limit.
+	 * <p>
+	 * Default: 32.
+	 */
+	public LightClusters setMaxClusterLights( int maxClusterLights ) {
+		this.maxClusterLights = maxClusterLights;
+		return this;
+	}
+
+	public DataTexture getClusterMap() {
+		return clusterMap;
+	}
+
+	public DataTexture getIndexMap() {
+		return indexMap;
+	}
+
+	public DataTexture getLightMap() {
+		return lightMap;
+	}
+
+	/**
+	 * Lights binned by the last update, in the order of their data in the light texture.
+	 */
+	public List<Light> getLights() {
+		return lights;
+	}
+
+	/**
+	 * Gets the number of light indices in all clusters after the last update.
+	 */
+	public int getIndexCount() {
+		return indexCount;
+	}
+
+	/**
+	 * Gets the number of lights in the cluster.
+	 */
+	public int getClusterLights( int tileX, int tileY, int slice ) {
+		return Math.min( counts[ ( slice * tilesY + tileY ) * tilesX + tileX ], maxClusterLights );
+	}
+
+	/**
+	 * Point and spot lights with a distance are binned into the clusters,
+	 * other lights are applied by the uniform arrays.
+	 */
+	public static boolean isClustered( Light light )
+	{
+		if ( light instanceof PointLight )
+			return ((PointLight) light).getDistance() > 0;
+
+		if ( light instanceof SpotLight )
+			return ((SpotLight) light).getDistance() > 0;
+
+		return false;
+	}
+
+	/**
+	 * Sets the viewport the clusters are mapped to, in window coordinates.
+	 */
+	public void setViewport( int x, int y, int width, int height )
+	{
+		this.viewport.set( x, y, width, height );
+	}
+
+	/**
+	 * Bins the lights into the clusters of the camera and fills the textures.
+	 *
+	 * @param camera       the camera with updated matrices
+	 * @param sceneLights  the visible lights of the scene
+	 * @param isGammaInput if colors are in gamma space
+	 */
+	public void update( Camera camera, List<Light> sceneLights, boolean isGammaInput )
+	{
+		double far;
+
+		if ( camera instanceof HasNearFar )
+		{
+			this.near = Math.max( ((HasNearFar) camera).getNear(), 1e-3 );
+			far = Math.max( ((HasNearFar) camera).getFar(), this.near * 2 );
+		}
+		else
+		{
+			this.near = 1;
+			far = 10000;
+		}
+
+		this.sliceScale = this.slices / Math.log( far / this.near );
+
+		this.lights.clear();
+
+		for ( int i = 0, l = sceneLights.size(); i < l; i ++ )
+		{
+			Light light = sceneLights.get( i );
+
+			if ( ! light.isVisible() || ! isClustered( light )
+					|| ( light instanceof ShadowLight && ((ShadowLight) light).isOnlyShadow() ) )
+				continue;
+
+			this.lights.add( light );
+		}
+
+		int lightCount = this.lights.size();
+
+		if ( this.lightBounds.length < lightCount * 6 )
+			this.lightBounds = new int[ Math.max( lightCount * 6, this.lightBounds.length * 2 ) ];
+
+		Float32Array lightData = (Float32Array) ensureCapacity( this.lightMap, lightCount * LIGHT_TEXELS ).getData();
+
+		for ( int i = 0; i < this.counts.length; i ++ )
+			this.counts[ i ] = 0;
+
+		float[] view = camera.getMatrixWorldInverse().getArray();
+		float[] projection = camera.getProjectionMatrix().getArray();
+
+		// light data in view space and the clusters touched by the lights
+		for ( int i = 0; i < lightCount; i ++ )
+		{
+			Light light = this.lights.get( i );
+
+			double distance = light instanceof PointLight ? ((PointLight) light).getDistance() : ((SpotLight) light).getDistance();
+
+			this.position.setFromMatrixPosition( light.getMatrixWorld() );
+
+			if ( light instanceof SpotLight )
+			{
+				this.target.setFromMatrixPosition( ((SpotLight) light).getTarget().getMatrixWorld() );
+				this.direction.copy( this.position ).sub( this.target ).normalize();
+				this.direction.transformDirection( camera.getMatrixWorldInverse() );
+			}
+
+			this.position.apply( camera.getMatrixWorldInverse() );
+
+			int offset = i * LIGHT_TEXELS * 4;
+
+			lightData.set( offset, this.position.getX() );
+			lightData.set( offset + 1, this.position.getY() );
+			lightData.set( offset + 2, this.position.getZ() );
+			lightData.set( offset + 3, distance );
+
+			Color color = light.getColor();
+			double intensity = ((HasIntensity) light).getIntensity();
+
+			if ( isGammaInput )
+			{
+				lightData.set( offset + 4, color.getR() * color.getR() * intensity * intensity );
+				lightData.set( offset + 5, color.getG() * color.getG() * intensity * intensity );
+				lightData.set( offset + 6, color.getB() * color.getB() * intensity * intensity );
+			}
+			else
+			{
+				lightData.set( offset + 4, color.getR() * intensity );
+				lightData.set( offset + 5, color.getG() * intensity );
+				lightData.set( offset + 6, color.getB() * intensity );
+			}
+
+			// point lights are told apart by a cosine below -1
+			if ( light instanceof SpotLight )
+			{
+				lightData.set( offset + 7, ((SpotLight) light).getExponent() );
+				lightData.set( offset + 8, this.direction.getX() );
+				lightData.set( offset + 9, this.direction.getY() );
+				lightData.set( offset + 10, this.direction.getZ() );
+				lightData.set( offset + 11, Math.cos( ((SpotLight) light).getAngle() ) );
+			}
+			else
+			{
+				lightData.set( offset + 7, 0 );
+				lightData.set( offset + 8, 0 );
+				lightData.set( offset + 9, 0 );
+				lightData.set( offset + 10, 0 );
+				lightData.set( offset + 11, -2 );
+			}
+
+			if ( ! computeBounds( i, this.position, distance, far, projection ) )
+				continue;
+
+			int b = i * 6;
+
+			for ( int z = this.lightBounds[ b + 4 ]; z <= this.lightBounds[ b + 5 ]; z ++ )
+				for ( int y = this.lightBounds[ b + 2 ]; y <= this.lightBounds[ b + 3 ]; y ++ )
+					for ( int x = this.lightBounds[ b ]; x <= this.lightBounds[ b + 1 ]; x ++ )
+						this.counts[ ( z * this.tilesY + y ) * this.tilesX + x ] ++;
+		}
+
+		// offsets of the clusters in the index list
+		Float32Array clusterData = (Float32Array) this.clusterMap.getData();
+
+		this.indexCount = 0;
+
+		for ( int c = 0; c < this.counts.length; c ++ )
+		{
+			int count = Math.min( this.counts[ c ], this.maxClusterLights );
+
+			clusterData.set( c * 4, this.indexCount );
+			clusterData.set( c * 4 + 1, count );
+
+			this.indexCount += count;
+			this.counts[ c ] = 0;
+		}
+
+		Float32Array indexData = (Float32Array) ensureCapacity( this.indexMap, this.indexCount ).getData();
+
+		// the counts are filled again while the indices are written
+		for ( int i = 0; i < lightCount; i ++ )
+		{
+			int b = i * 6;
+
+			if ( this.lightBounds[ b ] < 0 )
+				continue;
+
+			for ( int z = this.lightBounds[ b + 4 ]; z <= this.lightBounds[ b + 5 ]; z ++ )
+				for ( int y = this.lightBounds[ b + 2 ]; y <= this.lightBounds[ b + 3 ]; y ++ )
+					for ( int x = this.lightBounds[ b ]; x <= this.lightBounds[ b + 1 ]; x ++ )
+					{
+						int c = ( z * this.tilesY + y ) * this.tilesX + x;
+
+						if ( this.counts[ c ] < this.maxClusterLights )
+						{
+							int index = (int) clusterData.get( c * 4 ) + this.counts[ c ];
+							indexData.set( index * 4, i );
+						}
+
+						this.counts[ c ] ++;
+					}
+		}
+
+		this.clusterMap.setNeedsUpdate( true );
+		this.indexMap.setNeedsUpdate( true );
+		this.lightMap.setNeedsUpdate( true );
+	}
+
+	/*
+	 * Finds the clusters touched by the bounding box of the light sphere
+	 *
+	 * @return false if the light is outside of the view frustum depth range
+	 */
+	private boolean computeBounds( int light, Vector3 center, double radius, double far, float[] projection )
+	{
+		int b = light * 6;
+
+		// view space looks along -Z
+		double depth = - center.getZ();
+		double minDepth = depth - radius;
+		double maxDepth = depth + radius;
+
+		if ( maxDepth < this.near || minDepth > far )
+		{
+			this.lightBounds[ b ] = -1;
+			return false;
+		}
+
+		this.lightBounds[ b + 4 ] = getSlice( Math.max( minDepth, this.near ) );
+		this.lightBounds[ b + 5 ] = getSlice( maxDepth );
+
+		// the projection of the box corners is conservative while the box is in front of the near plane
+		if ( minDepth <= this.near )
+		{
+			this.lightBounds[ b ] = 0;
+			this.lightBounds[ b + 1 ] = this.tilesX - 1;
+			this.lightBounds[ b + 2 ] = 0;
+			this.lightBounds[ b + 3 ] = this.tilesY - 1;
+			return true;
+		}
+
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+		for ( int corner = 0; corner < 8; corner ++ )
+		{
+			double x = center.getX() + ( ( corner & 1 ) == 0 ? - radius : radius );
+			double y = center.getY() + ( ( corner & 2 ) == 0 ? - radius : radius );
+			double z = center.getZ() + ( ( corner & 4 ) == 0 ? - radius : radius );
+
+			double w = projection[ 3 ] * x + projection[ 7 ] * y + projection[ 11 ] * z + projection[ 15 ];
+			double px = ( projection[ 0 ] * x + projection[ 4 ] * y + projection[ 8 ] * z + projection[ 12 ] ) / w;
+			double py = ( projection[ 1 ] * x + projection[ 5 ] * y + projection[ 9 ] * z + projection[ 13 ] ) / w;
+
+			minX = Math.min( minX, px );
+			maxX = Math.max( maxX, px );
+			minY = Math.min( minY, py );
+			maxY = Math.max( maxY, py );
+		}
+
+		if ( maxX < -1 || minX > 1 || maxY < -1 || minY > 1 )
+		{
+			this.lightBounds[ b ] = -1;
+			return false;
+		}
+
+		this.lightBounds[ b ] = getTile( minX, this.tilesX );
+		this.lightBounds[ b + 1 ] = getTile( maxX, this.tilesX );
+		this.lightBounds[ b + 2 ] = getTile( minY, this.tilesY );
+		this.lightBounds[ b + 3 ] = getTile( maxY, this.tilesY );
+
+		return true;
+	}
+
+	/*
+	 * Same as in the shader: exponential slices from the near plane
+	 */
+	private int getSlice( double depth )
+	{
+		int slice = (int) Math.floor( Math.log( depth / this.near ) * this.sliceScale );
+		return Math.max( 0, Math.min( this.slices - 1, slice ) );
+	}
+
+	private static int getTile( double ndc, int tiles )
+	{
+		int tile = (int) Math.floor( ( ndc * 0.5 + 0.5 ) * tiles );
+		return Math.max( 0, Math.min( tiles - 1, tile ) );
+	}
+
+	/*
+	 * Makes the texture tall enough for the number of texels, the rows grow in powers of two
+	 */
+	private static DataTexture ensureCapacity( DataTexture texture, int texels )
+	{
+		int height = texture.getHeight();
+
+		while ( height * MAP_WIDTH < texels )
+			height *= 2;
+
+		if ( height != texture.getHeight() )
+			texture.setData( Float32Array.create( height * MAP_WIDTH * 4 ) ).setHeight( height );
+
+		return texture;
+	}
+
+	/**
+	 * Sets the clustered light uniforms of the program.
+	 */
+	public void refreshUniform( FastMap<Uniform> uniforms )
+	{
+		uniforms.get( "clusterMap" ).setValue( this.clusterMap );
+		uniforms.get( "clusterIndexMap" ).setValue( this.indexMap );
+		uniforms.get( "clusterLightMap" ).setValue( this.lightMap );
+
+		((Vector3) uniforms.get( "clusterGrid" ).getValue()).set( this.tilesX, this.tilesY, this.slices );
+		((Vector2) uniforms.get( "clusterDepth" ).getValue()).set( this.near, this.sliceScale );
+		((Vector2) uniforms.get( "clusterMapHeight" ).getValue()).set( this.indexMap.getHeight(), this.lightMap.getHeight() );
+		((Vector4) uniforms.get( "clusterViewport" ).getValue()).copy( this.viewport );
+	}
+}
@@ -45,6 +45,9 @@ public class RendererLights
 	public SpotLight.UniformSport spot;
 	public HemisphereLight.UniformHemisphere hemi;
 
+	// ranged point and spot lights are binned into the clusters instead of the uniforms
+	public LightClusters clusters;
+
 	public RendererLights()
 	{
 		ambient = new AmbientLight.UniformAmbient();
@@ -68,6 +71,9 @@ public class RendererLights
 			if ( (light instanceof ShadowLight && ((ShadowLight)light).isOnlyShadow()) || ! light.isVisible())
 				continue;
 
+			if ( clusters != null && LightClusters.isClustered( light ) )
+				continue;
+
 			light.setupRendererLights(this, isGammaInput);
 		}
 	}
@@ -79,5 +85,8 @@ public class RendererLights
 		point.refreshUniform(uniforms);
 		spot.refreshUniform(uniforms);
 		hemi.refreshUniform(uniforms);
+
+		if ( clusters != null && uniforms.containsKey( "clusterMap" ) )
+			clusters.refreshUniform(uniforms);
 	}
 }
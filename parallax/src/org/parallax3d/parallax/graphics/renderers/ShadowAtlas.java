@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import org.parallax3d.parallax.system.gl.enums.PixelFormat;
+import org.parallax3d.parallax.system.gl.enums.TextureMagFilter;
+import org.parallax3d.parallax.system.gl.enums.TextureMinFilter;
+
+/**
+ * Packs the shadow maps of several lights into one {@link RenderTargetTexture},
+ * so they share a framebuffer and a texture unit.
+ * <p>
+ * The {@link ShadowMap} places the tiles on shelves in the order the lights are rendered,
+ * each light keeps its tile while the lights do not change. Lights which do not fit
+ * get their own shadow map.
+ */
+public class ShadowAtlas
+{
+	// texels kept free around the tiles, so the PCF kernel does not sample the neighbours
+	public static final int PADDING = 2;
+
+	private RenderTargetTexture texture;
+
+	private int shelfX;
+	private int shelfY;
+	private int shelfHeight;
+
+	public ShadowAtlas(int width, int height)
+	{
+		this.texture = new RenderTargetTexture( width, height );
+		this.texture.setMinFilter( TextureMinFilter.NEAREST );
+		this.texture.setMagFilter( TextureMagFilter.NEAREST );
+		this.texture.setFormat( PixelFormat.RGBA );
+	}
+
+	public RenderTargetTexture getTexture() {
+		return texture;
+	}
+
+	public int getWidth() {
+		return texture.getWidth();
+	}
+
+	public int getHeight() {
+		return texture.getHeight();
+	}
+
+	/**
+	 * Frees all tiles, they are placed again from the origin.
+	 */
+	public void reset()
+	{
+		this.shelfX = 0;
+		this.shelfY = 0;
+		this.shelfHeight = 0;
+	}
+
+	/**
+	 * Places a tile of the given size.
+	 *
+	 * @param width  the width of the tile in texels
+	 * @param height the height of the tile in texels
+	 * @param tile   receives X, Y, width and height of the tile in texels
+	 *
+	 * @return false if the tile does not fit into the atlas
+	 */
+	public boolean allocate(int width, int height, int[] tile)
+	{
+		if ( width > getWidth() || height > getHeight() )
+			return false;
+
+		// start a new shelf
+		if ( this.shelfX + width > getWidth() )
+		{
+			this.shelfY += this.shelfHeight + PADDING;
+			this.shelfX = 0;
+			this.shelfHeight = 0;
+		}
+
+		if ( this.shelfY + height > getHeight() )
+			return false;
+
+		tile[ 0 ] = this.shelfX;
+		tile[ 1 ] = this.shelfY;
+		tile[ 2 ] = width;
+		tile[ 3 ] = height;
+
+		this.shelfX += width + PADDING;
+		this.shelfHeight = Math.max( this.shelfHeight, height );
+
+		return true;
+	}
+}
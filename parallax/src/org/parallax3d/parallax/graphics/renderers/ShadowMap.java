@@ -19,6 +19,8 @@
 package org.parallax3d.parallax.graphics.renderers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 import org.parallax3d.parallax.Log;
@@ -32,6 +34,7 @@ import org.parallax3d.parallax.graphics.extras.helpers.CameraHelper;
 import org.parallax3d.parallax.graphics.lights.SpotLight;
 import org.parallax3d.parallax.graphics.materials.ShaderMaterial;
 import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.graphics.objects.Skeleton;
 import org.parallax3d.parallax.graphics.objects.SkinnedMesh;
 import org.parallax3d.parallax.graphics.cameras.OrthographicCamera;
 import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
@@ -72,7 +75,41 @@ public final class ShadowMap extends Plugin
 	private Vector3 min;
 	private Vector3 max;
 
-	List<GLObject> _renderList = new ArrayList<GLObject>();
+	private ShadowAtlas atlas;
+	private boolean isCached = false;
+
+	GLRenderList _renderList = new GLRenderList();
+
+	// lights rendered by the frame, with the cascades
+	private List<ShadowLight> _lights = new ArrayList<ShadowLight>();
+	private List<GeometryObject> _casters = new ArrayList<GeometryObject>();
+	private IdentityHashMap<ShadowLight, ShadowState> _states = new IdentityHashMap<ShadowLight, ShadowState>();
+
+	// casters of the current light: id, world matrix version and pose version of each
+	private int[] _casterKeys = new int[ 48 ];
+	private int _casterKeysLength;
+	private boolean _isCastersAnimated;
+
+	private int[] _tile = new int[ 4 ];
+	private int _frame;
+	private int _renderedMaps;
+
+	/*
+	 * What the shadow map of the light was rendered with
+	 */
+	private static class ShadowState
+	{
+		boolean isRendered;
+		int renderedFrame;
+
+		// own shadow map, if the light is not in the atlas
+		RenderTargetTexture map;
+		int[] tile = new int[ 4 ];
+
+		float[] shadowMatrix = new float[ 16 ];
+		int[] casterKeys = new int[ 0 ];
+		int casterKeysLength;
+	}
 
 	public ShadowMap(GLRenderer renderer, Scene scene)
 	{
@@ -151,6 +188,42 @@ public final class ShadowMap extends Plugin
 		return this;
 	}
 
+	public boolean isCached() {
+		return isCached;
+	}
+
+	/**
+	 * Keeps the shadow map of a light until the light, its shadow camera or a caster
+	 * inside its frustum is moved. Skinned casters are compared by the pose of the skeleton,
+	 * casters with morph targets are rendered every frame.
+	 * <p>
+	 * Changes of the caster geometry are not tracked, see {@link ShadowLight#setShadowMapNeedsUpdate(boolean)}.
+	 */
+	public ShadowMap setCached(boolean isCached) {
+		this.isCached = isCached;
+		return this;
+	}
+
+	public ShadowAtlas getAtlas() {
+		return atlas;
+	}
+
+	/**
+	 * Sets the atlas the shadow maps of the lights are packed into,
+	 * or null if each light has its own shadow map.
+	 */
+	public ShadowMap setAtlas(ShadowAtlas atlas) {
+		this.atlas = atlas;
+		return this;
+	}
+
+	/**
+	 * Gets how many shadow maps were rendered by the last frame.
+	 */
+	public int getRenderedMaps() {
+		return _renderedMaps;
+	}
+
 	@Override
 	public TYPE getType()
 	{
@@ -165,6 +238,9 @@ public final class ShadowMap extends Plugin
 			return;
 		}
 
+		this._frame ++;
+		this._renderedMaps = 0;
+
 		// set GL state for depth map
 
 		gl.glClearColor(1, 1, 1, 1);
@@ -184,7 +260,7 @@ public final class ShadowMap extends Plugin
 
 		getRenderer().setDepthTest( true );
 
-		List<Light> lights = new ArrayList<Light>();
+		this._lights.clear();
 
 		// preprocess lights
 		// 	- skip lights that are not casting shadows
@@ -194,7 +270,7 @@ public final class ShadowMap extends Plugin
 		{
 			Light sceneLight = sceneLights.get( i );
 
-			if ( ! sceneLight.isCastShadow() ) {
+			if ( ! ( sceneLight.isCastShadow() && sceneLight instanceof ShadowLight ) ) {
 				continue;
 			}
 
@@ -231,39 +307,41 @@ public final class ShadowMap extends Plugin
 					}
 
 					updateVirtualLight( dirLight, n );
-					lights.add(virtualLight);
+					this._lights.add(virtualLight);
 
 				}
 			} else {
-				lights.add(sceneLight);
+				this._lights.add((ShadowLight) sceneLight);
 			}
 		}
 
+		if ( this.atlas != null )
+			this.atlas.reset();
+
 		// render depth map
-		for ( int i = 0, il = lights.size(); i < il; i ++ ) {
+		for ( int i = 0, il = this._lights.size(); i < il; i ++ ) {
 
-			ShadowLight light = (ShadowLight) lights.get(i);
+			ShadowLight light = this._lights.get(i);
 
-			if ( light.getShadowMap() == null )
-			{
-				RenderTargetTexture map = new RenderTargetTexture(light.getShadowMapWidth(), light.getShadowMapHeight());
-				map.setMinFilter(TextureMinFilter.NEAREST);
-				map.setMagFilter(TextureMagFilter.NEAREST);
-				map.setFormat(PixelFormat.RGBA);
-				light.setShadowMap(map);
+			ShadowState state = this._states.get( light );
 
-				light.setShadowMapSize( new Vector2( light.getShadowMapWidth(),
-						light.getShadowMapHeight() ) );
-				light.setShadowMatrix( new Matrix4() );
+			if ( state == null )
+			{
+				state = new ShadowState();
+				this._states.put( light, state );
 			}
 
+			// the map is rendered again if the light was moved to another texture or tile
+			if ( setShadowMap( light, state ) )
+				state.isRendered = false;
+
 			if ( light.getShadowCamera() == null )
 			{
 				if ( light instanceof SpotLight )
 				{
 					light.setShadowCamera(new PerspectiveCamera(
 							((SpotLight)light).getShadowCameraFov(),
-							light.getShadowMapWidth() / light.getShadowMapHeight(),
+							(double) light.getShadowMapWidth() / light.getShadowMapHeight(),
 							light.getShadowCameraNear(),
 							light.getShadowCameraFar() ));
 				}
@@ -295,6 +373,11 @@ public final class ShadowMap extends Plugin
 				getScene().add( light.getCameraHelper() );
 			}
 
+			// the map and its shadow matrix are kept until the light is due
+			if ( state.isRendered && ! light.isShadowMapNeedsUpdate()
+					&& this._frame - state.renderedFrame < light.getShadowMapUpdateInterval() )
+				continue;
+
 			if ( light instanceof VirtualLight && ((VirtualLight)light).getOriginalCamera() == camera )
 			{
 				updateShadowCamera( camera, (VirtualLight)light );
@@ -330,148 +413,350 @@ public final class ShadowMap extends Plugin
 					shadowCamera.getMatrixWorldInverse() );
 			this.frustum.setFromMatrix( this.projScreenMatrix );
 
-			// render shadow map
+			// set object matrices & frustum culling
 
-			getRenderer().setRenderTarget( light.getShadowMap() );
-			getRenderer().clear();
+			projectCasters( shadowCamera );
 
-			// set object matrices & frustum culling
+			state.renderedFrame = this._frame;
 
-			this._renderList = new ArrayList<GLObject>();
+			if ( ! updateState( light, state ) )
+				continue;
 
-			projectObject( getScene(), getScene(), shadowCamera );
+			renderShadowMap( gl, light, state, shadowCamera, sceneLights );
 
+			state.isRendered = true;
+			light.setShadowMapNeedsUpdate( false );
+			this._renderedMaps ++;
+		}
 
-			// render regular objects
+		// restore GL state
 
-			for ( int j = 0, jl = _renderList.size(); j < jl; j ++ ) {
+		Color clearColor = getRenderer().getClearColor();
+		double clearAlpha = getRenderer().getClearAlpha();
 
-				GLObject webglObject = _renderList.get( j );
+		gl.glClearColor((float) clearColor.getR(), (float) clearColor.getG(),
+				(float) clearColor.getB(), (float) clearAlpha);
+		gl.glEnable(EnableCap.BLEND.getValue());
 
-				GeometryObject object = webglObject.object;
-				GLGeometry buffer = webglObject.buffer;
+		if ( isCullFrontFaces() )
+		{
+			gl.glCullFace(CullFaceMode.BACK.getValue());
+		}
 
-				// culling is overriden globally for all objects
-				// while rendering depth map
+		getRenderer().resetGLState();
+	}
 
-				// need to deal with MeshFaceMaterial somehow
-				// in that case just use the first of material.materials for now
-				// (proper solution would require to break objects by materials
-				//  similarly to regular rendering and then set corresponding
-				//  depth materials per each chunk instead of just once per object)
+	private void renderShadowMap( GL20 gl, ShadowLight light, ShadowState state, Camera shadowCamera, List<Light> sceneLights ) {
 
-				Material objectMaterial = getObjectMaterial( object );
+		getRenderer().setRenderTarget( light.getShadowMap() );
 
-				boolean useMorphing = object.getGeometry() instanceof Geometry && ((Geometry)object.getGeometry()).getMorphTargets() != null
-						&& !((Geometry)object.getGeometry()).getMorphTargets().isEmpty()
-						&& objectMaterial instanceof HasSkinning &&
-						((HasSkinning)objectMaterial).isMorphTargets();
+		// only the tile of the light is cleared and drawn in the atlas
+		boolean isTile = this.atlas != null && light.getShadowMap() == this.atlas.getTexture();
 
-				boolean  useSkinning = object instanceof SkinnedMesh
-						&& objectMaterial instanceof HasSkinning &&
-						((HasSkinning)objectMaterial).isSkinning();
+		if ( isTile ) {
 
-				Material material;
+			int[] tile = state.tile;
 
-				if ( useSkinning ) {
+			gl.glViewport( tile[ 0 ], tile[ 1 ], tile[ 2 ], tile[ 3 ] );
+			getRenderer().setScissor( tile[ 0 ], tile[ 1 ], tile[ 2 ], tile[ 3 ] );
+			getRenderer().enableScissorTest( true );
 
-					material = useMorphing ? this.depthMaterialMorphSkin : this.depthMaterialSkin;
+		}
 
-				} else if ( useMorphing ) {
+		getRenderer().clear();
 
-					material = this.depthMaterialMorph;
+		// render regular objects
 
-				} else {
+		for ( int j = 0, jl = _renderList.size(); j < jl; j ++ ) {
 
-					material = this.depthMaterial;
+			GLObject webglObject = _renderList.get( j );
 
-				}
+			GeometryObject object = webglObject.object;
+			GLGeometry buffer = webglObject.buffer;
 
-				getRenderer().setMaterialFaces( objectMaterial );
+			// culling is overriden globally for all objects
+			// while rendering depth map
 
-				if ( buffer instanceof BufferGeometry ) {
+			// need to deal with MeshFaceMaterial somehow
+			// in that case just use the first of material.materials for now
+			// (proper solution would require to break objects by materials
+			//  similarly to regular rendering and then set corresponding
+			//  depth materials per each chunk instead of just once per object)
 
-					getRenderer().renderBufferDirect( shadowCamera, sceneLights,
-							null, material, (BufferGeometry)buffer, object );
+			Material objectMaterial = getObjectMaterial( object );
 
-				} else {
+			boolean useMorphing = isMorphing( object, objectMaterial );
 
-					getRenderer().renderBuffer( shadowCamera, sceneLights, null, material, buffer, object );
+			boolean  useSkinning = object instanceof SkinnedMesh
+					&& objectMaterial instanceof HasSkinning &&
+					((HasSkinning)objectMaterial).isSkinning();
 
-				}
+			Material material;
+
+			if ( useSkinning ) {
+
+				material = useMorphing ? this.depthMaterialMorphSkin : this.depthMaterialSkin;
+
+			} else if ( useMorphing ) {
+
+				material = this.depthMaterialMorph;
+
+			} else {
+
+				material = this.depthMaterial;
 
 			}
 
-			// set matrices and render immediate objects
+			getRenderer().setMaterialFaces( objectMaterial );
 
-			for ( int j = 0, jl = getRenderer()._webglObjectsImmediate.size();
-				  j < jl; j ++ ) {
+			if ( buffer instanceof BufferGeometry ) {
 
-				GLObject webglObject = getRenderer()._webglObjectsImmediate.get( j );
-				GeometryObject object = webglObject.object;
+				getRenderer().renderBufferDirect( shadowCamera, sceneLights,
+						null, material, (BufferGeometry)buffer, object );
 
-				if ( object.isVisible() && object.isCastShadow() ) {
+			} else {
 
-					object._modelViewMatrix.multiply( shadowCamera.getMatrixWorldInverse(),
-							object.getMatrixWorld() );
+				getRenderer().renderBuffer( shadowCamera, sceneLights, null, material, buffer, object );
 
-					getRenderer().renderImmediateObject( shadowCamera, sceneLights,
-							null, this.depthMaterial, object );
+			}
 
-				}
+		}
+
+		// set matrices and render immediate objects
+
+		for ( int j = 0, jl = getRenderer()._webglObjectsImmediate.size();
+			  j < jl; j ++ ) {
+
+			GLObject webglObject = getRenderer()._webglObjectsImmediate.get( j );
+			GeometryObject object = webglObject.object;
+
+			if ( object.isVisible() && object.isCastShadow() ) {
+
+				object._modelViewMatrix.multiply( shadowCamera.getMatrixWorldInverse(),
+						object.getMatrixWorld() );
+
+				getRenderer().renderImmediateObject( shadowCamera, sceneLights,
+						null, this.depthMaterial, object );
 
 			}
 
 		}
 
-		// restore GL state
+		if ( isTile )
+			getRenderer().enableScissorTest( false );
 
-		Color clearColor = getRenderer().getClearColor();
-		double clearAlpha = getRenderer().getClearAlpha();
+	}
 
-		gl.glClearColor((float) clearColor.getR(), (float) clearColor.getG(),
-				(float) clearColor.getB(), (float) clearAlpha);
-		gl.glEnable(EnableCap.BLEND.getValue());
+	/*
+	 * Places the light into the atlas or gives it its own shadow map
+	 *
+	 * @return true if the light has got another texture or tile
+	 */
+	private boolean setShadowMap( ShadowLight light, ShadowState state ) {
+
+		int width = light.getShadowMapWidth();
+		int height = light.getShadowMapHeight();
+
+		RenderTargetTexture map;
+
+		if ( this.atlas != null && this.atlas.allocate( width, height, this._tile ) ) {
+
+			map = this.atlas.getTexture();
+
+		} else {
+
+			if ( state.map == null ) {
+
+				map = new RenderTargetTexture( width, height );
+				map.setMinFilter(TextureMinFilter.NEAREST);
+				map.setMagFilter(TextureMagFilter.NEAREST);
+				map.setFormat(PixelFormat.RGBA);
+
+				state.map = map;
+
+			}
+
+			map = state.map;
+
+			this._tile[ 0 ] = 0;
+			this._tile[ 1 ] = 0;
+			this._tile[ 2 ] = map.getWidth();
+			this._tile[ 3 ] = map.getHeight();
 
-		if ( isCullFrontFaces() )
-		{
-			gl.glCullFace(CullFaceMode.BACK.getValue());
 		}
 
-		getRenderer().resetGLState();
+		if ( light.getShadowMatrix() == null )
+			light.setShadowMatrix( new Matrix4() );
+
+		if ( map == light.getShadowMap() && Arrays.equals( this._tile, state.tile ) )
+			return false;
+
+		System.arraycopy( this._tile, 0, state.tile, 0, 4 );
+
+		light.setShadowMap( map );
+		light.setShadowMapSize( new Vector2( map.getWidth(), map.getHeight() ) );
+		light.getShadowMapTile().set(
+				(double) this._tile[ 0 ] / map.getWidth(), (double) this._tile[ 1 ] / map.getHeight(),
+				(double) this._tile[ 2 ] / map.getWidth(), (double) this._tile[ 3 ] / map.getHeight() );
+
+		return true;
 	}
 
-	private void projectObject( Scene scene, Object3D object, Camera shadowCamera ){
+	/*
+	 * Compares the shadow matrix and the casters with the ones the map was rendered with
+	 *
+	 * @return true if the map has to be rendered
+	 */
+	private boolean updateState( ShadowLight light, ShadowState state ) {
+
+		float[] shadowMatrix = light.getShadowMatrix().getArray();
+
+		boolean isChanged = ! this.isCached || ! state.isRendered || light.isShadowMapNeedsUpdate()
+				|| this._isCastersAnimated || ! getRenderer()._webglObjectsImmediate.isEmpty()
+				|| ! Arrays.equals( shadowMatrix, state.shadowMatrix )
+				|| ! isEqual( this._casterKeys, this._casterKeysLength, state.casterKeys, state.casterKeysLength );
+
+		if ( isChanged ) {
+
+			System.arraycopy( shadowMatrix, 0, state.shadowMatrix, 0, 16 );
+
+			if ( state.casterKeys.length < this._casterKeysLength )
+				state.casterKeys = new int[ this._casterKeys.length ];
+
+			System.arraycopy( this._casterKeys, 0, state.casterKeys, 0, this._casterKeysLength );
+			state.casterKeysLength = this._casterKeysLength;
+
+		}
+
+		return isChanged;
+	}
+
+	private static boolean isEqual( int[] a, int aLength, int[] b, int bLength ) {
+
+		if ( aLength != bLength )
+			return false;
+
+		for ( int i = 0; i < aLength; i ++ )
+			if ( a[ i ] != b[ i ] )
+				return false;
+
+		return true;
+	}
+
+	/*
+	 * Collects the shadow casters inside the light frustum, from the scene index if the scene has one
+	 */
+	private void projectCasters( Camera shadowCamera ) {
+
+		this._renderList.clear();
+		this._casterKeysLength = 0;
+		this._isCastersAnimated = false;
+
+		Scene scene = getScene();
+
+		if ( scene.getSceneIndex() != null ) {
+
+			this._casters.clear();
+			scene.getSceneIndex().intersectFrustum( this.frustum, this._casters );
+
+			for ( int i = 0, l = this._casters.size(); i < l; i ++ )
+				projectIndexedObject( this._casters.get( i ), shadowCamera );
+
+			List<GeometryObject> unindexedObjects = scene.getUnindexedObjects();
+
+			for ( int i = 0, l = unindexedObjects.size(); i < l; i ++ )
+				projectIndexedObject( unindexedObjects.get( i ), shadowCamera );
+
+		} else {
+
+			projectObject( scene, shadowCamera );
+
+		}
+
+	}
+
+	private void projectIndexedObject( GeometryObject object, Camera shadowCamera ) {
+
+		if ( ! object.isCastShadow() || ! getRenderer().isVisibleInScene( object ) )
+			return;
+
+		List<GLObject> webglObjects = getRenderer()._webglObjects.get( object.getId() );
+
+		// the index is conservative, the bounding spheres are tested as for the scene graph
+		if ( webglObjects != null && ( ! object.isFrustumCulled() || this.frustum.isIntersectsObject( object ) ) )
+			addCaster( object, webglObjects, shadowCamera );
+
+	}
+
+	private void projectObject( Object3D object, Camera shadowCamera ){
 
 		if ( object.isVisible() ) {
 
-			List<GLObject> webglObjects = getRenderer()._webglObjects.get( Integer.toString(object.getId()) );
+			List<GLObject> webglObjects = getRenderer()._webglObjects.get( object.getId() );
 
 			if ( webglObjects != null && object.isCastShadow() &&
 					(!object.isFrustumCulled() ||
-							getRenderer()._frustum.isIntersectsObject(
+							this.frustum.isIntersectsObject(
 									(GeometryObject) object ) ) ) {
 
-				for ( int i = 0, l = webglObjects.size(); i < l; i ++ ) {
+				addCaster( (GeometryObject) object, webglObjects, shadowCamera );
 
-					GLObject webglObject = webglObjects.get( i );
+			}
 
-					object._modelViewMatrix.multiply( shadowCamera.getMatrixWorldInverse(),
-							object.getMatrixWorld() );
-					_renderList.add( webglObject );
+			for ( int i = 0, l = object.getChildren().size(); i < l; i ++ ) {
 
-				}
+				projectObject( object.getChildren().get( i ), shadowCamera );
 
 			}
 
-			for ( int i = 0, l = object.getChildren().size(); i < l; i ++ ) {
+		}
 
-				projectObject( scene, object.getChildren().get( i ), shadowCamera );
+	}
 
-			}
+	private void addCaster( GeometryObject object, List<GLObject> webglObjects, Camera shadowCamera ) {
+
+		object._modelViewMatrix.multiply( shadowCamera.getMatrixWorldInverse(),
+				object.getMatrixWorld() );
+
+		for ( int i = 0, l = webglObjects.size(); i < l; i ++ )
+			_renderList.add( webglObjects.get( i ) );
+
+		// the caster is identified by its world matrix and pose,
+		// morph target influences have no version and are rendered every time
+		int poseVersion = 0;
+
+		if ( object instanceof SkinnedMesh ) {
+
+			Skeleton skeleton = ((SkinnedMesh) object).getSkeleton();
+			skeleton.update();
+			poseVersion = skeleton.getPoseVersion();
 
 		}
 
+		if ( isMorphing( object, getObjectMaterial( object ) ) )
+			this._isCastersAnimated = true;
+
+		if ( this._casterKeysLength + 3 > this._casterKeys.length ) {
+
+			int[] keys = new int[ this._casterKeys.length * 2 ];
+			System.arraycopy( this._casterKeys, 0, keys, 0, this._casterKeysLength );
+			this._casterKeys = keys;
+
+		}
+
+		this._casterKeys[ this._casterKeysLength ++ ] = object.getId();
+		this._casterKeys[ this._casterKeysLength ++ ] = object.getMatrixWorldVersion();
+		this._casterKeys[ this._casterKeysLength ++ ] = poseVersion;
+
+	}
+
+	private boolean isMorphing( GeometryObject object, Material objectMaterial ) {
+
+		return object.getGeometry() instanceof Geometry && ((Geometry)object.getGeometry()).getMorphTargets() != null
+				&& !((Geometry)object.getGeometry()).getMorphTargets().isEmpty()
+				&& objectMaterial instanceof HasSkinning &&
+				((HasSkinning)objectMaterial).isMorphTargets();
+
 	}
 
 	private VirtualLight createVirtualLight( DirectionalLight light, int cascade )
@@ -496,6 +781,7 @@ public final class ShadowMap extends Plugin
 		virtualLight.setShadowBias( light.getShadowCascadeBias()[ cascade ] );
 		virtualLight.setShadowMapWidth( light.getShadowCascadeWidth()[ cascade ] );
 		virtualLight.setShadowMapHeight( light.getShadowCascadeHeight()[ cascade ] );
+		virtualLight.setShadowMapUpdateInterval( light.getShadowCascadeUpdateInterval()[ cascade ] );
 
 		double nearZ = light.getShadowCascadeNearZ()[ cascade ];
 		double farZ = light.getShadowCascadeFarZ()[ cascade ];
@@ -530,6 +816,7 @@ public final class ShadowMap extends Plugin
 		virtualLight.setShadowDarkness( light.getShadowDarkness());
 
 		virtualLight.setShadowBias( light.getShadowCascadeBias()[ cascade ] );
+		virtualLight.setShadowMapUpdateInterval( light.getShadowCascadeUpdateInterval()[ cascade ] );
 
 		double nearZ = light.getShadowCascadeNearZ()[ cascade ];
 		double farZ = light.getShadowCascadeFarZ()[ cascade ];
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.parallax3d.parallax.graphics.textures.CompressedTexture;
+import org.parallax3d.parallax.graphics.textures.CubeTexture;
+import org.parallax3d.parallax.graphics.textures.DataTexture;
+import org.parallax3d.parallax.graphics.textures.Texture;
+import org.parallax3d.parallax.system.gl.enums.PixelFormat;
+import org.parallax3d.parallax.system.gl.enums.PixelType;
+
+/**
+ * Keeps the textures uploaded by the {@link GLRenderer} within a memory budget.
+ * <p>
+ * First uploads of image and compressed textures are spread over the frames,
+ * at most {@link #setUploadBudget(long)} bytes are uploaded by one render call.
+ * While a texture waits for the upload or is loaded, its {@link Texture#getFallback()}
+ * is bound instead. When the resident textures take more than {@link #setBudget(long)}
+ * bytes, the least recently bound ones, which were not bound for
+ * {@link #setEvictionFrames(int)} frames, are released and uploaded again
+ * when they are bound next time.
+ * <p>
+ * Frames are counted by the {@link GLRenderer#render} calls. Render targets and
+ * cube textures are not managed.
+ *
+ * @see GLRenderer#setTextureResidency(TextureResidency)
+ */
+public class TextureResidency
+{
+	// the texture bytes on the GPU and the frame when the texture was bound last time
+	static class Residency
+	{
+		long bytes;
+		int frame;
+	}
+
+	private long budget;
+	private long uploadBudget = 16 * 1024 * 1024;
+	private int evictionFrames = 60;
+
+	private int frame;
+
+	// resident textures, the least recently bound first
+	private Map<Texture, Residency> resident = new LinkedHashMap<Texture, Residency>( 16, 0.75f, true );
+	private long residentBytes;
+
+	private List<Texture> evicted = new ArrayList<Texture>();
+
+	// metrics of the last frame
+	private int uploads;
+	private long uploadedBytes;
+	private int deferred;
+	private int evictions;
+
+	/**
+	 * @param budget the size of the resident textures in bytes
+	 */
+	public TextureResidency( long budget )
+	{
+		this.budget = budget;
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * Sets the size of the resident textures in bytes, which is exceeded only by
+	 * the textures bound in the last {@link #getEvictionFrames()} frames.
+	 */
+	public TextureResidency setBudget( long budget ) {
+		this.budget = budget;
+		return this;
+	}
+
+	public long getUploadBudget() {
+		return uploadBudget;
+	}
+
+	/**
+	 * Sets the size of the textures uploaded in one frame in bytes, the first
+	 * upload of a frame is never deferred.
+	 * <p>
+	 * Default: 16 MB.
+	 */
+	public TextureResidency setUploadBudget( long uploadBudget ) {
+		this.uploadBudget = uploadBudget;
+		return this;
+	}
+
+	public int getEvictionFrames() {
+		return evictionFrames;
+	}
+
+	/**
+	 * Sets for how many frames a texture has to be unused before it can be released.
+	 * <p>
+	 * Default: 60.
+	 */
+	public TextureResidency setEvictionFrames( int evictionFrames ) {
+		this.evictionFrames = evictionFrames;
+		return this;
+	}
+
+	/**
+	 * Gets the size of the resident textures in bytes.
+	 */
+	public long getResidentBytes() {
+		return residentBytes;
+	}
+
+	/**
+	 * Gets the number of the resident textures.
+	 */
+	public int getResidentTextures() {
+		return resident.size();
+	}
+
+	public boolean isResident( Texture texture ) {
+		return resident.containsKey( texture );
+	}
+
+	/**
+	 * Gets how many textures were uploaded in the last frame.
+	 */
+	public int getUploads() {
+		return uploads;
+	}
+
+	/**
+	 * Gets the size of the textures uploaded in the last frame in bytes.
+	 */
+	public long getUploadedBytes() {
+		return uploadedBytes;
+	}
+
+	/**
+	 * Gets how many uploads were deferred to the next frames in the last frame.
+	 */
+	public int getDeferred() {
+		return deferred;
+	}
+
+	/**
+	 * Gets how many textures were released at the end of the last frame.
+	 */
+	public int getEvictions() {
+		return evictions;
+	}
+
+	void beginFrame()
+	{
+		this.frame ++;
+
+		this.uploads = 0;
+		this.uploadedBytes = 0;
+		this.deferred = 0;
+		this.evictions = 0;
+	}
+
+	/*
+	 * Checks if the texture can be uploaded in this frame. Textures which are resident
+	 * already and data textures are updated immediately.
+	 */
+	boolean canUpload( Texture texture )
+	{
+		if ( ! isManaged( texture ) || texture.getWebGlTexture() != 0
+				|| ( texture instanceof DataTexture && ! ( texture instanceof CompressedTexture ) ) )
+			return true;
+
+		if ( this.uploads > 0 && this.uploadedBytes + getByteSize( texture ) > this.uploadBudget )
+		{
+			this.deferred ++;
+			return false;
+		}
+
+		return true;
+	}
+
+	void uploaded( Texture texture )
+	{
+		if ( ! isManaged( texture ) )
+			return;
+
+		long bytes = getByteSize( texture );
+
+		Residency residency = this.resident.get( texture );
+
+		if ( residency == null )
+		{
+			residency = new Residency();
+			this.resident.put( texture, residency );
+		}
+
+		this.residentBytes += bytes - residency.bytes;
+
+		residency.bytes = bytes;
+		residency.frame = this.frame;
+
+		this.uploads ++;
+		this.uploadedBytes += bytes;
+	}
+
+	void bound( Texture texture )
+	{
+		Residency residency = this.resident.get( texture );
+
+		if ( residency != null )
+			residency.frame = this.frame;
+	}
+
+	/**
+	 * Forgets the texture, which has been released from the GL context.
+	 */
+	public void remove( Texture texture )
+	{
+		Residency residency = this.resident.remove( texture );
+
+		if ( residency != null )
+			this.residentBytes -= residency.bytes;
+	}
+
+	/*
+	 * Releases the least recently bound textures while the budget is exceeded
+	 */
+	void evict( GLRenderer renderer )
+	{
+		Iterator<Map.Entry<Texture, Residency>> it = this.resident.entrySet().iterator();
+
+		while ( this.residentBytes > this.budget && it.hasNext() )
+		{
+			Map.Entry<Texture, Residency> entry = it.next();
+
+			// the following textures were bound later
+			if ( this.frame - entry.getValue().frame < this.evictionFrames )
+				break;
+
+			it.remove();
+
+			this.residentBytes -= entry.getValue().bytes;
+			this.evicted.add( entry.getKey() );
+		}
+
+		for ( int i = 0, l = this.evicted.size(); i < l; i ++ )
+		{
+			Texture texture = this.evicted.get( i );
+
+			texture.deallocate( renderer );
+			texture.setWebGlTexture( 0 );
+			texture.setNeedsUpdate( true );
+		}
+
+		this.evictions = this.evicted.size();
+		this.evicted.clear();
+	}
+
+	private static boolean isManaged( Texture texture )
+	{
+		return ! ( texture instanceof RenderTargetTexture ) && ! ( texture instanceof CubeTexture );
+	}
+
+	/**
+	 * Estimates the size of the texture on the GPU in bytes, with its mipmaps.
+	 */
+	public static long getByteSize( Texture texture )
+	{
+		if ( texture instanceof CompressedTexture )
+		{
+			long bytes = 0;
+
+			List<DataTexture> mipmaps = ((CompressedTexture) texture).getMipmaps();
+			for ( int i = 0, il = mipmaps.size(); i < il; i ++ )
+				bytes += mipmaps.get( i ).getData().getByteLength();
+
+			return bytes;
+		}
+
+		long bytes;
+
+		if ( texture instanceof DataTexture )
+			bytes = (long) ((DataTexture) texture).getWidth() * ((DataTexture) texture).getHeight();
+		else
+			bytes = (long) texture.getImage().getWidth() * texture.getImage().getHeight();
+
+		bytes *= getBytesPerPixel( texture.getFormat(), texture.getType() );
+
+		// the mipmap chain takes one third more
+		if ( texture.isGenerateMipmaps() && texture.getImage().isPowerOfTwo() )
+			bytes += bytes / 3;
+
+		return bytes;
+	}
+
+	private static int getBytesPerPixel( PixelFormat format, PixelType type )
+	{
+		if ( type == PixelType.UNSIGNED_SHORT_4_4_4_4 || type == PixelType.UNSIGNED_SHORT_5_5_5_1
+				|| type == PixelType.UNSIGNED_SHORT_5_6_5 )
+			return 2;
+
+		int components;
+
+		switch ( format )
+		{
+		case RGBA:
+			components = 4;
+			break;
+		case RGB:
+			components = 3;
+			break;
+		case LUMINANCE_ALPHA:
+			components = 2;
+			break;
+		default:
+			components = 1;
+		}
+
+		return type == PixelType.FLOAT ? components * 4 : components;
+	}
+}
@@ -92,6 +92,9 @@ public interface Chunks extends SourceBundle
     @Source("chunk/lightmap_vertex.glsl")
     SourceTextResource getLightmapVertex();
 
+    @Source("chunk/lights_clustered_pars.glsl")
+    SourceTextResource getLightsClusteredPars();
+
     @Source("chunk/lights_lambert_pars_vertex.glsl")
     SourceTextResource getLightsLambertParsVertex();
 
@@ -43,6 +43,8 @@ public class ChunksFragmentShader
 	public static String LIGHTMAP_PARS = Chunks.INSTANCE.getLightmapParsFragment().getText();
 	public static String LIGHTMAP = Chunks.INSTANCE.getLightmapFragment().getText();
 
+	public static String LIGHTS_CLUSTERED_PARS = Chunks.INSTANCE.getLightsClusteredPars().getText();
+
 	public static String LIGHTS_PONG_PARS = Chunks.INSTANCE.getLightsPhongParsFragment().getText();
 	public static String LIGHTS_PONG = Chunks.INSTANCE.getLightsPhongFragment().getText();
 
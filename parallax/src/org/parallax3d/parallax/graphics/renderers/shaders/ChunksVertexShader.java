@@ -38,6 +38,8 @@ public class ChunksVertexShader
 	public static String LIGHTMAP_PARS = Chunks.INSTANCE.getLightmapParsVertex().getText();
 	public static String LIGHTMAP = Chunks.INSTANCE.getLightmapVertex().getText();
 
+	public static String LIGHTS_CLUSTERED_PARS = Chunks.INSTANCE.getLightsClusteredPars().getText();
+
 	public static String LIGHTS_LAMBERT_PARS = Chunks.INSTANCE.getLightsLambertParsVertex().getText();
 	public static String LIGHTS_LAMBERT = Chunks.INSTANCE.getLightsLambertVertex().getText();
 
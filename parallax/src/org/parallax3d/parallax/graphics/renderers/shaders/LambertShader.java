@@ -75,6 +75,7 @@ public final class LambertShader extends Shader
 			ChunksVertexShader.LIGHTMAP_PARS,
 			ChunksVertexShader.ENVMAP_PARS,
 			ChunksVertexShader.LIGHTS_LAMBERT_PARS,
+			ChunksVertexShader.LIGHTS_CLUSTERED_PARS,
 			ChunksVertexShader.COLOR_PARS,
 			ChunksVertexShader.MORPHTARGET_PARS,
 			ChunksVertexShader.SKINNING_PARS,
@@ -123,6 +123,7 @@ public final class PhongShader extends Shader
 			ChunksFragmentShader.ENVMAP_PARS,
 			ChunksFragmentShader.FOG_PARS,
 			ChunksFragmentShader.LIGHTS_PONG_PARS,
+			ChunksFragmentShader.LIGHTS_CLUSTERED_PARS,
 			ChunksFragmentShader.SHADOWMAP_PARS,
 			ChunksFragmentShader.BUMPMAP_PARS,
 			ChunksFragmentShader.NORMALMAP_PARS,
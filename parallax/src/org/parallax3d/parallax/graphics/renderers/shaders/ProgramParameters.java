@@ -34,6 +34,9 @@ public class ProgramParameters
 
 	public boolean vertexColors;
 
+	public boolean instancing;
+	public boolean instancingColor;
+
 	public boolean useFog;
 	public boolean useFog2;
 
@@ -53,6 +56,7 @@ public class ProgramParameters
 	public int maxPointLights;
 	public int maxSpotLights;
 	public int maxHemiLights;
+	public int maxClusterLights;
 
 	public int maxShadows;
 	public boolean shadowMapEnabled;
@@ -69,6 +73,70 @@ public class ProgramParameters
 	public boolean gammaInput;
 	public boolean gammaOutput;
 
+	@Override
+	public int hashCode()
+	{
+		int hash = precision != null ? precision.ordinal() : -1;
+
+		hash = 31 * hash + flags( supportsVertexTextures, map, envMap, lightMap, bumpMap, normalMap, specularMap, alphaMap );
+		hash = 31 * hash + flags( vertexColors, instancing, instancingColor, useFog, useFog2, sizeAttenuation, logarithmicDepthBuffer, skinning );
+		hash = 31 * hash + flags( useVertexTexture, morphTargets, morphNormals, shadowMapEnabled, shadowMapSoft, shadowMapDebug, shadowMapCascade, metal );
+		hash = 31 * hash + flags( wrapAround, doubleSided, flipSided, gammaInput, gammaOutput, false, false, false );
+
+		hash = 31 * hash + maxBones;
+		hash = 31 * hash + maxMorphTargets;
+		hash = 31 * hash + maxMorphNormals;
+		hash = 31 * hash + maxDirLights;
+		hash = 31 * hash + maxPointLights;
+		hash = 31 * hash + maxSpotLights;
+		hash = 31 * hash + maxHemiLights;
+		hash = 31 * hash + maxClusterLights;
+		hash = 31 * hash + maxShadows;
+		hash = 31 * hash + (int)( alphaTest * 255 );
+
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if ( this == obj )
+			return true;
+
+		if ( !( obj instanceof ProgramParameters ) )
+			return false;
+
+		ProgramParameters p = (ProgramParameters) obj;
+
+		return precision == p.precision
+				&& supportsVertexTextures == p.supportsVertexTextures
+				&& map == p.map && envMap == p.envMap && lightMap == p.lightMap && bumpMap == p.bumpMap
+				&& normalMap == p.normalMap && specularMap == p.specularMap && alphaMap == p.alphaMap
+				&& vertexColors == p.vertexColors
+				&& instancing == p.instancing && instancingColor == p.instancingColor
+				&& useFog == p.useFog && useFog2 == p.useFog2
+				&& sizeAttenuation == p.sizeAttenuation && logarithmicDepthBuffer == p.logarithmicDepthBuffer
+				&& skinning == p.skinning && maxBones == p.maxBones && useVertexTexture == p.useVertexTexture
+				&& morphTargets == p.morphTargets && morphNormals == p.morphNormals
+				&& maxMorphTargets == p.maxMorphTargets && maxMorphNormals == p.maxMorphNormals
+				&& maxDirLights == p.maxDirLights && maxPointLights == p.maxPointLights
+				&& maxSpotLights == p.maxSpotLights && maxHemiLights == p.maxHemiLights
+				&& maxClusterLights == p.maxClusterLights
+				&& maxShadows == p.maxShadows && shadowMapEnabled == p.shadowMapEnabled
+				&& shadowMapSoft == p.shadowMapSoft && shadowMapDebug == p.shadowMapDebug
+				&& shadowMapCascade == p.shadowMapCascade
+				&& alphaTest == p.alphaTest && metal == p.metal && wrapAround == p.wrapAround
+				&& doubleSided == p.doubleSided && flipSided == p.flipSided
+				&& gammaInput == p.gammaInput && gammaOutput == p.gammaOutput;
+	}
+
+	private static int flags( boolean f0, boolean f1, boolean f2, boolean f3,
+							  boolean f4, boolean f5, boolean f6, boolean f7 )
+	{
+		return ( f0 ? 1 : 0 ) | ( f1 ? 2 : 0 ) | ( f2 ? 4 : 0 ) | ( f3 ? 8 : 0 )
+				| ( f4 ? 16 : 0 ) | ( f5 ? 32 : 0 ) | ( f6 ? 64 : 0 ) | ( f7 ? 128 : 0 );
+	}
+
 	public String toString()
 	{
 		String retval = "";
@@ -76,7 +144,7 @@ public class ProgramParameters
 
 				+ map + ", " + envMap + ", " + lightMap + ", " + bumpMap + ", " + normalMap + ", " + specularMap + ", " + alphaMap + "-2-"
 
-				+ vertexColors + "-3-"
+				+ vertexColors + ", " + instancing + ", " + instancingColor + "-3-"
 
 				+ useFog + ", " + useFog2 + "-4-"
 
@@ -86,7 +154,7 @@ public class ProgramParameters
 
 				+ morphTargets + morphNormals + ", " + maxMorphTargets + ", " + maxMorphNormals + "-7-"
 
-				+ maxDirLights + ", " + maxPointLights + ", " + maxSpotLights + ", " + maxHemiLights + "-8-"
+				+ maxDirLights + ", " + maxPointLights + ", " + maxSpotLights + ", " + maxHemiLights + ", " + maxClusterLights + "-8-"
 
 				+ maxShadows + ", " + shadowMapEnabled + ", " + shadowMapSoft + ", " + shadowMapDebug  + ", " + shadowMapCascade + "-9-"
 
@@ -48,6 +48,22 @@ public abstract class Shader
 		LOWP
 	}
 
+	/**
+	 * Uniforms which the renderer sets for every object. They are resolved once
+	 * the program is built, so no lookups by name are needed while rendering.
+	 */
+	public static class Builtins
+	{
+		public Uniform projectionMatrix;
+		public Uniform viewMatrix;
+		public Uniform modelMatrix;
+		public Uniform modelViewMatrix;
+		public Uniform normalMatrix;
+		public Uniform cameraPosition;
+		// only with logarithmic depth buffer
+		public Uniform logDepthBufFC;
+	}
+
 	public interface DefaultResources extends SourceBundle
 	{
 		@Source("source/default.vs.glsl")
@@ -69,9 +85,19 @@ public abstract class Shader
 	// Store locations
 	private FastMap<Integer> attributesLocations;
 
+	private Builtins builtins = new Builtins();
+
 	private String vertexShaderSource = "";
 	private String fragmentShaderSource = "";
 
+	// defines of the program parameters, kept apart so the sources can be built again
+	private String vertexShaderPrefix = "";
+	private String fragmentShaderPrefix = "";
+
+	// hash of the sources, valid until the sources change
+	private long fingerprint;
+	private boolean isFingerprintValid;
+
 	private String vertexExtensions = "";
 	private String fragmentExtensions = "";
 
@@ -150,8 +176,8 @@ public abstract class Shader
 		if ( useVertexTexture )
 		{
 			addUniform("boneTexture", new Uniform(Uniform.TYPE.FV1, null));
-			addUniform("boneTextureWidth", new Uniform(Uniform.TYPE.F, null));
-			addUniform("boneTextureHeight", new Uniform(Uniform.TYPE.F, null));
+			addUniform("boneTextureWidth", new Uniform(Uniform.TYPE.I, null));
+			addUniform("boneTextureHeight", new Uniform(Uniform.TYPE.I, null));
 		}
 		else
 		{
@@ -165,7 +191,8 @@ public abstract class Shader
 
 		// cache attributes locations
 		List<String> attributesIds = new ArrayList<String>(Arrays.asList("position", "normal",
-				"uv", "uv2", "tangent", "color", "skinIndex", "skinWeight", "lineDistance"));
+				"uv", "uv2", "tangent", "color", "skinIndex", "skinWeight", "lineDistance",
+				"instanceMatrix", "instanceColor"));
 
 		for (int i = 0; i < maxMorphTargets; i++)
 			attributesIds.add("morphTarget" + i);
@@ -182,6 +209,14 @@ public abstract class Shader
 		for (String id : attributesIds)
 			attributesLocations.put(id, gl.glGetAttribLocation(this.program, id));
 
+		builtins.projectionMatrix = uniforms.get("projectionMatrix");
+		builtins.viewMatrix       = uniforms.get("viewMatrix");
+		builtins.modelMatrix      = uniforms.get("modelMatrix");
+		builtins.modelViewMatrix  = uniforms.get("modelViewMatrix");
+		builtins.normalMatrix     = uniforms.get("normalMatrix");
+		builtins.cameraPosition   = uniforms.get("cameraPosition");
+		builtins.logDepthBufFC    = uniforms.get("logDepthBufFC");
+
 		return this;
 	}
 
@@ -197,8 +232,8 @@ public abstract class Shader
 
 		this.program = gl.glCreateProgram();
 
-		String vertex = vertexExtensions + getShaderPrecisionDefinition() + "\n" + getVertexSource();
-		String fragment = fragmentExtensions + getShaderPrecisionDefinition() + "\n" + getFragmentSource();
+		String vertex = vertexExtensions + getShaderPrecisionDefinition() + "\n" + vertexShaderPrefix + getVertexSource();
+		String fragment = fragmentExtensions + getShaderPrecisionDefinition() + "\n" + fragmentShaderPrefix + getFragmentSource();
 
 		int glVertexShader = getShaderProgram(gl, ChunksVertexShader.class, vertex);
 		int glFragmentShader = getShaderProgram(gl, ChunksFragmentShader.class, fragment);
@@ -263,12 +298,44 @@ public abstract class Shader
 
 	public void setVertexSource(String src) {
 		this.vertexShaderSource = src;
+		this.isFingerprintValid = false;
+	}
+
+	/**
+	 * Sets the code which is put before the Vertex shader source when the program is built.
+	 */
+	public void setVertexPrefix(String prefix) {
+		this.vertexShaderPrefix = prefix;
+	}
+
+	public String getVertexPrefix() {
+		return this.vertexShaderPrefix;
 	}
 
 	protected void updateVertexSource(String src) {
 		setVertexSource(src);
 	}
 
+	/**
+	 * Gets the fingerprint of the vertex and fragment sources without the prefixes.
+	 * Shaders with equal sources have equal fingerprints, so programs can be looked up
+	 * by it without hashing the sources on every lookup. Different sources can have
+	 * equal fingerprints too.
+	 *
+	 * @return the 64-bit hash of the sources.
+	 */
+	public long getFingerprint()
+	{
+		if ( ! this.isFingerprintValid )
+		{
+			this.fingerprint = ( (long) vertexShaderSource.hashCode() << 32 )
+				| ( fragmentShaderSource.hashCode() & 0xffffffffL );
+			this.isFingerprintValid = true;
+		}
+
+		return this.fingerprint;
+	}
+
 	/**
 	 * Gets source of the Fragment shader.
 	 *
@@ -280,6 +347,18 @@ public abstract class Shader
 
 	public void setFragmentSource(String src) {
 		this.fragmentShaderSource = src;
+		this.isFingerprintValid = false;
+	}
+
+	/**
+	 * Sets the code which is put before the Fragment shader source when the program is built.
+	 */
+	public void setFragmentPrefix(String prefix) {
+		this.fragmentShaderPrefix = prefix;
+	}
+
+	public String getFragmentPrefix() {
+		return this.fragmentShaderPrefix;
 	}
 
 	public void setFragmentExtensions(String fragmentExtensions)
@@ -319,6 +398,13 @@ public abstract class Shader
 		this.uniforms.put(id, uniform);
 	}
 
+	/**
+	 * Gets the uniforms set for every object, available once the program is built.
+	 */
+	public Builtins getBuiltins() {
+		return this.builtins;
+	}
+
 	public FastMap<Integer> getAttributesLocations() {
 		return this.attributesLocations;
 	}
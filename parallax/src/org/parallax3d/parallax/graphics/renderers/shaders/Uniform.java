@@ -51,6 +51,14 @@ public class Uniform
 	private Float32Array cache_array;
 	private int location = -1;
 
+	// values which were uploaded to the program last time
+	private float[] uploaded = new float[ 4 ];
+	private int uploadedLength = -1;
+
+	// source and version of values which are too large to compare
+	private Object uploadedSource;
+	private int uploadedVersion;
+
 	public Uniform(Uniform.TYPE type)
 	{
 		this(type, null);
@@ -89,6 +97,148 @@ public class Uniform
 
 	public void setLocation(int location) {
 		this.location = location;
+		resetUploaded();
+	}
+
+	/**
+	 * Forgets the uploaded values, so the next update is never skipped.
+	 * Has to be called when the program is rebuilt.
+	 */
+	public void resetUploaded() {
+		this.uploadedLength = -1;
+		this.uploadedSource = null;
+	}
+
+	/**
+	 * Checks the values against the ones uploaded to the program last time
+	 * and remembers them.
+	 *
+	 * @return true if the values have changed and have to be uploaded.
+	 */
+	public boolean update(float x) {
+		if ( uploadedLength == 1 && uploaded[ 0 ] == x )
+			return false;
+
+		uploaded[ 0 ] = x;
+		uploadedLength = 1;
+		uploadedSource = null;
+		return true;
+	}
+
+	/**
+	 * @see #update(float)
+	 */
+	public boolean update(float x, float y) {
+		if ( uploadedLength == 2 && uploaded[ 0 ] == x && uploaded[ 1 ] == y )
+			return false;
+
+		uploaded[ 0 ] = x;
+		uploaded[ 1 ] = y;
+		uploadedLength = 2;
+		uploadedSource = null;
+		return true;
+	}
+
+	/**
+	 * @see #update(float)
+	 */
+	public boolean update(float x, float y, float z) {
+		if ( uploadedLength == 3 && uploaded[ 0 ] == x && uploaded[ 1 ] == y && uploaded[ 2 ] == z )
+			return false;
+
+		uploaded[ 0 ] = x;
+		uploaded[ 1 ] = y;
+		uploaded[ 2 ] = z;
+		uploadedLength = 3;
+		uploadedSource = null;
+		return true;
+	}
+
+	/**
+	 * @see #update(float)
+	 */
+	public boolean update(float x, float y, float z, float w) {
+		if ( uploadedLength == 4 && uploaded[ 0 ] == x && uploaded[ 1 ] == y
+				&& uploaded[ 2 ] == z && uploaded[ 3 ] == w )
+			return false;
+
+		uploaded[ 0 ] = x;
+		uploaded[ 1 ] = y;
+		uploaded[ 2 ] = z;
+		uploaded[ 3 ] = w;
+		uploadedLength = 4;
+		uploadedSource = null;
+		return true;
+	}
+
+	/**
+	 * @see #update(float)
+	 */
+	public boolean update(Float32Array values) {
+		int length = values.getLength();
+
+		if ( uploadedLength == length )
+		{
+			int i = 0;
+			while ( i < length && uploaded[ i ] == (float) values.get( i ) )
+				i++;
+
+			if ( i == length )
+				return false;
+		}
+
+		if ( uploaded.length < length )
+			uploaded = new float[ length ];
+
+		for ( int i = 0; i < length; i++ )
+			uploaded[ i ] = (float) values.get( i );
+
+		uploadedLength = length;
+		uploadedSource = null;
+		return true;
+	}
+
+	/**
+	 * @see #update(float)
+	 */
+	public boolean update(float[] values) {
+		int length = values.length;
+
+		if ( uploadedLength == length )
+		{
+			int i = 0;
+			while ( i < length && uploaded[ i ] == values[ i ] )
+				i++;
+
+			if ( i == length )
+				return false;
+		}
+
+		if ( uploaded.length < length )
+			uploaded = new float[ length ];
+
+		System.arraycopy( values, 0, uploaded, 0, length );
+
+		uploadedLength = length;
+		uploadedSource = null;
+		return true;
+	}
+
+	/**
+	 * Checks the source and version of the values against the ones uploaded
+	 * to the program last time and remembers them. Used for large arrays,
+	 * which change only together with the version of their source.
+	 *
+	 * @return true if the values have changed and have to be uploaded.
+	 */
+	public boolean update(Object source, int version) {
+		if ( uploadedSource == source && uploadedVersion == version )
+			return false;
+
+		uploadedSource = source;
+		uploadedVersion = version;
+		uploadedLength = -1;
+		return true;
 	}
 
 	public String toString()
@@ -26,6 +26,7 @@ import org.parallax3d.parallax.math.Color;
 import org.parallax3d.parallax.math.Matrix4;
 import org.parallax3d.parallax.math.Vector4;
 import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector3;
 import org.parallax3d.parallax.system.FastMap;
 import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 import org.parallax3d.parallax.system.gl.enums.BufferUsage;
@@ -120,6 +121,14 @@ public class UniformsLib
 		retval.put("spotLightAngleCos",  new Uniform(Uniform.TYPE.FV1,  Float32Array.createArray() ));
 		retval.put("spotLightExponent",  new Uniform(Uniform.TYPE.FV1,  Float32Array.createArray() ));
 
+		retval.put("clusterMap",       new Uniform(Uniform.TYPE.T ));
+		retval.put("clusterIndexMap",  new Uniform(Uniform.TYPE.T ));
+		retval.put("clusterLightMap",  new Uniform(Uniform.TYPE.T ));
+		retval.put("clusterGrid",      new Uniform(Uniform.TYPE.V3, new Vector3() ));
+		retval.put("clusterDepth",     new Uniform(Uniform.TYPE.V2, new Vector2() ));
+		retval.put("clusterMapHeight", new Uniform(Uniform.TYPE.V2, new Vector2() ));
+		retval.put("clusterViewport",  new Uniform(Uniform.TYPE.V4, new Vector4() ));
+
 		return retval;
 	}
 
@@ -148,6 +157,7 @@ public class UniformsLib
 
 		retval.put("shadowMap",      new Uniform(Uniform.TYPE.TV, new ArrayList<Texture>() ));
 		retval.put("shadowMapSize",  new Uniform(Uniform.TYPE.V2V, new ArrayList<Vector2>() ));
+		retval.put("shadowMapTile",  new Uniform(Uniform.TYPE.V4V, new ArrayList<Vector4>() ));
 		retval.put("shadowBias",     new Uniform(Uniform.TYPE.FV1,  Float32Array.createArray() ));
 		retval.put("shadowDarkness", new Uniform(Uniform.TYPE.FV1,  Float32Array.createArray() ));
 
@@ -1,12 +1,26 @@
+#if defined( USE_COLOR ) || defined( USE_INSTANCING_COLOR )
+
+	vColor = vec3( 1.0 );
+
+#endif
+
 #ifdef USE_COLOR
 
-	#ifdef GAMMA_INPUT
+	vColor = color;
+
+#endif
 
-		vColor = color * color;
+#ifdef USE_INSTANCING_COLOR
 
-	#else
+	vColor *= instanceColor;
+
+#endif
+
+#if defined( USE_COLOR ) || defined( USE_INSTANCING_COLOR )
+
+	#ifdef GAMMA_INPUT
 
-		vColor = color;
+		vColor = vColor * vColor;
 
 	#endif
 
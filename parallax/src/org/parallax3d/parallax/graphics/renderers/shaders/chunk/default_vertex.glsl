@@ -2,20 +2,28 @@ vec4 mvPosition;
 
 #ifdef USE_SKINNING
 
-	mvPosition = modelViewMatrix * skinned;
+	mvPosition = skinned;
 
 #endif
 
 #if !defined( USE_SKINNING ) && defined( USE_MORPHTARGETS )
 
-	mvPosition = modelViewMatrix * vec4( morphed, 1.0 );
+	mvPosition = vec4( morphed, 1.0 );
 
 #endif
 
 #if !defined( USE_SKINNING ) && ! defined( USE_MORPHTARGETS )
 
-	mvPosition = modelViewMatrix * vec4( position, 1.0 );
+	mvPosition = vec4( position, 1.0 );
 
 #endif
 
+#ifdef USE_INSTANCING
+
+	mvPosition = instanceMatrix * mvPosition;
+
+#endif
+
+mvPosition = modelViewMatrix * mvPosition;
+
 gl_Position = projectionMatrix * mvPosition;
\ No newline at end of file
@@ -18,6 +18,12 @@ vec3 objectNormal;
 
 #endif
 
+#ifdef USE_INSTANCING
+
+	objectNormal = mat3( instanceMatrix[ 0 ].xyz, instanceMatrix[ 1 ].xyz, instanceMatrix[ 2 ].xyz ) * objectNormal;
+
+#endif
+
 #ifdef FLIP_SIDED
 
 	objectNormal = -objectNormal;
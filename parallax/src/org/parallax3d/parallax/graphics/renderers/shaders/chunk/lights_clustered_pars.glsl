@@ -0,0 +1,52 @@
+#ifdef USE_CLUSTERED_LIGHTS
+
+	#define CLUSTER_MAP_WIDTH 1024.0
+
+	uniform sampler2D clusterMap;
+	uniform sampler2D clusterIndexMap;
+	uniform sampler2D clusterLightMap;
+
+	uniform vec3 clusterGrid;
+	uniform vec2 clusterDepth;
+	uniform vec2 clusterMapHeight;
+	uniform vec4 clusterViewport;
+
+	vec4 clusterTexel( sampler2D map, const in float height, const in float index ) {
+
+		float y = floor( index / CLUSTER_MAP_WIDTH );
+		float x = index - y * CLUSTER_MAP_WIDTH;
+
+		return texture2D( map, vec2( ( x + 0.5 ) / CLUSTER_MAP_WIDTH, ( y + 0.5 ) / height ) );
+
+	}
+
+	// offset and count of the lights in the cluster at the screen position and view depth
+
+	vec2 clusterLights( const in vec2 screen, const in float depth ) {
+
+		vec2 tile = clamp( floor( screen * clusterGrid.xy ), vec2( 0.0 ), clusterGrid.xy - 1.0 );
+		float slice = clamp( floor( log( max( depth, clusterDepth.x ) / clusterDepth.x ) * clusterDepth.y ), 0.0, clusterGrid.z - 1.0 );
+
+		float x = tile.y * clusterGrid.x + tile.x;
+
+		return texture2D( clusterMap, vec2( ( x + 0.5 ) / ( clusterGrid.x * clusterGrid.y ), ( slice + 0.5 ) / clusterGrid.z ) ).xy;
+
+	}
+
+	float clusterSpotEffect( const in vec4 cone, const in float exponent, const in vec3 lVector ) {
+
+		// point light
+
+		if ( cone.w < -1.0 )
+			return 1.0;
+
+		float spotEffect = dot( cone.xyz, lVector );
+
+		if ( spotEffect <= cone.w )
+			return 0.0;
+
+		return max( pow( max( spotEffect, 0.0 ), exponent ), 0.0 );
+
+	}
+
+#endif
@@ -169,6 +169,69 @@ for( int i = 0; i < MAX_DIR_LIGHTS; i ++ ) {
 
 #endif
 
+#ifdef USE_CLUSTERED_LIGHTS
+
+	vec4 clusterPosition = projectionMatrix * mvPosition;
+	vec2 cluster = clusterLights( clusterPosition.xy / clusterPosition.w * 0.5 + 0.5, -mvPosition.z );
+
+	for( int i = 0; i < MAX_CLUSTER_LIGHTS; i ++ ) {
+
+		if ( float( i ) >= cluster.y )
+			break;
+
+		float lightIndex = clusterTexel( clusterIndexMap, clusterMapHeight.x, cluster.x + float( i ) ).x * 3.0;
+
+		vec4 lPosition = clusterTexel( clusterLightMap, clusterMapHeight.y, lightIndex );
+		vec4 lColor = clusterTexel( clusterLightMap, clusterMapHeight.y, lightIndex + 1.0 );
+		vec4 lCone = clusterTexel( clusterLightMap, clusterMapHeight.y, lightIndex + 2.0 );
+
+		vec3 lVector = lPosition.xyz - mvPosition.xyz;
+		float lDistance = 1.0 - min( ( length( lVector ) / lPosition.w ), 1.0 );
+
+		lVector = normalize( lVector );
+
+		float spotEffect = clusterSpotEffect( lCone, lColor.w, lVector );
+
+		float dotProduct = dot( transformedNormal, lVector );
+		vec3 clusterLightWeighting = vec3( max( dotProduct, 0.0 ) );
+
+		#ifdef DOUBLE_SIDED
+
+			vec3 clusterLightWeightingBack = vec3( max( -dotProduct, 0.0 ) );
+
+			#ifdef WRAP_AROUND
+
+				vec3 clusterLightWeightingHalfBack = vec3( max( -0.5 * dotProduct + 0.5, 0.0 ) );
+
+			#endif
+
+		#endif
+
+		#ifdef WRAP_AROUND
+
+			vec3 clusterLightWeightingHalf = vec3( max( 0.5 * dotProduct + 0.5, 0.0 ) );
+			clusterLightWeighting = mix( clusterLightWeighting, clusterLightWeightingHalf, wrapRGB );
+
+			#ifdef DOUBLE_SIDED
+
+				clusterLightWeightingBack = mix( clusterLightWeightingBack, clusterLightWeightingHalfBack, wrapRGB );
+
+			#endif
+
+		#endif
+
+		vLightFront += lColor.rgb * clusterLightWeighting * lDistance * spotEffect;
+
+		#ifdef DOUBLE_SIDED
+
+			vLightBack += lColor.rgb * clusterLightWeightingBack * lDistance * spotEffect;
+
+		#endif
+
+	}
+
+#endif
+
 #if MAX_HEMI_LIGHTS > 0
 
 	for( int i = 0; i < MAX_HEMI_LIGHTS; i ++ ) {
@@ -125,6 +125,65 @@ vec3 viewPosition = normalize( vViewPosition );
 
 #endif
 
+#ifdef USE_CLUSTERED_LIGHTS
+
+	vec3 clusterDiffuse = vec3( 0.0 );
+	vec3 clusterSpecular = vec3( 0.0 );
+
+	vec2 cluster = clusterLights( ( gl_FragCoord.xy - clusterViewport.xy ) / clusterViewport.zw, vViewPosition.z );
+
+	for ( int i = 0; i < MAX_CLUSTER_LIGHTS; i ++ ) {
+
+		if ( float( i ) >= cluster.y )
+			break;
+
+		float lightIndex = clusterTexel( clusterIndexMap, clusterMapHeight.x, cluster.x + float( i ) ).x * 3.0;
+
+		vec4 lPosition = clusterTexel( clusterLightMap, clusterMapHeight.y, lightIndex );
+		vec4 lColor = clusterTexel( clusterLightMap, clusterMapHeight.y, lightIndex + 1.0 );
+		vec4 lCone = clusterTexel( clusterLightMap, clusterMapHeight.y, lightIndex + 2.0 );
+
+		vec3 lVector = lPosition.xyz + vViewPosition.xyz;
+		float lDistance = 1.0 - min( ( length( lVector ) / lPosition.w ), 1.0 );
+
+		lVector = normalize( lVector );
+
+		float spotEffect = clusterSpotEffect( lCone, lColor.w, lVector );
+
+				// diffuse
+
+		float dotProduct = dot( normal, lVector );
+
+		#ifdef WRAP_AROUND
+
+			float clusterDiffuseWeightFull = max( dotProduct, 0.0 );
+			float clusterDiffuseWeightHalf = max( 0.5 * dotProduct + 0.5, 0.0 );
+
+			vec3 clusterDiffuseWeight = mix( vec3( clusterDiffuseWeightFull ), vec3( clusterDiffuseWeightHalf ), wrapRGB );
+
+		#else
+
+			float clusterDiffuseWeight = max( dotProduct, 0.0 );
+
+		#endif
+
+		clusterDiffuse += diffuse * lColor.rgb * clusterDiffuseWeight * lDistance * spotEffect;
+
+				// specular
+
+		vec3 clusterHalfVector = normalize( lVector + viewPosition );
+		float clusterDotNormalHalf = max( dot( normal, clusterHalfVector ), 0.0 );
+		float clusterSpecularWeight = specularStrength * max( pow( clusterDotNormalHalf, shininess ), 0.0 );
+
+		float specularNormalization = ( shininess + 2.0 ) / 8.0;
+
+		vec3 schlick = specular + vec3( 1.0 - specular ) * pow( max( 1.0 - dot( lVector, clusterHalfVector ), 0.0 ), 5.0 );
+		clusterSpecular += schlick * lColor.rgb * clusterSpecularWeight * clusterDiffuseWeight * lDistance * specularNormalization * spotEffect;
+
+	}
+
+#endif
+
 #if MAX_DIR_LIGHTS > 0
 
 	vec3 dirDiffuse = vec3( 0.0 );
@@ -267,6 +326,13 @@ vec3 totalSpecular = vec3( 0.0 );
 
 #endif
 
+#ifdef USE_CLUSTERED_LIGHTS
+
+	totalDiffuse += clusterDiffuse;
+	totalSpecular += clusterSpecular;
+
+#endif
+
 #ifdef METAL
 
 	gl_FragColor.xyz = gl_FragColor.xyz * ( emissive + totalDiffuse + ambientLightColor * ambient + totalSpecular );
@@ -49,6 +49,10 @@
 
 			shadowCoord.z += shadowBias[ i ];
 
+				// area of the shadow map used by the light, if the maps are packed into an atlas
+
+			shadowCoord.xy = shadowCoord.xy * shadowMapTile[ i ].zw + shadowMapTile[ i ].xy;
+
 			#if defined( SHADOWMAP_TYPE_PCF )
 
 						// Percentage-close filtering
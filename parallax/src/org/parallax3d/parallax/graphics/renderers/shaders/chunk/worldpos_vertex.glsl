@@ -2,20 +2,28 @@
 
 	#ifdef USE_SKINNING
 
-		vec4 worldPosition = modelMatrix * skinned;
+		vec4 worldPosition = skinned;
 
 	#endif
 
 	#if defined( USE_MORPHTARGETS ) && ! defined( USE_SKINNING )
 
-		vec4 worldPosition = modelMatrix * vec4( morphed, 1.0 );
+		vec4 worldPosition = vec4( morphed, 1.0 );
 
 	#endif
 
 	#if ! defined( USE_MORPHTARGETS ) && ! defined( USE_SKINNING )
 
-		vec4 worldPosition = modelMatrix * vec4( position, 1.0 );
+		vec4 worldPosition = vec4( position, 1.0 );
 
 	#endif
 
+	#ifdef USE_INSTANCING
+
+		worldPosition = instanceMatrix * worldPosition;
+
+	#endif
+
+	worldPosition = modelMatrix * worldPosition;
+
 #endif
\ No newline at end of file
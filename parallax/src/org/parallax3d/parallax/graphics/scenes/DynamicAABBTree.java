@@ -0,0 +1,631 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.scenes;
+
+import java.util.List;
+
+import org.parallax3d.parallax.graphics.core.AbstractGeometry;
+import org.parallax3d.parallax.graphics.core.GeometryObject;
+import org.parallax3d.parallax.math.Frustum;
+import org.parallax3d.parallax.math.Plane;
+import org.parallax3d.parallax.math.Ray;
+import org.parallax3d.parallax.math.Sphere;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.system.IntMap;
+
+/**
+ * Dynamic bounding volume tree used as {@link SceneIndex}.
+ * <p>
+ * Every object is stored in a leaf with its world bounds enlarged by a margin,
+ * so small movements do not change the tree. Leaves are inserted next to the
+ * sibling which increases the surface area of the tree the least, and the tree
+ * is kept balanced with rotations, so insertion, removal and queries are
+ * logarithmic in the number of objects.
+ */
+public class DynamicAABBTree implements SceneIndex
+{
+	private static final int NULL = -1;
+
+	private final double margin;
+
+	// Node bounds: minX, minY, minZ, maxX, maxY, maxZ
+	private double[] bounds;
+	private int[] parent;
+	private int[] child1;
+	private int[] child2;
+	// Leaf: 0, free node: -1
+	private int[] height;
+	private GeometryObject[] objects;
+
+	private int root = NULL;
+	private int freeList = NULL;
+	private int capacity = 0;
+
+	// Leaf of each object by object id
+	private final IntMap<Integer> leaves = new IntMap<Integer>();
+
+	// Temporary variables
+	private int[] stack = new int[64];
+	private final double[] box = new double[6];
+	private final Sphere _sphere = new Sphere();
+
+	public DynamicAABBTree()
+	{
+		this( 0.1 );
+	}
+
+	/**
+	 * @param margin enlargement of the object bounds, relative to the radius of
+	 *               their bounding sphere
+	 */
+	public DynamicAABBTree( double margin )
+	{
+		this.margin = margin;
+		grow( 16 );
+	}
+
+	@Override
+	public int size() {
+		return leaves.size();
+	}
+
+	/**
+	 * Height of the tree, 0 for a single leaf.
+	 */
+	public int getHeight() {
+		return root == NULL ? 0 : height[ root ];
+	}
+
+	@Override
+	public void add( GeometryObject object )
+	{
+		if ( leaves.containsKey( object.getId() ) )
+		{
+			update( object );
+			return;
+		}
+
+		int leaf = allocateNode();
+		objects[ leaf ] = object;
+		height[ leaf ] = 0;
+
+		worldBounds( object, box );
+		fatten( box, leaf );
+
+		insertLeaf( leaf );
+		leaves.put( object.getId(), leaf );
+	}
+
+	@Override
+	public void update( GeometryObject object )
+	{
+		Integer leaf = leaves.get( object.getId() );
+
+		if ( leaf == null )
+			return;
+
+		worldBounds( object, box );
+
+		// Still inside of the enlarged bounds
+		int b = leaf * 6;
+		if ( bounds[ b ] <= box[ 0 ] && bounds[ b + 1 ] <= box[ 1 ] && bounds[ b + 2 ] <= box[ 2 ]
+				&& bounds[ b + 3 ] >= box[ 3 ] && bounds[ b + 4 ] >= box[ 4 ] && bounds[ b + 5 ] >= box[ 5 ] )
+			return;
+
+		removeLeaf( leaf );
+		fatten( box, leaf );
+		insertLeaf( leaf );
+	}
+
+	@Override
+	public void remove( GeometryObject object )
+	{
+		Integer leaf = leaves.remove( object.getId() );
+
+		if ( leaf == null )
+			return;
+
+		removeLeaf( leaf );
+		freeNode( leaf );
+	}
+
+	@Override
+	public void clear()
+	{
+		root = NULL;
+		freeList = NULL;
+		leaves.clear();
+
+		for ( int i = capacity - 1; i >= 0; i-- )
+			freeNode( i );
+	}
+
+	@Override
+	public void intersectRay( Ray ray, double far, List<GeometryObject> result )
+	{
+		if ( root == NULL )
+			return;
+
+		Vector3 origin = ray.getOrigin();
+		Vector3 direction = ray.getDirection();
+		double ox = origin.getX(), oy = origin.getY(), oz = origin.getZ();
+		double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+		double ix = 1.0 / dx, iy = 1.0 / dy, iz = 1.0 / dz;
+
+		int top = 0;
+		stack[ top++ ] = root;
+
+		while ( top > 0 )
+		{
+			int node = stack[ --top ];
+			int b = node * 6;
+
+			double tmin = 0, tmax = far;
+
+			if ( dx == 0 ) {
+				if ( ox < bounds[ b ] || ox > bounds[ b + 3 ] ) continue;
+			} else {
+				double t1 = ( bounds[ b ] - ox ) * ix, t2 = ( bounds[ b + 3 ] - ox ) * ix;
+				tmin = Math.max( tmin, Math.min( t1, t2 ) );
+				tmax = Math.min( tmax, Math.max( t1, t2 ) );
+				if ( tmin > tmax ) continue;
+			}
+
+			if ( dy == 0 ) {
+				if ( oy < bounds[ b + 1 ] || oy > bounds[ b + 4 ] ) continue;
+			} else {
+				double t1 = ( bounds[ b + 1 ] - oy ) * iy, t2 = ( bounds[ b + 4 ] - oy ) * iy;
+				tmin = Math.max( tmin, Math.min( t1, t2 ) );
+				tmax = Math.min( tmax, Math.max( t1, t2 ) );
+				if ( tmin > tmax ) continue;
+			}
+
+			if ( dz == 0 ) {
+				if ( oz < bounds[ b + 2 ] || oz > bounds[ b + 5 ] ) continue;
+			} else {
+				double t1 = ( bounds[ b + 2 ] - oz ) * iz, t2 = ( bounds[ b + 5 ] - oz ) * iz;
+				tmin = Math.max( tmin, Math.min( t1, t2 ) );
+				tmax = Math.min( tmax, Math.max( t1, t2 ) );
+				if ( tmin > tmax ) continue;
+			}
+
+			if ( height[ node ] == 0 )
+			{
+				result.add( objects[ node ] );
+			}
+			else
+			{
+				top = push( top, child1[ node ] );
+				top = push( top, child2[ node ] );
+			}
+		}
+	}
+
+	@Override
+	public void intersectFrustum( Frustum frustum, List<GeometryObject> result )
+	{
+		if ( root == NULL )
+			return;
+
+		List<Plane> planes = frustum.getPlanes();
+
+		int top = 0;
+		stack[ top++ ] = root;
+
+		while ( top > 0 )
+		{
+			int node = stack[ --top ];
+			int b = node * 6;
+
+			boolean inside = true;
+			boolean outside = false;
+
+			for ( int i = 0, il = planes.size(); i < il; i++ )
+			{
+				Plane plane = planes.get( i );
+				Vector3 normal = plane.getNormal();
+				double nx = normal.getX(), ny = normal.getY(), nz = normal.getZ();
+
+				// Corners farthest along and against the plane normal
+				double far = plane.getConstant()
+						+ nx * bounds[ nx > 0 ? b + 3 : b ]
+						+ ny * bounds[ ny > 0 ? b + 4 : b + 1 ]
+						+ nz * bounds[ nz > 0 ? b + 5 : b + 2 ];
+
+				if ( far < 0 )
+				{
+					outside = true;
+					break;
+				}
+
+				double near = plane.getConstant()
+						+ nx * bounds[ nx > 0 ? b : b + 3 ]
+						+ ny * bounds[ ny > 0 ? b + 1 : b + 4 ]
+						+ nz * bounds[ nz > 0 ? b + 2 : b + 5 ];
+
+				if ( near < 0 )
+					inside = false;
+			}
+
+			if ( outside )
+				continue;
+
+			if ( inside )
+				collectLeaves( node, result );
+
+			else if ( height[ node ] == 0 )
+				result.add( objects[ node ] );
+
+			else
+			{
+				top = push( top, child1[ node ] );
+				top = push( top, child2[ node ] );
+			}
+		}
+	}
+
+	/*
+	 * Adds all objects below the node without testing them
+	 */
+	private void collectLeaves( int node, List<GeometryObject> result )
+	{
+		if ( height[ node ] == 0 )
+		{
+			result.add( objects[ node ] );
+			return;
+		}
+
+		collectLeaves( child1[ node ], result );
+		collectLeaves( child2[ node ], result );
+	}
+
+	private int push( int top, int node )
+	{
+		if ( top == stack.length )
+		{
+			int[] s = new int[ stack.length * 2 ];
+			System.arraycopy( stack, 0, s, 0, top );
+			stack = s;
+		}
+
+		stack[ top ] = node;
+		return top + 1;
+	}
+
+	/*
+	 * World space bounds of the bounding sphere of the object geometry
+	 */
+	private void worldBounds( GeometryObject object, double[] target )
+	{
+		AbstractGeometry geometry = object.getGeometry();
+
+		if ( geometry.getBoundingSphere() == null )
+			geometry.computeBoundingSphere();
+
+		_sphere.copy( geometry.getBoundingSphere() );
+		_sphere.apply( object.getMatrixWorld() );
+
+		Vector3 center = _sphere.getCenter();
+		double radius = _sphere.getRadius();
+
+		target[ 0 ] = center.getX() - radius;
+		target[ 1 ] = center.getY() - radius;
+		target[ 2 ] = center.getZ() - radius;
+		target[ 3 ] = center.getX() + radius;
+		target[ 4 ] = center.getY() + radius;
+		target[ 5 ] = center.getZ() + radius;
+	}
+
+	private void fatten( double[] box, int node )
+	{
+		double m = ( box[ 3 ] - box[ 0 ] ) * 0.5 * margin;
+		int b = node * 6;
+
+		for ( int i = 0; i < 3; i++ )
+		{
+			bounds[ b + i ] = box[ i ] - m;
+			bounds[ b + i + 3 ] = box[ i + 3 ] + m;
+		}
+	}
+
+	private void insertLeaf( int leaf )
+	{
+		if ( root == NULL )
+		{
+			root = leaf;
+			parent[ root ] = NULL;
+			return;
+		}
+
+		// Find the best sibling for the leaf
+		int index = root;
+		while ( height[ index ] > 0 )
+		{
+			int c1 = child1[ index ];
+			int c2 = child2[ index ];
+
+			double area = area( index );
+			double combinedArea = unionArea( index, leaf );
+
+			// Cost of creating a new parent for this node and the new leaf
+			double cost = 2.0 * combinedArea;
+
+			// Minimum cost of pushing the leaf further down the tree
+			double inheritanceCost = 2.0 * ( combinedArea - area );
+
+			double cost1 = descendCost( c1, leaf ) + inheritanceCost;
+			double cost2 = descendCost( c2, leaf ) + inheritanceCost;
+
+			if ( cost < cost1 && cost < cost2 )
+				break;
+
+			index = cost1 < cost2 ? c1 : c2;
+		}
+
+		int sibling = index;
+
+		// Create a new parent
+		int oldParent = parent[ sibling ];
+		int newParent = allocateNode();
+		parent[ newParent ] = oldParent;
+		objects[ newParent ] = null;
+		union( sibling, leaf, newParent );
+		height[ newParent ] = height[ sibling ] + 1;
+
+		if ( oldParent != NULL )
+		{
+			if ( child1[ oldParent ] == sibling )
+				child1[ oldParent ] = newParent;
+			else
+				child2[ oldParent ] = newParent;
+		}
+		else
+		{
+			root = newParent;
+		}
+
+		child1[ newParent ] = sibling;
+		child2[ newParent ] = leaf;
+		parent[ sibling ] = newParent;
+		parent[ leaf ] = newParent;
+
+		fixUpwards( parent[ leaf ] );
+	}
+
+	private void removeLeaf( int leaf )
+	{
+		if ( leaf == root )
+		{
+			root = NULL;
+			return;
+		}
+
+		int p = parent[ leaf ];
+		int grandParent = parent[ p ];
+		int sibling = child1[ p ] == leaf ? child2[ p ] : child1[ p ];
+
+		if ( grandParent != NULL )
+		{
+			// Destroy the parent and connect the sibling to the grand parent
+			if ( child1[ grandParent ] == p )
+				child1[ grandParent ] = sibling;
+			else
+				child2[ grandParent ] = sibling;
+
+			parent[ sibling ] = grandParent;
+			freeNode( p );
+
+			fixUpwards( grandParent );
+		}
+		else
+		{
+			root = sibling;
+			parent[ sibling ] = NULL;
+			freeNode( p );
+		}
+	}
+
+	/*
+	 * Walks back up the tree fixing heights and bounds
+	 */
+	private void fixUpwards( int index )
+	{
+		while ( index != NULL )
+		{
+			index = balance( index );
+
+			int c1 = child1[ index ];
+			int c2 = child2[ index ];
+
+			height[ index ] = 1 + Math.max( height[ c1 ], height[ c2 ] );
+			union( c1, c2, index );
+
+			index = parent[ index ];
+		}
+	}
+
+	/*
+	 * Performs a left or right rotation if node A is imbalanced.
+	 * Returns the new root index of the subtree.
+	 */
+	private int balance( int iA )
+	{
+		if ( height[ iA ] < 2 )
+			return iA;
+
+		int iB = child1[ iA ];
+		int iC = child2[ iA ];
+
+		int balance = height[ iC ] - height[ iB ];
+
+		// Rotate C up
+		if ( balance > 1 )
+			return rotate( iA, iC, iB, true );
+
+		// Rotate B up
+		if ( balance < -1 )
+			return rotate( iA, iB, iC, false );
+
+		return iA;
+	}
+
+	/*
+	 * Moves the child X of A up in place of A. Y is the other child of A.
+	 */
+	private int rotate( int iA, int iX, int iY, boolean right )
+	{
+		int iF = child1[ iX ];
+		int iG = child2[ iX ];
+
+		// Swap A and X
+		child1[ iX ] = iA;
+		parent[ iX ] = parent[ iA ];
+		parent[ iA ] = iX;
+
+		// A's old parent should point to X
+		if ( parent[ iX ] != NULL )
+		{
+			if ( child1[ parent[ iX ] ] == iA )
+				child1[ parent[ iX ] ] = iX;
+			else
+				child2[ parent[ iX ] ] = iX;
+		}
+		else
+		{
+			root = iX;
+		}
+
+		// Keep the higher child of X, hand the other one to A
+		int keep = height[ iF ] > height[ iG ] ? iF : iG;
+		int move = keep == iF ? iG : iF;
+
+		child2[ iX ] = keep;
+		if ( right )
+			child2[ iA ] = move;
+		else
+			child1[ iA ] = move;
+		parent[ move ] = iA;
+
+		union( iY, move, iA );
+		union( iA, keep, iX );
+
+		height[ iA ] = 1 + Math.max( height[ iY ], height[ move ] );
+		height[ iX ] = 1 + Math.max( height[ iA ], height[ keep ] );
+
+		return iX;
+	}
+
+	private double descendCost( int child, int leaf )
+	{
+		double cost = unionArea( child, leaf );
+
+		return height[ child ] == 0 ? cost : cost - area( child );
+	}
+
+	private double area( int node )
+	{
+		int b = node * 6;
+		double x = bounds[ b + 3 ] - bounds[ b ];
+		double y = bounds[ b + 4 ] - bounds[ b + 1 ];
+		double z = bounds[ b + 5 ] - bounds[ b + 2 ];
+
+		return x * y + y * z + z * x;
+	}
+
+	private double unionArea( int a, int b )
+	{
+		a *= 6;
+		b *= 6;
+		double x = Math.max( bounds[ a + 3 ], bounds[ b + 3 ] ) - Math.min( bounds[ a ], bounds[ b ] );
+		double y = Math.max( bounds[ a + 4 ], bounds[ b + 4 ] ) - Math.min( bounds[ a + 1 ], bounds[ b + 1 ] );
+		double z = Math.max( bounds[ a + 5 ], bounds[ b + 5 ] ) - Math.min( bounds[ a + 2 ], bounds[ b + 2 ] );
+
+		return x * y + y * z + z * x;
+	}
+
+	private void union( int a, int b, int target )
+	{
+		a *= 6;
+		b *= 6;
+		target *= 6;
+
+		for ( int i = 0; i < 3; i++ )
+		{
+			bounds[ target + i ] = Math.min( bounds[ a + i ], bounds[ b + i ] );
+			bounds[ target + i + 3 ] = Math.max( bounds[ a + i + 3 ], bounds[ b + i + 3 ] );
+		}
+	}
+
+	private int allocateNode()
+	{
+		if ( freeList == NULL )
+			grow( capacity * 2 );
+
+		int node = freeList;
+		freeList = parent[ node ];
+
+		parent[ node ] = NULL;
+		child1[ node ] = NULL;
+		child2[ node ] = NULL;
+		height[ node ] = 0;
+
+		return node;
+	}
+
+	private void freeNode( int node )
+	{
+		parent[ node ] = freeList;
+		height[ node ] = -1;
+		objects[ node ] = null;
+		freeList = node;
+	}
+
+	private void grow( int newCapacity )
+	{
+		double[] b = new double[ newCapacity * 6 ];
+		int[] p = new int[ newCapacity ];
+		int[] c1 = new int[ newCapacity ];
+		int[] c2 = new int[ newCapacity ];
+		int[] h = new int[ newCapacity ];
+		GeometryObject[] o = new GeometryObject[ newCapacity ];
+
+		if ( capacity > 0 )
+		{
+			System.arraycopy( bounds, 0, b, 0, capacity * 6 );
+			System.arraycopy( parent, 0, p, 0, capacity );
+			System.arraycopy( child1, 0, c1, 0, capacity );
+			System.arraycopy( child2, 0, c2, 0, capacity );
+			System.arraycopy( height, 0, h, 0, capacity );
+			System.arraycopy( objects, 0, o, 0, capacity );
+		}
+
+		bounds = b;
+		parent = p;
+		child1 = c1;
+		child2 = c2;
+		height = h;
+		objects = o;
+
+		int oldCapacity = capacity;
+		capacity = newCapacity;
+
+		for ( int i = newCapacity - 1; i >= oldCapacity; i-- )
+			freeNode( i );
+	}
+}
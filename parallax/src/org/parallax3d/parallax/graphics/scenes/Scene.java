@@ -18,10 +18,18 @@
 
 package org.parallax3d.parallax.graphics.scenes;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.parallax3d.parallax.graphics.core.GeometryObject;
+import org.parallax3d.parallax.graphics.lights.Light;
+import org.parallax3d.parallax.system.ParallelExecutor;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.graphics.cameras.Camera;
 import org.parallax3d.parallax.graphics.core.Object3D;
 import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.graphics.objects.Mesh;
 
 /**
  * 3D Scene. The basic class for rendering.
@@ -35,6 +43,12 @@ import org.parallax3d.parallax.graphics.materials.Material;
 @ThreejsObject("THREE.Scene")
 public final class Scene extends Object3D
 {
+	/**
+	 * Scenes with fewer children are updated on the calling thread, otherwise
+	 * the subtrees of the children are updated by the {@link ParallelExecutor}.
+	 */
+	public static final int PARALLEL_UPDATE_THRESHOLD = 16;
+
 	/**
 	 * Here is stored fog
 	 */
@@ -44,12 +58,289 @@ public final class Scene extends Object3D
 
 	private boolean isAutoUpdate = true;
 
+	private SceneIndex sceneIndex;
+
+	private StaticBatching staticBatching;
+
+	// Lights attached to the scene
+	private List<Light> lights = new ArrayList<Light>();
+
+	// Objects which are not kept in the scene index
+	private List<GeometryObject> unindexedObjects = new ArrayList<GeometryObject>();
+
+	// Matrices recalculated since the counters were reset
+	private int matrixUpdates;
+	private int matrixWorldUpdates;
+
+	// Events of the subtrees which are updated in parallel, by the child of the scene
+	private IdentityHashMap<Object3D, SubtreeUpdates> subtreeUpdates = new IdentityHashMap<Object3D, SubtreeUpdates>();
+	private List<SubtreeUpdates> subtreeUpdatesPool = new ArrayList<SubtreeUpdates>();
+	private boolean isUpdatingSubtrees;
+
+	private static class SubtreeUpdates
+	{
+		List<Object3D> moved = new ArrayList<Object3D>();
+		int matrices;
+	}
+
 	/**
 	 * This default constructor will create new Scene instance.
 	 */
 	public Scene()
 	{
 		super();
+
+		this.scene = this;
+	}
+
+	/**
+	 * Gets the spatial index of the scene or null if objects are found
+	 * by walking the scene graph.
+	 */
+	public SceneIndex getSceneIndex() {
+		return sceneIndex;
+	}
+
+	/**
+	 * Sets the spatial index used for culling and raycasting. The index is filled
+	 * with the objects already in the scene and kept up to date afterwards.
+	 *
+	 * @param sceneIndex the index, for example {@link DynamicAABBTree}, or null to disable it
+	 */
+	public void setSceneIndex(SceneIndex sceneIndex) {
+
+		if ( this.sceneIndex != null )
+			this.sceneIndex.clear();
+
+		this.sceneIndex = sceneIndex;
+		this.unindexedObjects.clear();
+
+		if ( sceneIndex != null )
+			indexObjects( this );
+	}
+
+	/**
+	 * Gets the static batching of the scene or null if every mesh is drawn on its own.
+	 */
+	public StaticBatching getStaticBatching() {
+		return staticBatching;
+	}
+
+	/**
+	 * Sets the static batching which merges the meshes added to it.
+	 *
+	 * @param staticBatching the batching, or null to draw every mesh on its own
+	 */
+	public void setStaticBatching(StaticBatching staticBatching) {
+		this.staticBatching = staticBatching;
+	}
+
+	/**
+	 * Lights attached to the scene, in the order they were added.
+	 */
+	public List<Light> getLights() {
+		return lights;
+	}
+
+	/**
+	 * Objects attached to the scene which are not kept in the scene index:
+	 * objects without geometry or not frustum culled.
+	 */
+	public List<GeometryObject> getUnindexedObjects() {
+		return unindexedObjects;
+	}
+
+	/**
+	 * Called when the object is attached to the scene.
+	 */
+	public void onObjectAdded(Object3D object) {
+
+		if ( staticBatching != null && object instanceof Mesh )
+			staticBatching.setNeedsUpdate( (Mesh) object );
+
+		if ( object instanceof Light ) {
+
+			lights.add( (Light) object );
+
+		} else if ( object instanceof GeometryObject && sceneIndex != null ) {
+
+			GeometryObject geometryObject = (GeometryObject) object;
+
+			if ( geometryObject.isFrustumCulled() && geometryObject.getGeometry() != null )
+				sceneIndex.add( geometryObject );
+			else
+				unindexedObjects.add( geometryObject );
+
+		}
+
+	}
+
+	/**
+	 * Called when the object is detached from the scene.
+	 */
+	public void onObjectRemoved(Object3D object) {
+
+		if ( staticBatching != null && object instanceof Mesh )
+			staticBatching.setNeedsUpdate( (Mesh) object );
+
+		if ( object instanceof Light ) {
+
+			lights.remove( object );
+
+		} else if ( object instanceof GeometryObject && sceneIndex != null ) {
+
+			if ( !unindexedObjects.remove( object ) )
+				sceneIndex.remove( (GeometryObject) object );
+
+		}
+
+	}
+
+	/**
+	 * Called when the world matrix of the object was updated.
+	 */
+	public void onObjectMoved(Object3D object) {
+
+		if ( isUpdatingSubtrees ) {
+
+			getSubtreeUpdates( object ).moved.add( object );
+			return;
+
+		}
+
+		matrixWorldUpdates++;
+
+		if ( sceneIndex != null && object instanceof GeometryObject && object.isFrustumCulled() )
+			sceneIndex.update( (GeometryObject) object );
+
+	}
+
+	/**
+	 * Called when the local matrix of the object was composed from its position,
+	 * rotation and scale.
+	 */
+	public void onMatrixUpdated(Object3D object) {
+
+		if ( isUpdatingSubtrees && object != this )
+			getSubtreeUpdates( object ).matrices++;
+		else
+			matrixUpdates++;
+
+	}
+
+	/**
+	 * Gets how many local matrices were composed since {@link #resetMatrixUpdates()}.
+	 */
+	public int getMatrixUpdates() {
+		return matrixUpdates;
+	}
+
+	/**
+	 * Gets how many world matrices were recalculated since {@link #resetMatrixUpdates()}.
+	 */
+	public int getMatrixWorldUpdates() {
+		return matrixWorldUpdates;
+	}
+
+	public void resetMatrixUpdates() {
+		matrixUpdates = 0;
+		matrixWorldUpdates = 0;
+	}
+
+	/**
+	 * Updates the subtrees of the children on several threads if a multi-threaded
+	 * {@link ParallelExecutor} is set. The objects of each subtree report their
+	 * changes to their own list and the lists are applied in the order of the
+	 * children afterwards, so the scene index sees the same sequence of updates
+	 * as after a sequential update.
+	 */
+	@Override
+	protected void updateChildrenMatrixWorld(final boolean force) {
+
+		ParallelExecutor executor = ParallelExecutor.get();
+		final List<Object3D> children = getChildren();
+		int count = children.size();
+
+		if ( executor.getParallelism() < 2 || count < PARALLEL_UPDATE_THRESHOLD ) {
+
+			super.updateChildrenMatrixWorld( force );
+			return;
+
+		}
+
+		while ( subtreeUpdatesPool.size() < count )
+			subtreeUpdatesPool.add( new SubtreeUpdates() );
+
+		subtreeUpdates.clear();
+
+		for ( int i = 0; i < count; i ++ ) {
+
+			SubtreeUpdates updates = subtreeUpdatesPool.get( i );
+			updates.moved.clear();
+			updates.matrices = 0;
+
+			subtreeUpdates.put( children.get( i ), updates );
+
+		}
+
+		isUpdatingSubtrees = true;
+
+		try {
+
+			executor.run( count, PARALLEL_UPDATE_THRESHOLD, new ParallelExecutor.Task() {
+
+				@Override
+				public void run(int start, int end) {
+
+					for ( int i = start; i < end; i ++ )
+						children.get( i ).updateMatrixWorld( force );
+
+				}
+
+			});
+
+		} finally {
+
+			isUpdatingSubtrees = false;
+
+		}
+
+		for ( int i = 0; i < count; i ++ ) {
+
+			SubtreeUpdates updates = subtreeUpdatesPool.get( i );
+
+			matrixUpdates += updates.matrices;
+
+			for ( int j = 0, l = updates.moved.size(); j < l; j ++ )
+				onObjectMoved( updates.moved.get( j ) );
+
+			updates.moved.clear();
+
+		}
+
+		subtreeUpdates.clear();
+
+	}
+
+	private SubtreeUpdates getSubtreeUpdates( Object3D object ) {
+
+		Object3D root = object;
+
+		while ( root.getParent() != this )
+			root = root.getParent();
+
+		return subtreeUpdates.get( root );
+
+	}
+
+	private void indexObjects( Object3D object ) {
+
+		if ( object instanceof GeometryObject )
+			onObjectAdded( object );
+
+		for ( int i = 0, l = object.getChildren().size(); i < l; i ++ )
+			indexObjects( object.getChildren().get( i ) );
+
 	}
 
 
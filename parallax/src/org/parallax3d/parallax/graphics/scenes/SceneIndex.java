@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.scenes;
+
+import java.util.List;
+
+import org.parallax3d.parallax.graphics.core.GeometryObject;
+import org.parallax3d.parallax.math.Frustum;
+import org.parallax3d.parallax.math.Ray;
+
+/**
+ * Broadphase spatial index over the objects of a {@link Scene}.
+ * <p>
+ * When set with {@link Scene#setSceneIndex(SceneIndex)} the scene keeps the index up to date
+ * as objects are added, removed or moved by {@link Scene#updateMatrixWorld(boolean)}.
+ * The renderer then culls and the {@link org.parallax3d.parallax.graphics.core.Raycaster}
+ * picks objects by querying the index instead of walking the whole scene graph.
+ * <p>
+ * Queries are conservative: they may return objects which do not intersect,
+ * but never miss one that does.
+ */
+public interface SceneIndex
+{
+	/**
+	 * Adds the object using the world bounds of its geometry.
+	 */
+	void add( GeometryObject object );
+
+	/**
+	 * Updates the object after its world matrix or geometry bounds were changed.
+	 */
+	void update( GeometryObject object );
+
+	void remove( GeometryObject object );
+
+	/**
+	 * Removes all objects.
+	 */
+	void clear();
+
+	int size();
+
+	/**
+	 * Collects the objects whose bounds are hit by the ray closer than the far distance.
+	 *
+	 * @param ray    the ray in world space, direction is assumed to be normalized
+	 * @param far    maximum distance along the ray
+	 * @param result target list, objects are added to it
+	 */
+	void intersectRay( Ray ray, double far, List<GeometryObject> result );
+
+	/**
+	 * Collects the objects whose bounds intersect the frustum.
+	 *
+	 * @param frustum the frustum in world space
+	 * @param result  target list, objects are added to it
+	 */
+	void intersectFrustum( Frustum frustum, List<GeometryObject> result );
+}
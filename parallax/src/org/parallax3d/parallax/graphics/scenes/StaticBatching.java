@@ -0,0 +1,509 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.scenes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.parallax3d.parallax.graphics.core.AbstractGeometry;
+import org.parallax3d.parallax.graphics.core.BufferAttribute;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.graphics.core.Object3D;
+import org.parallax3d.parallax.graphics.materials.HasVertexColors;
+import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.graphics.materials.MeshFaceMaterial;
+import org.parallax3d.parallax.graphics.objects.InstancedMesh;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.objects.SkinnedMesh;
+import org.parallax3d.parallax.math.Matrix3;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.system.FastMap;
+import org.parallax3d.parallax.system.IntMap;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.arrays.IndexTypeArray;
+import org.parallax3d.parallax.system.gl.arrays.TypeArray;
+import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint32Array;
+
+/**
+ * Static batching of meshes which share a material.
+ * <p>
+ * Member meshes are merged, in world space, into one {@link Batch} per material
+ * and grid cell. The renderer draws the batches instead of the members, so
+ * hundreds of small meshes cost a few draw calls. Every batch has its own bounds,
+ * so batches are still frustum culled cell by cell.
+ * <p>
+ * The batches are built from the world matrices, geometry and visibility of the
+ * members when the scene is rendered. Changes made after that are not picked up until
+ * the member is marked with {@link #setNeedsUpdate(Mesh)}. Adding a member to the
+ * scene or removing it marks it automatically.
+ *
+ * @see Scene#setStaticBatching(StaticBatching)
+ */
+public class StaticBatching
+{
+	/**
+	 * Merged geometry of the members of one material and cell.
+	 */
+	public static class Batch extends Mesh
+	{
+		private final List<Mesh> members = new ArrayList<Mesh>();
+		private final String key;
+		private boolean needsUpdate;
+
+		public Batch(String key, Material material)
+		{
+			super(new BufferGeometry(), material);
+
+			this.key = key;
+		}
+
+		@Override
+		public BufferGeometry getGeometry() {
+			return (BufferGeometry) super.getGeometry();
+		}
+
+		public List<Mesh> getMembers() {
+			return members;
+		}
+	}
+
+	// Attributes which are merged, other attributes are dropped
+	private static final String[] ATTRIBUTES = { "position", "normal", "uv", "uv2", "color" };
+	private static final int[] ITEM_SIZES = { 3, 3, 2, 2, 3 };
+
+	// WebGL limits type of index buffer values to 16-bit.
+	private static final int MAX_VERTICES = 65535;
+
+	private double cellSize;
+
+	private final List<Mesh> members = new ArrayList<Mesh>();
+	private final List<Mesh> dirtyMembers = new ArrayList<Mesh>();
+
+	private final IntMap<Batch> memberBatches = new IntMap<Batch>();
+	private final FastMap<Batch> cells = new FastMap<Batch>();
+	private final List<Batch> batches = new ArrayList<Batch>();
+
+	// Geometries converted to BufferGeometry during one update
+	private final IntMap<BufferGeometry> converted = new IntMap<BufferGeometry>();
+
+	// Temporary variables
+	private static final Vector3 _center = new Vector3();
+	private static final Matrix3 _normalMatrix = new Matrix3();
+
+	public StaticBatching()
+	{
+		this(100);
+	}
+
+	/**
+	 * @param cellSize size of the grid cells, in world units, which split the batches for culling
+	 */
+	public StaticBatching(double cellSize)
+	{
+		this.cellSize = cellSize;
+	}
+
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Adds the mesh to the batches.
+	 *
+	 * @return false if the mesh can not be batched: skinned, instanced, morphed
+	 * or using a {@link MeshFaceMaterial}
+	 */
+	public boolean add(Mesh mesh)
+	{
+		if ( mesh instanceof Batch || mesh instanceof SkinnedMesh || mesh instanceof InstancedMesh
+				|| mesh.morphTargetBase != null || mesh.getMaterial() instanceof MeshFaceMaterial )
+			return false;
+
+		if ( !members.contains( mesh ) )
+		{
+			members.add( mesh );
+			setNeedsUpdate( mesh );
+		}
+
+		return true;
+	}
+
+	public void remove(Mesh mesh)
+	{
+		if ( !members.remove( mesh ) )
+			return;
+
+		dirtyMembers.remove( mesh );
+		removeFromBatch( mesh );
+	}
+
+	public void clear()
+	{
+		members.clear();
+		dirtyMembers.clear();
+		memberBatches.clear();
+		cells.clear();
+		batches.clear();
+	}
+
+	/**
+	 * Marks the member changed: its batch is rebuilt before the next frame.
+	 */
+	public void setNeedsUpdate(Mesh mesh)
+	{
+		if ( members.contains( mesh ) && !dirtyMembers.contains( mesh ) )
+			dirtyMembers.add( mesh );
+	}
+
+	public List<Mesh> getMembers() {
+		return members;
+	}
+
+	public List<Batch> getBatches() {
+		return batches;
+	}
+
+	/**
+	 * Whether the object is drawn by one of the batches.
+	 */
+	public boolean isBatched(Object3D object)
+	{
+		return memberBatches.containsKey( object.getId() );
+	}
+
+	/**
+	 * Moves changed members to their cells and rebuilds the batches which changed.
+	 * Called by the renderer once the world matrices are up to date.
+	 */
+	public void update()
+	{
+		if ( dirtyMembers.isEmpty() )
+			return;
+
+		for ( int i = 0, l = dirtyMembers.size(); i < l; i ++ )
+		{
+			Mesh mesh = dirtyMembers.get( i );
+			String key = getCellKey( mesh );
+
+			Batch batch = getBatch( mesh );
+
+			// members which stay in their cell keep their place in the batch
+			if ( batch != null && batch.key.equals( key ) )
+			{
+				batch.needsUpdate = true;
+				continue;
+			}
+
+			removeFromBatch( mesh );
+
+			batch = cells.get( key );
+
+			if ( batch == null )
+			{
+				batch = new Batch( key, mesh.getMaterial() );
+				cells.put( key, batch );
+				batches.add( batch );
+			}
+
+			batch.members.add( mesh );
+			batch.needsUpdate = true;
+		}
+
+		dirtyMembers.clear();
+
+		for ( int i = batches.size() - 1; i >= 0; i -- )
+		{
+			Batch batch = batches.get( i );
+
+			if ( batch.members.isEmpty() )
+			{
+				batches.remove( i );
+				cells.remove( batch.key );
+			}
+			else if ( batch.needsUpdate )
+			{
+				build( batch );
+				batch.needsUpdate = false;
+			}
+		}
+
+		converted.clear();
+	}
+
+	private Batch getBatch(Mesh mesh)
+	{
+		Batch batch = memberBatches.get( mesh.getId() );
+
+		// members which were left out of the merge are not mapped
+		for ( int i = 0, l = batches.size(); i < l && batch == null; i ++ )
+			if ( batches.get( i ).members.contains( mesh ) )
+				batch = batches.get( i );
+
+		return batch;
+	}
+
+	private void removeFromBatch(Mesh mesh)
+	{
+		Batch batch = getBatch( mesh );
+
+		memberBatches.remove( mesh.getId() );
+
+		if ( batch != null )
+		{
+			batch.members.remove( mesh );
+			batch.needsUpdate = true;
+		}
+	}
+
+	private String getCellKey(Mesh mesh)
+	{
+		AbstractGeometry geometry = mesh.getGeometry();
+
+		if ( geometry.getBoundingSphere() == null )
+			geometry.computeBoundingSphere();
+
+		_center.copy( geometry.getBoundingSphere().getCenter() ).apply( mesh.getMatrixWorld() );
+
+		return mesh.getMaterial().getId()
+				+ ":" + (int)Math.floor( _center.getX() / cellSize )
+				+ ":" + (int)Math.floor( _center.getY() / cellSize )
+				+ ":" + (int)Math.floor( _center.getZ() / cellSize );
+	}
+
+	private BufferGeometry getBufferGeometry(Mesh mesh)
+	{
+		AbstractGeometry geometry = mesh.getGeometry();
+
+		if ( geometry instanceof BufferGeometry )
+			return (BufferGeometry) geometry;
+
+		if ( ((Geometry) geometry).getFaces().isEmpty() )
+			return null;
+
+		BufferGeometry bufferGeometry = converted.get( geometry.getId() );
+
+		if ( bufferGeometry == null )
+		{
+			Material material = mesh.getMaterial();
+			Material.COLORS vertexColors = material instanceof HasVertexColors
+					? ((HasVertexColors) material).isVertexColors() : Material.COLORS.NO;
+
+			bufferGeometry = new BufferGeometry().fromGeometry( (Geometry) geometry, vertexColors );
+			converted.put( geometry.getId(), bufferGeometry );
+		}
+
+		return bufferGeometry;
+	}
+
+	private void build(Batch batch)
+	{
+		List<Mesh> merged = new ArrayList<Mesh>();
+		List<BufferGeometry> sources = new ArrayList<BufferGeometry>();
+		boolean[] used = new boolean[ ATTRIBUTES.length ];
+
+		int vertexCount = 0;
+		int indexCount = 0;
+
+		for ( int i = 0, l = batch.members.size(); i < l; i ++ )
+		{
+			Mesh mesh = batch.members.get( i );
+			BufferGeometry source = mesh.isVisible() && mesh.getScene() != null ? getBufferGeometry( mesh ) : null;
+			int vertices = source != null ? source.getAttribute( "position" ).getArray().getLength() / 3 : 0;
+
+			// Hidden, detached and oversized members are left to the renderer
+			if ( source == null || vertices == 0 || vertices > MAX_VERTICES )
+			{
+				memberBatches.remove( mesh.getId() );
+				continue;
+			}
+
+			merged.add( mesh );
+			sources.add( source );
+			memberBatches.put( mesh.getId(), batch );
+
+			BufferAttribute index = source.getAttribute( "index" );
+
+			vertexCount += vertices;
+			indexCount += index != null ? index.getArray().getLength() : vertices;
+
+			for ( int a = 0; a < ATTRIBUTES.length; a ++ )
+				used[ a ] |= source.getAttribute( ATTRIBUTES[ a ] ) != null;
+		}
+
+		BufferGeometry geometry = batch.getGeometry();
+
+		Float32Array[] arrays = new Float32Array[ ATTRIBUTES.length ];
+		for ( int a = 0; a < ATTRIBUTES.length; a ++ )
+			if ( used[ a ] || geometry.getAttribute( ATTRIBUTES[ a ] ) != null )
+				arrays[ a ] = Float32Array.create( vertexCount * ITEM_SIZES[ a ] );
+
+		Uint16Array indices = Uint16Array.create( indexCount );
+		List<BufferGeometry.DrawCall> drawcalls = geometry.getDrawcalls();
+		drawcalls.clear();
+
+		BufferGeometry.DrawCall drawcall = null;
+		int vertexPtr = 0;
+		int indexPtr = 0;
+
+		for ( int i = 0, l = merged.size(); i < l; i ++ )
+		{
+			Mesh mesh = merged.get( i );
+			BufferGeometry source = sources.get( i );
+			int vertices = source.getAttribute( "position" ).getArray().getLength() / 3;
+
+			// start a new draw call once its vertices would not fit 16-bit indices
+			if ( drawcall == null || vertexPtr + vertices - drawcall.index > MAX_VERTICES )
+			{
+				drawcall = new BufferGeometry.DrawCall( indexPtr, 0, vertexPtr );
+				drawcalls.add( drawcall );
+			}
+
+			_normalMatrix.getNormalMatrix( mesh.getMatrixWorld() );
+
+			for ( int a = 0; a < ATTRIBUTES.length; a ++ )
+			{
+				if ( arrays[ a ] == null )
+					continue;
+
+				BufferAttribute attribute = source.getAttribute( ATTRIBUTES[ a ] );
+				int itemSize = ITEM_SIZES[ a ];
+				int offset = vertexPtr * itemSize;
+
+				if ( attribute == null )
+				{
+					double value = ATTRIBUTES[ a ].equals( "color" ) ? 1.0 : 0.0;
+
+					for ( int j = 0, jl = vertices * itemSize; j < jl; j ++ )
+						arrays[ a ].set( offset + j, value );
+				}
+				else if ( a == 0 )
+				{
+					transformPoints( (Float32Array) attribute.getArray(), arrays[ a ], offset, mesh.getMatrixWorld().getArray() );
+				}
+				else if ( a == 1 )
+				{
+					transformNormals( (Float32Array) attribute.getArray(), arrays[ a ], offset, _normalMatrix.getArray() );
+				}
+				else
+				{
+					Float32Array src = (Float32Array) attribute.getArray();
+
+					for ( int j = 0, jl = Math.min( src.getLength(), vertices * itemSize ); j < jl; j ++ )
+						arrays[ a ].set( offset + j, src.get( j ) );
+				}
+			}
+
+			BufferAttribute index = source.getAttribute( "index" );
+			int base = vertexPtr - drawcall.index;
+
+			if ( index != null )
+			{
+				// members have less than 65536 vertices, but may still use a 32-bit index
+				TypeArray src = index.getArray();
+
+				for ( int j = 0, jl = src.getLength(); j < jl; j ++ )
+					indices.set( indexPtr ++, base + getIndex( src, j ) );
+
+				drawcall.count += src.getLength();
+			}
+			else
+			{
+				for ( int j = 0; j < vertices; j ++ )
+					indices.set( indexPtr ++, base + j );
+
+				drawcall.count += vertices;
+			}
+
+			vertexPtr += vertices;
+		}
+
+		for ( int a = 0; a < ATTRIBUTES.length; a ++ )
+			if ( arrays[ a ] != null )
+				setAttribute( geometry, ATTRIBUTES[ a ], arrays[ a ], ITEM_SIZES[ a ] );
+
+		setAttribute( geometry, "index", indices, 1 );
+
+		geometry.computeBoundingSphere();
+
+		if ( geometry.getBoundingBox() != null )
+			geometry.computeBoundingBox();
+	}
+
+	// Keeps the attribute, and so its GL buffer, when the batch is rebuilt
+	private static void setAttribute(BufferGeometry geometry, String name, TypeArray array, int itemSize)
+	{
+		BufferAttribute attribute = geometry.getAttribute( name );
+
+		if ( attribute == null )
+		{
+			geometry.addAttribute( name, new BufferAttribute( array, itemSize ) );
+		}
+		else
+		{
+			attribute.setArray( array );
+			attribute.setNeedsUpdate( true );
+		}
+	}
+
+	private static int getIndex(TypeArray index, int i)
+	{
+		if ( index instanceof IndexTypeArray )
+			return ( (IndexTypeArray) index ).getUnsigned( i );
+
+		return ( (Uint32Array) index ).get( i );
+	}
+
+	private static void transformPoints(Float32Array src, Float32Array dst, int offset, float[] e)
+	{
+		for ( int j = 0, l = src.getLength(); j < l; j += 3 )
+		{
+			double x = src.get( j ), y = src.get( j + 1 ), z = src.get( j + 2 );
+
+			dst.set( offset + j,     e[ 0 ] * x + e[ 4 ] * y + e[ 8 ]  * z + e[ 12 ] );
+			dst.set( offset + j + 1, e[ 1 ] * x + e[ 5 ] * y + e[ 9 ]  * z + e[ 13 ] );
+			dst.set( offset + j + 2, e[ 2 ] * x + e[ 6 ] * y + e[ 10 ] * z + e[ 14 ] );
+		}
+	}
+
+	private static void transformNormals(Float32Array src, Float32Array dst, int offset, float[] e)
+	{
+		for ( int j = 0, l = src.getLength(); j < l; j += 3 )
+		{
+			double x = src.get( j ), y = src.get( j + 1 ), z = src.get( j + 2 );
+
+			double nx = e[ 0 ] * x + e[ 3 ] * y + e[ 6 ] * z;
+			double ny = e[ 1 ] * x + e[ 4 ] * y + e[ 7 ] * z;
+			double nz = e[ 2 ] * x + e[ 5 ] * y + e[ 8 ] * z;
+			double length = Math.sqrt( nx * nx + ny * ny + nz * nz );
+
+			if ( length > 0 )
+			{
+				nx /= length;
+				ny /= length;
+				nz /= length;
+			}
+
+			dst.set( offset + j,     nx );
+			dst.set( offset + j + 1, ny );
+			dst.set( offset + j + 2, nz );
+		}
+	}
+}
@@ -18,10 +18,14 @@
 
 package org.parallax3d.parallax.graphics.textures;
 
+import org.parallax3d.parallax.graphics.renderers.GLRenderer;
 import org.parallax3d.parallax.system.ThreejsObject;
 import org.parallax3d.parallax.math.Color;
+import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.arrays.TypeArray;
 import org.parallax3d.parallax.system.gl.arrays.Uint8Array;
 import org.parallax3d.parallax.system.gl.enums.PixelFormat;
+import org.parallax3d.parallax.system.gl.enums.PixelType;
 
 /**
  * Implementation of data texture.
@@ -32,16 +36,37 @@ import org.parallax3d.parallax.system.gl.enums.PixelFormat;
 @ThreejsObject("THREE.DataTexture")
 public class DataTexture extends Texture
 {
-	private Uint8Array data;
+	private TypeArray data;
 	private int width;
 	private int height;
 
+	// storage specified on the GPU by the last upload, the later uploads
+	// of the same size and format only replace its contents
+	private int allocatedTexture;
+	private int allocatedWidth;
+	private int allocatedHeight;
+	private PixelFormat allocatedFormat;
+	private PixelType allocatedType;
+
 	public DataTexture( int width, int height )
 	{
 		this.width = width;
 		this.height = height;
 	}
 
+	/**
+	 * Creates the texture of the given data, for example a float texture
+	 * with RGBA format and FLOAT type.
+	 */
+	public DataTexture( TypeArray data, int width, int height, PixelFormat format, PixelType type )
+	{
+		this( width, height );
+
+		this.data = data;
+		setFormat( format );
+		setType( type );
+	}
+
 	/**
 	 * Constructor which can be used to generate random data texture.
 	 *
@@ -57,11 +82,11 @@ public class DataTexture extends Texture
 		generateDataTexture(color);
 	}
 
-	public Uint8Array getData() {
+	public TypeArray getData() {
 		return data;
 	}
 
-	public DataTexture setData(Uint8Array data) {
+	public DataTexture setData(TypeArray data) {
 		this.data = data;
 		return this;
 	}
@@ -107,4 +132,38 @@ public class DataTexture extends Texture
 
 		return this;
 	}
+
+	/**
+	 * Uploads the data to the texture bound to the target. The storage is
+	 * specified by glTexImage2D on the first upload or when the size or
+	 * format has changed, otherwise only its contents are replaced by
+	 * glTexSubImage2D.
+	 */
+	public void glTexImage2D( GL20 gl, int target )
+	{
+		if ( allocatedTexture == getWebGlTexture() && allocatedWidth == width && allocatedHeight == height
+				&& allocatedFormat == getFormat() && allocatedType == getType() )
+		{
+			gl.glTexSubImage2D( target, 0, 0, 0, width, height,
+					getFormat().getValue(), getType().getValue(), data.getBuffer() );
+			return;
+		}
+
+		gl.glTexImage2D( target, 0, getFormat().getValue(), width, height, 0,
+				getFormat().getValue(), getType().getValue(), data.getBuffer() );
+
+		allocatedTexture = getWebGlTexture();
+		allocatedWidth = width;
+		allocatedHeight = height;
+		allocatedFormat = getFormat();
+		allocatedType = getType();
+	}
+
+	@Override
+	public void deallocate( GLRenderer renderer )
+	{
+		super.deallocate( renderer );
+
+		allocatedTexture = 0;
+	}
 }
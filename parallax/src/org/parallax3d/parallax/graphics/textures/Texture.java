@@ -100,6 +100,9 @@ public class Texture
 
 	private int anisotropy;
 
+	// bound instead of this texture until it has been uploaded
+	private Texture fallback;
+
 	private int cache_oldAnisotropy;
 
 	public Texture(){
@@ -455,6 +458,25 @@ public class Texture
 		return this;
 	}
 
+	/**
+	 * Gets the low resolution texture, which is bound while this texture
+	 * is loaded or waits for the upload.
+	 */
+	public Texture getFallback() {
+		return fallback;
+	}
+
+	/**
+	 * Sets the low resolution texture, which is bound while this texture
+	 * is loaded or waits for the upload.
+	 *
+	 * @see org.parallax3d.parallax.graphics.renderers.TextureResidency
+	 */
+	public Texture setFallback(Texture fallback) {
+		this.fallback = fallback;
+		return this;
+	}
+
 	public Texture setTextureParameters ( GL20 gl, TextureTarget textureType, boolean isImagePowerOfTwo )
 	{
 		return setTextureParameters( gl, 0, textureType, isImagePowerOfTwo);
@@ -510,6 +532,9 @@ public class Texture
 		renderer.gl.glDeleteTexture(getWebGlTexture());
 
 		renderer.getInfo().getMemory().textures--;
+
+		if ( renderer.getTextureResidency() != null )
+			renderer.getTextureResidency().remove( this );
 	}
 
 	public Texture clone(Texture texture)
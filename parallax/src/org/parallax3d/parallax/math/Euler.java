@@ -20,7 +20,6 @@ package org.parallax3d.parallax.math;
 
 import org.parallax3d.parallax.Log;
 import org.parallax3d.parallax.system.ThreejsObject;
-import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 
 @ThreejsObject("THREE.Euler")
 public class Euler {
@@ -205,10 +204,10 @@ public class Euler {
 
 		// assumes the upper 3x3 of m is a pure rotation matrix (i.e, unscaled)
 
-		Float32Array te = m.getArray();
-		double m11 = te.get(0), m12 = te.get(4), m13 = te.get(8);
-		double m21 = te.get(1), m22 = te.get(5), m23 = te.get(9);
-		double m31 = te.get(2), m32 = te.get(6), m33 = te.get(10);
+		float[] te = m.getArray();
+		double m11 = te[0], m12 = te[4], m13 = te[8];
+		double m21 = te[1], m22 = te[5], m23 = te[9];
+		double m31 = te[2], m32 = te[6], m33 = te[10];
 
 		if ( order.equals("XYZ") ) {
 
@@ -24,7 +24,6 @@ import java.util.List;
 import org.parallax3d.parallax.graphics.core.AbstractGeometry;
 import org.parallax3d.parallax.graphics.core.GeometryObject;
 import org.parallax3d.parallax.system.ThreejsObject;
-import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 
 /**
  * This class implements three-dimensional region which is visible on the screen.
@@ -94,11 +93,11 @@ public class Frustum
 
 	public Frustum setFromMatrix( Matrix4 m )
 	{
-		Float32Array me = m.getArray();
-		double me0 = me.get(0), me1 = me.get(1), me2 = me.get(2), me3 = me.get(3);
-		double me4 = me.get(4), me5 = me.get(5), me6 = me.get(6), me7 = me.get(7);
-		double me8 = me.get(8), me9 = me.get(9), me10 = me.get(10), me11 = me.get(11);
-		double me12 = me.get(12), me13 = me.get(13), me14 = me.get(14), me15 = me.get(15);
+		float[] me = m.getArray();
+		double me0 = me[0], me1 = me[1], me2 = me[2], me3 = me[3];
+		double me4 = me[4], me5 = me[5], me6 = me[6], me7 = me[7];
+		double me8 = me[8], me9 = me[9], me10 = me[10], me11 = me[11];
+		double me12 = me[12], me13 = me[13], me14 = me[14], me15 = me[15];
 
 		this.planes.get(0).setComponents( me3 - me0, me7 - me4, me11 - me8, me15 - me12 ).normalize();
 		this.planes.get(1).setComponents( me3 + me0, me7 + me4, me11 + me8, me15 + me12 ).normalize();
@@ -117,10 +116,19 @@ public class Frustum
 		if ( geometry.getBoundingSphere() == null )
 			geometry.computeBoundingSphere();
 
-		_sphere.copy( geometry.getBoundingSphere() );
-		_sphere.apply( object.getMatrixWorld() );
+		return this.isIntersectsObject( object, _sphere );
+	}
+
+	/**
+	 * Tests the bounding sphere of the object, which has to be computed already,
+	 * using the given temporary sphere. Can be called from several threads.
+	 */
+	public boolean isIntersectsObject( GeometryObject object, Sphere sphere )
+	{
+		sphere.copy( object.getGeometry().getBoundingSphere() );
+		sphere.apply( object.getMatrixWorld() );
 
-		return this.isIntersectsSphere( _sphere );
+		return this.isIntersectsSphere( sphere );
 	}
 
 	public boolean isIntersectsSphere( Sphere sphere )
@@ -40,7 +40,7 @@ import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 @ThreejsObject("THREE.Matrix3")
 public class Matrix3
 {
-	private Float32Array elements;
+	private float[] elements;
 
 	// Temporary variables
 	static Vector3 _v1 = new Vector3();
@@ -50,7 +50,7 @@ public class Matrix3
 	 */
 	public Matrix3()
 	{
-		this.elements = Float32Array.create(9);
+		this.elements = new float[9];
 		identity();
 	}
 
@@ -62,11 +62,11 @@ public class Matrix3
 
 	public Matrix3 set( double n11, double n12, double n13, double n21, double n22, double n23, double n31, double n32, double n33 )
 	{
-		Float32Array te = this.getArray();
+		float[] te = this.elements;
 
-		te.set(0, n11); te.set(3, n12); te.set(6, n13);
-		te.set(1, n21); te.set(4, n22); te.set(7, n23);
-		te.set(2, n31); te.set(5, n32); te.set(8, n33);
+		te[0] = (float) n11; te[3] = (float) n12; te[6] = (float) n13;
+		te[1] = (float) n21; te[4] = (float) n22; te[7] = (float) n23;
+		te[2] = (float) n31; te[5] = (float) n32; te[8] = (float) n33;
 
 		return this;
 	}
@@ -83,7 +83,7 @@ public class Matrix3
 	 *
 	 * @return the Array
 	 */
-	public Float32Array getArray()
+	public float[] getArray()
 	{
 		return elements;
 	}
@@ -101,12 +101,12 @@ public class Matrix3
 
 	public Matrix3 copy( Matrix3 m )
 	{
-		Float32Array me = m.getArray();
+		float[] me = m.getArray();
 
 		this.set(
-				me.get(0), me.get(3), me.get(6),
-				me.get(1), me.get(4), me.get(7),
-				me.get(2), me.get(5), me.get(8)
+				me[0], me[3], me[6],
+				me[1], me[4], me[7],
+				me[2], me[5], me[8]
 		);
 
 		return this;
@@ -139,22 +139,22 @@ public class Matrix3
 
 	public Matrix3 multiply( double s )
 	{
-		Float32Array te = this.getArray();
+		float[] te = this.elements;
 
-		te.set(0, te.get(0) * s); te.set(3, te.get(3) * s); te.set(6, te.get(6) * s);
-		te.set(1, te.get(1) * s); te.set(4, te.get(4) * s); te.set(7, te.get(7) * s);
-		te.set(2, te.get(2) * s); te.set(5, te.get(5) * s); te.set(8, te.get(8) * s);
+		te[0] = (float) (te[0] * s); te[3] = (float) (te[3] * s); te[6] = (float) (te[6] * s);
+		te[1] = (float) (te[1] * s); te[4] = (float) (te[4] * s); te[7] = (float) (te[7] * s);
+		te[2] = (float) (te[2] * s); te[5] = (float) (te[5] * s); te[8] = (float) (te[8] * s);
 
 		return this;
 	}
 
 	public double determinant()
 	{
-		Float32Array te = this.getArray();
+		float[] te = this.elements;
 
-		double a = te.get(0), b = te.get(1), c = te.get(2),
-				d = te.get(3), e = te.get(4), f = te.get(5),
-				g = te.get(6), h = te.get(7), i = te.get(8);
+		double a = te[0], b = te[1], c = te[2],
+				d = te[3], e = te[4], f = te[5],
+				g = te[6], h = te[7], i = te[8];
 
 		return a*e*i - a*f*h - b*d*i + b*f*g + c*d*h - c*e*g;
 	}
@@ -169,20 +169,24 @@ public class Matrix3
 	{
 		// input: THREE.Matrix4
 		// ( based on http://code.google.com/p/webgl-mjs/ )
-		Float32Array me = m.getArray();
-		Float32Array te = this.getArray();
+		float[] me = m.getArray();
+		float[] te = this.elements;
 
-		te.set(0, me.get(10) * me.get(5) - me.get(6) * me.get(9));
-		te.set(1, -me.get(10) * me.get(1) + me.get(2) * me.get(9));
-		te.set(2,  me.get(6) * me.get(1) - me.get(2) * me.get(5));
-		te.set(3, -me.get(10) * me.get(4) + me.get(6) * me.get(8));
-		te.set(4, me.get(10) * me.get(0) - me.get(2) * me.get(8));
-		te.set(5, -me.get(6) * me.get(0) + me.get(2) * me.get(4));
-		te.set(6, me.get(9) * me.get(4) - me.get(5) * me.get(8));
-		te.set(7, -me.get(9) * me.get(0) + me.get(1) * me.get(8));
-		te.set(8, me.get(5) * me.get(0) - me.get(1) * me.get(4));
+		double n11 = me[0], n12 = me[4], n13 = me[8];
+		double n21 = me[1], n22 = me[5], n23 = me[9];
+		double n31 = me[2], n32 = me[6], n33 = me[10];
 
-		double det = me.get(0) * te.get(0) + me.get(1) * te.get(3) + me.get(2) * te.get(6);
+		te[0] = (float) (n33 * n22 - n32 * n23);
+		te[1] = (float) (-n33 * n21 + n31 * n23);
+		te[2] = (float) (n32 * n21 - n31 * n22);
+		te[3] = (float) (-n33 * n12 + n32 * n13);
+		te[4] = (float) (n33 * n11 - n31 * n13);
+		te[5] = (float) (-n32 * n11 + n31 * n12);
+		te[6] = (float) (n23 * n12 - n22 * n13);
+		te[7] = (float) (-n23 * n11 + n21 * n13);
+		te[8] = (float) (n22 * n11 - n21 * n12);
+
+		double det = n11 * te[0] + n21 * te[3] + n31 * te[6];
 
 		// no inverse
 
@@ -205,20 +209,20 @@ public class Matrix3
 	 */
 	public Matrix3 transpose()
 	{
-		double tmp;
-		Float32Array m = this.getArray();
+		float tmp;
+		float[] m = this.elements;
 
-		tmp = m.get(1);
-		m.set(1, m.get(3));
-		m.set(3, tmp);
+		tmp = m[1];
+		m[1] = m[3];
+		m[3] = tmp;
 
-		tmp = m.get(2);
-		m.set(2, m.get(6));
-		m.set(6, tmp);
+		tmp = m[2];
+		m[2] = m[6];
+		m[6] = tmp;
 
-		tmp = m.get(5);
-		m.set(5, m.get(7));
-		m.set(7, tmp);
+		tmp = m[5];
+		m[5] = m[7];
+		m[7] = tmp;
 
 		return this;
 	}
@@ -244,17 +248,17 @@ public class Matrix3
 	public Float32Array transposeIntoArray()
 	{
 		Float32Array r = Float32Array.create(9);
-		Float32Array m = this.getArray();
-
-		r.set(0, m.get(0));
-		r.set(1, m.get(3));
-		r.set(2, m.get(6));
-		r.set(3, m.get(1));
-		r.set(4, m.get(4));
-		r.set(5, m.get(7));
-		r.set(6, m.get(2));
-		r.set(7, m.get(5));
-		r.set(8, m.get(8));
+		float[] m = this.elements;
+
+		r.set(0, m[0]);
+		r.set(1, m[3]);
+		r.set(2, m[6]);
+		r.set(3, m[1]);
+		r.set(4, m[4]);
+		r.set(5, m[7]);
+		r.set(6, m[2]);
+		r.set(7, m[5]);
+		r.set(8, m[8]);
 
 		return r;
 	}
@@ -267,21 +271,21 @@ public class Matrix3
 	{
 		String retval = "[";
 
-		for(int i = 0; i < this.getArray().getLength(); i++)
-			retval += this.getArray().get(i) + ", ";
+		for(int i = 0; i < this.elements.length; i++)
+			retval += this.elements[i] + ", ";
 
 		return retval + "]";
 	}
 
 	public Matrix3 clone()
 	{
-		Float32Array te = this.getArray();
+		float[] te = this.elements;
 
 		return new Matrix3(
 
-				te.get(0), te.get(3), te.get(6),
-				te.get(1), te.get(4), te.get(7),
-				te.get(2), te.get(5), te.get(8)
+				te[0], te[3], te[6],
+				te[1], te[4], te[7],
+				te[2], te[5], te[8]
 		);
 	}
 }
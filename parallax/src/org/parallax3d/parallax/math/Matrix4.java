@@ -42,7 +42,7 @@ import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 public class Matrix4
 {
 
-	private Float32Array elements;
+	private float[] elements;
 
 	// Temporary variables
 	static Vector3 _x = new Vector3();
@@ -64,7 +64,7 @@ public class Matrix4
 	 */
 	public Matrix4()
 	{
-		this.elements = Float32Array.create(16);
+		this.elements = new float[16];
 		identity();
 	}
 
@@ -85,7 +85,7 @@ public class Matrix4
 				   double n31, double n32, double n33, double n34,
 				   double n41, double n42, double n43, double n44)
 	{
-		this.elements = Float32Array.create(16);
+		this.elements = new float[16];
 		set(
 				n11, n12, n13, n14,
 				n21, n22, n23, n24,
@@ -108,7 +108,7 @@ public class Matrix4
 	 *
 	 * @return the Array
 	 */
-	public Float32Array getArray()
+	public float[] getArray()
 	{
 		return elements;
 	}
@@ -132,25 +132,25 @@ public class Matrix4
 			double n31, double n32, double n33, double n34,
 			double n41, double n42, double n43, double n44)
 	{
-		this.getArray().set(0, n11);
-		this.getArray().set(1, n21);
-		this.getArray().set(2, n31);
-		this.getArray().set(3, n41);
-
-		this.getArray().set(4, n12);
-		this.getArray().set(5, n22);
-		this.getArray().set(6, n32);
-		this.getArray().set(7, n42);
-
-		this.getArray().set(8, n13);
-		this.getArray().set(9, n23);
-		this.getArray().set(10, n33);
-		this.getArray().set(11, n43);
-
-		this.getArray().set(12, n14);
-		this.getArray().set(13, n24);
-		this.getArray().set(14, n34);
-		this.getArray().set(15, n44);
+		this.elements[0] = (float) n11;
+		this.elements[1] = (float) n21;
+		this.elements[2] = (float) n31;
+		this.elements[3] = (float) n41;
+
+		this.elements[4] = (float) n12;
+		this.elements[5] = (float) n22;
+		this.elements[6] = (float) n32;
+		this.elements[7] = (float) n42;
+
+		this.elements[8] = (float) n13;
+		this.elements[9] = (float) n23;
+		this.elements[10] = (float) n33;
+		this.elements[11] = (float) n43;
+
+		this.elements[12] = (float) n14;
+		this.elements[13] = (float) n24;
+		this.elements[14] = (float) n34;
+		this.elements[15] = (float) n44;
 
 		return this;
 	}
@@ -186,23 +186,23 @@ public class Matrix4
 	 */
 	public Matrix4 copy(Matrix4 m)
 	{
-		Float32Array me = m.getArray();
+		float[] me = m.getArray();
 		return set(
-				me.get(0), me.get(4), me.get(8),  me.get(12),
-				me.get(1), me.get(5), me.get(9),  me.get(13),
-				me.get(2), me.get(6), me.get(10), me.get(14),
-				me.get(3), me.get(7), me.get(11), me.get(15)
+				me[0], me[4], me[8],  me[12],
+				me[1], me[5], me[9],  me[13],
+				me[2], me[6], me[10], me[14],
+				me[3], me[7], me[11], me[15]
 		);
 	}
 
 	public Matrix4 copyPosition( Matrix4 m ) {
 
-		Float32Array te = this.getArray();
-		Float32Array me = m.getArray();
+		float[] te = this.elements;
+		float[] me = m.getArray();
 
-		te.set( 12 , me.get( 12 ));
-		te.set( 13 , me.get( 13 ));
-		te.set( 14 , me.get( 14 ));
+		te[12] = me[12];
+		te[13] = me[13];
+		te[14] = me[14];
 
 		return this;
 	}
@@ -215,32 +215,35 @@ public class Matrix4
 	 */
 	public Matrix4 extractRotation(Matrix4 m)
 	{
-		Float32Array me = m.getArray();
+		float[] me = m.getArray();
 
-		Vector3 v1 = new Vector3();
+		// no shared temporaries, as world matrices may be updated in parallel
+		double m11 = me[0], m21 = me[1], m31 = me[2];
+		double m12 = me[4], m22 = me[5], m32 = me[6];
+		double m13 = me[8], m23 = me[9], m33 = me[10];
 
-		double scaleX = 1.0 / v1.set(me.get(0), me.get(1), me.get(2)).length();
-		double scaleY = 1.0 / v1.set(me.get(4), me.get(5), me.get(6)).length();
-		double scaleZ = 1.0 / v1.set(me.get(8), me.get(9), me.get(10)).length();
+		double scaleX = 1.0 / Math.sqrt(m11 * m11 + m21 * m21 + m31 * m31);
+		double scaleY = 1.0 / Math.sqrt(m12 * m12 + m22 * m22 + m32 * m32);
+		double scaleZ = 1.0 / Math.sqrt(m13 * m13 + m23 * m23 + m33 * m33);
 
-		this.getArray().set(0, me.get(0) * scaleX);
-		this.getArray().set(1, me.get(1) * scaleX);
-		this.getArray().set(2, me.get(2) * scaleX);
+		this.elements[0] = (float) (me[0] * scaleX);
+		this.elements[1] = (float) (me[1] * scaleX);
+		this.elements[2] = (float) (me[2] * scaleX);
 
-		this.getArray().set(4, me.get(4) * scaleY);
-		this.getArray().set(5, me.get(5) * scaleY);
-		this.getArray().set(6, me.get(6) * scaleY);
+		this.elements[4] = (float) (me[4] * scaleY);
+		this.elements[5] = (float) (me[5] * scaleY);
+		this.elements[6] = (float) (me[6] * scaleY);
 
-		this.getArray().set(8, me.get(8) * scaleZ);
-		this.getArray().set(9, me.get(9) * scaleZ);
-		this.getArray().set(10, me.get(10) * scaleZ);
+		this.elements[8] = (float) (me[8] * scaleZ);
+		this.elements[9] = (float) (me[9] * scaleZ);
+		this.elements[10] = (float) (me[10] * scaleZ);
 
 		return this;
 	}
 
 	public Matrix4 makeRotationFromEuler( Euler euler ) {
 
-		Float32Array te = this.getArray();
+		float[] te = this.elements;
 
 		double x = euler.getX(), y = euler.getY(), z = euler.getZ();
 		double a = Math.cos( x ), b = Math.sin( x );
@@ -251,117 +254,117 @@ public class Matrix4
 
 			double ae = a * e, af = a * f, be = b * e, bf = b * f;
 
-			te.set(0, c * e);
-			te.set(4, - c * f);
-			te.set(8, d);
+			te[0] = (float) (c * e);
+			te[4] = (float) (- c * f);
+			te[8] = (float) d;
 
-			te.set(1, af + be * d);
-			te.set(5, ae - bf * d);
-			te.set(9, - b * c);
+			te[1] = (float) (af + be * d);
+			te[5] = (float) (ae - bf * d);
+			te[9] = (float) (- b * c);
 
-			te.set(2, bf - ae * d);
-			te.set(6, be + af * d);
-			te.set(10, a * c);
+			te[2] = (float) (bf - ae * d);
+			te[6] = (float) (be + af * d);
+			te[10] = (float) (a * c);
 
 		} else if ( euler.getOrder().equals("YXZ") ) {
 
 			double ce = c * e, cf = c * f, de = d * e, df = d * f;
 
-			te.set(0, ce + df * b);
-			te.set(4, de * b - cf);
-			te.set(8, a * d);
+			te[0] = (float) (ce + df * b);
+			te[4] = (float) (de * b - cf);
+			te[8] = (float) (a * d);
 
-			te.set(1, a * f);
-			te.set(5, a * e);
-			te.set(9, - b);
+			te[1] = (float) (a * f);
+			te[5] = (float) (a * e);
+			te[9] = (float) (- b);
 
-			te.set(2, cf * b - de);
-			te.set(6, df + ce * b);
-			te.set(10, a * c);
+			te[2] = (float) (cf * b - de);
+			te[6] = (float) (df + ce * b);
+			te[10] = (float) (a * c);
 
 		} else if ( euler.getOrder().equals("ZXY") ) {
 
 			double ce = c * e, cf = c * f, de = d * e, df = d * f;
 
-			te.set(0, ce - df * b);
-			te.set(4, - a * f);
-			te.set(8, de + cf * b);
+			te[0] = (float) (ce - df * b);
+			te[4] = (float) (- a * f);
+			te[8] = (float) (de + cf * b);
 
-			te.set(1, cf + de * b);
-			te.set(5, a * e);
-			te.set(9, df - ce * b);
+			te[1] = (float) (cf + de * b);
+			te[5] = (float) (a * e);
+			te[9] = (float) (df - ce * b);
 
-			te.set(2, - a * d);
-			te.set(6, b);
-			te.set(10, a * c);
+			te[2] = (float) (- a * d);
+			te[6] = (float) b;
+			te[10] = (float) (a * c);
 
 		} else if ( euler.getOrder().equals("ZYX") ) {
 
 			double ae = a * e, af = a * f, be = b * e, bf = b * f;
 
-			te.set(0, c * e);
-			te.set(4, be * d - af);
-			te.set(8, ae * d + bf);
+			te[0] = (float) (c * e);
+			te[4] = (float) (be * d - af);
+			te[8] = (float) (ae * d + bf);
 
-			te.set(1, c * f);
-			te.set(5, bf * d + ae);
-			te.set(9, af * d - be);
+			te[1] = (float) (c * f);
+			te[5] = (float) (bf * d + ae);
+			te[9] = (float) (af * d - be);
 
-			te.set(2, - d);
-			te.set(6, b * c);
-			te.set(10, a * c);
+			te[2] = (float) (- d);
+			te[6] = (float) (b * c);
+			te[10] = (float) (a * c);
 
 		} else if ( euler.getOrder().equals("YZX") ) {
 
 			double ac = a * c, ad = a * d, bc = b * c, bd = b * d;
 
-			te.set(0, c * e);
-			te.set(4, bd - ac * f);
-			te.set(8, bc * f + ad);
+			te[0] = (float) (c * e);
+			te[4] = (float) (bd - ac * f);
+			te[8] = (float) (bc * f + ad);
 
-			te.set(1, f);
-			te.set(5, a * e);
-			te.set(9, - b * e);
+			te[1] = (float) f;
+			te[5] = (float) (a * e);
+			te[9] = (float) (- b * e);
 
-			te.set(2, - d * e);
-			te.set(6, ad * f + bc);
-			te.set(10, ac - bd * f);
+			te[2] = (float) (- d * e);
+			te[6] = (float) (ad * f + bc);
+			te[10] = (float) (ac - bd * f);
 
 		} else if ( euler.getOrder().equals("XZY") ) {
 
 			double ac = a * c, ad = a * d, bc = b * c, bd = b * d;
 
-			te.set(0, c * e);
-			te.set(4, - f);
-			te.set(8, d * e);
+			te[0] = (float) (c * e);
+			te[4] = (float) (- f);
+			te[8] = (float) (d * e);
 
-			te.set(1, ac * f + bd);
-			te.set(5, a * e);
-			te.set(9, ad * f - bc);
+			te[1] = (float) (ac * f + bd);
+			te[5] = (float) (a * e);
+			te[9] = (float) (ad * f - bc);
 
-			te.set(2, bc * f - ad);
-			te.set(6, b * e);
-			te.set(10, bd * f + ac);
+			te[2] = (float) (bc * f - ad);
+			te[6] = (float) (b * e);
+			te[10] = (float) (bd * f + ac);
 
 		}
 
 		// last column
-		te.set(3, 0);
-		te.set(7, 0);
-		te.set(11, 0);
+		te[3] = 0;
+		te[7] = 0;
+		te[11] = 0;
 
 		// bottom row
-		te.set(12, 0);
-		te.set(13, 0);
-		te.set(14, 0);
-		te.set(15, 1.0);
+		te[12] = 0;
+		te[13] = 0;
+		te[14] = 0;
+		te[15] = 1.0f;
 
 		return this;
 	}
 
 	public Matrix4 makeRotationFromQuaternion( Quaternion q ) {
 
-		Float32Array te = this.elements;
+		float[] te = this.elements;
 
 		double x = q.getX(), y = q.getY(), z = q.getZ(), w = q.getW();
 		double x2 = x + x, y2 = y + y, z2 = z + z;
@@ -369,28 +372,28 @@ public class Matrix4
 		double yy = y * y2, yz = y * z2, zz = z * z2;
 		double wx = w * x2, wy = w * y2, wz = w * z2;
 
-		te.set(0, 1.0 - ( yy + zz ));
-		te.set(4, xy - wz);
-		te.set(8, xz + wy);
+		te[0] = (float) (1.0 - ( yy + zz ));
+		te[4] = (float) (xy - wz);
+		te[8] = (float) (xz + wy);
 
-		te.set(1, xy + wz);
-		te.set(5, 1.0 - ( xx + zz ));
-		te.set(9, yz - wx);
+		te[1] = (float) (xy + wz);
+		te[5] = (float) (1.0 - ( xx + zz ));
+		te[9] = (float) (yz - wx);
 
-		te.set(2, xz - wy);
-		te.set(6, yz + wx);
-		te.set(10, 1.0 - ( xx + yy ));
+		te[2] = (float) (xz - wy);
+		te[6] = (float) (yz + wx);
+		te[10] = (float) (1.0 - ( xx + yy ));
 
 		// last column
-		te.set(3, 0);
-		te.set(7, 0);
-		te.set(11, 0);
+		te[3] = 0;
+		te[7] = 0;
+		te[11] = 0;
 
 		// bottom row
-		te.set(12, 0);
-		te.set(13, 0);
-		te.set(14, 0);
-		te.set(15, 1.0);
+		te[12] = 0;
+		te[13] = 0;
+		te[14] = 0;
+		te[15] = 1.0f;
 
 		return this;
 
@@ -407,7 +410,7 @@ public class Matrix4
 	 */
 	public Matrix4 lookAt(Vector3 eye, Vector3 target, Vector3 up)
 	{
-		Float32Array te = this.elements;
+		float[] te = this.elements;
 
 		_z.sub( eye, target ).normalize();
 
@@ -429,9 +432,9 @@ public class Matrix4
 		_y.cross( _z, _x );
 
 
-		te.set(0,  _x.getX()); te.set(4,  _y.getX()); te.set(8,  _z.getX());
-		te.set(1,  _x.getY()); te.set(5,  _y.getY()); te.set(9,  _z.getY());
-		te.set(2,  _x.getZ()); te.set(6,  _y.getZ()); te.set(10,  _z.getZ());
+		te[0] = (float) _x.getX(); te[4] = (float) _y.getX(); te[8] = (float) _z.getX();
+		te[1] = (float) _x.getY(); te[5] = (float) _y.getY(); te[9] = (float) _z.getY();
+		te[2] = (float) _x.getZ(); te[6] = (float) _y.getZ(); te[10] = (float) _z.getZ();
 
 		return this;
 
@@ -448,38 +451,38 @@ public class Matrix4
 	 */
 	public Matrix4 multiply(Matrix4 m1, Matrix4 m2)
 	{
-		Float32Array ae = m1.getArray();
-		Float32Array be = m2.getArray();
-
-		double a11 = ae.get(0), a12 = ae.get(4), a13 = ae.get(8), a14 = ae.get(12);
-		double a21 = ae.get(1), a22 = ae.get(5), a23 = ae.get(9), a24 = ae.get(13);
-		double a31 = ae.get(2), a32 = ae.get(6), a33 = ae.get(10), a34 = ae.get(14);
-		double a41 = ae.get(3), a42 = ae.get(7), a43 = ae.get(11), a44 = ae.get(15);
-
-		double b11 = be.get(0), b12 = be.get(4), b13 = be.get(8), b14 = be.get(12);
-		double b21 = be.get(1), b22 = be.get(5), b23 = be.get(9), b24 = be.get(13);
-		double b31 = be.get(2), b32 = be.get(6), b33 = be.get(10), b34 = be.get(14);
-		double b41 = be.get(3), b42 = be.get(7), b43 = be.get(11), b44 = be.get(15);
-
-		this.getArray().set(0, (a11 * b11 + a12 * b21 + a13 * b31 + a14 * b41));
-		this.getArray().set(4, (a11 * b12 + a12 * b22 + a13 * b32 + a14 * b42));
-		this.getArray().set(8, (a11 * b13 + a12 * b23 + a13 * b33 + a14 * b43));
-		this.getArray().set(12, (a11 * b14 + a12 * b24 + a13 * b34 + a14 * b44));
-
-		this.getArray().set(1, (a21 * b11 + a22 * b21 + a23 * b31 + a24 * b41));
-		this.getArray().set(5, (a21 * b12 + a22 * b22 + a23 * b32 + a24 * b42));
-		this.getArray().set(9, (a21 * b13 + a22 * b23 + a23 * b33 + a24 * b43));
-		this.getArray().set(13, (a21 * b14 + a22 * b24 + a23 * b34 + a24 * b44));
-
-		this.getArray().set(2, (a31 * b11 + a32 * b21 + a33 * b31 + a34 * b41));
-		this.getArray().set(6, (a31 * b12 + a32 * b22 + a33 * b32 + a34 * b42));
-		this.getArray().set(10, (a31 * b13 + a32 * b23 + a33 * b33 + a34 * b43));
-		this.getArray().set(14, (a31 * b14 + a32 * b24 + a33 * b34 + a34 * b44));
-
-		this.getArray().set(3, (a41 * b11 + a42 * b21 + a43 * b31 + a44 * b41));
-		this.getArray().set(7, (a41 * b12 + a42 * b22 + a43 * b32 + a44 * b42));
-		this.getArray().set(11, (a41 * b13 + a42 * b23 + a43 * b33 + a44 * b43));
-		this.getArray().set(15, (a41 * b14 + a42 * b24 + a43 * b34 + a44 * b44));
+		float[] ae = m1.getArray();
+		float[] be = m2.getArray();
+
+		double a11 = ae[0], a12 = ae[4], a13 = ae[8], a14 = ae[12];
+		double a21 = ae[1], a22 = ae[5], a23 = ae[9], a24 = ae[13];
+		double a31 = ae[2], a32 = ae[6], a33 = ae[10], a34 = ae[14];
+		double a41 = ae[3], a42 = ae[7], a43 = ae[11], a44 = ae[15];
+
+		double b11 = be[0], b12 = be[4], b13 = be[8], b14 = be[12];
+		double b21 = be[1], b22 = be[5], b23 = be[9], b24 = be[13];
+		double b31 = be[2], b32 = be[6], b33 = be[10], b34 = be[14];
+		double b41 = be[3], b42 = be[7], b43 = be[11], b44 = be[15];
+
+		this.elements[0] = (float) (a11 * b11 + a12 * b21 + a13 * b31 + a14 * b41);
+		this.elements[4] = (float) (a11 * b12 + a12 * b22 + a13 * b32 + a14 * b42);
+		this.elements[8] = (float) (a11 * b13 + a12 * b23 + a13 * b33 + a14 * b43);
+		this.elements[12] = (float) (a11 * b14 + a12 * b24 + a13 * b34 + a14 * b44);
+
+		this.elements[1] = (float) (a21 * b11 + a22 * b21 + a23 * b31 + a24 * b41);
+		this.elements[5] = (float) (a21 * b12 + a22 * b22 + a23 * b32 + a24 * b42);
+		this.elements[9] = (float) (a21 * b13 + a22 * b23 + a23 * b33 + a24 * b43);
+		this.elements[13] = (float) (a21 * b14 + a22 * b24 + a23 * b34 + a24 * b44);
+
+		this.elements[2] = (float) (a31 * b11 + a32 * b21 + a33 * b31 + a34 * b41);
+		this.elements[6] = (float) (a31 * b12 + a32 * b22 + a33 * b32 + a34 * b42);
+		this.elements[10] = (float) (a31 * b13 + a32 * b23 + a33 * b33 + a34 * b43);
+		this.elements[14] = (float) (a31 * b14 + a32 * b24 + a33 * b34 + a34 * b44);
+
+		this.elements[3] = (float) (a41 * b11 + a42 * b21 + a43 * b31 + a44 * b41);
+		this.elements[7] = (float) (a41 * b12 + a42 * b22 + a43 * b32 + a44 * b42);
+		this.elements[11] = (float) (a41 * b13 + a42 * b23 + a43 * b33 + a44 * b43);
+		this.elements[15] = (float) (a41 * b14 + a42 * b24 + a43 * b34 + a44 * b44);
 
 		return this;
 	}
@@ -508,22 +511,22 @@ public class Matrix4
 	 */
 	public Matrix4 multiply(double s)
 	{
-		this.getArray().set(0, (this.getArray().get(0) * s));
-		this.getArray().set(4, (this.getArray().get(4) * s));
-		this.getArray().set(8, (this.getArray().get(8) * s));
-		this.getArray().set(12, (this.getArray().get(12) * s));
-		this.getArray().set(1, (this.getArray().get(1) * s));
-		this.getArray().set(5, (this.getArray().get(5) * s));
-		this.getArray().set(9, (this.getArray().get(9) * s));
-		this.getArray().set(13, (this.getArray().get(13) * s));
-		this.getArray().set(2, (this.getArray().get(2) * s));
-		this.getArray().set(6, (this.getArray().get(6) * s));
-		this.getArray().set(10, (this.getArray().get(10) * s));
-		this.getArray().set(14, (this.getArray().get(14) * s));
-		this.getArray().set(3, (this.getArray().get(3) * s));
-		this.getArray().set(7, (this.getArray().get(7) * s));
-		this.getArray().set(11, (this.getArray().get(11) * s));
-		this.getArray().set(15, (this.getArray().get(15) * s));
+		this.elements[0] = (float) (this.elements[0] * s);
+		this.elements[4] = (float) (this.elements[4] * s);
+		this.elements[8] = (float) (this.elements[8] * s);
+		this.elements[12] = (float) (this.elements[12] * s);
+		this.elements[1] = (float) (this.elements[1] * s);
+		this.elements[5] = (float) (this.elements[5] * s);
+		this.elements[9] = (float) (this.elements[9] * s);
+		this.elements[13] = (float) (this.elements[13] * s);
+		this.elements[2] = (float) (this.elements[2] * s);
+		this.elements[6] = (float) (this.elements[6] * s);
+		this.elements[10] = (float) (this.elements[10] * s);
+		this.elements[14] = (float) (this.elements[14] * s);
+		this.elements[3] = (float) (this.elements[3] * s);
+		this.elements[7] = (float) (this.elements[7] * s);
+		this.elements[11] = (float) (this.elements[11] * s);
+		this.elements[15] = (float) (this.elements[15] * s);
 
 		return this;
 	}
@@ -559,10 +562,10 @@ public class Matrix4
 	 */
 	public double determinant()
 	{
-		double n11 = this.getArray().get(0), n12 = this.getArray().get(4), n13 = this.getArray().get(8),  n14 = this.getArray().get(12);
-		double n21 = this.getArray().get(1), n22 = this.getArray().get(5), n23 = this.getArray().get(9),  n24 = this.getArray().get(13);
-		double n31 = this.getArray().get(2), n32 = this.getArray().get(6), n33 = this.getArray().get(10), n34 = this.getArray().get(14);
-		double n41 = this.getArray().get(3), n42 = this.getArray().get(7), n43 = this.getArray().get(11), n44 = this.getArray().get(15);
+		double n11 = this.elements[0], n12 = this.elements[4], n13 = this.elements[8],  n14 = this.elements[12];
+		double n21 = this.elements[1], n22 = this.elements[5], n23 = this.elements[9],  n24 = this.elements[13];
+		double n31 = this.elements[2], n32 = this.elements[6], n33 = this.elements[10], n34 = this.elements[14];
+		double n41 = this.elements[3], n42 = this.elements[7], n43 = this.elements[11], n44 = this.elements[15];
 
 		//TODO: make this more efficient
 		//( based on http://www.euclideanspace.com/maths/algebra/matrix/functions/inverse/fourD/index.htm )
@@ -612,16 +615,16 @@ public class Matrix4
 	 */
 	public Matrix4 transpose()
 	{
-		Float32Array te = this.getArray();
-		double tmp;
+		float[] te = this.elements;
+		float tmp;
 
-		tmp = te.get(1); te.set(1, te.get(4)); te.set(4, tmp);
-		tmp = te.get(2); te.set(2, te.get(8)); te.set(8, tmp);
-		tmp = te.get(6); te.set(6, te.get(9)); te.set(9, tmp);
+		tmp = te[1]; te[1] = te[4]; te[4] = tmp;
+		tmp = te[2]; te[2] = te[8]; te[8] = tmp;
+		tmp = te[6]; te[6] = te[9]; te[9] = tmp;
 
-		tmp = te.get(3); te.set(3, te.get(12)); te.set(12, tmp);
-		tmp = te.get(7); te.set(7, te.get(13)); te.set(13, tmp);
-		tmp = te.get(11); te.set(11, te.get(14)); te.set(14, tmp);
+		tmp = te[3]; te[3] = te[12]; te[12] = tmp;
+		tmp = te[7]; te[7] = te[13]; te[13] = tmp;
+		tmp = te[11]; te[11] = te[14]; te[14] = tmp;
 
 		return this;
 	}
@@ -664,25 +667,25 @@ public class Matrix4
 	 */
 	public Float32Array flattenToArrayOffset(Float32Array flat, int offset)
 	{
-		flat.set(offset, this.getArray().get(0));
-		flat.set(offset + 1, this.getArray().get(1));
-		flat.set(offset + 2, this.getArray().get(2));
-		flat.set(offset + 3, this.getArray().get(3));
-
-		flat.set(offset + 4, this.getArray().get(4));
-		flat.set(offset + 5, this.getArray().get(5));
-		flat.set(offset + 6, this.getArray().get(6));
-		flat.set(offset + 7, this.getArray().get(7));
-
-		flat.set(offset + 8, this.getArray().get(8));
-		flat.set(offset + 9, this.getArray().get(9));
-		flat.set(offset + 10, this.getArray().get(10));
-		flat.set(offset + 11, this.getArray().get(11));
-
-		flat.set(offset + 12, this.getArray().get(12));
-		flat.set(offset + 13, this.getArray().get(13));
-		flat.set(offset + 14, this.getArray().get(14));
-		flat.set(offset + 15, this.getArray().get(15));
+		flat.set(offset, this.elements[0]);
+		flat.set(offset + 1, this.elements[1]);
+		flat.set(offset + 2, this.elements[2]);
+		flat.set(offset + 3, this.elements[3]);
+
+		flat.set(offset + 4, this.elements[4]);
+		flat.set(offset + 5, this.elements[5]);
+		flat.set(offset + 6, this.elements[6]);
+		flat.set(offset + 7, this.elements[7]);
+
+		flat.set(offset + 8, this.elements[8]);
+		flat.set(offset + 9, this.elements[9]);
+		flat.set(offset + 10, this.elements[10]);
+		flat.set(offset + 11, this.elements[11]);
+
+		flat.set(offset + 12, this.elements[12]);
+		flat.set(offset + 13, this.elements[13]);
+		flat.set(offset + 14, this.elements[14]);
+		flat.set(offset + 15, this.elements[15]);
 
 		return flat;
 	}
@@ -697,9 +700,9 @@ public class Matrix4
 	 */
 	public Matrix4 setPosition(Vector3 v)
 	{
-		this.getArray().set(12, v.getX());
-		this.getArray().set(13, v.getY());
-		this.getArray().set(14, v.getZ());
+		this.elements[12] = (float) v.getX();
+		this.elements[13] = (float) v.getY();
+		this.elements[14] = (float) v.getZ();
 
 		return this;
 	}
@@ -714,32 +717,32 @@ public class Matrix4
 	 */
 	public Matrix4 getInverse(Matrix4 m)
 	{
-		Float32Array te = this.getArray();
-		Float32Array me = m.getArray();
-
-		double n11 = me.get(0), n12 = me.get(4), n13 = me.get(8),  n14 = me.get(12);
-		double n21 = me.get(1), n22 = me.get(5), n23 = me.get(9),  n24 = me.get(13);
-		double n31 = me.get(2), n32 = me.get(6), n33 = me.get(10), n34 = me.get(14);
-		double n41 = me.get(3), n42 = me.get(7), n43 = me.get(11), n44 = me.get(15);
-
-		te.set(0,  n23 * n34 * n42 - n24 * n33 * n42 + n24 * n32 * n43 - n22 * n34 * n43 - n23 * n32 * n44 + n22 * n33 * n44);
-		te.set(4,  n14 * n33 * n42 - n13 * n34 * n42 - n14 * n32 * n43 + n12 * n34 * n43 + n13 * n32 * n44 - n12 * n33 * n44);
-		te.set(8,  n13 * n24 * n42 - n14 * n23 * n42 + n14 * n22 * n43 - n12 * n24 * n43 - n13 * n22 * n44 + n12 * n23 * n44);
-		te.set(12, n14 * n23 * n32 - n13 * n24 * n32 - n14 * n22 * n33 + n12 * n24 * n33 + n13 * n22 * n34 - n12 * n23 * n34);
-		te.set(1,  n24 * n33 * n41 - n23 * n34 * n41 - n24 * n31 * n43 + n21 * n34 * n43 + n23 * n31 * n44 - n21 * n33 * n44);
-		te.set(5,  n13 * n34 * n41 - n14 * n33 * n41 + n14 * n31 * n43 - n11 * n34 * n43 - n13 * n31 * n44 + n11 * n33 * n44);
-		te.set(9,  n14 * n23 * n41 - n13 * n24 * n41 - n14 * n21 * n43 + n11 * n24 * n43 + n13 * n21 * n44 - n11 * n23 * n44);
-		te.set(13, n13 * n24 * n31 - n14 * n23 * n31 + n14 * n21 * n33 - n11 * n24 * n33 - n13 * n21 * n34 + n11 * n23 * n34);
-		te.set(2,  n22 * n34 * n41 - n24 * n32 * n41 + n24 * n31 * n42 - n21 * n34 * n42 - n22 * n31 * n44 + n21 * n32 * n44);
-		te.set(6,  n14 * n32 * n41 - n12 * n34 * n41 - n14 * n31 * n42 + n11 * n34 * n42 + n12 * n31 * n44 - n11 * n32 * n44);
-		te.set(10, n12 * n24 * n41 - n14 * n22 * n41 + n14 * n21 * n42 - n11 * n24 * n42 - n12 * n21 * n44 + n11 * n22 * n44);
-		te.set(14, n14 * n22 * n31 - n12 * n24 * n31 - n14 * n21 * n32 + n11 * n24 * n32 + n12 * n21 * n34 - n11 * n22 * n34);
-		te.set(3,  n23 * n32 * n41 - n22 * n33 * n41 - n23 * n31 * n42 + n21 * n33 * n42 + n22 * n31 * n43 - n21 * n32 * n43);
-		te.set(7,  n12 * n33 * n41 - n13 * n32 * n41 + n13 * n31 * n42 - n11 * n33 * n42 - n12 * n31 * n43 + n11 * n32 * n43);
-		te.set(11, n13 * n22 * n41 - n12 * n23 * n41 - n13 * n21 * n42 + n11 * n23 * n42 + n12 * n21 * n43 - n11 * n22 * n43);
-		te.set(15, n12 * n23 * n31 - n13 * n22 * n31 + n13 * n21 * n32 - n11 * n23 * n32 - n12 * n21 * n33 + n11 * n22 * n33);
-
-		double det = n11 * te.get( 0 ) + n21 * te.get( 4 ) + n31 * te.get( 8 ) + n41 * te.get( 12 );
+		float[] te = this.elements;
+		float[] me = m.getArray();
+
+		double n11 = me[0], n12 = me[4], n13 = me[8],  n14 = me[12];
+		double n21 = me[1], n22 = me[5], n23 = me[9],  n24 = me[13];
+		double n31 = me[2], n32 = me[6], n33 = me[10], n34 = me[14];
+		double n41 = me[3], n42 = me[7], n43 = me[11], n44 = me[15];
+
+		te[0] = (float) (n23 * n34 * n42 - n24 * n33 * n42 + n24 * n32 * n43 - n22 * n34 * n43 - n23 * n32 * n44 + n22 * n33 * n44);
+		te[4] = (float) (n14 * n33 * n42 - n13 * n34 * n42 - n14 * n32 * n43 + n12 * n34 * n43 + n13 * n32 * n44 - n12 * n33 * n44);
+		te[8] = (float) (n13 * n24 * n42 - n14 * n23 * n42 + n14 * n22 * n43 - n12 * n24 * n43 - n13 * n22 * n44 + n12 * n23 * n44);
+		te[12] = (float) (n14 * n23 * n32 - n13 * n24 * n32 - n14 * n22 * n33 + n12 * n24 * n33 + n13 * n22 * n34 - n12 * n23 * n34);
+		te[1] = (float) (n24 * n33 * n41 - n23 * n34 * n41 - n24 * n31 * n43 + n21 * n34 * n43 + n23 * n31 * n44 - n21 * n33 * n44);
+		te[5] = (float) (n13 * n34 * n41 - n14 * n33 * n41 + n14 * n31 * n43 - n11 * n34 * n43 - n13 * n31 * n44 + n11 * n33 * n44);
+		te[9] = (float) (n14 * n23 * n41 - n13 * n24 * n41 - n14 * n21 * n43 + n11 * n24 * n43 + n13 * n21 * n44 - n11 * n23 * n44);
+		te[13] = (float) (n13 * n24 * n31 - n14 * n23 * n31 + n14 * n21 * n33 - n11 * n24 * n33 - n13 * n21 * n34 + n11 * n23 * n34);
+		te[2] = (float) (n22 * n34 * n41 - n24 * n32 * n41 + n24 * n31 * n42 - n21 * n34 * n42 - n22 * n31 * n44 + n21 * n32 * n44);
+		te[6] = (float) (n14 * n32 * n41 - n12 * n34 * n41 - n14 * n31 * n42 + n11 * n34 * n42 + n12 * n31 * n44 - n11 * n32 * n44);
+		te[10] = (float) (n12 * n24 * n41 - n14 * n22 * n41 + n14 * n21 * n42 - n11 * n24 * n42 - n12 * n21 * n44 + n11 * n22 * n44);
+		te[14] = (float) (n14 * n22 * n31 - n12 * n24 * n31 - n14 * n21 * n32 + n11 * n24 * n32 + n12 * n21 * n34 - n11 * n22 * n34);
+		te[3] = (float) (n23 * n32 * n41 - n22 * n33 * n41 - n23 * n31 * n42 + n21 * n33 * n42 + n22 * n31 * n43 - n21 * n32 * n43);
+		te[7] = (float) (n12 * n33 * n41 - n13 * n32 * n41 + n13 * n31 * n42 - n11 * n33 * n42 - n12 * n31 * n43 + n11 * n32 * n43);
+		te[11] = (float) (n13 * n22 * n41 - n12 * n23 * n41 - n13 * n21 * n42 + n11 * n23 * n42 + n12 * n21 * n43 - n11 * n22 * n43);
+		te[15] = (float) (n12 * n23 * n31 - n13 * n22 * n31 + n13 * n21 * n32 - n11 * n23 * n32 - n12 * n21 * n33 + n11 * n22 * n33);
+
+		double det = n11 * te[0] + n21 * te[4] + n31 * te[8] + n41 * te[12];
 
 		if ( det == 0 ) {
 
@@ -765,27 +768,33 @@ public class Matrix4
 	{
 		double x = v.x, y = v.y, z = v.z;
 
-		this.getArray().set(0,  (this.getArray().get(0)  * x));
-		this.getArray().set(1,  (this.getArray().get(1)  * x));
-		this.getArray().set(2,  (this.getArray().get(2)  * x));
-		this.getArray().set(3,  (this.getArray().get(3)  * x));
+		this.elements[0] = (float) (this.elements[0]  * x);
+		this.elements[1] = (float) (this.elements[1]  * x);
+		this.elements[2] = (float) (this.elements[2]  * x);
+		this.elements[3] = (float) (this.elements[3]  * x);
 
-		this.getArray().set(4,  (this.getArray().get(4)  * y));
-		this.getArray().set(5,  (this.getArray().get(5)  * y));
-		this.getArray().set(6,  (this.getArray().get(6)  * y));
-		this.getArray().set(7,  (this.getArray().get(7)  * y));
+		this.elements[4] = (float) (this.elements[4]  * y);
+		this.elements[5] = (float) (this.elements[5]  * y);
+		this.elements[6] = (float) (this.elements[6]  * y);
+		this.elements[7] = (float) (this.elements[7]  * y);
 
-		this.getArray().set(8,  (this.getArray().get(8)  * z));
-		this.getArray().set(9,  (this.getArray().get(9)  * z));
-		this.getArray().set(10, (this.getArray().get(10) * z));
-		this.getArray().set(11, (this.getArray().get(11) * z));
+		this.elements[8] = (float) (this.elements[8]  * z);
+		this.elements[9] = (float) (this.elements[9]  * z);
+		this.elements[10] = (float) (this.elements[10] * z);
+		this.elements[11] = (float) (this.elements[11] * z);
 	}
 
 	public double getMaxScaleOnAxis()
 	{
-		double scaleXSq = this.getArray().get(0) * this.getArray().get(0) + this.getArray().get(1) * this.getArray().get(1) + this.getArray().get(2) * this.getArray().get(2);
-		double scaleYSq = this.getArray().get(4) * this.getArray().get(4) + this.getArray().get(5) * this.getArray().get(5) + this.getArray().get(6) * this.getArray().get(6);
-		double scaleZSq = this.getArray().get(8) * this.getArray().get(8) + this.getArray().get(9)	* this.getArray().get(9) + this.getArray().get(10) * this.getArray().get(10);
+		float[] te = this.elements;
+
+		double n11 = te[0], n21 = te[1], n31 = te[2];
+		double n12 = te[4], n22 = te[5], n32 = te[6];
+		double n13 = te[8], n23 = te[9], n33 = te[10];
+
+		double scaleXSq = n11 * n11 + n21 * n21 + n31 * n31;
+		double scaleYSq = n12 * n12 + n22 * n22 + n32 * n32;
+		double scaleZSq = n13 * n13 + n23 * n23 + n33 * n33;
 
 		return Math.sqrt( Math.max( scaleXSq, Math.max( scaleYSq, scaleZSq ) ) );
 	}
@@ -932,11 +941,20 @@ public class Matrix4
 
 	public Matrix4 decompose(Vector3 position, Quaternion quaternion, Vector3 scale)
 	{
-		Float32Array te = this.elements;
+		return decompose( position, quaternion, scale, _matrix );
+	}
+
+	/**
+	 * Decomposes the matrix using the given temporary matrix instead of the shared one,
+	 * so it can be called from several threads.
+	 */
+	public Matrix4 decompose(Vector3 position, Quaternion quaternion, Vector3 scale, Matrix4 rotation)
+	{
+		float[] te = this.elements;
 
-		double sx = _vector.set( te.get( 0 ), te.get( 1 ), te.get( 2 ) ).length();
-		double sy = _vector.set( te.get( 4 ), te.get( 5 ), te.get( 6 ) ).length();
-		double sz = _vector.set( te.get( 8 ), te.get( 9 ), te.get( 10 ) ).length();
+		double sx = Math.sqrt( (double) te[0] * te[0] + (double) te[1] * te[1] + (double) te[2] * te[2] );
+		double sy = Math.sqrt( (double) te[4] * te[4] + (double) te[5] * te[5] + (double) te[6] * te[6] );
+		double sz = Math.sqrt( (double) te[8] * te[8] + (double) te[9] * te[9] + (double) te[10] * te[10] );
 
 		// if determine is negative, we need to invert one scale
 		double det = this.determinant();
@@ -944,31 +962,31 @@ public class Matrix4
 			sx = - sx;
 		}
 
-		position.x = te.get( 12 );
-		position.y = te.get( 13 );
-		position.z = te.get( 14 );
+		position.x = te[12];
+		position.y = te[13];
+		position.z = te[14];
 
 		// scale the rotation part
 
-		_matrix.elements.set( this.elements ); // at this point matrix is incomplete so we can't use .copy()
+		System.arraycopy( this.elements, 0, rotation.elements, 0, 16 ); // at this point matrix is incomplete so we can't use .copy()
 
 		double invSX = 1.0 / sx;
 		double invSY = 1.0 / sy;
 		double invSZ = 1.0 / sz;
 
-		_matrix.elements.set( 0, _matrix.elements.get( 0 ) * invSX );
-		_matrix.elements.set( 1, _matrix.elements.get( 1 ) * invSX );
-		_matrix.elements.set( 2, _matrix.elements.get( 2 ) * invSX );
+		rotation.elements[0] = (float) (rotation.elements[0] * invSX);
+		rotation.elements[1] = (float) (rotation.elements[1] * invSX);
+		rotation.elements[2] = (float) (rotation.elements[2] * invSX);
 
-		_matrix.elements.set( 4, _matrix.elements.get( 4 ) * invSY );
-		_matrix.elements.set( 5, _matrix.elements.get( 5 ) * invSY );
-		_matrix.elements.set( 6, _matrix.elements.get( 6 ) * invSY );
+		rotation.elements[4] = (float) (rotation.elements[4] * invSY);
+		rotation.elements[5] = (float) (rotation.elements[5] * invSY);
+		rotation.elements[6] = (float) (rotation.elements[6] * invSY);
 
-		_matrix.elements.set( 8, _matrix.elements.get( 8 ) * invSZ );
-		_matrix.elements.set( 9, _matrix.elements.get( 9 ) * invSZ );
-		_matrix.elements.set( 10, _matrix.elements.get( 10 ) * invSZ );
+		rotation.elements[8] = (float) (rotation.elements[8] * invSZ);
+		rotation.elements[9] = (float) (rotation.elements[9] * invSZ);
+		rotation.elements[10] = (float) (rotation.elements[10] * invSZ);
 
-		quaternion.setFromRotationMatrix( _matrix );
+		quaternion.setFromRotationMatrix( rotation );
 
 		scale.x = sx;
 		scale.y = sy;
@@ -982,7 +1000,7 @@ public class Matrix4
 	 */
 	public Matrix4 makeFrustum(double left, double right, double bottom, double top, double near, double far)
 	{
-		Float32Array te = this.getArray();
+		float[] te = this.elements;
 		double x = 2.0 * near / ( right - left );
 		double y = 2.0 * near / ( top - bottom );
 
@@ -991,10 +1009,10 @@ public class Matrix4
 		double c = - ( far + near ) / ( far - near );
 		double d = - 2.0 * far * near / ( far - near );
 
-		te.set(0, x);  te.set(4, 0);  te.set(8, a);    te.set(12, 0);
-		te.set(1, 0);  te.set(5, y);   te.set(9, b);   te.set(13, 0);
-		te.set(2, 0);  te.set(6, 0);  te.set(10, c);   te.set(14, d);
-		te.set(3, 0);  te.set(7, 0);  te.set(11, - 1); te.set(15, 0);
+		te[0] = (float) x;  te[4] = 0;  te[8] = (float) a;    te[12] = (float) 0;
+		te[1] = 0;  te[5] = (float) y;   te[9] = (float) b;   te[13] = (float) 0;
+		te[2] = 0;  te[6] = (float) 0;  te[10] = (float) c;   te[14] = (float) d;
+		te[3] = 0;  te[7] = (float) 0;  te[11] = (float) (- 1); te[15] = (float) 0;
 
 		return this;
 	}
@@ -1026,7 +1044,7 @@ public class Matrix4
 	 */
 	public Matrix4 makeOrthographic(double left, double right, double top, double bottom, double near, double far)
 	{
-		Float32Array te = this.elements;
+		float[] te = this.elements;
 		double w = right - left;
 		double h = top - bottom;
 		double p = far - near;
@@ -1035,10 +1053,10 @@ public class Matrix4
 		double y = ( top + bottom ) / h;
 		double z = ( far + near )   / p;
 
-		te.set(0, 2.0 / w); te.set(4, 0.0);     te.set(8, 0.0);       te.set(12, -x);
-		te.set(1, 0.0);     te.set(5, 2.0 / h); te.set(9, 0.0);       te.set(13, -y);
-		te.set(2, 0.0);     te.set(6, 0.0);     te.set(10, -2.0 / p); te.set(14, -z);
-		te.set(3, 0.0);     te.set(7, 0.0);     te.set(11, 0.0);      te.set(15, 1.0);
+		te[0] = (float) (2.0 / w); te[4] = 0.0f;     te[8] = 0.0f;       te[12] = (float) -x;
+		te[1] = 0.0f;     te[5] = (float) (2.0 / h); te[9] = 0.0f;       te[13] = (float) -y;
+		te[2] = 0.0f;     te[6] = 0.0f;     te[10] = (float) (-2.0 / p); te[14] = (float) -z;
+		te[3] = 0.0f;     te[7] = 0.0f;     te[11] = 0.0f;      te[15] = 1.0f;
 
 		return this;
 	}
@@ -1051,13 +1069,13 @@ public class Matrix4
 	 */
 	public Matrix4 clone()
 	{
-		Float32Array te = this.getArray();
+		float[] te = this.elements;
 
 		return new Matrix4(
-				te.get(0), te.get(4), te.get(8), te.get(12),
-				te.get(1), te.get(5), te.get(9), te.get(13),
-				te.get(2), te.get(6), te.get(10), te.get(14),
-				te.get(3), te.get(7), te.get(11), te.get(15)
+				te[0], te[4], te[8], te[12],
+				te[1], te[5], te[9], te[13],
+				te[2], te[6], te[10], te[14],
+				te[3], te[7], te[11], te[15]
 		);
 
 	}
@@ -1069,8 +1087,8 @@ public class Matrix4
 	{
 		String retval = "[";
 
-		for(int i = 0; i < this.getArray().getLength(); i++)
-			retval += this.getArray().get(i) + ", ";
+		for(int i = 0; i < this.elements.length; i++)
+			retval += this.elements[i] + ", ";
 
 		return retval + "]";
 	}
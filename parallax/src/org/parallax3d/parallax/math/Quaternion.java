@@ -19,7 +19,6 @@
 package org.parallax3d.parallax.math;
 
 import org.parallax3d.parallax.system.ThreejsObject;
-import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 
 /**
  * Implementation of Quaternion which provide a convenient mathematical notation 
@@ -297,11 +296,11 @@ public class Quaternion
 	public Quaternion setFromRotationMatrix( Matrix4 m )
 	{
 
-		Float32Array te = m.getArray();
+		float[] te = m.getArray();
 
-		double m11 = te.get(0), m12 = te.get(4), m13 = te.get(8),
-			m21 = te.get(1), m22 = te.get(5), m23 = te.get(9),
-			m31 = te.get(2), m32 = te.get(6), m33 = te.get(10);
+		double m11 = te[0], m12 = te[4], m13 = te[8],
+			m21 = te[1], m22 = te[5], m23 = te[9],
+			m31 = te[2], m32 = te[6], m33 = te[10];
 
 		double trace = m11 + m22 + m33;
 		double s;
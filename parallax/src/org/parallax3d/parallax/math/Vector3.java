@@ -248,11 +248,11 @@ public class Vector3 extends Vector2
 		double y = this.y;
 		double z = this.z;
 
-		Float32Array e = m.getArray();
+		float[] e = m.getArray();
 
-		this.x = e.get(0) * x + e.get(3) * y + e.get(6) * z;
-		this.y = e.get(1) * x + e.get(4) * y + e.get(7) * z;
-		this.z = e.get(2) * x + e.get(5) * y + e.get(8) * z;
+		this.x = e[0] * x + e[3] * y + e[6] * z;
+		this.y = e[1] * x + e[4] * y + e[7] * z;
+		this.z = e[2] * x + e[5] * y + e[8] * z;
 
 		return this;
 	}
@@ -266,11 +266,11 @@ public class Vector3 extends Vector2
 	{
 		double x = this.x, y = this.y, z = this.z;
 
-		Float32Array e = m.getArray();
+		float[] e = m.getArray();
 
-		this.x = e.get(0) * x + e.get(4) * y + e.get(8)  * z + e.get(12);
-		this.y = e.get(1) * x + e.get(5) * y + e.get(9)  * z + e.get(13);
-		this.z = e.get(2) * x + e.get(6) * y + e.get(10) * z + e.get(14);
+		this.x = e[0] * x + e[4] * y + e[8]  * z + e[12];
+		this.y = e[1] * x + e[5] * y + e[9]  * z + e[13];
+		this.z = e[2] * x + e[6] * y + e[10] * z + e[14];
 
 		return this;
 	}
@@ -284,12 +284,12 @@ public class Vector3 extends Vector2
 	{
 		double x = this.x, y = this.y, z = this.z;
 
-		Float32Array e = m.getArray();
-		double d = 1.0f / ( e.get(3) * x + e.get(7) * y + e.get(11) * z + e.get(15) ); // perspective divide
+		float[] e = m.getArray();
+		double d = 1.0f / ( e[3] * x + e[7] * y + e[11] * z + e[15] ); // perspective divide
 
-		this.x = ( e.get(0) * x + e.get(4) * y + e.get(8)  * z + e.get(12) ) * d;
-		this.y = ( e.get(1) * x + e.get(5) * y + e.get(9)  * z + e.get(13) ) * d;
-		this.z = ( e.get(2) * x + e.get(6) * y + e.get(10) * z + e.get(14) ) * d;
+		this.x = ( e[0] * x + e[4] * y + e[8]  * z + e[12] ) * d;
+		this.y = ( e[1] * x + e[5] * y + e[9]  * z + e[13] ) * d;
+		this.z = ( e[2] * x + e[6] * y + e[10] * z + e[14] ) * d;
 
 		return this;
 	}
@@ -344,11 +344,11 @@ public class Vector3 extends Vector2
 	{
 		double x = this.x, y = this.y, z = this.z;
 
-		Float32Array e = m.getArray();
+		float[] e = m.getArray();
 
-		this.x = e.get(0) * x + e.get(4) * y + e.get(8)  * z;
-		this.y = e.get(1) * x + e.get(5) * y + e.get(9)  * z;
-		this.z = e.get(2) * x + e.get(6) * y + e.get(10) * z;
+		this.x = e[0] * x + e[4] * y + e[8]  * z;
+		this.y = e[1] * x + e[5] * y + e[9]  * z;
+		this.z = e[2] * x + e[6] * y + e[10] * z;
 
 		this.normalize();
 
@@ -679,9 +679,9 @@ public class Vector3 extends Vector2
 	public Vector3 setFromMatrixPosition( Matrix4 m )
 	{
 
-		this.x = m.getArray().get( 12 );
-		this.y = m.getArray().get( 13 );
-		this.z = m.getArray().get( 14 );
+		this.x = m.getArray()[12];
+		this.y = m.getArray()[13];
+		this.z = m.getArray()[14];
 
 		return this;
 	}
@@ -689,11 +689,11 @@ public class Vector3 extends Vector2
 	public Vector3 setFromMatrixScale( Matrix4 m )
 	{
 
-		Float32Array el = m.getArray();
+		float[] el = m.getArray();
 
-		double sx = this.set( el.get(0), el.get(1), el.get(2) ).length();
-		double sy = this.set( el.get(4), el.get(5), el.get(6) ).length();
-		double sz = this.set( el.get(8), el.get(9), el.get(10) ).length();
+		double sx = this.set( el[0], el[1], el[2] ).length();
+		double sy = this.set( el[4], el[5], el[6] ).length();
+		double sz = this.set( el[8], el[9], el[10] ).length();
 
 		this.x = sx;
 		this.y = sy;
@@ -707,11 +707,11 @@ public class Vector3 extends Vector2
 
 		int offset = index * 4;
 
-		Float32Array me = matrix.getArray();
+		float[] me = matrix.getArray();
 
-		this.x = me.get( offset );
-		this.y = me.get( offset + 1 );
-		this.z = me.get( offset + 2 );
+		this.x = me[offset];
+		this.y = me[offset + 1];
+		this.z = me[offset + 2];
 
 		return this;
 
@@ -19,7 +19,6 @@
 package org.parallax3d.parallax.math;
 
 import org.parallax3d.parallax.system.ThreejsObject;
-import org.parallax3d.parallax.system.gl.arrays.Float32Array;
 
 /**
  * This class is realization of (X, Y, Z, W) vector. 
@@ -291,12 +290,12 @@ public class Vector4 extends Vector3
 		double z = this.z;
 		double w = this.w;
 
-		Float32Array e = m.getArray();
+		float[] e = m.getArray();
 
-		this.x = e.get(0) * x + e.get(4) * y + e.get(8) * z + e.get(12) * w;
-		this.y = e.get(1) * x + e.get(5) * y + e.get(9) * z + e.get(13) * w;
-		this.z = e.get(2) * x + e.get(6) * y + e.get(10) * z + e.get(14) * w;
-		this.w = e.get(3) * x + e.get(7) * y + e.get(11) * z + e.get(15) * w;
+		this.x = e[0] * x + e[4] * y + e[8] * z + e[12] * w;
+		this.y = e[1] * x + e[5] * y + e[9] * z + e[13] * w;
+		this.z = e[2] * x + e[6] * y + e[10] * z + e[14] * w;
+		this.w = e[3] * x + e[7] * y + e[11] * z + e[15] * w;
 
 		return this;
 
@@ -381,11 +380,11 @@ public class Vector4 extends Vector3
 		// margin to distinguish between 0 and 180 degrees
 		double epsilon2 = 0.1;
 
-		Float32Array te = m.getArray();
+		float[] te = m.getArray();
 
-		double m11 = te.get(0), m12 = te.get(4), m13 = te.get(8);
-		double m21 = te.get(1), m22 = te.get(5), m23 = te.get(9);
-		double m31 = te.get(2), m32 = te.get(6), m33 = te.get(10);
+		double m11 = te[0], m12 = te[4], m13 = te[8];
+		double m21 = te[1], m22 = te[5], m23 = te[9];
+		double m31 = te[2], m32 = te[6], m33 = te[10];
 
 		if ( ( Math.abs( m12 - m21 ) < epsilon )
 				&& ( Math.abs( m13 - m31 ) < epsilon )
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.system;
+
+/**
+ * Map with primitive int keys.
+ * <p>
+ * Unlike {@link FastMap} it does not need to build a String key for every
+ * lookup, and neither lookups nor updates of existing keys allocate.
+ * Open addressing with linear probing is used, so {@code null} values
+ * are not allowed: putting {@code null} removes the key.
+ *
+ * @param <V> the type of mapped values
+ */
+public class IntMap<V> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+	private int threshold;
+
+	public IntMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntMap(int initialCapacity) {
+		int capacity = DEFAULT_CAPACITY;
+		while ( capacity < initialCapacity * 2 )
+			capacity <<= 1;
+
+		allocate( capacity );
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(int key) {
+		return values[ indexOf( key ) ] != null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		return (V) values[ indexOf( key ) ];
+	}
+
+	/**
+	 * Associates the value with the key.
+	 *
+	 * @return the previous value or {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if ( value == null )
+			return remove( key );
+
+		int index = indexOf( key );
+		V old = (V) values[ index ];
+
+		keys[ index ] = key;
+		values[ index ] = value;
+
+		if ( old == null && ++size > threshold )
+			allocate( keys.length << 1 );
+
+		return old;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int index = indexOf( key );
+		V old = (V) values[ index ];
+
+		if ( old == null )
+			return null;
+
+		values[ index ] = null;
+		size--;
+
+		// shift following entries of the same cluster back
+		int next = ( index + 1 ) & mask;
+		while ( values[ next ] != null )
+		{
+			int ideal = hash( keys[ next ] ) & mask;
+
+			if ( ( ( next - ideal ) & mask ) >= ( ( next - index ) & mask ) )
+			{
+				keys[ index ] = keys[ next ];
+				values[ index ] = values[ next ];
+				values[ next ] = null;
+				index = next;
+			}
+
+			next = ( next + 1 ) & mask;
+		}
+
+		return old;
+	}
+
+	public void clear() {
+		for ( int i = 0; i < values.length; i++ )
+			values[ i ] = null;
+
+		size = 0;
+	}
+
+	private int indexOf(int key) {
+		int index = hash( key ) & mask;
+
+		while ( values[ index ] != null && keys[ index ] != key )
+			index = ( index + 1 ) & mask;
+
+		return index;
+	}
+
+	private void allocate(int capacity) {
+		int[] oldKeys = this.keys;
+		Object[] oldValues = this.values;
+
+		this.keys = new int[ capacity ];
+		this.values = new Object[ capacity ];
+		this.mask = capacity - 1;
+		this.threshold = capacity >> 1;
+
+		if ( oldValues == null )
+			return;
+
+		for ( int i = 0; i < oldValues.length; i++ )
+		{
+			if ( oldValues[ i ] == null )
+				continue;
+
+			int index = indexOf( oldKeys[ i ] );
+			keys[ index ] = oldKeys[ i ];
+			values[ index ] = oldValues[ i ];
+		}
+	}
+
+	// object ids are mostly sequential, so spreading the high bits is enough
+	private static int hash(int key) {
+		return key ^ ( key >>> 16 );
+	}
+}
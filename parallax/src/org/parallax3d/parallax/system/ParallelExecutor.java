@@ -0,0 +1,136 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.system;
+
+/**
+ * Runs loops over large index ranges, possibly on several threads.
+ * <p>
+ * The default executor is sequential, which is the only option on WebGL.
+ * Platforms running on a JVM can install a multi-threaded one:
+ *
+ * <pre>
+ * {@code
+ * ParallelExecutor.set( new ForkJoinExecutor() );
+ * }
+ * </pre>
+ *
+ * Callers split their work so that ranges never write the same data and
+ * combine partial results in a fixed order, so results do not depend on
+ * the executor.
+ */
+public abstract class ParallelExecutor
+{
+	public interface Task
+	{
+		/**
+		 * Processes indices from start (inclusive) to end (exclusive).
+		 */
+		void run(int start, int end);
+	}
+
+	/**
+	 * Loops shorter than this are run on the calling thread.
+	 */
+	public static final int DEFAULT_THRESHOLD = 4096;
+
+	public static final ParallelExecutor SEQUENTIAL = new ParallelExecutor() {
+
+		@Override
+		public int getParallelism() {
+			return 1;
+		}
+
+		@Override
+		protected void invoke(Task task, int count, int chunks) {
+			task.run( 0, count );
+		}
+	};
+
+	private static ParallelExecutor instance = SEQUENTIAL;
+
+	private int threshold = DEFAULT_THRESHOLD;
+
+	public static ParallelExecutor get() {
+		return instance;
+	}
+
+	/**
+	 * Sets the executor used by geometry computations and the scene update,
+	 * null restores the sequential one.
+	 */
+	public static void set(ParallelExecutor executor) {
+		instance = executor == null ? SEQUENTIAL : executor;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public ParallelExecutor setThreshold(int threshold) {
+		this.threshold = threshold;
+		return this;
+	}
+
+	public abstract int getParallelism();
+
+	/**
+	 * Runs the task over indices from 0 to count and waits for it to
+	 * finish.
+	 */
+	public void run(int count, Task task)
+	{
+		run( count, threshold, task );
+	}
+
+	/**
+	 * Runs the task over indices from 0 to count and waits for it to
+	 * finish. Meant for loops over expensive items, like whole subtrees of
+	 * a scene.
+	 *
+	 * @param threshold loops shorter than this are run on the calling thread
+	 */
+	public void run(int count, int threshold, Task task)
+	{
+		if ( count <= 0 )
+			return;
+
+		int parallelism = getParallelism();
+
+		if ( count < threshold || parallelism < 2 )
+		{
+			task.run( 0, count );
+			return;
+		}
+
+		// a few chunks per thread to even out the load
+		invoke( task, count, Math.min( count, parallelism * 4 ) );
+	}
+
+	/**
+	 * Runs the task over chunks consecutive ranges covering indices from 0
+	 * to count and waits for all of them.
+	 */
+	protected abstract void invoke(Task task, int count, int chunks);
+
+	/**
+	 * Gets the first index of the chunk.
+	 */
+	protected static int getChunkStart(int count, int chunks, int chunk) {
+		return (int) ( (long) count * chunk / chunks );
+	}
+}
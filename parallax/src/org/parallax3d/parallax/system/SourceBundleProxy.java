@@ -18,8 +18,8 @@
 
 package org.parallax3d.parallax.system;
 
-import org.parallax3d.parallax.files.FileHandle;
-
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
@@ -34,7 +34,25 @@ public class SourceBundleProxy {
                     @Override
                     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
                         SourceBundle.Source source = method.getAnnotation(SourceBundle.Source.class);
-                        return new FileHandle(SourceBundleProxy.class.getResource(classLiteral.getPackage().getName().replace(".", "/") + source).getFile());
+                        final String path = "/" + classLiteral.getPackage().getName().replace(".", "/")
+                                + "/" + source.value()[0];
+
+                        return new SourceTextResource() {
+                            @Override
+                            public String getText() {
+                                InputStream input = SourceBundleProxy.class.getResourceAsStream(path);
+                                if (input == null)
+                                    throw new ParallaxRuntimeException("Resource not found: " + path);
+
+                                try {
+                                    return StreamUtils.copyStreamToString(input);
+                                } catch (IOException ex) {
+                                    throw new ParallaxRuntimeException("Error reading resource: " + path, ex);
+                                } finally {
+                                    StreamUtils.closeQuietly(input);
+                                }
+                            }
+                        };
                     }
                 });
 
@@ -31,6 +31,8 @@ public class GLES20Ext {
 	public static final int GL_DEPTH_STENCIL = 0x84F9;
 	public static final int GL_DEPTH_STENCIL_ATTACHMENT = 0x821A;
 
+	public static final int GL_VERTEX_ATTRIB_ARRAY_DIVISOR_ANGLE = 0x88FE;
+
 	public enum List {
 		ANGLE_instanced_arrays,
 		EXT_blend_minmax,
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.system.gl;
+
+/**
+ * Entry points of the ANGLE_instanced_arrays extension.
+ * <p>
+ * Platforms which can draw instanced geometry implement this interface
+ * on their {@link GL20} object. The renderer only uses it if the extension
+ * is also reported by {@link GL20#glGetString(int)}.
+ */
+public interface GLInstancedArrays {
+
+	public void glVertexAttribDivisorANGLE(int index, int divisor);
+
+	public void glDrawArraysInstancedANGLE(int mode, int first, int count, int primcount);
+
+	public void glDrawElementsInstancedANGLE(int mode, int count, int type, int indices, int primcount);
+}
@@ -34,12 +34,8 @@ public final class Float32Array extends TypeArray {
 	/**
 	 * Lighting requires arrays of unknown length.
 	 */
-	private boolean resizable = false;
-
 	protected Float32Array() {
-		buffer = null;
-		floatBuffer = null;
-		resizable = true;
+		super();
 	}
 
 	/**
@@ -146,27 +142,32 @@ public final class Float32Array extends TypeArray {
 	 */
 	public void set(int index, float value) {
 		if (resizable)
-		{
-			if (floatBuffer == null || index >= floatBuffer.capacity())
-			{
-				float val[] = new float[getLength()];
-				for(int i = 0, len = getLength(); i < len; i++)
-					val[i] =  floatBuffer.get(i);
-
-				// Usually floats are added in groups of 3, so add spare capacity
-				createBuffer((index + 4) * 12);
-				createTypedBuffer();
-				floatBuffer.limit(index + 1);
-				floatBuffer.put(val);
-			}
-			else if (index >= floatBuffer.limit())
-			{
-				floatBuffer.limit(index + 1);
-			}
-		}
+			ensureIndex(index);
+
 		floatBuffer.put(index, value);
 	}
 
+	/**
+	 * Copies length elements of the array, starting at srcOffset, into this
+	 * array starting at the given offset.
+	 *
+	 * @param array
+	 * @param srcOffset
+	 * @param length
+	 * @param offset
+	 */
+	public void set(float[] array, int srcOffset, int length, int offset) {
+		if (length == 0)
+			return;
+
+		if (resizable)
+			ensureIndex(offset + length - 1);
+
+		floatBuffer.position(offset);
+		floatBuffer.put(array, srcOffset, length);
+		floatBuffer.position(0);
+	}
+
 	public void set(Float32Array array) {
         super.set(array);
     }
@@ -29,6 +29,10 @@ public final class Float64Array extends TypeArray {
 
 	private DoubleBuffer doubleBuffer;
 
+	protected Float64Array() {
+		super();
+	}
+
 	/**
 	 * @param capacity	In bytes.
 	 */
@@ -66,6 +70,13 @@ public final class Float64Array extends TypeArray {
 	public static Float64Array create(int length) {
 		return new Float64Array(length * BYTES_PER_ELEMENT);
 	}
+
+	/**
+	 * Create an empty array which grows when values are set past its length.
+	 */
+	public static Float64Array createArray() {
+		return new Float64Array();
+	}
 	
 	/**
 	 * Create a copy of array.
@@ -105,6 +116,9 @@ public final class Float64Array extends TypeArray {
 	 * @param value
 	 */
 	public void set(int index, double value) {
+		if (resizable)
+			ensureIndex(index);
+
 		doubleBuffer.put(index, value);
 	}
 
@@ -123,7 +137,7 @@ public final class Float64Array extends TypeArray {
 	@Override
 	public int getLength()
 	{
-		return doubleBuffer.limit();
+		return doubleBuffer == null ? 0 : doubleBuffer.limit();
 	}
 
 	/**
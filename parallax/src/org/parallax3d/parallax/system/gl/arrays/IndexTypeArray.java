@@ -22,6 +22,10 @@ package org.parallax3d.parallax.system.gl.arrays;
  */
 public abstract class IndexTypeArray extends TypeArray {
 
+	protected IndexTypeArray() {
+		super();
+	}
+
 	protected IndexTypeArray(int capacity) {
         super(capacity);
 	}
@@ -28,6 +28,10 @@ public final class Int16Array extends TypeArray {
 
 	private ShortBuffer shortBuffer;
 
+	protected Int16Array() {
+		super();
+	}
+
 	/**
 	 * @param capacity	In bytes.
 	 */
@@ -65,6 +69,13 @@ public final class Int16Array extends TypeArray {
 	public static Int16Array create(int length) {
 		return new Int16Array(length * BYTES_PER_ELEMENT);
 	}
+
+	/**
+	 * Create an empty array which grows when values are set past its length.
+	 */
+	public static Int16Array createArray() {
+		return new Int16Array();
+	}
 	
 	/**
 	 * Create a copy of array.
@@ -104,6 +115,9 @@ public final class Int16Array extends TypeArray {
 	 * @param value
 	 */
 	public void set(int index, short value) {
+		if (resizable)
+			ensureIndex(index);
+
 		shortBuffer.put(index, value);
 	}
 
@@ -122,7 +136,7 @@ public final class Int16Array extends TypeArray {
 	@Override
 	public int getLength()
 	{
-		return shortBuffer.limit();
+		return shortBuffer == null ? 0 : shortBuffer.limit();
 	}
 
 	/**
@@ -24,10 +24,14 @@ import java.nio.IntBuffer;
  * @author h@realh.co.uk
  */
 public final class Int32Array extends TypeArray {
-	public static final int BYTES_PER_ELEMENT = 2;
+	public static final int BYTES_PER_ELEMENT = 4;
 
 	private IntBuffer intBuffer;
 
+	protected Int32Array() {
+		super();
+	}
+
 	/**
 	 * @param capacity	In bytes.
 	 */
@@ -65,6 +69,13 @@ public final class Int32Array extends TypeArray {
 	public static Int32Array create(int length) {
 		return new Int32Array(length * BYTES_PER_ELEMENT);
 	}
+
+	/**
+	 * Create an empty array which grows when values are set past its length.
+	 */
+	public static Int32Array createArray() {
+		return new Int32Array();
+	}
 	
 	/**
 	 * Create a copy of array.
@@ -104,6 +115,9 @@ public final class Int32Array extends TypeArray {
 	 * @param value
 	 */
 	public void set(int index, int value) {
+		if (resizable)
+			ensureIndex(index);
+
 		intBuffer.put(index, value);
 	}
 
@@ -122,7 +136,7 @@ public final class Int32Array extends TypeArray {
 	@Override
 	public int getLength()
 	{
-		return intBuffer.limit();
+		return intBuffer == null ? 0 : intBuffer.limit();
 	}
 
 	/**
@@ -22,6 +22,10 @@ import org.parallax3d.parallax.system.gl.GL20;
  */
 public final class Int8Array extends TypeArray {
 
+	protected Int8Array() {
+		super();
+	}
+
 	/**
 	 * @param capacity	In bytes.
 	 */
@@ -32,7 +36,7 @@ public final class Int8Array extends TypeArray {
 	@Override
 	public int getLength()
 	{
-		return buffer.limit();
+		return buffer == null ? 0 : buffer.limit();
 	}
 
 	@Override
@@ -58,6 +62,13 @@ public final class Int8Array extends TypeArray {
 	public static Int8Array create(int length) {
 		return new Int8Array(length);
 	}
+
+	/**
+	 * Create an empty array which grows when values are set past its length.
+	 */
+	public static Int8Array createArray() {
+		return new Int8Array();
+	}
 	
 	/**
 	 * Create a copy of array.
@@ -97,6 +108,9 @@ public final class Int8Array extends TypeArray {
 	 * @param value
 	 */
 	public void set(int index, byte value) {
+		if (resizable)
+			ensureIndex(index);
+
 		getBuffer().put(index, value);
 	}
 
@@ -24,8 +24,19 @@ import java.nio.ByteOrder;
  */
 public abstract class TypeArray  {
 
+    /**
+     * The capacity, in elements, given to an empty resizable array
+     * when the first value is set.
+     */
+    private static final int MIN_CAPACITY = 16;
+
     protected ByteBuffer buffer;
 
+    /**
+     * Resizable arrays grow when values are set past their length.
+     */
+    protected boolean resizable = false;
+
 	protected TypeArray(int capacity) {
         createBuffer(capacity);
 	}
@@ -43,28 +54,117 @@ public abstract class TypeArray  {
      */
     protected TypeArray() {
         buffer = null;
+        resizable = true;
     }
 
     protected void createBuffer(int capacity) {
         buffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
     }
 
+    /**
+     * Gets the number of elements of subclass' type the array can hold
+     * without reallocation.
+     */
+    public int getCapacity() {
+        return buffer == null ? 0 : buffer.capacity() / getElementSize();
+    }
+
+    /**
+     * Makes sure the array can hold the given number of elements without
+     * reallocation. The capacity grows at least twice, so setting values
+     * one by one past the length costs amortized constant time.
+     * The length of the array is not changed.
+     *
+     * @param capacity in elements of subclass' type.
+     */
+    public void ensureCapacity(int capacity) {
+        int current = getCapacity();
+        if (capacity > current) {
+            reallocate(Math.max(capacity, Math.max(current * 2, MIN_CAPACITY)), getLength());
+        }
+    }
+
+    /**
+     * Releases the capacity which is not used by the current length.
+     */
+    public void trimToSize() {
+        int length = getLength();
+        if (buffer != null && length < getCapacity()) {
+            reallocate(length, length);
+        }
+    }
+
+    /**
+     * Changes the length of the array, growing the capacity when needed.
+     * Elements exposed by the new length are set to zero.
+     *
+     * @param length in elements of subclass' type.
+     */
+    public void setLength(int length) {
+        int old = getLength();
+        ensureCapacity(length);
+        if (buffer == null) {
+            return;
+        }
+        getTypedBuffer().limit(length);
+        for (int i = old * getElementSize(), l = length * getElementSize(); i < l; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Called by the setters of resizable arrays before the value is written.
+     */
+    protected final void ensureIndex(int index) {
+        if (index >= getLength()) {
+            setLength(index + 1);
+        }
+    }
+
+    private void reallocate(int capacity, int length) {
+        ByteBuffer old = buffer;
+        int bytes = Math.min(getLength(), length) * getElementSize();
+        createBuffer(capacity * getElementSize());
+        if (old != null) {
+            copy(old, bytes, 0);
+        }
+        createTypedBuffer();
+        getTypedBuffer().limit(length);
+    }
+
+    /**
+     * Bulk copies the first bytes of the source to the offset in bytes.
+     */
+    private void copy(ByteBuffer source, int bytes, int offset) {
+        if (bytes == 0) {
+            return;
+        }
+        int limit = source.limit();
+        source.position(0);
+        source.limit(bytes);
+        buffer.position(offset);
+        buffer.put(source);
+        source.limit(limit);
+        source.position(0);
+        buffer.position(0);
+    }
+
     /**
      * Set multiple values, reading input values from the array.
      *
      * @param array
     */
     public final void set(TypeArray array) {
-        ByteBuffer b = array.buffer;
-        int l = b.limit();
-        b.rewind();
-        if (l > buffer.capacity()) {
-            createBuffer(l);
-            createTypedBuffer();
-        } else {
-            buffer.rewind();
+        int bytes = array.getByteLength();
+        int length = bytes / getElementSize();
+        if (resizable) {
+            if (length > getLength()) {
+                setLength(length);
+            }
+        } else if (length > getCapacity()) {
+            reallocate(length, length);
         }
-        buffer.put(b);
+        copy(array.buffer, bytes, 0);
 	}
 
     /**
@@ -78,26 +178,23 @@ public abstract class TypeArray  {
         if (this.getClass() != array.getClass()) {
             throw new Error("Type mismatch for array copy");
         }
-        ByteBuffer b = array.buffer;
-        int l = b.limit() + offset;
-        b.rewind();
-        if (l > buffer.capacity()) {
-            ByteBuffer old = buffer;
-            createBuffer(l);
-            old.limit(offset);
-            buffer.put(old);
-            createTypedBuffer();
-        } else {
-            buffer.position(offset);
+        int bytes = array.getByteLength();
+        int length = (offset + bytes) / getElementSize();
+        if (resizable) {
+            if (length > getLength()) {
+                setLength(length);
+            }
+        } else if (length > getCapacity()) {
+            reallocate(length, length);
         }
-        buffer.put(b);
+        copy(array.buffer, bytes, offset);
     }
 
     /**
      * Gets the length of this array in bytes.
      */
     public int getByteLength() {
-        return buffer.limit();
+        return getLength() * getElementSize();
     }
 
     /**
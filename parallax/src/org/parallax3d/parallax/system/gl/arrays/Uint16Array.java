@@ -31,6 +31,10 @@ public final class Uint16Array extends IndexTypeArray {
 
 	private ShortBuffer shortBuffer;
 
+	protected Uint16Array() {
+		super();
+	}
+
 	/**
 	 * @param capacity	In bytes.
 	 */
@@ -68,6 +72,13 @@ public final class Uint16Array extends IndexTypeArray {
 	public static Uint16Array create(int length) {
 		return new Uint16Array(length * BYTES_PER_ELEMENT);
 	}
+
+	/**
+	 * Create an empty array which grows when values are set past its length.
+	 */
+	public static Uint16Array createArray() {
+		return new Uint16Array();
+	}
 	
 	/**
 	 * Create a copy of array.
@@ -136,6 +147,9 @@ public final class Uint16Array extends IndexTypeArray {
 	 * @param value
 	 */
 	public void set(int index, short value) {
+		if (resizable)
+			ensureIndex(index);
+
 		shortBuffer.put(index, value);
 	}
 
@@ -146,6 +160,9 @@ public final class Uint16Array extends IndexTypeArray {
 	 * @param value
 	 */
 	public void set(int index, int value) {
+		if (resizable)
+			ensureIndex(index);
+
 		shortBuffer.put(index, coerce(value));
 	}
 
@@ -164,7 +181,7 @@ public final class Uint16Array extends IndexTypeArray {
 	@Override
 	public int getLength()
 	{
-		return shortBuffer.limit();
+		return shortBuffer == null ? 0 : shortBuffer.limit();
 	}
 
 	/**
@@ -31,6 +31,10 @@ public final class Uint32Array extends TypeArray {
 
 	private IntBuffer intBuffer;
 
+	protected Uint32Array() {
+		super();
+	}
+
 	/**
 	 * @param capacity	In bytes.
 	 */
@@ -68,6 +72,13 @@ public final class Uint32Array extends TypeArray {
 	public static Uint32Array create(int length) {
 		return new Uint32Array(length * BYTES_PER_ELEMENT);
 	}
+
+	/**
+	 * Create an empty array which grows when values are set past its length.
+	 */
+	public static Uint32Array createArray() {
+		return new Uint32Array();
+	}
 	
 	/**
 	 * Create a copy of array.
@@ -135,6 +146,9 @@ public final class Uint32Array extends TypeArray {
 	 * @param value
 	 */
 	public void set(int index, int value) {
+		if (resizable)
+			ensureIndex(index);
+
 		intBuffer.put(index, value);
 	}
 
@@ -145,6 +159,9 @@ public final class Uint32Array extends TypeArray {
 	 * @param value
 	 */
 	public void set(int index, long value) {
+		if (resizable)
+			ensureIndex(index);
+
 		intBuffer.put(index, coerce(value));
 	}
 
@@ -163,7 +180,7 @@ public final class Uint32Array extends TypeArray {
 	@Override
 	public int getLength()
 	{
-		return intBuffer.limit();
+		return intBuffer == null ? 0 : intBuffer.limit();
 	}
 
 	/**
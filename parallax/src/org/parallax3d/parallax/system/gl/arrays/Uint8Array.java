@@ -21,9 +21,13 @@ import org.parallax3d.parallax.system.gl.GL20;
  * @author h@realh.co.uk
  */
 public final class Uint8Array extends IndexTypeArray {
-	public static final int SIGN_OFFSET = 0x10000;
-	public static final int MAX_POSITIVE = 0x7fff;
-	public static final int MAX_NEGATIVE = 0xffff;
+	public static final int SIGN_OFFSET = 0x100;
+	public static final int MAX_POSITIVE = 0x7f;
+	public static final int MAX_NEGATIVE = 0xff;
+
+	protected Uint8Array() {
+		super();
+	}
 
 	/**
 	 * @param capacity	In bytes.
@@ -35,7 +39,7 @@ public final class Uint8Array extends IndexTypeArray {
 	@Override
 	public int getLength()
 	{
-		return buffer.limit();
+		return buffer == null ? 0 : buffer.limit();
 	}
 
 	@Override
@@ -61,6 +65,13 @@ public final class Uint8Array extends IndexTypeArray {
 	public static Uint8Array create(int length) {
 		return new Uint8Array(length);
 	}
+
+	/**
+	 * Create an empty array which grows when values are set past its length.
+	 */
+	public static Uint8Array createArray() {
+		return new Uint8Array();
+	}
 	
 	/**
 	 * Create a copy of array.
@@ -129,6 +140,9 @@ public final class Uint8Array extends IndexTypeArray {
 	 * @param value
 	 */
 	public void set(int index, byte value) {
+		if (resizable)
+			ensureIndex(index);
+
 		getBuffer().put(index, value);
 	}
 
@@ -139,6 +153,9 @@ public final class Uint8Array extends IndexTypeArray {
 	 * @param value
 	 */
 	public void set(int index, int value) {
+		if (resizable)
+			ensureIndex(index);
+
 		getBuffer().put(index, coerce(value));
 	}
 
@@ -25,7 +25,9 @@ public enum PixelType implements GLEnum
 	UNSIGNED_BYTE(GL20.GL_UNSIGNED_BYTE),
 	UNSIGNED_SHORT_4_4_4_4(GL20.GL_UNSIGNED_SHORT_4_4_4_4),
 	UNSIGNED_SHORT_5_5_5_1(GL20.GL_UNSIGNED_SHORT_5_5_5_1),
-	UNSIGNED_SHORT_5_6_5(GL20.GL_UNSIGNED_SHORT_5_6_5);
+	UNSIGNED_SHORT_5_6_5(GL20.GL_UNSIGNED_SHORT_5_6_5),
+	// requires OES_texture_float
+	FLOAT(GL20.GL_FLOAT);
 
 	private final int value;
 
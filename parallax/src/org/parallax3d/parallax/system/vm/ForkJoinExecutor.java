@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.system.vm;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.parallax3d.parallax.system.ParallelExecutor;
+
+/**
+ * {@link ParallelExecutor} backed by a {@link ForkJoinPool}. Available on
+ * JVM platforms only.
+ */
+public class ForkJoinExecutor extends ParallelExecutor
+{
+	private final ForkJoinPool pool;
+
+	public ForkJoinExecutor()
+	{
+		this( Runtime.getRuntime().availableProcessors() );
+	}
+
+	public ForkJoinExecutor(int parallelism)
+	{
+		this( new ForkJoinPool( parallelism ) );
+	}
+
+	public ForkJoinExecutor(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	@Override
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	@Override
+	protected void invoke(Task task, int count, int chunks)
+	{
+		pool.invoke( new Chunks( task, count, chunks, 0, chunks ) );
+	}
+
+	public void shutdown()
+	{
+		pool.shutdown();
+	}
+
+	private static class Chunks extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Task task;
+		private final int count;
+		private final int chunks;
+		private final int from;
+		private final int to;
+
+		Chunks(Task task, int count, int chunks, int from, int to)
+		{
+			this.task = task;
+			this.count = count;
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if ( to - from == 1 )
+			{
+				task.run( getChunkStart( count, chunks, from ), getChunkStart( count, chunks, to ) );
+				return;
+			}
+
+			int middle = ( from + to ) >>> 1;
+			invokeAll( new Chunks( task, count, chunks, from, middle ),
+					new Chunks( task, count, chunks, middle, to ) );
+		}
+	}
+}
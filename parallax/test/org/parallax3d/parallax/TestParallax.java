@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax;
+
+import java.util.logging.Level;
+
+import org.parallax3d.parallax.files.FileHandle;
+import org.parallax3d.parallax.files.FileListener;
+
+/**
+ * Silent {@link Parallax} instance for tests which need logging.
+ */
+public class TestParallax
+{
+	public static void init()
+	{
+		if ( Parallax.instance != null )
+			return;
+
+		Parallax.instance = new Parallax() {
+			final Logger logger = new Logger() {
+				Level level = Level.OFF;
+
+				@Override public void info(String message) { }
+				@Override public void debug(String message) { }
+				@Override public void warn(String message) { }
+				@Override public void error(String message) { }
+				@Override public void error(String message, Throwable exception) { }
+				@Override public void setLogLevel(Level logLevel) { this.level = logLevel; }
+				@Override public Level getLogLevel() { return level; }
+			};
+
+			@Override public FileHandle getAsset(String path) { return null; }
+			@Override public FileHandle getAsset(String path, FileListener<? extends FileHandle> listener) { return null; }
+			@Override public Logger getLogger() { return logger; }
+			@Override public Platform getType() { return Platform.Desktop; }
+		};
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.parallax3d.parallax.graphics.extras.geometries.SphereGeometry;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+
+import static org.junit.Assert.*;
+
+public class CompactGeometryTest
+{
+	@Test
+	public void testReadOnlyViews()
+	{
+		final CompactGeometry geometry = new CompactGeometry();
+
+		geometry.addVertex( -10, 10, 0 );
+		geometry.addVertex( -10, -10, 0 );
+		geometry.addVertex( 10, -10, 0 );
+		geometry.addFace( 0, 1, 2, 3 );
+		geometry.setUv( 0, 0, 1 );
+		geometry.setUv( 1, 0, 0 );
+		geometry.setUv( 2, 1, 0 );
+
+		assertEquals( 3, geometry.getVertices().size() );
+		assertEquals( 1, geometry.getFaces().size() );
+		assertEquals( 1, geometry.getFaceVertexUvs().get( 0 ).size() );
+
+		Face3 face = geometry.getFaces().get( 0 );
+		assertEquals( 3, face.getMaterialIndex() );
+		assertEquals( 1.0, face.getNormal().getZ(), 1e-6 );
+
+		geometry.setPosition( 2, 10, -10, 5 );
+		assertEquals( 5.0, geometry.getVertices().get( 2 ).getZ(), 0.0 );
+		assertEquals( 1.0, geometry.getFaceVertexUvs().get( 0 ).get( 0 ).get( 2 ).getX(), 0.0 );
+
+		// edits through the lists would be lost, so they are refused
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.getVertices().add( new Vector3() ); } } );
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.getVertices().set( 0, new Vector3() ); } } );
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.getFaces().remove( 0 ); } } );
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.getFaces().subList( 0, 1 ).clear(); } } );
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.getFaceVertexUvs().get( 0 ).add( Arrays.asList( new Vector2(), new Vector2(), new Vector2() ) ); } } );
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.setVertices( new ArrayList<Vector3>() ); } } );
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.setFaces( new ArrayList<Face3>() ); } } );
+		assertUnsupported( new Runnable() { public void run() {
+			geometry.setFaceVertexUvs( new ArrayList<List<List<Vector2>>>() ); } } );
+
+		assertEquals( 3, geometry.getVertexCount() );
+		assertEquals( 1, geometry.getFaceCount() );
+	}
+
+	@Test
+	public void testMatchesGeometry()
+	{
+		Geometry source = new SphereGeometry( 5, 16, 12 );
+		CompactGeometry geometry = new CompactGeometry( source );
+
+		assertEquals( source.getVertices().size(), geometry.getVertexCount() );
+		assertEquals( source.getFaces().size(), geometry.getFaceCount() );
+
+		Matrix4 matrix = new Matrix4().makeTranslation( 1, 2, 3 );
+		source.applyMatrix( matrix );
+		geometry.applyMatrix( matrix );
+
+		for ( int i = 0; i < geometry.getVertexCount(); i ++ )
+			assertTrue( source.getVertices().get( i ).distanceTo( geometry.getVertices().get( i ) ) < 1e-5 );
+
+		assertEquals( source.getBoundingSphere().getRadius(), geometry.getBoundingSphere().getRadius(), 1e-5 );
+		assertTrue( source.getBoundingBox().getMin().distanceTo( geometry.getBoundingBox().getMin() ) < 1e-5 );
+
+		source.computeFaceNormals();
+		geometry.computeVertexNormals();
+		for ( int f = 0; f < geometry.getFaceCount(); f ++ )
+		{
+			Vector3 expected = source.getFaces().get( f ).getNormal();
+			Vector3 actual = geometry.getFaces().get( f ).getNormal();
+			if ( expected.length() > 0 )
+				assertTrue( expected.distanceTo( actual ) < 1e-5 );
+		}
+		assertNotNull( geometry.getNormals() );
+	}
+
+	@Test
+	public void testPack()
+	{
+		CompactGeometry geometry = new CompactGeometry(
+				new float[] { 0, 0, 0,  1, 0, 0,  1, 1, 0,  0, 1, 0 },
+				new int[] { 0, 1, 2,  0, 2, 3 } );
+		geometry.setUvs( new float[] { 0, 0,  1, 0,  1, 1,  0, 1 } );
+
+		List<Integer> chunk = new ArrayList<Integer>();
+		chunk.add( 1 );
+
+		Float32Array positions = Float32Array.create( 9 );
+		assertEquals( 9, geometry.packPositions( chunk, positions ) );
+		assertEquals( 1.0, positions.get( 3 ), 0.0 );
+		assertEquals( 1.0, positions.get( 4 ), 0.0 );
+		assertEquals( 1.0, positions.get( 7 ), 0.0 );
+		assertEquals( 0, positions.getTypedBuffer().position() );
+
+		Float32Array normals = Float32Array.create( 9 );
+		assertEquals( 9, geometry.packNormals( chunk, normals, true ) );
+		assertEquals( 1.0, normals.get( 8 ), 1e-6 );
+
+		Float32Array uvs = Float32Array.create( 6 );
+		assertEquals( 6, geometry.packUvs( chunk, uvs ) );
+		assertEquals( 1.0, uvs.get( 2 ), 0.0 );
+		assertEquals( 1.0, uvs.get( 5 ), 0.0 );
+	}
+
+	@Test
+	public void testMergeVertices()
+	{
+		CompactGeometry geometry = new CompactGeometry(
+				new float[] { 0, 0, 0,  1, 0, 0,  1, 1, 0,  1, 1, 0,  0, 1, 0,  0, 0, 0 },
+				new int[] { 0, 1, 2,  0, 1, 5,  3, 4, 5 } );
+
+		assertEquals( 2, geometry.mergeVertices() );
+		assertEquals( 4, geometry.getVertexCount() );
+		assertEquals( 2, geometry.getFaceCount() );
+
+		Face3 face = geometry.getFaces().get( 1 );
+		assertEquals( 2, face.getA() );
+		assertEquals( 3, face.getB() );
+		assertEquals( 0, face.getC() );
+	}
+
+	private static void assertUnsupported( Runnable runnable )
+	{
+		try
+		{
+			runnable.run();
+			fail( "Expected UnsupportedOperationException" );
+		}
+		catch ( UnsupportedOperationException e )
+		{
+		}
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.parallax3d.parallax.graphics.extras.geometries.PlaneBufferGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.SphereGeometry;
+import org.parallax3d.parallax.graphics.materials.LineBasicMaterial;
+import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.materials.PointCloudMaterial;
+import org.parallax3d.parallax.graphics.objects.Line;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.objects.PointCloud;
+import org.parallax3d.parallax.math.Vector3;
+
+import static org.junit.Assert.*;
+
+public class GeometryBVHTest
+{
+	private static final int RAYS = 200;
+
+	private static final Comparator<Raycaster.Intersect> ORDER = new Comparator<Raycaster.Intersect>() {
+		@Override
+		public int compare(Raycaster.Intersect a, Raycaster.Intersect b) {
+			int result = Double.compare( a.distance, b.distance );
+			if ( result == 0 ) result = Double.compare( a.point.getX(), b.point.getX() );
+			if ( result == 0 ) result = Double.compare( a.point.getY(), b.point.getY() );
+			if ( result == 0 ) result = Double.compare( a.point.getZ(), b.point.getZ() );
+			return result;
+		}
+	};
+
+	@Test
+	public void testBuild()
+	{
+		Geometry geometry = new SphereGeometry( 10, 32, 24 );
+		GeometryBVH tree = geometry.computeBoundsTree();
+
+		assertTrue( tree == geometry.getBoundsTree() );
+		assertEquals( geometry.getFaces().size(), tree.getPrimitiveCount() );
+		assertTrue( tree.getNodeCount() > 1 );
+		assertTrue( tree.getNodeCount() < tree.getPrimitiveCount() * 2 );
+	}
+
+	@Test
+	public void testMeshGeometry()
+	{
+		Mesh mesh = new Mesh( new SphereGeometry( 10, 32, 24 ), new MeshBasicMaterial() );
+		mesh.getPosition().set( 1, 2, 3 );
+		mesh.updateMatrixWorld( true );
+
+		assertSameIntersections( mesh, 20 );
+	}
+
+	@Test
+	public void testMeshBufferGeometry()
+	{
+		BufferGeometry geometry = new BufferGeometry().fromGeometry( new SphereGeometry( 10, 32, 24 ) );
+		Mesh mesh = new Mesh( geometry, new MeshBasicMaterial() );
+		mesh.updateMatrixWorld( true );
+
+		assertSameIntersections( mesh, 20 );
+	}
+
+	@Test
+	public void testMeshIndexedBufferGeometry()
+	{
+		MeshBasicMaterial material = new MeshBasicMaterial();
+		material.setSide( Material.SIDE.DOUBLE );
+
+		Mesh mesh = new Mesh( new PlaneBufferGeometry( 40, 40, 20, 20 ), material );
+		mesh.getRotation().set( 0.3, 0.2, 0.1 );
+		mesh.updateMatrixWorld( true );
+
+		assertSameIntersections( mesh, 20 );
+	}
+
+	@Test
+	public void testRefit()
+	{
+		Geometry geometry = new SphereGeometry( 10, 32, 24 );
+		Mesh mesh = new Mesh( geometry, new MeshBasicMaterial() );
+		mesh.updateMatrixWorld( true );
+
+		GeometryBVH tree = geometry.computeBoundsTree();
+		int nodes = tree.getNodeCount();
+
+		for ( Vector3 vertex : geometry.getVertices() )
+			vertex.multiply( 2 );
+
+		geometry.computeBoundingSphere();
+		geometry.setVerticesNeedUpdate( true );
+		assertTrue( tree.isNeedsRefit() );
+
+		// Passes outside of the old bounds only
+		Raycaster raycaster = new Raycaster( new Vector3( 15, 0, 100 ), new Vector3( 0, 0, -1 ) );
+		assertEquals( 1, raycaster.intersectObject( mesh, false ).size() );
+		assertFalse( tree.isNeedsRefit() );
+		assertEquals( nodes, tree.getNodeCount() );
+
+		assertSameIntersections( mesh, 40 );
+	}
+
+	@Test
+	public void testLine()
+	{
+		Geometry geometry = new Geometry();
+		Random random = new Random( 1 );
+		for ( int i = 0; i < 500; i++ )
+			geometry.getVertices().add( new Vector3(
+					random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10 ) );
+
+		Line line = new Line( geometry, new LineBasicMaterial(), Line.MODE.STRIPS );
+		line.updateMatrixWorld( true );
+
+		List<Raycaster.Intersect> expected = intersectAll( line, 20 );
+		geometry.computeBoundsTree( GeometryBVH.PRIMITIVE.LINE_STRIP );
+		assertSame( expected, intersectAll( line, 20 ) );
+	}
+
+	@Test
+	public void testPointCloud()
+	{
+		Geometry geometry = new Geometry();
+		Random random = new Random( 2 );
+		for ( int i = 0; i < 2000; i++ )
+			geometry.getVertices().add( new Vector3(
+					random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10 ) );
+
+		PointCloud points = new PointCloud( geometry, new PointCloudMaterial() );
+		points.updateMatrixWorld( true );
+
+		List<Raycaster.Intersect> expected = intersectAll( points, 20 );
+		geometry.computeBoundsTree( GeometryBVH.PRIMITIVE.POINTS );
+		assertSame( expected, intersectAll( points, 20 ) );
+	}
+
+	private void assertSameIntersections( Mesh mesh, double radius )
+	{
+		AbstractGeometry geometry = mesh.getGeometry();
+		GeometryBVH tree = geometry.getBoundsTree();
+
+		geometry.setBoundsTree( null );
+		List<Raycaster.Intersect> expected = intersectAll( mesh, radius );
+
+		geometry.setBoundsTree( tree != null ? tree : new GeometryBVH( geometry ) );
+		List<Raycaster.Intersect> actual = intersectAll( mesh, radius );
+
+		assertTrue( expected.size() > RAYS / 2 );
+		assertSame( expected, actual );
+	}
+
+	private void assertSame( List<Raycaster.Intersect> expected, List<Raycaster.Intersect> actual )
+	{
+		assertEquals( expected.size(), actual.size() );
+
+		// Intersections at the same distance may come in a different order
+		Collections.sort( expected, ORDER );
+		Collections.sort( actual, ORDER );
+
+		for ( int i = 0; i < expected.size(); i++ )
+		{
+			assertEquals( expected.get( i ).distance, actual.get( i ).distance, 1e-9 );
+			assertTrue( expected.get( i ).point.equals( actual.get( i ).point ) );
+			assertTrue( expected.get( i ).object == actual.get( i ).object );
+		}
+	}
+
+	/*
+	 * Casts rays from a sphere around the object towards random points near its center
+	 */
+	private List<Raycaster.Intersect> intersectAll( GeometryObject object, double radius )
+	{
+		Random random = new Random( 42 );
+		Raycaster raycaster = new Raycaster();
+		List<Raycaster.Intersect> result = new ArrayList<Raycaster.Intersect>();
+
+		for ( int i = 0; i < RAYS; i++ )
+		{
+			Vector3 origin = randomDirection( random ).multiply( radius * 3 );
+			Vector3 target = randomDirection( random ).multiply( radius * 0.5 );
+
+			raycaster.set( origin, target.sub( origin ).normalize() );
+			result.addAll( raycaster.intersectObject( object, false ) );
+		}
+
+		return result;
+	}
+
+	private Vector3 randomDirection( Random random )
+	{
+		return new Vector3( random.nextDouble() - 0.5, random.nextDouble() - 0.5, random.nextDouble() - 0.5 ).normalize();
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.math.Vector3;
+
+import static org.junit.Assert.*;
+
+public class Object3DTest
+{
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+	}
+
+	@Test
+	public void testUnchangedObjectsAreNotRecalculated()
+	{
+		Scene scene = new Scene();
+		Object3D parent = new Object3D();
+		Object3D child = new Object3D();
+		scene.add( parent );
+		parent.add( child );
+
+		scene.updateMatrixWorld( false );
+		assertEquals( 3, scene.getMatrixUpdates() );
+
+		scene.resetMatrixUpdates();
+		scene.updateMatrixWorld( false );
+		assertEquals( 0, scene.getMatrixUpdates() );
+		assertEquals( 0, scene.getMatrixWorldUpdates() );
+
+		parent.getPosition().setX( 5 );
+		scene.resetMatrixUpdates();
+		scene.updateMatrixWorld( false );
+		assertEquals( 1, scene.getMatrixUpdates() );
+		assertEquals( 2, scene.getMatrixWorldUpdates() );
+		assertEquals( 5, child.getWorldPosition().getX(), 0 );
+
+		child.getRotation().setY( Math.PI / 2 );
+		scene.resetMatrixUpdates();
+		scene.updateMatrixWorld( false );
+		assertEquals( 1, scene.getMatrixUpdates() );
+		assertEquals( 1, scene.getMatrixWorldUpdates() );
+	}
+
+	@Test
+	public void testStaticSubtreeIsSkipped()
+	{
+		Scene scene = new Scene();
+		Object3D root = new Object3D();
+		Object3D child = new Object3D();
+		root.add( child );
+		root.setStatic( true );
+		scene.add( root );
+
+		scene.updateMatrixWorld( false );
+
+		child.getPosition().setX( 1 );
+		scene.resetMatrixUpdates();
+		scene.updateMatrixWorld( false );
+		assertEquals( 0, scene.getMatrixUpdates() );
+		assertEquals( 0, new Vector3().setFromMatrixPosition( child.getMatrixWorld() ).getX(), 0 );
+
+		child.setMatrixWorldNeedsUpdate( true );
+		scene.updateMatrixWorld( false );
+		assertEquals( 1, new Vector3().setFromMatrixPosition( child.getMatrixWorld() ).getX(), 0 );
+
+		Object3D added = new Object3D();
+		added.getPosition().setY( 2 );
+		child.add( added );
+		scene.updateMatrixWorld( false );
+		assertEquals( 2, new Vector3().setFromMatrixPosition( added.getMatrixWorld() ).getY(), 0 );
+	}
+}
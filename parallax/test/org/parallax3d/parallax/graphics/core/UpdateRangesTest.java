@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UpdateRangesTest
+{
+	@Test
+	public void testCoalesce()
+	{
+		UpdateRanges ranges = new UpdateRanges();
+
+		ranges.add( 10, 5 );
+		ranges.add( 30, 5 );
+		ranges.add( 0, 3 );
+		assertEquals( "[0-3, 10-15, 30-35]", ranges.toString() );
+
+		// adjacent
+		ranges.add( 15, 2 );
+		assertEquals( "[0-3, 10-17, 30-35]", ranges.toString() );
+
+		// overlapping two ranges
+		ranges.add( 16, 20 );
+		assertEquals( "[0-3, 10-36]", ranges.toString() );
+
+		// inside
+		ranges.add( 1, 1 );
+		ranges.add( 5, 0 );
+		assertEquals( 2, ranges.size() );
+		assertEquals( 10, ranges.getOffset( 1 ) );
+		assertEquals( 26, ranges.getCount( 1 ) );
+	}
+
+	@Test
+	public void testCollapse()
+	{
+		UpdateRanges ranges = new UpdateRanges();
+
+		for ( int i = 0; i <= UpdateRanges.MAX_RANGES; i ++ )
+			ranges.add( i * 10, 1 );
+
+		assertEquals( 1, ranges.size() );
+		assertEquals( 0, ranges.getOffset( 0 ) );
+		assertEquals( UpdateRanges.MAX_RANGES * 10 + 1, ranges.getCount( 0 ) );
+	}
+}
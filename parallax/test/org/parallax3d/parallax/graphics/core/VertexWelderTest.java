@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.parallax3d.parallax.graphics.extras.geometries.SphereGeometry;
+import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
+
+import static org.junit.Assert.*;
+
+public class VertexWelderTest
+{
+	@Test
+	public void testWeld()
+	{
+		VertexWelder welder = new VertexWelder( 3, 2, 0.01 );
+
+		assertEquals( 0, welder.add( 1, 2, 3, 0 ) );
+		assertEquals( 1, welder.add( 1, 2, 4, 1 ) );
+		assertEquals( 0, welder.add( 1.001, 2, 3, 2 ) );
+		assertEquals( 2, welder.add( -1, -2, -3, 2 ) );
+
+		// grows past the expected size
+		for ( int i = 0; i < 1000; i ++ )
+			assertEquals( 3 + i, welder.add( i, i, 10, 3 + i ) );
+
+		for ( int i = 0; i < 1000; i ++ )
+			assertEquals( 3 + i, welder.add( i, i, 10, -1 ) );
+
+		assertEquals( 1003, welder.size() );
+	}
+
+	@Test
+	public void testGeometryMergeVerticesRemovesDegenerateFaces()
+	{
+		Geometry geometry = new Geometry();
+
+		List<Vector3> vertices = geometry.getVertices();
+		vertices.add( new Vector3( 0, 0, 0 ) );
+		vertices.add( new Vector3( 1, 0, 0 ) );
+		vertices.add( new Vector3( 1, 1, 0 ) );
+		vertices.add( new Vector3( 0, 0, 0.00001 ) );
+		vertices.add( new Vector3( 0, 1, 0 ) );
+
+		geometry.getFaces().add( new Face3( 0, 1, 2 ) );
+		geometry.getFaces().add( new Face3( 0, 1, 3 ) );
+		geometry.getFaces().add( new Face3( 3, 2, 4 ) );
+
+		List<List<Vector2>> uvs = geometry.getFaceVertexUvs().get( 0 );
+		for ( int i = 0; i < 3; i ++ )
+			uvs.add( Arrays.asList( new Vector2( i, 0 ), new Vector2( i, 1 ), new Vector2( i, 2 ) ) );
+
+		assertEquals( 1, geometry.mergeVertices() );
+		assertEquals( 4, geometry.getVertices().size() );
+
+		// the degenerate middle face is removed, not the first one
+		assertEquals( 2, geometry.getFaces().size() );
+		assertEquals( 2, uvs.size() );
+		assertEquals( 1, geometry.getFaces().get( 0 ).getB() );
+		assertEquals( 0, geometry.getFaces().get( 1 ).getA() );
+		assertEquals( 0.0, uvs.get( 0 ).get( 0 ).getX(), 0.0 );
+		assertEquals( 2.0, uvs.get( 1 ).get( 0 ).getX(), 0.0 );
+	}
+
+	@Test
+	public void testGeometryMatchesCompactGeometry()
+	{
+		Geometry geometry = new SphereGeometry( 1, 32, 16 );
+		CompactGeometry compact = new CompactGeometry( geometry );
+
+		// the constructor has merged vertices already, tolerance makes neighbours merge
+		assertEquals( geometry.mergeVertices( 0.2 ), compact.mergeVertices( 0.2 ) );
+		assertEquals( geometry.getFaces().size(), compact.getFaceCount() );
+	}
+
+	@Test
+	public void testBufferGeometryMergeVertices()
+	{
+		BufferGeometry geometry = new BufferGeometry();
+
+		// two triangles of a quad with unshared vertices; uv differs for one duplicate
+		geometry.addAttribute( "position", new BufferAttribute( Float32Array.create( new float[] {
+				0, 0, 0,  1, 0, 0,  1, 1, 0,
+				0, 0, 0,  1, 1, 0,  0, 1, 0 } ), 3 ) );
+		geometry.addAttribute( "uv", new BufferAttribute( Float32Array.create( new float[] {
+				0, 0,  1, 0,  1, 1,
+				0, 0,  0.5f, 1,  0, 1 } ), 2 ) );
+		geometry.addAttribute( "index", new BufferAttribute( Uint16Array.create( new int[] { 0, 1, 2, 3, 4, 5 } ), 1 ) );
+
+		assertEquals( 1, geometry.mergeVertices() );
+
+		assertEquals( 15, geometry.getAttribute( "position" ).getArray().getLength() );
+		assertEquals( 10, geometry.getAttribute( "uv" ).getArray().getLength() );
+
+		Uint16Array index = (Uint16Array) geometry.getAttribute( "index" ).getArray();
+		assertEquals( 6, index.getLength() );
+		assertEquals( 0, index.get( 3 ) );
+		assertEquals( 3, index.get( 4 ) );
+		assertEquals( 4, index.get( 5 ) );
+	}
+
+	@Test
+	public void testBufferGeometryMergeVerticesDrawCalls()
+	{
+		BufferGeometry geometry = new BufferGeometry();
+
+		// the second triangle shares an edge with the first one but lives in its own draw call
+		geometry.addAttribute( "position", new BufferAttribute( Float32Array.create( new float[] {
+				0, 0, 0,  1, 0, 0,  0, 1, 0,
+				1, 0, 0,  1, 1, 0,  0, 1, 0 } ), 3 ) );
+		geometry.addAttribute( "index", new BufferAttribute( Uint16Array.create( new int[] { 0, 1, 2, 0, 1, 2 } ), 1 ) );
+		geometry.addDrawCall( 0, 3, 0 );
+		geometry.addDrawCall( 3, 3, 3 );
+
+		assertEquals( 2, geometry.mergeVertices() );
+
+		Uint16Array index = (Uint16Array) geometry.getAttribute( "index" ).getArray();
+		assertEquals( 6, index.getLength() );
+		assertArrayEquals( new int[] { 0, 1, 2, 1, 3, 2 }, new int[] {
+				index.get( 0 ), index.get( 1 ), index.get( 2 ), index.get( 3 ), index.get( 4 ), index.get( 5 ) } );
+		assertTrue( geometry.getDrawcalls().isEmpty() );
+	}
+
+	@Test
+	public void testBufferGeometryMergeVerticesLarge()
+	{
+		int triangles = 22000;
+		float[] positions = new float[ triangles * 9 ];
+		int[] indices = new int[ triangles * 3 ];
+		for ( int t = 0; t < triangles; t++ )
+		{
+			float[] triangle = { t, 0, 0,  t, 1, 0,  t, 0, 1 };
+			System.arraycopy( triangle, 0, positions, t * 9, 9 );
+			for ( int v = 0; v < 3; v++ )
+			{
+				int i = t * 3 + v;
+				indices[ i ] = i < 65535 ? i : i - 65535;
+			}
+		}
+
+		BufferGeometry geometry = new BufferGeometry();
+		geometry.addAttribute( "position", new BufferAttribute( Float32Array.create( positions ), 3 ) );
+		geometry.addAttribute( "index", new BufferAttribute( Uint16Array.create( indices ), 1 ) );
+		geometry.addDrawCall( 0, 65535, 0 );
+		geometry.addDrawCall( 65535, triangles * 3 - 65535, 65535 );
+
+		assertEquals( 0, geometry.mergeVertices() );
+
+		// 66000 unique vertices do not fit one 16-bit index, so the geometry is split again
+		assertTrue( geometry.getAttribute( "index" ).getArray() instanceof Uint16Array );
+		List<BufferGeometry.DrawCall> drawcalls = geometry.getDrawcalls();
+		assertTrue( drawcalls.size() >= 2 );
+
+		Uint16Array index = (Uint16Array) geometry.getAttribute( "index" ).getArray();
+		Float32Array position = (Float32Array) geometry.getAttribute( "position" ).getArray();
+		int checked = 0;
+		for ( BufferGeometry.DrawCall drawcall : drawcalls )
+		{
+			for ( int i = drawcall.start; i < drawcall.start + drawcall.count; i += 3 )
+			{
+				int a = drawcall.index + index.getUnsigned( i );
+				int b = drawcall.index + index.getUnsigned( i + 1 );
+				int c = drawcall.index + index.getUnsigned( i + 2 );
+				double t = position.get( a * 3 );
+				assertEquals( t, position.get( b * 3 ), 0 );
+				assertEquals( t, position.get( c * 3 ), 0 );
+				assertEquals( 1, position.get( b * 3 + 1 ), 0 );
+				assertEquals( 1, position.get( c * 3 + 2 ), 0 );
+				checked++;
+			}
+		}
+		assertEquals( triangles, checked );
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.extras;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.parallax3d.parallax.math.Vector2;
+
+import static org.junit.Assert.*;
+
+public class ShapeUtilsTest
+{
+	@Test
+	public void testSquareWithHole()
+	{
+		List<Vector2> contour = square( 0, 0, 10 );
+		List<Vector2> hole = square( 3, 3, 4 );
+		Collections.reverse( hole );
+
+		List<List<Vector2>> holes = new ArrayList<List<Vector2>>();
+		holes.add( hole );
+
+		List<List<Integer>> faces = ShapeUtils.triangulateShape( contour, holes );
+
+		// n + 2h - 2 triangles for n vertices and h holes
+		assertEquals( 8, faces.size() );
+		assertArea( 100 - 16, contour, holes, faces );
+	}
+
+	@Test
+	public void testLargeContourWithHoles()
+	{
+		// enough vertices to triangulate with the z-order hash
+		List<Vector2> contour = circle( 0, 0, 100, 200, false );
+
+		List<List<Vector2>> holes = new ArrayList<List<Vector2>>();
+		holes.add( circle( -40, 0, 20, 50, true ) );
+		holes.add( circle( 40, 0, 20, 50, true ) );
+
+		List<List<Integer>> faces = ShapeUtils.triangulateShape( contour, holes );
+
+		assertEquals( 300 + 4 - 2, faces.size() );
+		assertArea( polygonArea( contour ) - 2 * polygonArea( holes.get( 0 ) ), contour, holes, faces );
+	}
+
+	@Test
+	public void testClockwiseContour()
+	{
+		// ExtrudeGeometry passes clockwise contours with counter-clockwise holes
+		List<Vector2> contour = circle( 0, 0, 100, 120, true );
+
+		List<List<Vector2>> holes = new ArrayList<List<Vector2>>();
+		holes.add( circle( 0, 0, 50, 60, false ) );
+
+		List<List<Integer>> faces = ShapeUtils.triangulateShape( contour, holes );
+
+		assertEquals( 180, faces.size() );
+		assertArea( polygonArea( contour ) - polygonArea( holes.get( 0 ) ), contour, holes, faces );
+	}
+
+	@Test
+	public void testEmptyContour()
+	{
+		List<List<Integer>> faces = ShapeUtils.triangulateShape(
+				Arrays.asList( new Vector2( 0, 0 ), new Vector2( 1, 0 ) ), new ArrayList<List<Vector2>>() );
+
+		assertTrue( faces.isEmpty() );
+	}
+
+	// Checks the triangles are counter-clockwise and cover the expected area
+	private static void assertArea( double expected, List<Vector2> contour, List<List<Vector2>> holes, List<List<Integer>> faces )
+	{
+		List<Vector2> points = new ArrayList<Vector2>( contour );
+		for ( List<Vector2> hole : holes )
+			points.addAll( hole );
+
+		double total = 0;
+		for ( List<Integer> face : faces )
+		{
+			double area = FontUtils.TriangulateArea( Arrays.asList(
+					points.get( face.get( 0 ) ), points.get( face.get( 1 ) ), points.get( face.get( 2 ) ) ) );
+
+			assertTrue( area > 0 );
+			total += area;
+		}
+
+		assertEquals( expected, total, 1e-6 * expected );
+	}
+
+	private static double polygonArea( List<Vector2> points )
+	{
+		return Math.abs( FontUtils.TriangulateArea( points ) );
+	}
+
+	private static List<Vector2> square( double x, double y, double size )
+	{
+		return new ArrayList<Vector2>( Arrays.asList(
+				new Vector2( x, y ),
+				new Vector2( x + size, y ),
+				new Vector2( x + size, y + size ),
+				new Vector2( x, y + size ) ) );
+	}
+
+	private static List<Vector2> circle( double x, double y, double radius, int segments, boolean clockwise )
+	{
+		List<Vector2> points = new ArrayList<Vector2>();
+		for ( int i = 0; i < segments; i++ )
+		{
+			double angle = ( clockwise ? -2 : 2 ) * Math.PI * i / segments;
+			points.add( new Vector2( x + radius * Math.cos( angle ), y + radius * Math.sin( angle ) ) );
+		}
+
+		return points;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.extras.core;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.parallax3d.parallax.graphics.extras.curves.ArcCurve;
+import org.parallax3d.parallax.graphics.extras.curves.CubicBezierCurve;
+import org.parallax3d.parallax.graphics.extras.curves.LineCurve;
+import org.parallax3d.parallax.graphics.extras.curves.LineCurve3;
+import org.parallax3d.parallax.graphics.extras.curves.SplineCurve3;
+import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.math.Vector3;
+
+import static org.junit.Assert.*;
+
+public class CurveTest
+{
+	@Test
+	public void testAdaptiveLength()
+	{
+		Curve circle = new ArcCurve( 0, 0, 1, 0, 2 * Math.PI, true );
+		assertEquals( 2 * Math.PI, circle.getLength(), 0.001 );
+
+		// straight curves need no subdivision
+		Curve line = new LineCurve( new Vector2( 0, 0 ), new Vector2( 3, 4 ) );
+		assertEquals( 5, line.getLength(), 1e-12 );
+		assertTrue( line.getArcLengths().length <= 33 );
+	}
+
+	@Test
+	public void testLengthOf3DCurve()
+	{
+		Curve line = new LineCurve3( new Vector3( 0, 0, 0 ), new Vector3( 0, 0, 10 ) );
+		assertEquals( 10, line.getLength(), 1e-12 );
+	}
+
+	@Test
+	public void testUniformDivisions()
+	{
+		Curve curve = new CubicBezierCurve( new Vector2( 0, 0 ), new Vector2( 0, 10 ),
+				new Vector2( 1, 10 ), new Vector2( 10, 0 ) );
+
+		List<Double> lengths = curve.getLengths( 50 );
+		assertEquals( 51, lengths.size() );
+		assertEquals( 0, lengths.get( 0 ), 0 );
+		assertEquals( 1, curve.getArcParameters( 50 )[ 50 ], 0 );
+		assertEquals( curve.getArcLengths( 0 )[ curve.getArcLengths( 0 ).length - 1 ],
+				lengths.get( 50 ), 0.01 );
+	}
+
+	@Test
+	public void testArcLengthMapping()
+	{
+		Curve curve = new CubicBezierCurve( new Vector2( 0, 0 ), new Vector2( 0, 10 ),
+				new Vector2( 1, 10 ), new Vector2( 10, 0 ) );
+
+		double length = curve.getLength();
+
+		for ( int i = 1; i < 20; i ++ )
+		{
+			double u = i / 20.0;
+			double t = curve.getUtoTmapping( u );
+
+			// measure the length up to t with a fine polyline
+			double sum = 0;
+			Vector2 last = curve.getPoint( 0 );
+			for ( int j = 1; j <= 10000; j ++ )
+			{
+				Vector2 current = curve.getPoint( t * j / 10000.0 );
+				sum += current.distanceTo( last );
+				last = current;
+			}
+
+			assertEquals( u * length, sum, length * 0.0005 );
+		}
+	}
+
+	@Test
+	public void testPointAtTarget()
+	{
+		SplineCurve3 curve = new SplineCurve3();
+		curve.points.add( new Vector3( 0, 0, 0 ) );
+		curve.points.add( new Vector3( 1, 2, 3 ) );
+		curve.points.add( new Vector3( 4, 0, -2 ) );
+		curve.points.add( new Vector3( 5, 5, 5 ) );
+
+		Vector3 target = new Vector3();
+		for ( int i = 0; i <= 10; i ++ )
+		{
+			Vector3 expected = (Vector3) curve.getPointAt( i / 10.0 );
+			assertSame( target, curve.getPointAt( i / 10.0, target ) );
+			assertTrue( expected.equals( target ) );
+		}
+	}
+
+	@Test
+	public void testCurvePath()
+	{
+		CurvePath path = new CurvePath();
+		path.add( new LineCurve( new Vector2( 0, 0 ), new Vector2( 10, 0 ) ) );
+		path.add( new LineCurve( new Vector2( 10, 0 ), new Vector2( 10, 30 ) ) );
+
+		assertEquals( 40, path.getLength(), 1e-12 );
+		assertEquals( 2, path.getCurveLengths().size() );
+
+		Vector2 point = path.getPoint( 0.75 );
+		assertEquals( 10, point.getX(), 1e-12 );
+		assertEquals( 20, point.getY(), 1e-9 );
+
+		Vector2 target = new Vector2();
+		path.getPoint( 0.125, target );
+		assertEquals( 5, target.getX(), 1e-9 );
+		assertEquals( 0, target.getY(), 1e-12 );
+	}
+}
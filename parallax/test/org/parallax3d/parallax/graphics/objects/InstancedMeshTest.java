@@ -0,0 +1,212 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.objects;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.BufferAttribute;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.core.Raycaster;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.PlaneBufferGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.renderers.GLRenderer;
+import org.parallax3d.parallax.graphics.renderers.StubGL20;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.math.Color;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.GLInstancedArrays;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint32Array;
+
+import static org.junit.Assert.*;
+
+public class InstancedMeshTest
+{
+	private static final int COUNT = 1000;
+
+	static class StubInstancedGL20 extends StubGL20 implements GLInstancedArrays
+	{
+		int instancedDraws;
+		int instances;
+		int divisors;
+
+		@Override
+		public String glGetString(int name)
+		{
+			return name == GL20.GL_EXTENSIONS ? "ANGLE_instanced_arrays" : null;
+		}
+
+		@Override
+		public int glGetAttribLocation(int program, String name)
+		{
+			return name.equals( InstancedMesh.INSTANCE_MATRIX ) ? 4
+					: name.equals( InstancedMesh.INSTANCE_COLOR ) ? 8
+					: super.glGetAttribLocation( program, name );
+		}
+
+		@Override
+		public void glVertexAttribDivisorANGLE(int index, int divisor)
+		{
+			divisors += divisor == 0 ? -1 : 1;
+		}
+
+		@Override
+		public void glDrawArraysInstancedANGLE(int mode, int first, int count, int primcount)
+		{
+			instancedDraws++;
+			instances += primcount;
+		}
+
+		@Override
+		public void glDrawElementsInstancedANGLE(int mode, int count, int type, int indices, int primcount)
+		{
+			instancedDraws++;
+			instances += primcount;
+		}
+	}
+
+	@Test
+	public void testInstancedDraw()
+	{
+		TestParallax.init();
+
+		StubInstancedGL20 gl = new StubInstancedGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		assertTrue( renderer.supportsInstancedArrays() );
+
+		InstancedMesh mesh = createMesh( new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) ) );
+		mesh.setColorAt( 5, new Color( 0xff0000 ) );
+
+		render( renderer, mesh );
+
+		assertEquals( 1, renderer.getInfo().getRender().calls );
+		assertEquals( 1, gl.instancedDraws );
+		assertEquals( COUNT, gl.instances );
+		assertEquals( "Instance divisors must be reset after the draw", 0, gl.divisors );
+		assertEquals( 12 * COUNT, renderer.getInfo().getRender().faces );
+	}
+
+	@Test
+	public void testBatchedFallback()
+	{
+		TestParallax.init();
+
+		GLRenderer renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		assertFalse( renderer.supportsInstancedArrays() );
+
+		// 121 vertices, so each 16-bit draw call takes 541 instances
+		InstancedMesh mesh = createMesh( new PlaneBufferGeometry( 1, 1, 10, 10 ) );
+
+		render( renderer, mesh );
+
+		assertEquals( 2, renderer.getInfo().getRender().calls );
+		assertEquals( 200 * COUNT, renderer.getInfo().getRender().faces );
+
+		// non-indexed geometry needs one draw
+		render( renderer, createMesh( new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) ) ) );
+
+		assertEquals( 1, renderer.getInfo().getRender().calls );
+	}
+
+	@Test
+	public void testBatchGeometry()
+	{
+		InstancedMesh mesh = createMesh( new PlaneBufferGeometry( 1, 1, 1, 1 ) );
+
+		BufferGeometry batch = mesh.getBatchGeometry();
+		Float32Array source = (Float32Array) mesh.getGeometry().getAttribute( "position" ).getArray();
+		Float32Array positions = (Float32Array) batch.getAttribute( "position" ).getArray();
+
+		assertEquals( source.getLength() * COUNT, positions.getLength() );
+		assertEquals( source.get( 0 ) + 7 * 2, positions.get( 7 * source.getLength() ), 1e-6 );
+		assertEquals( source.get( 1 ), positions.get( 7 * source.getLength() + 1 ), 1e-6 );
+
+		// unchanged instances reuse the batch
+		assertTrue( batch == mesh.getBatchGeometry() );
+
+		mesh.setMatrixAt( 7, new Matrix4().makeTranslation( 0, 3, 0 ) );
+		positions = (Float32Array) mesh.getBatchGeometry().getAttribute( "position" ).getArray();
+
+		assertEquals( source.get( 0 ), positions.get( 7 * source.getLength() ), 1e-6 );
+		assertEquals( source.get( 1 ) + 3, positions.get( 7 * source.getLength() + 1 ), 1e-6 );
+
+		// a resized batch keeps its GL buffers
+		batch.getAttribute( "position" ).setBuffer( 5 );
+		batch.getAttribute( "index" ).setBuffer( 6 );
+
+		mesh.setCount( 10 );
+		assertTrue( batch == mesh.getBatchGeometry() );
+		assertEquals( source.getLength() * 10, batch.getAttribute( "position" ).getArray().getLength() );
+		assertEquals( 5, batch.getAttribute( "position" ).getBuffer() );
+		assertEquals( 6, batch.getAttribute( "index" ).getBuffer() );
+		assertEquals( 1, batch.getDrawcalls().size() );
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUint32Index()
+	{
+		BufferGeometry geometry = new BufferGeometry();
+		geometry.addAttribute( "position", new BufferAttribute( Float32Array.create( 9 ), 3 ) );
+		geometry.addAttribute( "index", new BufferAttribute( Uint32Array.create( 3 ), 1 ) );
+
+		createMesh( geometry );
+	}
+
+	@Test
+	public void testRaycast()
+	{
+		InstancedMesh mesh = createMesh( new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) ) );
+		mesh.updateMatrixWorld( true );
+		Matrix4 matrixWorld = mesh.getMatrixWorld();
+
+		Raycaster raycaster = new Raycaster( new Vector3( 2 * 42, 0, 10 ), new Vector3( 0, 0, -1 ) );
+		List<Raycaster.Intersect> intersects = raycaster.intersectObject( mesh, false );
+
+		assertFalse( intersects.isEmpty() );
+		assertEquals( 42, intersects.get( 0 ).instanceId );
+		assertEquals( 9.5, intersects.get( 0 ).distance, 1e-6 );
+		assertTrue( matrixWorld == mesh.getMatrixWorld() );
+	}
+
+	private static InstancedMesh createMesh( BufferGeometry geometry )
+	{
+		InstancedMesh mesh = new InstancedMesh( geometry, new MeshBasicMaterial(), COUNT );
+
+		Matrix4 matrix = new Matrix4();
+		for ( int i = 0; i < COUNT; i++ )
+			mesh.setMatrixAt( i, matrix.makeTranslation( 2 * i, 0, 0 ) );
+
+		return mesh;
+	}
+
+	private static void render( GLRenderer renderer, InstancedMesh mesh )
+	{
+		Scene scene = new Scene();
+		mesh.getPosition().set( 0, 0, -20 );
+		scene.add( mesh );
+
+		renderer.render( scene, new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 ) );
+	}
+}
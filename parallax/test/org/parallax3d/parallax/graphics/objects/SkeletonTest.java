@@ -0,0 +1,177 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.objects;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.renderers.GLRenderer;
+import org.parallax3d.parallax.graphics.renderers.StubGL20;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.graphics.textures.DataTexture;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.enums.PixelFormat;
+import org.parallax3d.parallax.system.gl.enums.PixelType;
+
+import static org.junit.Assert.*;
+
+public class SkeletonTest
+{
+	static class CountingGL20 extends StubGL20
+	{
+		int palettes;
+		int texImages;
+		int texSubImages;
+
+		@Override
+		public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value)
+		{
+			if ( count > 1 )
+				palettes++;
+		}
+
+		@Override
+		public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels)
+		{
+			texImages++;
+		}
+
+		@Override
+		public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels)
+		{
+			texSubImages++;
+		}
+	}
+
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+	}
+
+	@Test
+	public void testPaletteUpdatedWhenBonesMove()
+	{
+		Scene scene = new Scene();
+		Skeleton skeleton = createSkeleton( scene, 3 );
+
+		assertTrue( skeleton.update() );
+		assertFalse( skeleton.update() );
+		assertEquals( 1, skeleton.getPoseVersion() );
+
+		// bones did not move
+		scene.updateMatrixWorld( false );
+		assertFalse( skeleton.update() );
+
+		skeleton.getBones().get( 1 ).getPosition().setX( 5 );
+		scene.updateMatrixWorld( false );
+
+		assertTrue( skeleton.update() );
+		assertEquals( 2, skeleton.getPoseVersion() );
+
+		// bind pose is identity, so the palette is the world matrix of the bone
+		Float32Array palette = skeleton.getBoneMatrices();
+		assertEquals( 5, palette.get( 16 + 12 ), 0 );
+		assertEquals( 0, palette.get( 12 ), 0 );
+	}
+
+	@Test
+	public void testSharedSkeletonUploadedOncePerPose()
+	{
+		Scene scene = new Scene();
+		Skeleton skeleton = createSkeleton( scene, 3 );
+
+		MeshBasicMaterial material = new MeshBasicMaterial();
+		material.setSkinning( true );
+
+		Geometry geometry = new BoxGeometry( 1, 1, 1 );
+
+		for ( int i = 0; i < 5; i++ )
+		{
+			SkinnedMesh mesh = new SkinnedMesh( geometry, material, skeleton );
+			mesh.getPosition().set( i - 2, 0, -10 );
+			scene.add( mesh );
+		}
+
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+
+		renderer.render( scene, camera );
+		assertEquals( 1, gl.palettes );
+
+		renderer.render( scene, camera );
+		assertEquals( 1, gl.palettes );
+
+		skeleton.getBones().get( 0 ).getPosition().setY( 1 );
+
+		renderer.render( scene, camera );
+		assertEquals( 2, gl.palettes );
+	}
+
+	@Test
+	public void testDataTextureUpdatedInPlace()
+	{
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+
+		DataTexture texture = new DataTexture( Float32Array.create( 4 * 4 * 4 ), 4, 4, PixelFormat.RGBA, PixelType.FLOAT );
+
+		texture.setNeedsUpdate( true );
+		renderer.setTexture( texture, 0 );
+
+		texture.setNeedsUpdate( true );
+		renderer.setTexture( texture, 0 );
+
+		assertEquals( 1, gl.texImages );
+		assertEquals( 1, gl.texSubImages );
+
+		// new size needs new storage
+		texture.setData( Float32Array.create( 8 * 8 * 4 ) ).setWidth( 8 ).setHeight( 8 );
+		texture.setNeedsUpdate( true );
+		renderer.setTexture( texture, 0 );
+
+		assertEquals( 2, gl.texImages );
+		assertEquals( 1, gl.texSubImages );
+	}
+
+	private static Skeleton createSkeleton( Scene scene, int count )
+	{
+		List<Bone> bones = new ArrayList<Bone>();
+
+		for ( int i = 0; i < count; i++ )
+		{
+			Bone bone = new Bone( null );
+			scene.add( bone );
+			bones.add( bone );
+		}
+
+		scene.updateMatrixWorld( false );
+
+		return new Skeleton( bones, false );
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.materials.MeshLambertMaterial;
+import org.parallax3d.parallax.graphics.materials.ShaderMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.renderers.shaders.ProgramParameters;
+import org.parallax3d.parallax.graphics.renderers.shaders.Shader;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+
+import static org.junit.Assert.*;
+
+public class GLProgramsTest
+{
+	static class CountingGL20 extends StubGL20
+	{
+		int created;
+		int deleted;
+		int lastDeleted;
+		String lastVertex;
+
+		@Override
+		public int glCreateProgram()
+		{
+			created++;
+			return super.glCreateProgram();
+		}
+
+		@Override
+		public void glDeleteProgram(int program)
+		{
+			deleted++;
+			lastDeleted = program;
+		}
+
+		@Override
+		public void glShaderSource(int shader, String string)
+		{
+			if ( string.contains( "gl_Position" ) )
+				lastVertex = string;
+		}
+	}
+
+	@Test
+	public void testProgramParametersEquals()
+	{
+		ProgramParameters a = new ProgramParameters();
+		ProgramParameters b = new ProgramParameters();
+
+		a.map = b.map = true;
+		a.maxDirLights = b.maxDirLights = 2;
+
+		assertEquals( a, b );
+		assertEquals( a.hashCode(), b.hashCode() );
+
+		b.maxDirLights = 3;
+		assertFalse( a.equals( b ) );
+
+		b.maxDirLights = 2;
+		b.precision = Shader.PRECISION.LOWP;
+		assertFalse( a.equals( b ) );
+	}
+
+	@Test
+	public void testProgramsAreShared()
+	{
+		TestParallax.init();
+
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		Material first = new MeshBasicMaterial();
+		Material second = new MeshBasicMaterial();
+		Material lambert = new MeshLambertMaterial();
+
+		Scene scene = createScene( first, second, lambert );
+		renderer.render( scene, camera );
+
+		assertEquals( 2, gl.created );
+		assertEquals( 2, renderer.getPrograms().size() );
+		assertEquals( 2, renderer.getInfo().getMemory().programs );
+		assertEquals( 2, renderer.getPrograms().getUsedTimes( first ) );
+		assertEquals( 1, renderer.getPrograms().getUsedTimes( lambert ) );
+
+		first.deallocate( renderer );
+		assertEquals( 0, gl.deleted );
+		assertEquals( 1, renderer.getPrograms().getUsedTimes( second ) );
+
+		second.deallocate( renderer );
+		assertEquals( 1, gl.deleted );
+		assertEquals( 1, renderer.getInfo().getMemory().programs );
+	}
+
+	@Test
+	public void testMaterialUpdateReusesProgram()
+	{
+		TestParallax.init();
+
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		Material first = new MeshBasicMaterial();
+		Material second = new MeshBasicMaterial();
+
+		Scene scene = createScene( first, second );
+		renderer.render( scene, camera );
+
+		first.setNeedsUpdate( true );
+		second.setNeedsUpdate( true );
+		renderer.render( scene, camera );
+
+		assertEquals( 1, gl.created );
+		assertEquals( 0, gl.deleted );
+		assertEquals( 1, renderer.getPrograms().size() );
+		assertEquals( 2, renderer.getPrograms().getUsedTimes( first ) );
+	}
+
+	@Test
+	public void testShaderMaterialRebuilt()
+	{
+		TestParallax.init();
+
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		ShaderMaterial material = new ShaderMaterial(
+				"void main() { gl_Position = vec4( 0.0 ); }", "void main() { gl_FragColor = vec4( 1.0 ); }" );
+
+		Scene scene = createScene( material );
+		renderer.render( scene, camera );
+
+		String vertex = gl.lastVertex;
+		int program = material.getShader().getProgram();
+
+		// the same program for the same parameters
+		material.setNeedsUpdate( true );
+		renderer.render( scene, camera );
+
+		assertEquals( 1, gl.created );
+		assertEquals( 0, gl.deleted );
+		assertEquals( program, material.getShader().getProgram() );
+
+		// built again with other defines, only the previous program is deleted
+		material.setSide( Material.SIDE.DOUBLE );
+		material.setNeedsUpdate( true );
+		renderer.render( scene, camera );
+
+		assertEquals( 2, gl.created );
+		assertEquals( 1, gl.deleted );
+		assertEquals( program, gl.lastDeleted );
+		assertTrue( material.getShader().getProgram() != program );
+		assertEquals( 1, renderer.getPrograms().size() );
+
+		// the defines are not added twice
+		assertEquals( vertex.length() + "#define DOUBLE_SIDED\n".length(), gl.lastVertex.length() );
+	}
+
+	@Test
+	public void testCollidingFingerprints()
+	{
+		TestParallax.init();
+
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+
+		// "Aa" and "BB" have equal hash codes
+		ShaderMaterial first = new ShaderMaterial( "Aa", "void main() {}" );
+		ShaderMaterial second = new ShaderMaterial( "BB", "void main() {}" );
+		assertEquals( first.getShader().getFingerprint(), second.getShader().getFingerprint() );
+
+		renderer.render( createScene( first, second ), camera );
+
+		assertEquals( 2, gl.created );
+		assertEquals( 2, renderer.getPrograms().size() );
+		assertTrue( first.getShader() != second.getShader() );
+	}
+
+	private static Scene createScene( Material... materials )
+	{
+		Scene scene = new Scene();
+		BoxGeometry geometry = new BoxGeometry( 1, 1, 1 );
+
+		for ( int i = 0; i < materials.length; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, materials[ i ] );
+			mesh.getPosition().set( i, 0, -10 );
+			scene.add( mesh );
+		}
+
+		return scene;
+	}
+}
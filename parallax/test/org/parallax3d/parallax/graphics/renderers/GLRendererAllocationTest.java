@@ -0,0 +1,125 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+
+import static org.junit.Assert.*;
+
+public class GLRendererAllocationTest
+{
+	private static final int WARMUP_FRAMES = 50;
+	private static final int FRAMES = 50;
+
+	@Test
+	public void testStaticSceneFrameAllocation()
+	{
+		com.sun.management.ThreadMXBean bean = threadBean();
+		if ( bean == null )
+			return;
+
+		long small = allocatedPerFrame( bean, 100 );
+		long large = allocatedPerFrame( bean, 2000 );
+
+		// steady state frames must not allocate per rendered object
+		assertTrue( "Frame allocation grows with the scene: " + small + " vs " + large + " bytes",
+				large < small + 2048 );
+		assertTrue( "Too many bytes allocated per frame: " + large, large < 4096 );
+	}
+
+	@Test
+	public void testRenderListsAreReused()
+	{
+		TestParallax.init();
+
+		GLRenderer renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		Scene scene = createScene( 10 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+
+		renderer.render( scene, camera );
+
+		GLRenderList opaque = renderer.opaqueObjects;
+		assertEquals( 10, opaque.size() );
+
+		renderer.render( scene, camera );
+
+		assertTrue( opaque == renderer.opaqueObjects );
+		assertEquals( 10, renderer.opaqueObjects.size() );
+		assertEquals( 10, renderer.getInfo().getRender().calls );
+	}
+
+	private long allocatedPerFrame( com.sun.management.ThreadMXBean bean, int count )
+	{
+		TestParallax.init();
+
+		GLRenderer renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		Scene scene = createScene( count );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+
+		for ( int i = 0; i < WARMUP_FRAMES; i++ )
+			renderer.render( scene, camera );
+
+		long threadId = Thread.currentThread().getId();
+		long before = bean.getThreadAllocatedBytes( threadId );
+
+		for ( int i = 0; i < FRAMES; i++ )
+			renderer.render( scene, camera );
+
+		return ( bean.getThreadAllocatedBytes( threadId ) - before ) / FRAMES;
+	}
+
+	private static Scene createScene( int count )
+	{
+		Scene scene = new Scene();
+		BoxGeometry geometry = new BoxGeometry( 1, 1, 1 );
+		MeshBasicMaterial material = new MeshBasicMaterial();
+
+		for ( int i = 0; i < count; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, material );
+			mesh.getPosition().set( ( i % 10 ) - 5, ( i / 10 % 10 ) - 5, -20 - i / 100 );
+			scene.add( mesh );
+		}
+
+		return scene;
+	}
+
+	private static com.sun.management.ThreadMXBean threadBean()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if ( !( bean instanceof com.sun.management.ThreadMXBean ) )
+			return null;
+
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+		if ( !sunBean.isThreadAllocatedMemorySupported() )
+			return null;
+
+		sunBean.setThreadAllocatedMemoryEnabled( true );
+		return sunBean;
+	}
+}
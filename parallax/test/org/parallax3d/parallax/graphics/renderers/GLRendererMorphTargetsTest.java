@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshLambertMaterial;
+import org.parallax3d.parallax.graphics.objects.MorphAnimMesh;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.math.Vector3;
+
+import static org.junit.Assert.*;
+
+public class GLRendererMorphTargetsTest
+{
+	static class MorphGL20 extends StubGL20
+	{
+		@Override
+		public int glGetAttribLocation(int program, String name)
+		{
+			return name.startsWith( "morphTarget" ) ? 3 + ( name.charAt( name.length() - 1 ) - '0' )
+					: super.glGetAttribLocation( program, name );
+		}
+	}
+
+	@Test
+	public void testSelectByDescendingInfluence()
+	{
+		int[] indices = new int[ 4 ];
+		double[] values = new double[ 4 ];
+
+		double[] influences = { 0.1, 0, 0.7, 0.3, -1, 0.05, 0.9, 0.3 };
+
+		assertEquals( 4, GLRenderer.selectMorphTargets( influences, 4, indices, values ) );
+
+		assertArrayEquals( new int[] { 6, 2, 3, 7 }, indices );
+		assertArrayEquals( new double[] { 0.9, 0.7, 0.3, 0.3 }, values, 0 );
+	}
+
+	@Test
+	public void testSelectFewerThanSupported()
+	{
+		int[] indices = new int[ 8 ];
+		double[] values = new double[ 8 ];
+
+		assertEquals( 2, GLRenderer.selectMorphTargets( new double[] { 0, 0.25, 0, 0.75 }, 8, indices, values ) );
+		assertEquals( 3, indices[ 0 ] );
+		assertEquals( 1, indices[ 1 ] );
+
+		assertEquals( 0, GLRenderer.selectMorphTargets( new double[] { 0, Double.NaN }, 8, indices, values ) );
+		assertEquals( 0, GLRenderer.selectMorphTargets( new double[] { 1 }, 0, indices, values ) );
+	}
+
+	@Test
+	public void testRenderMorphAnimMesh()
+	{
+		TestParallax.init();
+
+		Geometry geometry = new BoxGeometry( 1, 1, 1 );
+		for ( int t = 0; t < 12; t++ )
+		{
+			Geometry.MorphTarget target = geometry.new MorphTarget();
+			target.name = "target" + t;
+			target.vertices = new ArrayList<Vector3>();
+
+			List<Vector3> vertices = geometry.getVertices();
+			for ( int v = 0; v < vertices.size(); v++ )
+				target.vertices.add( vertices.get( v ).clone().multiply( 1 + t * 0.1 ) );
+
+			geometry.getMorphTargets().add( target );
+		}
+
+		MeshLambertMaterial material = new MeshLambertMaterial();
+		material.setMorphTargets( true );
+
+		MorphAnimMesh mesh = new MorphAnimMesh( geometry, material );
+		mesh.getPosition().set( 0, 0, -10 );
+		mesh.interpolateTargets( 3, 9, 0.25 );
+
+		Scene scene = new Scene();
+		scene.add( mesh );
+
+		GLRenderer renderer = new GLRenderer( new MorphGL20(), 640, 480 );
+		renderer.render( scene, new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 ) );
+
+		assertEquals( 0.75, mesh.__webglMorphTargetInfluences.get( 0 ), 1e-6 );
+		assertEquals( 0.25, mesh.__webglMorphTargetInfluences.get( 1 ), 1e-6 );
+		assertEquals( 0, mesh.__webglMorphTargetInfluences.get( 2 ), 0 );
+	}
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.nio.FloatBuffer;
+
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.materials.MeshLambertMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+
+import static org.junit.Assert.*;
+
+public class GLRendererStateTest
+{
+	static class CountingGL20 extends StubGL20
+	{
+		int programs;
+		int buffers;
+		int pointers;
+		int matrices;
+		int normalMatrices;
+
+		@Override
+		public void glUseProgram(int program)
+		{
+			programs++;
+		}
+
+		@Override
+		public void glBindBuffer(int target, int buffer)
+		{
+			buffers++;
+		}
+
+		@Override
+		public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr)
+		{
+			pointers++;
+		}
+
+		@Override
+		public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value)
+		{
+			matrices++;
+		}
+
+		@Override
+		public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value)
+		{
+			normalMatrices++;
+		}
+
+		void reset()
+		{
+			programs = 0;
+			buffers = 0;
+			pointers = 0;
+			matrices = 0;
+			normalMatrices = 0;
+		}
+	}
+
+	@Test
+	public void testSortByKey()
+	{
+		GLRenderList list = new GLRenderList();
+		long[] keys = { 5L, -1L, 0x100L, 5L, 0L, Long.MIN_VALUE, 0x100L };
+
+		for ( int i = 0; i < keys.length; i++ )
+		{
+			GLObject object = new GLObject( null, null );
+			object.id = i;
+			object.sortKey = keys[ i ];
+			list.add( object );
+		}
+
+		list.sortByKey();
+
+		// unsigned order, equal keys keep their order
+		int[] expected = { 4, 0, 3, 2, 6, 5, 1 };
+		for ( int i = 0; i < expected.length; i++ )
+			assertEquals( expected[ i ], list.get( i ).id );
+	}
+
+	@Test
+	public void testOpaqueObjectsGroupedByState()
+	{
+		TestParallax.init();
+
+		GLRenderer renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		BufferGeometry geometry = new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) );
+		Material basic = new MeshBasicMaterial();
+		Material lambert = new MeshLambertMaterial();
+
+		Scene scene = new Scene();
+		for ( int i = 0; i < 20; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, i % 2 == 0 ? basic : lambert );
+			mesh.getPosition().set( 0, 0, -10 - i );
+			scene.add( mesh );
+		}
+
+		// programs are linked on the first frame
+		renderer.render( scene, camera );
+		renderer.render( scene, camera );
+
+		GLRenderList list = renderer.opaqueObjects;
+		int switches = 0;
+
+		// lists are drawn from the end
+		for ( int i = list.size() - 2; i >= 0; i-- )
+		{
+			GLObject previous = list.get( i + 1 );
+			GLObject current = list.get( i );
+
+			if ( previous.material != current.material )
+				switches++;
+			else
+				assertTrue( "Not front-to-back", previous.z <= current.z );
+		}
+
+		assertEquals( 1, switches );
+	}
+
+	@Test
+	public void testTransparentObjectsBackToFront()
+	{
+		TestParallax.init();
+
+		GLRenderer renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		BufferGeometry geometry = new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) );
+		Material a = new MeshBasicMaterial().setTransparent( true );
+		Material b = new MeshBasicMaterial().setTransparent( true );
+
+		Scene scene = new Scene();
+		for ( int i = 0; i < 20; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, i % 2 == 0 ? a : b );
+			mesh.getPosition().set( 0, 0, -10 - i );
+			scene.add( mesh );
+		}
+
+		renderer.render( scene, camera );
+
+		GLRenderList list = renderer.transparentObjects;
+		assertEquals( 20, list.size() );
+
+		for ( int i = list.size() - 2; i >= 0; i-- )
+			assertTrue( "Not back-to-front", list.get( i + 1 ).z >= list.get( i ).z );
+	}
+
+	@Test
+	public void testRedundantStateIsSkipped()
+	{
+		TestParallax.init();
+
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		BufferGeometry geometry = new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) );
+		Material basic = new MeshBasicMaterial();
+		Material lambert = new MeshLambertMaterial();
+
+		Scene scene = new Scene();
+		for ( int i = 0; i < 100; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, i % 2 == 0 ? basic : lambert );
+			mesh.getPosition().set( ( i % 10 ) - 5, ( i / 10 ) - 5, -20 );
+			scene.add( mesh );
+		}
+
+		renderer.render( scene, camera );
+		gl.reset();
+		renderer.render( scene, camera );
+
+		GLRendererInfo.WebGLRenderInfoState state = renderer.getInfo().getState();
+
+		assertEquals( 100, renderer.getInfo().getRender().calls );
+
+		// the first program is still in use from the previous frame
+		assertEquals( 1, gl.programs );
+		assertEquals( 99, state.programs );
+
+		// the second program reuses the attribute pointers of the first one
+		assertEquals( 3, gl.pointers );
+		assertEquals( 3, state.attributes );
+		assertTrue( state.getRedundant() > 0 );
+	}
+
+	@Test
+	public void testUnchangedUniformsAreSkipped()
+	{
+		TestParallax.init();
+
+		CountingGL20 gl = new CountingGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		BufferGeometry geometry = new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) );
+		Material material = new MeshBasicMaterial();
+
+		Scene scene = new Scene();
+		for ( int i = 0; i < 10; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, material );
+			mesh.getPosition().set( i - 5, 0, -20 );
+			scene.add( mesh );
+		}
+
+		renderer.render( scene, camera );
+		gl.reset();
+		renderer.render( scene, camera );
+
+		// only model and model-view matrices differ between the objects,
+		// camera matrices and the normal matrix are the same as in the last frame
+		assertEquals( 20, gl.matrices );
+		assertEquals( 0, gl.normalMatrices );
+		assertTrue( renderer.getInfo().getState().uniforms >= 12 );
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.lights.AmbientLight;
+import org.parallax3d.parallax.graphics.lights.Light;
+import org.parallax3d.parallax.graphics.lights.PointLight;
+import org.parallax3d.parallax.graphics.lights.SpotLight;
+import org.parallax3d.parallax.graphics.materials.MeshPhongMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.system.gl.GL20;
+
+import static org.junit.Assert.*;
+
+public class LightClustersTest
+{
+	private PerspectiveCamera camera;
+
+	// reports float textures and keeps the sources of the compiled shaders
+	static class FloatTexturesGL20 extends StubGL20
+	{
+		List<String> sources = new ArrayList<String>();
+
+		@Override
+		public String glGetString(int name)
+		{
+			return name == GL20.GL_EXTENSIONS ? "OES_texture_float" : null;
+		}
+
+		@Override
+		public void glShaderSource(int shader, String string)
+		{
+			sources.add( string );
+		}
+	}
+
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+
+		camera = new PerspectiveCamera( 90, 1, 1, 1000 );
+		camera.updateMatrixWorld( false );
+		camera.getMatrixWorldInverse().getInverse( camera.getMatrixWorld() );
+	}
+
+	@After
+	public void tearDown()
+	{
+		GLExtensions.extensions.clear();
+	}
+
+	private static PointLight addLight( List<Light> lights, double x, double y, double z, double distance )
+	{
+		PointLight light = new PointLight( 0xffffff, 1, distance );
+		light.getPosition().set( x, y, z );
+		light.updateMatrixWorld( false );
+		lights.add( light );
+
+		return light;
+	}
+
+	@Test
+	public void testLightsBinnedIntoNearClusters()
+	{
+		LightClusters clusters = new LightClusters( 4, 4, 8 );
+		List<Light> lights = new ArrayList<Light>();
+
+		addLight( lights, 0, 0, -10, 1 );
+		// without a distance, behind the camera and beyond the far plane
+		addLight( lights, 0, 0, -10, 0 );
+		addLight( lights, 0, 0, 10, 1 );
+		addLight( lights, 0, 0, -2000, 1 );
+		lights.add( new AmbientLight( 0x101010 ) );
+
+		clusters.update( camera, lights, false );
+
+		assertEquals( 3, clusters.getLights().size() );
+
+		// depth 10 is in the slice 2 of 8 between 1 and 1000
+		int total = 0;
+		for ( int z = 0; z < 8; z ++ )
+			for ( int y = 0; y < 4; y ++ )
+				for ( int x = 0; x < 4; x ++ )
+				{
+					int count = clusters.getClusterLights( x, y, z );
+					total += count;
+
+					if ( count > 0 )
+					{
+						assertEquals( 2, z );
+						assertTrue( x == 1 || x == 2 );
+						assertTrue( y == 1 || y == 2 );
+					}
+				}
+
+		assertEquals( 4, total );
+		assertEquals( 4, clusters.getIndexCount() );
+		assertEquals( 1, clusters.getClusterLights( 2, 2, 2 ) );
+	}
+
+	@Test
+	public void testSpotLightsAndClusterLimit()
+	{
+		LightClusters clusters = new LightClusters( 4, 4, 8 ).setMaxClusterLights( 2 );
+		List<Light> lights = new ArrayList<Light>();
+
+		for ( int i = 0; i < 3; i ++ )
+			addLight( lights, 0.1, 0.1, -10, 1 );
+
+		SpotLight spot = new SpotLight( 0xffffff, 1, 1, Math.PI / 4, 10 );
+		spot.getPosition().set( 0, 0, -10 );
+		spot.updateMatrixWorld( false );
+		lights.add( spot );
+
+		assertTrue( LightClusters.isClustered( spot ) );
+
+		clusters.update( camera, lights, false );
+
+		assertEquals( 4, clusters.getLights().size() );
+		assertEquals( 2, clusters.getClusterLights( 2, 2, 2 ) );
+	}
+
+	@Test
+	public void testProgramIndependentOfLightCount()
+	{
+		FloatTexturesGL20 gl = new FloatTexturesGL20();
+		GLRenderer renderer = new GLRenderer( gl, 640, 480 );
+		renderer.setLightClusters( new LightClusters() );
+		assertNotNull( renderer.getLightClusters() );
+
+		Scene scene = new Scene();
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 1000 );
+		camera.getPosition().setZ( 100 );
+
+		scene.add( new Mesh( new BoxGeometry( 10, 10, 10 ), new MeshPhongMaterial() ) );
+
+		for ( int i = 0; i < 500; i ++ )
+		{
+			PointLight light = new PointLight( 0xffffff, 1, 20 );
+			light.getPosition().set( i % 50 - 25, i / 50 - 5, 0 );
+			scene.add( light );
+		}
+
+		renderer.render( scene, camera );
+
+		assertEquals( 1, renderer.getPrograms().size() );
+		assertEquals( 500, renderer.getLightClusters().getLights().size() );
+
+		String fragment = gl.sources.get( 1 );
+		assertTrue( fragment.contains( "#define MAX_POINT_LIGHTS 0" ) );
+		assertTrue( fragment.contains( "#define MAX_CLUSTER_LIGHTS 32" ) );
+	}
+
+	@Test
+	public void testClustersNeedFloatTextures()
+	{
+		GLRenderer renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		renderer.setLightClusters( new LightClusters() );
+
+		assertNull( renderer.getLightClusters() );
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.lights.DirectionalLight;
+import org.parallax3d.parallax.graphics.lights.SpotLight;
+import org.parallax3d.parallax.graphics.materials.MeshLambertMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.scenes.DynamicAABBTree;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+
+import static org.junit.Assert.*;
+
+public class ShadowMapTest
+{
+	private Scene scene;
+	private PerspectiveCamera camera;
+	private GLRenderer renderer;
+	private ShadowMap shadowMap;
+
+	private Mesh near;
+	private Mesh far;
+
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+
+		scene = new Scene();
+		camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 10000 );
+		camera.getPosition().setZ( 3000 );
+
+		renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		shadowMap = new ShadowMap( renderer, scene );
+
+		MeshLambertMaterial material = new MeshLambertMaterial();
+
+		// inside and outside of the light frustum, both seen by the camera
+		near = new Mesh( new BoxGeometry( 10, 10, 10 ), material );
+		near.setCastShadow( true );
+		scene.add( near );
+
+		far = new Mesh( new BoxGeometry( 10, 10, 10 ), material );
+		far.setCastShadow( true );
+		far.getPosition().setX( 1000 );
+		scene.add( far );
+	}
+
+	private SpotLight addLight( double x )
+	{
+		SpotLight light = new SpotLight( 0xffffff );
+		light.getPosition().set( x, 100, 0 );
+		light.getTarget().getPosition().setX( x );
+		light.getTarget().updateMatrixWorld( false );
+		light.setCastShadow( true );
+		scene.add( light );
+
+		return light;
+	}
+
+	@Test
+	public void testCachedMapRenderedWhenCasterMoved()
+	{
+		SpotLight light = addLight( 0 );
+		shadowMap.setCached( true );
+
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+		assertNotNull( light.getShadowMap() );
+
+		renderer.render( scene, camera );
+		assertEquals( 0, shadowMap.getRenderedMaps() );
+
+		// outside of the light frustum
+		far.getPosition().setY( 5 );
+		renderer.render( scene, camera );
+		assertEquals( 0, shadowMap.getRenderedMaps() );
+
+		near.getPosition().setY( 5 );
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+
+		light.setShadowMapNeedsUpdate( true );
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+		assertFalse( light.isShadowMapNeedsUpdate() );
+
+		light.getPosition().setY( 200 );
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+
+		shadowMap.setCached( false );
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+	}
+
+	@Test
+	public void testCachedMapWithSceneIndex()
+	{
+		scene.setSceneIndex( new DynamicAABBTree() );
+
+		addLight( 0 );
+		shadowMap.setCached( true );
+
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+
+		far.getPosition().setY( 5 );
+		renderer.render( scene, camera );
+		assertEquals( 0, shadowMap.getRenderedMaps() );
+
+		near.getPosition().setY( 5 );
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+
+		near.setVisible( false );
+		renderer.render( scene, camera );
+		assertEquals( 1, shadowMap.getRenderedMaps() );
+	}
+
+	@Test
+	public void testUpdateInterval()
+	{
+		SpotLight light = addLight( 0 );
+		light.setShadowMapUpdateInterval( 3 );
+
+		int rendered = 0;
+		for ( int i = 0; i < 6; i++ )
+		{
+			renderer.render( scene, camera );
+			rendered += shadowMap.getRenderedMaps();
+		}
+
+		assertEquals( 2, rendered );
+	}
+
+	@Test
+	public void testCascadeUpdateInterval()
+	{
+		scene.add( camera );
+
+		DirectionalLight light = new DirectionalLight( 0xffffff );
+		light.setCastShadow( true );
+		light.setShadowCascade( true );
+		light.setShadowCascadeUpdateInterval( new int[] { 1, 2, 2 } );
+		scene.add( light );
+
+		int rendered = 0;
+		for ( int i = 0; i < 4; i++ )
+		{
+			renderer.render( scene, camera );
+			rendered += shadowMap.getRenderedMaps();
+		}
+
+		assertEquals( 2, light.getShadowCascadeArray().size() );
+		assertEquals( 4 + 2, rendered );
+	}
+
+	@Test
+	public void testAtlas()
+	{
+		ShadowAtlas atlas = new ShadowAtlas( 2048, 1024 );
+		shadowMap.setAtlas( atlas );
+
+		SpotLight first = addLight( 0 );
+		SpotLight second = addLight( 1000 );
+		SpotLight third = addLight( -1000 );
+		third.setShadowMapWidth( 1024 ).setShadowMapHeight( 1024 );
+
+		renderer.render( scene, camera );
+		assertEquals( 3, shadowMap.getRenderedMaps() );
+
+		assertSame( atlas.getTexture(), first.getShadowMap() );
+		assertSame( atlas.getTexture(), second.getShadowMap() );
+		assertEquals( 0, first.getShadowMapTile().getX(), 0 );
+		assertEquals( 0.25, first.getShadowMapTile().getZ(), 0 );
+		assertEquals( 0.5, first.getShadowMapTile().getW(), 0 );
+		assertEquals( ( 512.0 + ShadowAtlas.PADDING ) / 2048, second.getShadowMapTile().getX(), 0 );
+		assertEquals( 2048, second.getShadowMapSize().getX(), 0 );
+
+		// does not fit next to the others
+		assertNotSame( atlas.getTexture(), third.getShadowMap() );
+		assertEquals( 1, third.getShadowMapTile().getZ(), 0 );
+		assertEquals( 1024, third.getShadowMapSize().getX(), 0 );
+	}
+}
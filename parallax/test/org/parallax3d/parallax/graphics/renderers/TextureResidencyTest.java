@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.graphics.renderers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.files.FileHandle;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.graphics.textures.DataTexture;
+import org.parallax3d.parallax.graphics.textures.Texture;
+import org.parallax3d.parallax.graphics.textures.TextureData;
+import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.enums.PixelFormat;
+import org.parallax3d.parallax.system.gl.enums.PixelType;
+
+import static org.junit.Assert.*;
+
+public class TextureResidencyTest
+{
+	// 64x64 RGBA with mipmaps
+	private static final long TEXTURE_BYTES = 64 * 64 * 4 * 4 / 3;
+
+	// loaded image of the given size
+	static class SizedTextureData implements TextureData
+	{
+		int size;
+
+		SizedTextureData( int size )
+		{
+			this.size = size;
+		}
+
+		public void load(FileHandle file, TextureLoadHandler textureLoadHandler) { }
+		public void glTexImage2D(GL20 gl, int target, PixelFormat pixelFormat, PixelType pixelType) { }
+		public int getWidth() { return size; }
+		public int getHeight() { return size; }
+		public TextureData clampToMaxSize(int maxSize) { return this; }
+		public boolean isPowerOfTwo() { return true; }
+		public TextureData toPowerOfTwo() { return this; }
+		public void recycle() { }
+	}
+
+	private Scene scene;
+	private PerspectiveCamera camera;
+	private GLRenderer renderer;
+
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+
+		scene = new Scene();
+		camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 10000 );
+		camera.getPosition().setZ( 500 );
+
+		renderer = new GLRenderer( new StubGL20(), 640, 480 );
+	}
+
+	private Texture addMesh( double x )
+	{
+		Texture texture = new Texture( new SizedTextureData( 64 ) );
+		texture.setNeedsUpdate( true );
+
+		Mesh mesh = new Mesh( new BoxGeometry( 10, 10, 10 ), new MeshBasicMaterial().setMap( texture ) );
+		mesh.getPosition().setX( x );
+		scene.add( mesh );
+
+		return texture;
+	}
+
+	@Test
+	public void testByteSize()
+	{
+		Texture texture = new Texture( new SizedTextureData( 64 ) );
+		assertEquals( TEXTURE_BYTES, TextureResidency.getByteSize( texture ) );
+
+		texture.setGenerateMipmaps( false ).setFormat( PixelFormat.RGB );
+		assertEquals( 64 * 64 * 3, TextureResidency.getByteSize( texture ) );
+
+		DataTexture data = new DataTexture( Float32Array.create( 4 * 4 * 4 ), 4, 4, PixelFormat.RGBA, PixelType.FLOAT );
+		data.setGenerateMipmaps( false );
+		assertEquals( 4 * 4 * 16, TextureResidency.getByteSize( data ) );
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEvicted()
+	{
+		TextureResidency residency = new TextureResidency( 2 * TEXTURE_BYTES ).setEvictionFrames( 2 );
+		renderer.setTextureResidency( residency );
+
+		Texture first = addMesh( -50 );
+		Texture second = addMesh( 0 );
+		Texture third = addMesh( 50 );
+
+		// over the budget, but all textures are in use
+		renderer.render( scene, camera );
+		assertEquals( 3, residency.getUploads() );
+		assertEquals( 3 * TEXTURE_BYTES, residency.getResidentBytes() );
+		assertEquals( 0, residency.getEvictions() );
+
+		scene.getChildren().get( 0 ).setVisible( false );
+
+		renderer.render( scene, camera );
+		assertEquals( 0, residency.getEvictions() );
+
+		renderer.render( scene, camera );
+		assertEquals( 1, residency.getEvictions() );
+		assertEquals( 2 * TEXTURE_BYTES, residency.getResidentBytes() );
+		assertEquals( 2, renderer.getInfo().getMemory().textures );
+
+		assertFalse( residency.isResident( first ) );
+		assertEquals( 0, first.getWebGlTexture() );
+		assertTrue( first.isNeedsUpdate() );
+		assertTrue( residency.isResident( second ) );
+		assertTrue( residency.isResident( third ) );
+
+		// uploaded again when it is needed
+		scene.getChildren().get( 0 ).setVisible( true );
+		renderer.render( scene, camera );
+		assertEquals( 1, residency.getUploads() );
+		assertTrue( residency.isResident( first ) );
+		assertTrue( first.getWebGlTexture() != 0 );
+
+		first.deallocate( renderer );
+		assertFalse( residency.isResident( first ) );
+		assertEquals( 2 * TEXTURE_BYTES, residency.getResidentBytes() );
+	}
+
+	@Test
+	public void testUploadsSpreadOverFrames()
+	{
+		TextureResidency residency = new TextureResidency( 100 * TEXTURE_BYTES ).setUploadBudget( TEXTURE_BYTES + 100 );
+		renderer.setTextureResidency( residency );
+
+		Texture fallback = new Texture( new SizedTextureData( 1 ) );
+		fallback.setNeedsUpdate( true );
+
+		addMesh( -50 );
+		addMesh( 0 ).setFallback( fallback );
+		addMesh( 50 ).setFallback( fallback );
+
+		// the first texture and the fallback
+		renderer.render( scene, camera );
+		assertEquals( 2, residency.getUploads() );
+		assertEquals( 2, residency.getDeferred() );
+		assertTrue( fallback.getWebGlTexture() != 0 );
+
+		renderer.render( scene, camera );
+		assertEquals( 1, residency.getUploads() );
+		assertEquals( 1, residency.getDeferred() );
+
+		renderer.render( scene, camera );
+		assertEquals( 1, residency.getUploads() );
+		assertEquals( 0, residency.getDeferred() );
+		assertEquals( 4, residency.getResidentTextures() );
+	}
+}
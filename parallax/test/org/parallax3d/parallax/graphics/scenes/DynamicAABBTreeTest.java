@@ -0,0 +1,208 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.scenes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.GeometryObject;
+import org.parallax3d.parallax.graphics.core.Object3D;
+import org.parallax3d.parallax.graphics.core.Raycaster;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.lights.PointLight;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.renderers.GLRenderer;
+import org.parallax3d.parallax.graphics.renderers.StubGL20;
+import org.parallax3d.parallax.math.Frustum;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.math.Vector3;
+
+import static org.junit.Assert.*;
+
+public class DynamicAABBTreeTest
+{
+	private static final int COUNT = 2000;
+
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+	}
+
+	@Test
+	public void testFrustumQuery()
+	{
+		Scene scene = createScene( COUNT );
+		DynamicAABBTree tree = new DynamicAABBTree();
+		scene.setSceneIndex( tree );
+		assertEquals( COUNT, tree.size() );
+
+		// Balanced tree
+		assertTrue( "Height " + tree.getHeight(), tree.getHeight() < 3 * Math.log( COUNT ) / Math.log( 2 ) );
+
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 1, 1, 200 );
+		camera.updateMatrixWorld( true );
+		camera.getMatrixWorldInverse().getInverse( camera.getMatrixWorld() );
+
+		Frustum frustum = new Frustum().setFromMatrix(
+				new Matrix4().multiply( camera.getProjectionMatrix(), camera.getMatrixWorldInverse() ) );
+
+		Set<GeometryObject> found = new HashSet<GeometryObject>();
+		List<GeometryObject> result = new ArrayList<GeometryObject>();
+		tree.intersectFrustum( frustum, result );
+		found.addAll( result );
+
+		int visible = 0;
+		for ( Object3D object : scene.getChildren() )
+		{
+			if ( frustum.isIntersectsObject( (GeometryObject) object ) )
+			{
+				assertTrue( found.contains( object ) );
+				visible++;
+			}
+		}
+
+		assertTrue( visible > 0 );
+		assertTrue( result.size() < COUNT );
+	}
+
+	@Test
+	public void testRaycast()
+	{
+		Scene scene = createScene( COUNT );
+		Random random = new Random( 3 );
+
+		List<Scene> objects = new ArrayList<Scene>();
+		objects.add( scene );
+
+		Raycaster raycaster = new Raycaster();
+
+		for ( int i = 0; i < 100; i++ )
+		{
+			Vector3 origin = new Vector3( random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, 50 );
+			Vector3 target = new Vector3( random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, -150 );
+			raycaster.set( origin, target.sub( origin ).normalize() );
+
+			scene.setSceneIndex( null );
+			List<Raycaster.Intersect> expected = raycaster.intersectObjects( objects, true );
+
+			scene.setSceneIndex( new DynamicAABBTree() );
+			List<Raycaster.Intersect> actual = raycaster.intersectObjects( objects, true );
+
+			assertEquals( expected.size(), actual.size() );
+			for ( int j = 0; j < expected.size(); j++ )
+				assertEquals( expected.get( j ).distance, actual.get( j ).distance, 1e-9 );
+		}
+	}
+
+	@Test
+	public void testSceneUpdatesIndex()
+	{
+		Scene scene = new Scene();
+		DynamicAABBTree tree = new DynamicAABBTree();
+		scene.setSceneIndex( tree );
+
+		Object3D group = new Object3D();
+		Mesh mesh = new Mesh( new BoxGeometry( 1, 1, 1 ), new MeshBasicMaterial() );
+		Mesh unculled = new Mesh( new BoxGeometry( 1, 1, 1 ), new MeshBasicMaterial() );
+		unculled.setFrustumCulled( false );
+		PointLight light = new PointLight( 0xffffff );
+
+		group.add( mesh );
+		group.add( unculled );
+		group.add( light );
+		scene.add( group );
+
+		assertEquals( 1, tree.size() );
+		assertEquals( 1, scene.getUnindexedObjects().size() );
+		assertEquals( 1, scene.getLights().size() );
+
+		// Move the group far away
+		group.getPosition().set( 1000, 0, 0 );
+		scene.updateMatrixWorld( false );
+
+		List<GeometryObject> result = new ArrayList<GeometryObject>();
+		Raycaster raycaster = new Raycaster( new Vector3( 1000, 0, 10 ), new Vector3( 0, 0, -1 ) );
+		tree.intersectRay( raycaster.getRay(), Double.POSITIVE_INFINITY, result );
+		assertEquals( 1, result.size() );
+		assertTrue( result.get( 0 ) == mesh );
+
+		result.clear();
+		raycaster.set( new Vector3( 0, 0, 10 ), new Vector3( 0, 0, -1 ) );
+		tree.intersectRay( raycaster.getRay(), Double.POSITIVE_INFINITY, result );
+		assertEquals( 0, result.size() );
+
+		mesh.setFrustumCulled( false );
+		assertEquals( 0, tree.size() );
+		assertEquals( 2, scene.getUnindexedObjects().size() );
+
+		scene.remove( group );
+		assertEquals( 0, tree.size() );
+		assertEquals( 0, scene.getUnindexedObjects().size() );
+		assertEquals( 0, scene.getLights().size() );
+		assertNull( mesh.getScene() );
+	}
+
+	@Test
+	public void testRendererUsesIndex()
+	{
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 1, 1, 200 );
+
+		GLRenderer renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		Scene scene = createScene( COUNT );
+		renderer.render( scene, camera );
+		int expected = renderer.getInfo().getRender().calls;
+
+		scene.setSceneIndex( new DynamicAABBTree() );
+		renderer.render( scene, camera );
+
+		assertTrue( expected > 0 && expected < COUNT );
+		assertEquals( expected, renderer.getInfo().getRender().calls );
+	}
+
+	/*
+	 * Boxes scattered in front of and behind the camera at the origin looking down -z
+	 */
+	private Scene createScene( int count )
+	{
+		Scene scene = new Scene();
+		BoxGeometry geometry = new BoxGeometry( 1, 1, 1 );
+		MeshBasicMaterial material = new MeshBasicMaterial();
+		Random random = new Random( 1 );
+
+		for ( int i = 0; i < count; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, material );
+			mesh.getPosition().set( random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100, random.nextDouble() * 300 - 200 );
+			scene.add( mesh );
+		}
+
+		scene.updateMatrixWorld( true );
+
+		return scene;
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.graphics.scenes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.BufferAttribute;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.renderers.GLRenderer;
+import org.parallax3d.parallax.graphics.renderers.StubGL20;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint16Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint32Array;
+
+import static org.junit.Assert.*;
+
+public class StaticBatchingTest
+{
+	// BoxGeometry becomes 36 vertices
+	private static final int BOX_VERTICES = 36;
+
+	private GLRenderer renderer;
+	private PerspectiveCamera camera;
+
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+
+		renderer = new GLRenderer( new StubGL20(), 640, 480 );
+		camera = new PerspectiveCamera( 45, 640.0 / 480.0, 1, 10000 );
+		camera.getPosition().set( 0, 0, 500 );
+	}
+
+	@Test
+	public void testMergesSharedMaterial()
+	{
+		Scene scene = new Scene();
+		StaticBatching batching = new StaticBatching( 1000 );
+		scene.setStaticBatching( batching );
+
+		List<Mesh> meshes = addGrid( scene, batching, 300, new MeshBasicMaterial() );
+
+		renderer.render( scene, camera );
+
+		assertEquals( 1, batching.getBatches().size() );
+		assertEquals( 1, renderer.getInfo().getRender().calls );
+		assertEquals( 300 * 12, renderer.getInfo().getRender().faces );
+		assertTrue( batching.isBatched( meshes.get( 0 ) ) );
+
+		BufferGeometry geometry = batching.getBatches().get( 0 ).getGeometry();
+		assertEquals( 300 * BOX_VERTICES * 3, geometry.getAttribute( "position" ).getArray().getLength() );
+
+		// a second material gets its own batch
+		addGrid( scene, batching, 10, new MeshBasicMaterial() );
+		renderer.render( scene, camera );
+
+		assertEquals( 2, batching.getBatches().size() );
+		assertEquals( 2, renderer.getInfo().getRender().calls );
+	}
+
+	@Test
+	public void testSplitsOn16BitIndices()
+	{
+		Scene scene = new Scene();
+		StaticBatching batching = new StaticBatching( 100000 );
+		scene.setStaticBatching( batching );
+
+		addGrid( scene, batching, 2000, new MeshBasicMaterial() );
+		renderer.render( scene, camera );
+
+		BufferGeometry geometry = batching.getBatches().get( 0 ).getGeometry();
+		List<BufferGeometry.DrawCall> drawcalls = geometry.getDrawcalls();
+
+		assertEquals( 2, drawcalls.size() );
+		assertEquals( 2, renderer.getInfo().getRender().calls );
+		assertEquals( 2000 * BOX_VERTICES, drawcalls.get( 0 ).count + drawcalls.get( 1 ).count );
+		assertTrue( drawcalls.get( 1 ).index <= 65535 );
+		assertTrue( 2000 * BOX_VERTICES - drawcalls.get( 1 ).index <= 65535 );
+	}
+
+	@Test
+	public void testMerges32BitIndices()
+	{
+		Scene scene = new Scene();
+		StaticBatching batching = new StaticBatching( 1000 );
+		scene.setStaticBatching( batching );
+
+		BufferGeometry quad = new BufferGeometry();
+		quad.addAttribute( "position", new BufferAttribute( Float32Array.create( new float[] {
+				0, 0, 0,  1, 0, 0,  1, 1, 0,  0, 1, 0 } ), 3 ) );
+		quad.addAttribute( "index", new BufferAttribute( Uint32Array.create( new int[] { 0, 1, 2, 0, 2, 3 } ), 1 ) );
+
+		MeshBasicMaterial material = new MeshBasicMaterial();
+		for ( int i = 0; i < 2; i++ )
+		{
+			Mesh mesh = new Mesh( quad, material );
+			scene.add( mesh );
+			assertTrue( batching.add( mesh ) );
+		}
+
+		renderer.render( scene, camera );
+
+		Uint16Array index = (Uint16Array) batching.getBatches().get( 0 ).getGeometry().getAttribute( "index" ).getArray();
+		assertEquals( 12, index.getLength() );
+		assertEquals( 3, index.get( 5 ) );
+		assertEquals( 4, index.get( 6 ) );
+		assertEquals( 7, index.get( 11 ) );
+	}
+
+	@Test
+	public void testCullsCells()
+	{
+		Scene scene = new Scene();
+		StaticBatching batching = new StaticBatching( 100 );
+		scene.setStaticBatching( batching );
+
+		// ten cells along x, the camera only sees those around the origin
+		MeshBasicMaterial material = new MeshBasicMaterial();
+		for ( int i = 0; i < 100; i++ )
+		{
+			Mesh mesh = new Mesh( new BoxGeometry( 1, 1, 1 ), material );
+			mesh.getPosition().set( i * 50 + 25, 0, 0 );
+			scene.add( mesh );
+			batching.add( mesh );
+		}
+
+		camera.getPosition().set( 0, 0, 100 );
+		renderer.render( scene, camera );
+
+		assertEquals( 50, batching.getBatches().size() );
+		assertTrue( renderer.getInfo().getRender().calls > 0 );
+		assertTrue( renderer.getInfo().getRender().calls < 5 );
+	}
+
+	@Test
+	public void testRebuildsDirtyMembers()
+	{
+		Scene scene = new Scene();
+		StaticBatching batching = new StaticBatching( 1000 );
+		scene.setStaticBatching( batching );
+
+		List<Mesh> meshes = addGrid( scene, batching, 10, new MeshBasicMaterial() );
+		renderer.render( scene, camera );
+
+		BufferGeometry geometry = batching.getBatches().get( 0 ).getGeometry();
+		double x = ((Float32Array) geometry.getAttribute( "position" ).getArray()).get( 0 );
+
+		// moving a member is not picked up until it is marked
+		meshes.get( 0 ).getPosition().setX( meshes.get( 0 ).getPosition().getX() + 5 );
+		renderer.render( scene, camera );
+		assertEquals( x, ((Float32Array) geometry.getAttribute( "position" ).getArray()).get( 0 ), 1e-6 );
+
+		batching.setNeedsUpdate( meshes.get( 0 ) );
+		renderer.render( scene, camera );
+		assertEquals( x + 5, ((Float32Array) geometry.getAttribute( "position" ).getArray()).get( 0 ), 1e-6 );
+
+		// removed from the scene, the member leaves its batch
+		scene.remove( meshes.get( 1 ) );
+		renderer.render( scene, camera );
+
+		assertFalse( batching.isBatched( meshes.get( 1 ) ) );
+		assertEquals( 9 * BOX_VERTICES * 3, geometry.getAttribute( "position" ).getArray().getLength() );
+		assertEquals( 1, renderer.getInfo().getRender().calls );
+
+		// hidden members are drawn on their own, or not at all
+		meshes.get( 2 ).setVisible( false );
+		batching.setNeedsUpdate( meshes.get( 2 ) );
+		renderer.render( scene, camera );
+
+		assertFalse( batching.isBatched( meshes.get( 2 ) ) );
+		assertEquals( 8 * BOX_VERTICES * 3, geometry.getAttribute( "position" ).getArray().getLength() );
+		assertEquals( 1, renderer.getInfo().getRender().calls );
+	}
+
+	private static List<Mesh> addGrid( Scene scene, StaticBatching batching, int count, MeshBasicMaterial material )
+	{
+		List<Mesh> meshes = new ArrayList<Mesh>();
+		BoxGeometry geometry = new BoxGeometry( 1, 1, 1 );
+
+		for ( int i = 0; i < count; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, material );
+			mesh.getPosition().set( ( i % 20 ) * 2, ( i / 20 % 20 ) * 2, ( i / 400 ) * 2 );
+			scene.add( mesh );
+			assertTrue( batching.add( mesh ) );
+			meshes.add( mesh );
+		}
+
+		return meshes;
+	}
+}
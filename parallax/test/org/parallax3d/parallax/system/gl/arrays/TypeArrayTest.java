@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.system.gl.arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TypeArrayTest
+{
+	@Test
+	public void testResizableGrowsGeometrically()
+	{
+		Float32Array array = Float32Array.createArray();
+		assertEquals( 0, array.getLength() );
+		assertEquals( 0, array.getCapacity() );
+
+		int reallocations = 0;
+		int capacity = 0;
+		for ( int i = 0; i < 10000; i++ )
+		{
+			array.set( i, i * 0.5 );
+			if ( array.getCapacity() != capacity )
+			{
+				capacity = array.getCapacity();
+				reallocations++;
+			}
+		}
+
+		assertEquals( 10000, array.getLength() );
+		assertEquals( 10000 * 4, array.getByteLength() );
+		assertTrue( reallocations < 14 );
+
+		for ( int i = 0; i < 10000; i++ )
+			assertEquals( i * 0.5, array.get( i ), 0.0 );
+	}
+
+	@Test
+	public void testSetLengthAndTrimToSize()
+	{
+		Float32Array array = Float32Array.createArray();
+		array.ensureCapacity( 100 );
+		assertEquals( 0, array.getLength() );
+		assertTrue( array.getCapacity() >= 100 );
+
+		array.set( 2, 3.0 );
+		assertEquals( 3, array.getLength() );
+		assertEquals( 0.0, array.get( 0 ), 0.0 );
+
+		array.setLength( 0 );
+		array.setLength( 3 );
+		assertEquals( 0.0, array.get( 2 ), 0.0 );
+
+		array.set( 1, 1.0 );
+		array.trimToSize();
+		assertEquals( 3, array.getCapacity() );
+		assertEquals( 3, array.getLength() );
+		assertEquals( 1.0, array.get( 1 ), 0.0 );
+	}
+
+	@Test
+	public void testOtherTypesAreResizable()
+	{
+		Uint16Array indices = Uint16Array.createArray();
+		Int32Array ints = Int32Array.createArray();
+		Uint8Array bytes = Uint8Array.createArray();
+
+		for ( int i = 0; i < 1000; i++ )
+		{
+			indices.set( i, 60000 );
+			ints.set( i, -i );
+			bytes.set( i, 200 );
+		}
+
+		assertEquals( 1000, indices.getLength() );
+		assertEquals( 60000, indices.getUnsigned( 999 ) );
+		assertEquals( -999, ints.get( 999 ) );
+		assertEquals( 1000, bytes.getLength() );
+		assertEquals( 200, bytes.getUnsigned( 999 ) );
+	}
+
+	@Test
+	public void testSetArrayWithOffset()
+	{
+		Float32Array array = Float32Array.createArray();
+		array.set( Float32Array.create( new float[] { 1, 2 } ), 0 );
+		array.set( Float32Array.create( new float[] { 3, 4 } ), 2 );
+
+		assertEquals( 4, array.getLength() );
+		assertEquals( 3.0, array.get( 2 ), 0.0 );
+
+		Float32Array fixed = Float32Array.create( 2 );
+		fixed.set( Float32Array.create( new float[] { 5, 6, 7 } ), 1 );
+		assertEquals( 4, fixed.getLength() );
+		assertEquals( 7.0, fixed.get( 3 ), 0.0 );
+	}
+}
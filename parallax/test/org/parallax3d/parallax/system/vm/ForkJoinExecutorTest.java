@@ -0,0 +1,234 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.system.vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.parallax3d.parallax.TestParallax;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.core.Face3;
+import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.graphics.core.Gyroscope;
+import org.parallax3d.parallax.graphics.core.Object3D;
+import org.parallax3d.parallax.graphics.extras.geometries.PlaneBufferGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.SphereGeometry;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.math.Vector4;
+import org.parallax3d.parallax.system.ParallelExecutor;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+
+import static org.junit.Assert.*;
+
+public class ForkJoinExecutorTest
+{
+	@Before
+	public void setUp()
+	{
+		TestParallax.init();
+	}
+
+	@Test
+	public void testRunCoversRangeOnce()
+	{
+		ForkJoinExecutor executor = new ForkJoinExecutor( 4 );
+		executor.setThreshold( 10 );
+
+		final AtomicIntegerArray visits = new AtomicIntegerArray( 1001 );
+		executor.run( 1001, new ParallelExecutor.Task() {
+			@Override
+			public void run(int start, int end)
+			{
+				for ( int i = start; i < end; i ++ )
+					visits.incrementAndGet( i );
+			}
+		});
+
+		for ( int i = 0; i < visits.length(); i ++ )
+			assertEquals( 1, visits.get( i ) );
+
+		executor.shutdown();
+	}
+
+	@Test
+	public void testGeometryMatchesSequential()
+	{
+		Geometry sequential = createGeometry();
+		sequential.computeFaceNormals();
+		sequential.computeVertexNormals( true );
+		sequential.computeTangents();
+
+		Geometry parallel = createGeometry();
+		ForkJoinExecutor executor = new ForkJoinExecutor( 4 );
+		ParallelExecutor.set( executor.setThreshold( 1 ) );
+		try
+		{
+			parallel.computeFaceNormals();
+			parallel.computeVertexNormals( true );
+			parallel.computeTangents();
+		}
+		finally
+		{
+			ParallelExecutor.set( null );
+			executor.shutdown();
+		}
+
+		List<Face3> expected = sequential.getFaces(), actual = parallel.getFaces();
+		for ( int f = 0; f < expected.size(); f ++ )
+		{
+			assertVectorEquals( expected.get( f ).getNormal(), actual.get( f ).getNormal() );
+			for ( int i = 0; i < 3; i ++ )
+			{
+				assertVectorEquals( expected.get( f ).getVertexNormals().get( i ), actual.get( f ).getVertexNormals().get( i ) );
+				Vector4 tangent = actual.get( f ).getVertexTangents().get( i );
+				assertTrue( tangent.toString(), expected.get( f ).getVertexTangents().get( i ).equals( tangent ) );
+			}
+		}
+	}
+
+	@Test
+	public void testBufferGeometryMatchesSequential()
+	{
+		BufferGeometry sequential = createBufferGeometry();
+		sequential.computeVertexNormals();
+		sequential.computeTangents();
+
+		BufferGeometry parallel = createBufferGeometry();
+		ForkJoinExecutor executor = new ForkJoinExecutor( 4 );
+		ParallelExecutor.set( executor.setThreshold( 1 ) );
+		try
+		{
+			parallel.computeVertexNormals();
+			parallel.computeTangents();
+		}
+		finally
+		{
+			ParallelExecutor.set( null );
+			executor.shutdown();
+		}
+
+		assertArrayEquals( "normal", sequential, parallel );
+		assertArrayEquals( "tangent", sequential, parallel );
+	}
+
+	@Test
+	public void testSceneUpdateMatchesSequential()
+	{
+		Scene sequential = createScene();
+		sequential.updateMatrixWorld( false );
+
+		Scene parallel = createScene();
+		ForkJoinExecutor executor = new ForkJoinExecutor( 4 );
+		ParallelExecutor.set( executor );
+		try
+		{
+			parallel.updateMatrixWorld( false );
+		}
+		finally
+		{
+			ParallelExecutor.set( null );
+			executor.shutdown();
+		}
+
+		assertEquals( sequential.getMatrixUpdates(), parallel.getMatrixUpdates() );
+		assertEquals( sequential.getMatrixWorldUpdates(), parallel.getMatrixWorldUpdates() );
+
+		List<Object3D> expected = flatten( sequential, new ArrayList<Object3D>() );
+		List<Object3D> actual = flatten( parallel, new ArrayList<Object3D>() );
+		for ( int i = 0; i < expected.size(); i ++ )
+			assertTrue( Arrays.equals( expected.get( i ).getMatrixWorld().getArray(), actual.get( i ).getMatrixWorld().getArray() ) );
+	}
+
+	private static Scene createScene()
+	{
+		Scene scene = new Scene();
+
+		Random random = new Random( 1 );
+		for ( int i = 0; i < Scene.PARALLEL_UPDATE_THRESHOLD * 4; i ++ )
+		{
+			Object3D parent = new Object3D();
+			parent.getPosition().set( random.nextDouble(), random.nextDouble(), random.nextDouble() );
+			parent.getRotation().setY( random.nextDouble() );
+
+			for ( int j = 0; j < 8; j ++ )
+			{
+				Object3D child = new Gyroscope();
+				child.getPosition().set( random.nextDouble(), random.nextDouble(), random.nextDouble() );
+				child.getScale().set( 2, 2, 2 );
+				parent.add( child );
+			}
+
+			scene.add( parent );
+		}
+
+		return scene;
+	}
+
+	private static List<Object3D> flatten(Object3D object, List<Object3D> objects)
+	{
+		objects.add( object );
+		for ( Object3D child : object.getChildren() )
+			flatten( child, objects );
+
+		return objects;
+	}
+
+	private static Geometry createGeometry()
+	{
+		Geometry geometry = new SphereGeometry( 5, 48, 32 );
+
+		Random random = new Random( 1 );
+		for ( Vector3 v : geometry.getVertices() )
+			v.multiply( 1 + random.nextDouble() * 0.1 );
+
+		return geometry;
+	}
+
+	private static BufferGeometry createBufferGeometry()
+	{
+		BufferGeometry geometry = new PlaneBufferGeometry( 10, 10, 64, 64 );
+
+		Random random = new Random( 1 );
+		Float32Array positions = (Float32Array) geometry.getAttribute( "position" ).getArray();
+		for ( int i = 2; i < positions.getLength(); i += 3 )
+			positions.set( i, random.nextDouble() );
+
+		return geometry;
+	}
+
+	private static void assertVectorEquals(Vector3 expected, Vector3 actual)
+	{
+		assertTrue( "expected " + expected + " got " + actual, expected.equals( actual ) );
+	}
+
+	private static void assertArrayEquals(String attribute, BufferGeometry expected, BufferGeometry actual)
+	{
+		Float32Array a = (Float32Array) expected.getAttribute( attribute ).getArray();
+		Float32Array b = (Float32Array) actual.getAttribute( attribute ).getArray();
+
+		assertEquals( a.getLength(), b.getLength() );
+		for ( int i = 0; i < a.getLength(); i ++ )
+			assertEquals( attribute + " " + i, Float.floatToIntBits( (float) a.get( i ) ), Float.floatToIntBits( (float) b.get( i ) ) );
+	}
+}
@@ -37,13 +37,14 @@ import com.google.gwt.webgl.client.*;
 import org.parallax3d.parallax.Log;
 import org.parallax3d.parallax.system.ParallaxRuntimeException;
 import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.GLInstancedArrays;
 import org.parallax3d.parallax.system.gl.arrays.*;
 
 import java.nio.*;
 import java.util.HashMap;
 import java.util.Map;
 
-public class GwtGL20 implements GL20 {
+public class GwtGL20 implements GL20, GLInstancedArrays {
 	final Map<Integer, WebGLProgram> programs = new HashMap<Integer, WebGLProgram>();
 	int nextProgramId = 1;
 	final Map<Integer, WebGLShader> shaders = new HashMap<Integer, WebGLShader>();
@@ -67,6 +68,8 @@ public class GwtGL20 implements GL20 {
 
 	final WebGLRenderingContext gl;
 
+	WebGLExtension instancedArrays;
+
 	protected GwtGL20 (WebGLRenderingContext gl) {
 		this.gl = gl;
 		this.gl.pixelStorei(WebGLRenderingContext.UNPACK_PREMULTIPLY_ALPHA_WEBGL, 0);
@@ -98,8 +101,7 @@ public class GwtGL20 implements GL20 {
 		if(buffer == null) return Float32ArrayNative.create(0);
 
 		if (GWT.isProdMode()) {
-//			return ((Float32Array)((HasArrayBufferView)buffer).getTypedArray()).subarray(buffer.position(), buffer.remaining());
-			return ((Float32Array)((HasArrayBufferView)buffer).getTypedArray()).subarray(0, buffer.limit());
+			return ((Float32Array)((HasArrayBufferView)buffer).getTypedArray()).subarray(buffer.position(), buffer.limit());
 		} else {
 			ensureCapacity(buffer);
 			for (int i = buffer.position(), j = 0; i < buffer.limit(); i++, j++) {
@@ -113,7 +115,7 @@ public class GwtGL20 implements GL20 {
 		if(buffer == null) return Int16ArrayNative.create(0);
 
 		if (GWT.isProdMode()) {
-			return ((Int16Array)((HasArrayBufferView)buffer).getTypedArray()).subarray(buffer.position(), buffer.remaining());
+			return ((Int16Array)((HasArrayBufferView)buffer).getTypedArray()).subarray(buffer.position(), buffer.limit());
 		} else {
 			ensureCapacity(buffer);
 			for (int i = buffer.position(), j = 0; i < buffer.limit(); i++, j++) {
@@ -127,7 +129,7 @@ public class GwtGL20 implements GL20 {
 		if(buffer == null) return Int32ArrayNative.create(0);
 
 		if (GWT.isProdMode()) {
-			return ((Int32Array)((HasArrayBufferView)buffer).getTypedArray()).subarray(buffer.position(), buffer.remaining());
+			return ((Int32Array)((HasArrayBufferView)buffer).getTypedArray()).subarray(buffer.position(), buffer.limit());
 		} else {
 			ensureCapacity(buffer);
 			for (int i = buffer.position(), j = 0; i < buffer.limit(); i++, j++) {
@@ -1234,4 +1236,40 @@ public class GwtGL20 implements GL20 {
 	public void glVertexAttribPointer (int indx, int size, int type, boolean normalized, int stride, int ptr) {
 		gl.vertexAttribPointer(indx, size, type, normalized, stride, ptr);
 	}
+
+	@Override
+	public void glVertexAttribDivisorANGLE (int index, int divisor) {
+		vertexAttribDivisor(getInstancedArrays(), index, divisor);
+	}
+
+	@Override
+	public void glDrawArraysInstancedANGLE (int mode, int first, int count, int primcount) {
+		drawArraysInstanced(getInstancedArrays(), mode, first, count, primcount);
+	}
+
+	@Override
+	public void glDrawElementsInstancedANGLE (int mode, int count, int type, int indices, int primcount) {
+		drawElementsInstanced(getInstancedArrays(), mode, count, type, indices, primcount);
+	}
+
+	private WebGLExtension getInstancedArrays () {
+		if (instancedArrays == null) {
+			instancedArrays = gl.getExtension("ANGLE_instanced_arrays");
+			if (instancedArrays == null)
+				throw new ParallaxRuntimeException("ANGLE_instanced_arrays is not supported");
+		}
+		return instancedArrays;
+	}
+
+	private static native void vertexAttribDivisor (WebGLExtension ext, int index, int divisor) /*-{
+		ext.vertexAttribDivisorANGLE(index, divisor);
+	}-*/;
+
+	private static native void drawArraysInstanced (WebGLExtension ext, int mode, int first, int count, int primcount) /*-{
+		ext.drawArraysInstancedANGLE(mode, first, count, primcount);
+	}-*/;
+
+	private static native void drawElementsInstanced (WebGLExtension ext, int mode, int count, int type, int offset, int primcount) /*-{
+		ext.drawElementsInstancedANGLE(mode, count, type, offset, primcount);
+	}-*/;
 }
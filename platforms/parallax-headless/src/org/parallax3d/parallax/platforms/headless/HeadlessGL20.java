@@ -0,0 +1,2670 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+
+package org.parallax3d.parallax.platforms.headless;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.parallax3d.parallax.system.IntMap;
+import org.parallax3d.parallax.system.ParallaxRuntimeException;
+import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.GLES20Ext;
+import org.parallax3d.parallax.system.gl.GLInstancedArrays;
+
+/**
+ * Pure Java {@link GL20} which records and validates calls instead of
+ * drawing.
+ * <p>
+ * It keeps track of the objects created on the context, the bound state and
+ * the size of every buffer, texture and renderbuffer, and checks calls the
+ * way a WebGL implementation would: unknown or deleted names, missing
+ * bindings, out of range vertex and index reads, uniforms set on a program
+ * which is not in use. Errors are reported through {@link #glGetError()}
+ * and {@link #getErrors()}, or thrown in strict mode.
+ * <p>
+ * Shader sources are scanned, not compiled: {@link #glGetAttribLocation(int, String)}
+ * and {@link #glGetUniformLocation(int, String)} only return locations for
+ * names declared by the linked sources, with #ifdef, #ifndef and #else
+ * blocks evaluated against the #defines in the source. Branches of #if
+ * expressions are all treated as active.
+ * <p>
+ * Nothing is rasterized, {@link #glReadPixels(int, int, int, int, int, int, Buffer)}
+ * returns zeros.
+ */
+public class HeadlessGL20 implements GL20, GLInstancedArrays
+{
+	public static final String DEFAULT_EXTENSIONS = "ANGLE_instanced_arrays OES_element_index_uint "
+			+ "OES_standard_derivatives OES_texture_float OES_texture_float_linear "
+			+ "EXT_texture_filter_anisotropic WEBGL_depth_texture";
+
+	private static final int HALF_FLOAT_OES = 0x8D61;
+	private static final int MAX_LEVELS = 16;
+	private static final int MAX_ERRORS = 256;
+
+	private enum Kind
+	{
+		BUFFER, TEXTURE, SHADER, PROGRAM, FRAMEBUFFER, RENDERBUFFER
+	}
+
+	private static class Resource
+	{
+		final Kind kind;
+		final int name;
+		int target;
+
+		Resource(Kind kind, int name)
+		{
+			this.kind = kind;
+			this.name = name;
+		}
+	}
+
+	private static class BufferResource extends Resource
+	{
+		int size;
+		int usage;
+
+		BufferResource(int name)
+		{
+			super(Kind.BUFFER, name);
+		}
+	}
+
+	private static class TextureResource extends Resource
+	{
+		final long[] levels = new long[6 * MAX_LEVELS];
+		final int[] widths = new int[6];
+		final int[] heights = new int[6];
+		final int[] pixelSizes = new int[6];
+		long memory;
+
+		TextureResource(int name)
+		{
+			super(Kind.TEXTURE, name);
+		}
+	}
+
+	private static class ShaderResource extends Resource
+	{
+		final int type;
+		String source;
+		boolean compiled;
+		String log = "";
+
+		ShaderResource(int name, int type)
+		{
+			super(Kind.SHADER, name);
+			this.type = type;
+		}
+	}
+
+	private static class ProgramResource extends Resource
+	{
+		ShaderResource vertex;
+		ShaderResource fragment;
+		boolean linked;
+		boolean deletePending;
+		String log = "";
+		final Map<String, Integer> attributeBindings = new HashMap<>();
+		final Map<String, Integer> attributes = new LinkedHashMap<>();
+		final Map<String, Integer> uniforms = new LinkedHashMap<>();
+
+		ProgramResource(int name)
+		{
+			super(Kind.PROGRAM, name);
+		}
+	}
+
+	private static class FramebufferResource extends Resource
+	{
+		Resource color;
+		Resource depth;
+		Resource stencil;
+
+		FramebufferResource(int name)
+		{
+			super(Kind.FRAMEBUFFER, name);
+		}
+	}
+
+	private static class RenderbufferResource extends Resource
+	{
+		int width;
+		int height;
+		long memory;
+
+		RenderbufferResource(int name)
+		{
+			super(Kind.RENDERBUFFER, name);
+		}
+	}
+
+	private static class VertexAttrib
+	{
+		boolean enabled;
+		int buffer;
+		int size = 4;
+		int type = GL_FLOAT;
+		int stride;
+		int offset;
+		int divisor;
+	}
+
+	// Limits reported by glGetIntegerv
+	private int maxTextureSize = 4096;
+	private int maxCubeMapTextureSize = 4096;
+	private int maxRenderbufferSize = 4096;
+	private int maxTextureImageUnits = 16;
+	private int maxVertexTextureImageUnits = 16;
+	private int maxCombinedTextureImageUnits = 32;
+	private int maxVertexAttribs = 16;
+	private int maxVertexUniformVectors = 1024;
+	private int maxFragmentUniformVectors = 1024;
+	private int maxVaryingVectors = 15;
+
+	private final String extensions;
+
+	private final HeadlessGLStats stats = new HeadlessGLStats();
+
+	private final IntMap<Resource> resources = new IntMap<>();
+	private final IntMap<ProgramResource> uniformLocations = new IntMap<>();
+	private int names = 1;
+
+	private int error = GL_NO_ERROR;
+	private final List<String> errors = new ArrayList<>();
+	private boolean strict;
+
+	private boolean recording;
+	private final List<String> recorded = new ArrayList<>();
+
+	// Bound state
+	private int arrayBuffer;
+	private int elementArrayBuffer;
+	private ProgramResource currentProgram;
+	private int framebuffer;
+	private int renderbuffer;
+	private int activeTexture;
+	private final int[] textures2D;
+	private final int[] texturesCube;
+	private final VertexAttrib[] attribs;
+	private final IntMap<Boolean> capabilities = new IntMap<>();
+	private final int[] viewport = new int[4];
+	private final int[] scissor = new int[4];
+
+	public HeadlessGL20()
+	{
+		this(DEFAULT_EXTENSIONS);
+	}
+
+	/**
+	 * @param extensions space separated list of {@link GLES20Ext.List} names
+	 *                   reported through GL_EXTENSIONS.
+	 */
+	public HeadlessGL20(String extensions)
+	{
+		this.extensions = extensions;
+
+		this.textures2D = new int[maxCombinedTextureImageUnits];
+		this.texturesCube = new int[maxCombinedTextureImageUnits];
+		this.attribs = new VertexAttrib[maxVertexAttribs];
+		for ( int i = 0; i < attribs.length; i++ )
+			attribs[ i ] = new VertexAttrib();
+
+		capabilities.put( GL_DITHER, Boolean.TRUE );
+	}
+
+	public HeadlessGLStats getStats() {
+		return stats;
+	}
+
+	public boolean isStrict() {
+		return strict;
+	}
+
+	/**
+	 * In strict mode every validation error throws a
+	 * {@link ParallaxRuntimeException} from the offending call.
+	 */
+	public HeadlessGL20 setStrict(boolean strict) {
+		this.strict = strict;
+		return this;
+	}
+
+	public boolean isRecording() {
+		return recording;
+	}
+
+	/**
+	 * Records the name of every GL call, in order, until switched off.
+	 */
+	public HeadlessGL20 setRecording(boolean recording) {
+		this.recording = recording;
+		return this;
+	}
+
+	public List<String> getRecordedCalls() {
+		return recorded;
+	}
+
+	/**
+	 * Messages of the validation errors raised since the last
+	 * {@link #clearErrors()}, at most {@value #MAX_ERRORS}.
+	 */
+	public List<String> getErrors() {
+		return errors;
+	}
+
+	public void clearErrors()
+	{
+		errors.clear();
+		error = GL_NO_ERROR;
+	}
+
+	public int getBoundBuffer(int target)
+	{
+		return target == GL_ELEMENT_ARRAY_BUFFER ? elementArrayBuffer : arrayBuffer;
+	}
+
+	public int getBoundTexture(int unit, int target)
+	{
+		return target == GL_TEXTURE_CUBE_MAP ? texturesCube[ unit ] : textures2D[ unit ];
+	}
+
+	public int getCurrentProgram()
+	{
+		return currentProgram != null ? currentProgram.name : 0;
+	}
+
+	public int getBoundFramebuffer()
+	{
+		return framebuffer;
+	}
+
+	/**
+	 * @return size in bytes of the buffer data store, or -1 for unknown names.
+	 */
+	public int getBufferSize(int buffer)
+	{
+		Resource resource = resources.get( buffer );
+		return resource instanceof BufferResource ? ((BufferResource) resource).size : -1;
+	}
+
+	// Bookkeeping
+
+	private void call(String name)
+	{
+		stats.calls++;
+		if ( recording )
+			recorded.add( name );
+	}
+
+	private void error(int code, String message)
+	{
+		stats.errors++;
+
+		if ( strict )
+			throw new ParallaxRuntimeException( message );
+
+		if ( error == GL_NO_ERROR )
+			error = code;
+
+		if ( errors.size() < MAX_ERRORS )
+			errors.add( message );
+	}
+
+	private Resource create(Resource resource)
+	{
+		resources.put( resource.name, resource );
+
+		switch ( resource.kind ) {
+		case BUFFER:       stats.buffers++; break;
+		case TEXTURE:      stats.textures++; break;
+		case SHADER:       stats.shaders++; break;
+		case PROGRAM:      stats.programs++; break;
+		case FRAMEBUFFER:  stats.framebuffers++; break;
+		case RENDERBUFFER: stats.renderbuffers++; break;
+		}
+
+		return resource;
+	}
+
+	private void destroy(Resource resource)
+	{
+		resources.remove( resource.name );
+
+		switch ( resource.kind ) {
+		case BUFFER:
+			stats.buffers--;
+			stats.bufferMemory -= ((BufferResource) resource).size;
+			break;
+		case TEXTURE:
+			stats.textures--;
+			stats.textureMemory -= ((TextureResource) resource).memory;
+			break;
+		case SHADER:
+			stats.shaders--;
+			break;
+		case PROGRAM:
+			stats.programs--;
+			break;
+		case FRAMEBUFFER:
+			stats.framebuffers--;
+			break;
+		case RENDERBUFFER:
+			stats.renderbuffers--;
+			stats.renderbufferMemory -= ((RenderbufferResource) resource).memory;
+			break;
+		}
+	}
+
+	/**
+	 * Resolves a name passed to a call. Zero and unknown names resolve to null,
+	 * the latter raising an error.
+	 */
+	private Resource lookup(String call, int name, Kind kind)
+	{
+		if ( name == 0 )
+			return null;
+
+		Resource resource = resources.get( name );
+		if ( resource == null || resource.kind != kind )
+		{
+			error( GL_INVALID_OPERATION, call + ": " + name + " is not a " + kind.name().toLowerCase() );
+			return null;
+		}
+
+		return resource;
+	}
+
+	private BufferResource boundBuffer(String call, int target)
+	{
+		int name;
+		if ( target == GL_ARRAY_BUFFER )
+			name = arrayBuffer;
+		else if ( target == GL_ELEMENT_ARRAY_BUFFER )
+			name = elementArrayBuffer;
+		else
+		{
+			error( GL_INVALID_ENUM, call + ": invalid buffer target 0x" + Integer.toHexString( target ) );
+			return null;
+		}
+
+		if ( name == 0 )
+		{
+			error( GL_INVALID_OPERATION, call + ": no buffer bound" );
+			return null;
+		}
+
+		return (BufferResource) resources.get( name );
+	}
+
+	private TextureResource boundTexture(String call, int target)
+	{
+		int name;
+		if ( target == GL_TEXTURE_2D )
+			name = textures2D[ activeTexture ];
+		else if ( target == GL_TEXTURE_CUBE_MAP
+				|| ( target >= GL_TEXTURE_CUBE_MAP_POSITIVE_X && target < GL_TEXTURE_CUBE_MAP_POSITIVE_X + 6 ) )
+			name = texturesCube[ activeTexture ];
+		else
+		{
+			error( GL_INVALID_ENUM, call + ": invalid texture target 0x" + Integer.toHexString( target ) );
+			return null;
+		}
+
+		if ( name == 0 )
+		{
+			error( GL_INVALID_OPERATION, call + ": no texture bound" );
+			return null;
+		}
+
+		return (TextureResource) resources.get( name );
+	}
+
+	private boolean checkProgram(String call)
+	{
+		if ( currentProgram == null )
+		{
+			error( GL_INVALID_OPERATION, call + ": no program in use" );
+			return false;
+		}
+
+		return true;
+	}
+
+	private void uniform(String call, int location)
+	{
+		stats.uniformUploads++;
+
+		// WebGL ignores null locations
+		if ( location == -1 || !checkProgram( call ) )
+			return;
+
+		if ( uniformLocations.get( location ) != currentProgram )
+			error( GL_INVALID_OPERATION, call + ": location " + location + " does not belong to program " + currentProgram.name );
+	}
+
+	private void enable(int cap, boolean enabled)
+	{
+		stats.stateChanges++;
+
+		if ( enabled )
+			capabilities.put( cap, Boolean.TRUE );
+		else
+			capabilities.remove( cap );
+	}
+
+	private static int face(int target)
+	{
+		return target == GL_TEXTURE_2D ? 0 : target - GL_TEXTURE_CUBE_MAP_POSITIVE_X;
+	}
+
+	private void setTextureLevel(TextureResource texture, int target, int level, int width, int height, int pixelSize)
+	{
+		if ( level < 0 || level >= MAX_LEVELS )
+		{
+			error( GL_INVALID_VALUE, "glTexImage2D: invalid level " + level );
+			return;
+		}
+
+		int face = face( target );
+		if ( face < 0 || face >= 6 )
+			face = 0;
+
+		int index = face * MAX_LEVELS + level;
+		long bytes = (long) width * height * pixelSize;
+
+		texture.memory += bytes - texture.levels[ index ];
+		stats.textureMemory += bytes - texture.levels[ index ];
+		texture.levels[ index ] = bytes;
+
+		if ( level == 0 )
+		{
+			texture.widths[ face ] = width;
+			texture.heights[ face ] = height;
+			texture.pixelSizes[ face ] = pixelSize;
+		}
+
+		stats.textureUploads++;
+		stats.textureBytes += bytes;
+	}
+
+	private static int pixelSize(int format, int type)
+	{
+		if ( type == GL_UNSIGNED_SHORT_5_6_5 || type == GL_UNSIGNED_SHORT_4_4_4_4 || type == GL_UNSIGNED_SHORT_5_5_5_1 )
+			return 2;
+
+		int components;
+		switch ( format ) {
+		case GL_ALPHA:
+		case GL_LUMINANCE:
+		case GL_DEPTH_COMPONENT:
+			components = 1; break;
+		case GL_LUMINANCE_ALPHA:
+		case GLES20Ext.GL_DEPTH_STENCIL:
+			components = 2; break;
+		case GL_RGB:
+			components = 3; break;
+		default:
+			components = 4;
+		}
+
+		switch ( type ) {
+		case GL_UNSIGNED_BYTE:
+			return components;
+		case GL_UNSIGNED_SHORT:
+		case HALF_FLOAT_OES:
+			return components * 2;
+		default:
+			return format == GLES20Ext.GL_DEPTH_STENCIL ? 4 : components * 4;
+		}
+	}
+
+	private static int renderbufferPixelSize(int internalformat)
+	{
+		switch ( internalformat ) {
+		case GL_RGBA4:
+		case GL_RGB5_A1:
+		case GL_RGB565:
+		case GL_DEPTH_COMPONENT16:
+			return 2;
+		case GL_STENCIL_INDEX8:
+			return 1;
+		default:
+			return 4;
+		}
+	}
+
+	private static int typeSize(int type)
+	{
+		switch ( type ) {
+		case GL_BYTE:
+		case GL_UNSIGNED_BYTE:
+			return 1;
+		case GL_SHORT:
+		case GL_UNSIGNED_SHORT:
+		case HALF_FLOAT_OES:
+			return 2;
+		default:
+			return 4;
+		}
+	}
+
+	private static int byteLength(Buffer data)
+	{
+		if ( data instanceof ByteBuffer )
+			return data.remaining();
+		if ( data instanceof ShortBuffer )
+			return data.remaining() * 2;
+		if ( data instanceof DoubleBuffer || data instanceof LongBuffer )
+			return data.remaining() * 8;
+
+		return data.remaining() * 4;
+	}
+
+	private void draw(String call, int mode, int count, int primcount)
+	{
+		if ( !checkProgram( call ) )
+			return;
+
+		if ( count < 0 || primcount < 0 )
+		{
+			error( GL_INVALID_VALUE, call + ": negative count" );
+			return;
+		}
+
+		if ( !currentProgram.linked )
+			error( GL_INVALID_OPERATION, call + ": program " + currentProgram.name + " is not linked" );
+
+		stats.drawCalls++;
+		stats.vertices += count * primcount;
+
+		switch ( mode ) {
+		case GL_TRIANGLES:
+			stats.triangles += count / 3 * primcount;
+			break;
+		case GL_TRIANGLE_STRIP:
+		case GL_TRIANGLE_FAN:
+			stats.triangles += Math.max( 0, count - 2 ) * primcount;
+			break;
+		case GL_POINTS:
+		case GL_LINES:
+		case GL_LINE_STRIP:
+		case GL_LINE_LOOP:
+			break;
+		default:
+			error( GL_INVALID_ENUM, call + ": invalid mode 0x" + Integer.toHexString( mode ) );
+		}
+	}
+
+	/**
+	 * Checks that every enabled attribute can supply the vertices and
+	 * instances read by a draw call. Indexed draws only check instanced
+	 * attributes, the index range is not tracked.
+	 */
+	private void checkAttributes(String call, int vertices, int primcount)
+	{
+		for ( int i = 0; i < attribs.length; i++ )
+		{
+			VertexAttrib attrib = attribs[ i ];
+			if ( !attrib.enabled )
+				continue;
+
+			BufferResource buffer = (BufferResource) resources.get( attrib.buffer );
+			if ( buffer == null )
+			{
+				error( GL_INVALID_OPERATION, call + ": attribute " + i + " is enabled but has no buffer" );
+				continue;
+			}
+
+			int elements = attrib.divisor == 0 ? vertices : ( primcount + attrib.divisor - 1 ) / attrib.divisor;
+			if ( elements <= 0 )
+				continue;
+
+			int size = attrib.size * typeSize( attrib.type );
+			int stride = attrib.stride != 0 ? attrib.stride : size;
+			long needed = attrib.offset + (long) ( elements - 1 ) * stride + size;
+
+			if ( needed > buffer.size )
+				error( GL_INVALID_OPERATION, call + ": attribute " + i + " reads " + needed
+						+ " bytes from buffer " + buffer.name + " of " + buffer.size + " bytes" );
+		}
+	}
+
+	private void checkIndices(String call, int count, int type, int offset)
+	{
+		if ( type != GL_UNSIGNED_BYTE && type != GL_UNSIGNED_SHORT && type != GL_UNSIGNED_INT )
+		{
+			error( GL_INVALID_ENUM, call + ": invalid index type 0x" + Integer.toHexString( type ) );
+			return;
+		}
+
+		if ( elementArrayBuffer == 0 )
+		{
+			error( GL_INVALID_OPERATION, call + ": no element array buffer bound" );
+			return;
+		}
+
+		int size = typeSize( type );
+		if ( offset % size != 0 )
+			error( GL_INVALID_OPERATION, call + ": offset " + offset + " is not a multiple of the index size" );
+
+		BufferResource buffer = (BufferResource) resources.get( elementArrayBuffer );
+		long needed = offset + (long) count * size;
+		if ( needed > buffer.size )
+			error( GL_INVALID_OPERATION, call + ": reads " + needed + " bytes from index buffer "
+					+ buffer.name + " of " + buffer.size + " bytes" );
+	}
+
+	private void link(ProgramResource program)
+	{
+		program.linked = false;
+		program.attributes.clear();
+		program.uniforms.clear();
+
+		if ( program.vertex == null || program.fragment == null )
+		{
+			program.log = "missing vertex or fragment shader";
+			return;
+		}
+
+		if ( !program.vertex.compiled || !program.fragment.compiled )
+		{
+			program.log = "attached shader is not compiled";
+			return;
+		}
+
+		List<String> attributes = new ArrayList<>();
+		collectDeclarations( program.vertex.source, "attribute", attributes );
+
+		Set<Integer> used = new HashSet<>();
+		for ( String name : attributes )
+			if ( program.attributeBindings.containsKey( name ) )
+			{
+				program.attributes.put( name, program.attributeBindings.get( name ) );
+				used.add( program.attributeBindings.get( name ) );
+			}
+
+		int location = 0;
+		for ( String name : attributes )
+		{
+			if ( program.attributes.containsKey( name ) )
+				continue;
+
+			while ( used.contains( location ) )
+				location++;
+
+			if ( location >= maxVertexAttribs )
+			{
+				program.log = "too many attributes";
+				program.attributes.clear();
+				return;
+			}
+
+			program.attributes.put( name, location );
+			used.add( location );
+		}
+
+		List<String> uniforms = new ArrayList<>();
+		collectDeclarations( program.vertex.source, "uniform", uniforms );
+		collectDeclarations( program.fragment.source, "uniform", uniforms );
+
+		for ( String name : uniforms )
+		{
+			if ( program.uniforms.containsKey( name ) )
+				continue;
+
+			int uniformLocation = names++;
+			program.uniforms.put( name, uniformLocation );
+			uniformLocations.put( uniformLocation, program );
+		}
+
+		program.log = "";
+		program.linked = true;
+	}
+
+	/**
+	 * Collects the names declared with the given storage qualifier in the
+	 * active parts of a shader source.
+	 */
+	static void collectDeclarations(String source, String qualifier, List<String> out)
+	{
+		Set<String> defines = new HashSet<>();
+
+		boolean[] active = new boolean[64];
+		boolean[] taken = new boolean[64];
+		boolean[] unknown = new boolean[64];
+		int depth = 0;
+		active[ 0 ] = true;
+
+		for ( String line : source.split( "\n" ) )
+		{
+			int comment = line.indexOf( "//" );
+			if ( comment >= 0 )
+				line = line.substring( 0, comment );
+
+			line = line.trim();
+			if ( line.isEmpty() )
+				continue;
+
+			if ( line.charAt( 0 ) == '#' )
+			{
+				String[] tokens = line.substring( 1 ).trim().split( "\\s+" );
+				String directive = tokens[ 0 ];
+				String argument = tokens.length > 1 ? tokens[ 1 ] : "";
+
+				if ( directive.equals( "define" ) )
+				{
+					if ( active[ depth ] )
+						defines.add( argument );
+				}
+				else if ( directive.equals( "undef" ) )
+				{
+					if ( active[ depth ] )
+						defines.remove( argument );
+				}
+				else if ( directive.equals( "ifdef" ) || directive.equals( "ifndef" ) || directive.equals( "if" ) )
+				{
+					if ( depth + 1 >= active.length )
+						continue;
+
+					depth++;
+					unknown[ depth ] = directive.equals( "if" );
+					taken[ depth ] = unknown[ depth ] || defines.contains( argument ) == directive.equals( "ifdef" );
+					active[ depth ] = active[ depth - 1 ] && taken[ depth ];
+				}
+				else if ( directive.equals( "elif" ) || directive.equals( "else" ) )
+				{
+					if ( depth == 0 )
+						continue;
+
+					active[ depth ] = active[ depth - 1 ] && ( unknown[ depth ] || !taken[ depth ] );
+					taken[ depth ] = true;
+				}
+				else if ( directive.equals( "endif" ) )
+				{
+					if ( depth > 0 )
+						depth--;
+				}
+
+				continue;
+			}
+
+			if ( !active[ depth ] )
+				continue;
+
+			for ( String statement : line.split( ";" ) )
+			{
+				String[] tokens = statement.trim().split( "[\\s,]+" );
+				if ( tokens.length < 3 || !tokens[ 0 ].equals( qualifier ) )
+					continue;
+
+				int i = 1;
+				while ( i < tokens.length && ( tokens[ i ].equals( "lowp" ) || tokens[ i ].equals( "mediump" ) || tokens[ i ].equals( "highp" ) ) )
+					i++;
+
+				// skip type
+				i++;
+
+				for ( ; i < tokens.length; i++ )
+				{
+					String name = tokens[ i ];
+					int bracket = name.indexOf( '[' );
+					if ( bracket == 0 || name.endsWith( "]" ) && bracket < 0 )
+						continue;
+					if ( bracket > 0 )
+						name = name.substring( 0, bracket );
+
+					if ( !name.isEmpty() && Character.isJavaIdentifierStart( name.charAt( 0 ) ) && !out.contains( name ) )
+						out.add( name );
+				}
+			}
+		}
+	}
+
+	// GL20
+
+	@Override
+	public void glActiveTexture(int texture)
+	{
+		call( "glActiveTexture" );
+		stats.stateChanges++;
+
+		int unit = texture - GL_TEXTURE0;
+		if ( unit < 0 || unit >= maxCombinedTextureImageUnits )
+		{
+			error( GL_INVALID_ENUM, "glActiveTexture: invalid texture unit 0x" + Integer.toHexString( texture ) );
+			return;
+		}
+
+		activeTexture = unit;
+	}
+
+	@Override
+	public void glBindTexture(int target, int texture)
+	{
+		call( "glBindTexture" );
+		stats.bindings++;
+
+		if ( target != GL_TEXTURE_2D && target != GL_TEXTURE_CUBE_MAP )
+		{
+			error( GL_INVALID_ENUM, "glBindTexture: invalid target 0x" + Integer.toHexString( target ) );
+			return;
+		}
+
+		Resource resource = lookup( "glBindTexture", texture, Kind.TEXTURE );
+		if ( texture != 0 && resource == null )
+			return;
+
+		if ( resource != null )
+		{
+			if ( resource.target == 0 )
+				resource.target = target;
+			else if ( resource.target != target )
+			{
+				error( GL_INVALID_OPERATION, "glBindTexture: texture " + texture + " was bound to another target" );
+				return;
+			}
+		}
+
+		if ( target == GL_TEXTURE_2D )
+			textures2D[ activeTexture ] = texture;
+		else
+			texturesCube[ activeTexture ] = texture;
+	}
+
+	@Override
+	public void glBlendFunc(int sfactor, int dfactor)
+	{
+		call( "glBlendFunc" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glClear(int mask)
+	{
+		call( "glClear" );
+	}
+
+	@Override
+	public void glClearColor(float red, float green, float blue, float alpha)
+	{
+		call( "glClearColor" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glClearDepthf(float depth)
+	{
+		call( "glClearDepthf" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glClearStencil(int s)
+	{
+		call( "glClearStencil" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha)
+	{
+		call( "glColorMask" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glCompressedTexImage2D(int target, int level, int internalformat, int width, int height, int border,
+									   int imageSize, Buffer data)
+	{
+		call( "glCompressedTexImage2D" );
+
+		TextureResource texture = boundTexture( "glCompressedTexImage2D", target );
+		if ( texture == null )
+			return;
+
+		if ( level < 0 || level >= MAX_LEVELS )
+		{
+			error( GL_INVALID_VALUE, "glCompressedTexImage2D: invalid level " + level );
+			return;
+		}
+
+		setTextureLevel( texture, target, level, width, height, 0 );
+
+		int index = Math.max( 0, face( target ) ) * MAX_LEVELS + level;
+		texture.memory += imageSize;
+		stats.textureMemory += imageSize;
+		texture.levels[ index ] = imageSize;
+		stats.textureBytes += imageSize;
+	}
+
+	@Override
+	public void glCompressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format,
+										  int imageSize, Buffer data)
+	{
+		call( "glCompressedTexSubImage2D" );
+
+		if ( boundTexture( "glCompressedTexSubImage2D", target ) == null )
+			return;
+
+		stats.textureUploads++;
+		stats.textureBytes += imageSize;
+	}
+
+	@Override
+	public void glCopyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border)
+	{
+		call( "glCopyTexImage2D" );
+
+		TextureResource texture = boundTexture( "glCopyTexImage2D", target );
+		if ( texture != null )
+			setTextureLevel( texture, target, level, width, height, pixelSize( internalformat, GL_UNSIGNED_BYTE ) );
+	}
+
+	@Override
+	public void glCopyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height)
+	{
+		call( "glCopyTexSubImage2D" );
+		boundTexture( "glCopyTexSubImage2D", target );
+	}
+
+	@Override
+	public void glCullFace(int mode)
+	{
+		call( "glCullFace" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glDeleteTextures(int n, IntBuffer textures)
+	{
+		for ( int i = 0; i < n; i++ )
+			glDeleteTexture( textures.get( textures.position() + i ) );
+	}
+
+	@Override
+	public void glDeleteTexture(int texture)
+	{
+		call( "glDeleteTexture" );
+
+		Resource resource = resources.get( texture );
+		if ( resource == null || resource.kind != Kind.TEXTURE )
+			return;
+
+		for ( int i = 0; i < textures2D.length; i++ )
+		{
+			if ( textures2D[ i ] == texture )
+				textures2D[ i ] = 0;
+			if ( texturesCube[ i ] == texture )
+				texturesCube[ i ] = 0;
+		}
+
+		destroy( resource );
+	}
+
+	@Override
+	public void glDepthFunc(int func)
+	{
+		call( "glDepthFunc" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glDepthMask(boolean flag)
+	{
+		call( "glDepthMask" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glDepthRangef(float zNear, float zFar)
+	{
+		call( "glDepthRangef" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glDisable(int cap)
+	{
+		call( "glDisable" );
+		enable( cap, false );
+	}
+
+	@Override
+	public void glDrawArrays(int mode, int first, int count)
+	{
+		call( "glDrawArrays" );
+		draw( "glDrawArrays", mode, count, 1 );
+		checkAttributes( "glDrawArrays", first + count, 1 );
+	}
+
+	@Override
+	public void glDrawElements(int mode, int count, int type, Buffer indices)
+	{
+		call( "glDrawElements" );
+		draw( "glDrawElements", mode, count, 1 );
+		error( GL_INVALID_OPERATION, "glDrawElements: client side index arrays are not supported" );
+	}
+
+	@Override
+	public void glEnable(int cap)
+	{
+		call( "glEnable" );
+		enable( cap, true );
+	}
+
+	@Override
+	public void glFinish()
+	{
+		call( "glFinish" );
+	}
+
+	@Override
+	public void glFlush()
+	{
+		call( "glFlush" );
+	}
+
+	@Override
+	public void glFrontFace(int mode)
+	{
+		call( "glFrontFace" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glGenTextures(int n, IntBuffer textures)
+	{
+		for ( int i = 0; i < n; i++ )
+			textures.put( textures.position() + i, glGenTexture() );
+	}
+
+	@Override
+	public int glGenTexture()
+	{
+		call( "glGenTexture" );
+		return create( new TextureResource( names++ ) ).name;
+	}
+
+	@Override
+	public int glGetError()
+	{
+		call( "glGetError" );
+
+		int result = error;
+		error = GL_NO_ERROR;
+		return result;
+	}
+
+	@Override
+	public void glGetIntegerv(int pname, IntBuffer params)
+	{
+		call( "glGetIntegerv" );
+
+		int index = params.position();
+		switch ( pname ) {
+		case GL_MAX_TEXTURE_SIZE:                   params.put( index, maxTextureSize ); break;
+		case GL_MAX_CUBE_MAP_TEXTURE_SIZE:          params.put( index, maxCubeMapTextureSize ); break;
+		case GL_MAX_RENDERBUFFER_SIZE:              params.put( index, maxRenderbufferSize ); break;
+		case GL_MAX_TEXTURE_IMAGE_UNITS:            params.put( index, maxTextureImageUnits ); break;
+		case GL_MAX_VERTEX_TEXTURE_IMAGE_UNITS:     params.put( index, maxVertexTextureImageUnits ); break;
+		case GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS:   params.put( index, maxCombinedTextureImageUnits ); break;
+		case GL_MAX_VERTEX_ATTRIBS:                 params.put( index, maxVertexAttribs ); break;
+		case GL_MAX_VERTEX_UNIFORM_VECTORS:         params.put( index, maxVertexUniformVectors ); break;
+		case GL_MAX_FRAGMENT_UNIFORM_VECTORS:       params.put( index, maxFragmentUniformVectors ); break;
+		case GL_MAX_VARYING_VECTORS:                params.put( index, maxVaryingVectors ); break;
+		case GLES20Ext.GL_MAX_TEXTURE_MAX_ANISOTROPY_EXT: params.put( index, 16 ); break;
+		case GL_ARRAY_BUFFER_BINDING:               params.put( index, arrayBuffer ); break;
+		case GL_ELEMENT_ARRAY_BUFFER_BINDING:       params.put( index, elementArrayBuffer ); break;
+		case GL_CURRENT_PROGRAM:                    params.put( index, getCurrentProgram() ); break;
+		case GL_FRAMEBUFFER_BINDING:                params.put( index, framebuffer ); break;
+		case GL_RENDERBUFFER_BINDING:               params.put( index, renderbuffer ); break;
+		case GL_TEXTURE_BINDING_2D:                 params.put( index, textures2D[ activeTexture ] ); break;
+		case GL_TEXTURE_BINDING_CUBE_MAP:           params.put( index, texturesCube[ activeTexture ] ); break;
+		case GL_ACTIVE_TEXTURE:                     params.put( index, GL_TEXTURE0 + activeTexture ); break;
+		case GL_MAX_VIEWPORT_DIMS:
+			putInts( params, maxRenderbufferSize, maxRenderbufferSize );
+			break;
+		case GL_VIEWPORT:
+			putInts( params, viewport );
+			break;
+		case GL_SCISSOR_BOX:
+			putInts( params, scissor );
+			break;
+		default:
+			error( GL_INVALID_ENUM, "glGetIntegerv: unsupported parameter 0x" + Integer.toHexString( pname ) );
+		}
+	}
+
+	private static void putInts(IntBuffer params, int... values)
+	{
+		int index = params.position();
+		for ( int i = 0; i < values.length && index + i < params.limit(); i++ )
+			params.put( index + i, values[ i ] );
+	}
+
+	@Override
+	public String glGetString(int name)
+	{
+		call( "glGetString" );
+
+		switch ( name ) {
+		case GL_VENDOR:                   return "Parallax";
+		case GL_RENDERER:                 return "Parallax headless";
+		case GL_VERSION:                  return "WebGL 1.0 (OpenGL ES 2.0 headless)";
+		case GL_SHADING_LANGUAGE_VERSION: return "WebGL GLSL ES 1.0";
+		case GL_EXTENSIONS:               return extensions;
+		default:
+			error( GL_INVALID_ENUM, "glGetString: invalid name 0x" + Integer.toHexString( name ) );
+			return null;
+		}
+	}
+
+	@Override
+	public void glHint(int target, int mode)
+	{
+		call( "glHint" );
+	}
+
+	@Override
+	public void glLineWidth(float width)
+	{
+		call( "glLineWidth" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glPixelStorei(int pname, int param)
+	{
+		call( "glPixelStorei" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glPolygonOffset(float factor, float units)
+	{
+		call( "glPolygonOffset" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glReadPixels(int x, int y, int width, int height, int format, int type, Buffer pixels)
+	{
+		call( "glReadPixels" );
+
+		if ( pixels instanceof ByteBuffer )
+		{
+			ByteBuffer bytes = (ByteBuffer) pixels;
+			for ( int i = bytes.position(); i < bytes.limit(); i++ )
+				bytes.put( i, (byte) 0 );
+		}
+		else if ( pixels instanceof FloatBuffer )
+		{
+			FloatBuffer floats = (FloatBuffer) pixels;
+			for ( int i = floats.position(); i < floats.limit(); i++ )
+				floats.put( i, 0 );
+		}
+		else if ( pixels instanceof IntBuffer )
+		{
+			IntBuffer ints = (IntBuffer) pixels;
+			for ( int i = ints.position(); i < ints.limit(); i++ )
+				ints.put( i, 0 );
+		}
+	}
+
+	@Override
+	public void glScissor(int x, int y, int width, int height)
+	{
+		call( "glScissor" );
+		stats.stateChanges++;
+
+		scissor[ 0 ] = x;
+		scissor[ 1 ] = y;
+		scissor[ 2 ] = width;
+		scissor[ 3 ] = height;
+	}
+
+	@Override
+	public void glStencilFunc(int func, int ref, int mask)
+	{
+		call( "glStencilFunc" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glStencilMask(int mask)
+	{
+		call( "glStencilMask" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glStencilOp(int fail, int zfail, int zpass)
+	{
+		call( "glStencilOp" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glTexImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type,
+							 Buffer pixels)
+	{
+		call( "glTexImage2D" );
+
+		TextureResource texture = boundTexture( "glTexImage2D", target );
+		if ( texture == null )
+			return;
+
+		if ( target == GL_TEXTURE_CUBE_MAP )
+		{
+			error( GL_INVALID_ENUM, "glTexImage2D: cube map faces must be uploaded one by one" );
+			return;
+		}
+
+		int max = target == GL_TEXTURE_2D ? maxTextureSize : maxCubeMapTextureSize;
+		if ( width < 0 || height < 0 || width > max || height > max )
+		{
+			error( GL_INVALID_VALUE, "glTexImage2D: invalid size " + width + "x" + height );
+			return;
+		}
+
+		setTextureLevel( texture, target, level, width, height, pixelSize( format, type ) );
+	}
+
+	@Override
+	public void glTexParameterf(int target, int pname, float param)
+	{
+		call( "glTexParameterf" );
+		boundTexture( "glTexParameterf", target );
+	}
+
+	@Override
+	public void glTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type,
+								Buffer pixels)
+	{
+		call( "glTexSubImage2D" );
+
+		TextureResource texture = boundTexture( "glTexSubImage2D", target );
+		if ( texture == null )
+			return;
+
+		int face = Math.max( 0, face( target ) );
+		if ( level < 0 || level >= MAX_LEVELS || texture.levels[ face * MAX_LEVELS + level ] == 0 )
+		{
+			error( GL_INVALID_OPERATION, "glTexSubImage2D: level " + level + " of texture " + texture.name + " is not defined" );
+			return;
+		}
+
+		int levelWidth = Math.max( 1, texture.widths[ face ] >> level );
+		int levelHeight = Math.max( 1, texture.heights[ face ] >> level );
+		if ( xoffset < 0 || yoffset < 0 || xoffset + width > levelWidth || yoffset + height > levelHeight )
+		{
+			error( GL_INVALID_VALUE, "glTexSubImage2D: region is outside of texture " + texture.name );
+			return;
+		}
+
+		stats.textureUploads++;
+		stats.textureBytes += (long) width * height * pixelSize( format, type );
+	}
+
+	@Override
+	public void glViewport(int x, int y, int width, int height)
+	{
+		call( "glViewport" );
+		stats.stateChanges++;
+
+		viewport[ 0 ] = x;
+		viewport[ 1 ] = y;
+		viewport[ 2 ] = width;
+		viewport[ 3 ] = height;
+	}
+
+	@Override
+	public void glAttachShader(int program, int shader)
+	{
+		call( "glAttachShader" );
+
+		ProgramResource p = (ProgramResource) lookup( "glAttachShader", program, Kind.PROGRAM );
+		ShaderResource s = (ShaderResource) lookup( "glAttachShader", shader, Kind.SHADER );
+		if ( p == null || s == null )
+			return;
+
+		if ( s.type == GL_VERTEX_SHADER )
+			p.vertex = s;
+		else
+			p.fragment = s;
+	}
+
+	@Override
+	public void glBindAttribLocation(int program, int index, String name)
+	{
+		call( "glBindAttribLocation" );
+
+		ProgramResource p = (ProgramResource) lookup( "glBindAttribLocation", program, Kind.PROGRAM );
+		if ( p == null )
+			return;
+
+		if ( index < 0 || index >= maxVertexAttribs )
+		{
+			error( GL_INVALID_VALUE, "glBindAttribLocation: invalid index " + index );
+			return;
+		}
+
+		p.attributeBindings.put( name, index );
+	}
+
+	@Override
+	public void glBindBuffer(int target, int buffer)
+	{
+		call( "glBindBuffer" );
+		stats.bindings++;
+
+		if ( target != GL_ARRAY_BUFFER && target != GL_ELEMENT_ARRAY_BUFFER )
+		{
+			error( GL_INVALID_ENUM, "glBindBuffer: invalid target 0x" + Integer.toHexString( target ) );
+			return;
+		}
+
+		Resource resource = lookup( "glBindBuffer", buffer, Kind.BUFFER );
+		if ( buffer != 0 && resource == null )
+			return;
+
+		if ( resource != null )
+		{
+			if ( resource.target == 0 )
+				resource.target = target;
+			else if ( resource.target != target )
+			{
+				error( GL_INVALID_OPERATION, "glBindBuffer: buffer " + buffer + " was bound to another target" );
+				return;
+			}
+		}
+
+		if ( target == GL_ARRAY_BUFFER )
+			arrayBuffer = buffer;
+		else
+			elementArrayBuffer = buffer;
+	}
+
+	@Override
+	public void glBindFramebuffer(int target, int framebuffer)
+	{
+		call( "glBindFramebuffer" );
+		stats.bindings++;
+
+		if ( framebuffer != 0 && lookup( "glBindFramebuffer", framebuffer, Kind.FRAMEBUFFER ) == null )
+			return;
+
+		this.framebuffer = framebuffer;
+	}
+
+	@Override
+	public void glBindRenderbuffer(int target, int renderbuffer)
+	{
+		call( "glBindRenderbuffer" );
+		stats.bindings++;
+
+		if ( renderbuffer != 0 && lookup( "glBindRenderbuffer", renderbuffer, Kind.RENDERBUFFER ) == null )
+			return;
+
+		this.renderbuffer = renderbuffer;
+	}
+
+	@Override
+	public void glBlendColor(float red, float green, float blue, float alpha)
+	{
+		call( "glBlendColor" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glBlendEquation(int mode)
+	{
+		call( "glBlendEquation" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glBlendEquationSeparate(int modeRGB, int modeAlpha)
+	{
+		call( "glBlendEquationSeparate" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glBlendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha)
+	{
+		call( "glBlendFuncSeparate" );
+		stats.stateChanges++;
+	}
+
+	/**
+	 * The data store size is taken from the data buffer when there is one, as
+	 * WebGL does, and from {@code size} otherwise.
+	 */
+	@Override
+	public void glBufferData(int target, int size, Buffer data, int usage)
+	{
+		call( "glBufferData" );
+
+		BufferResource buffer = boundBuffer( "glBufferData", target );
+		if ( buffer == null )
+			return;
+
+		int bytes = data != null ? byteLength( data ) : size;
+		if ( bytes < 0 )
+		{
+			error( GL_INVALID_VALUE, "glBufferData: negative size" );
+			return;
+		}
+
+		stats.bufferMemory += bytes - buffer.size;
+		buffer.size = bytes;
+		buffer.usage = usage;
+
+		stats.bufferUploads++;
+		if ( data != null )
+			stats.bufferBytes += bytes;
+	}
+
+	@Override
+	public void glBufferSubData(int target, int offset, int size, Buffer data)
+	{
+		call( "glBufferSubData" );
+
+		BufferResource buffer = boundBuffer( "glBufferSubData", target );
+		if ( buffer == null )
+			return;
+
+		int bytes = data != null ? byteLength( data ) : size;
+		if ( offset < 0 || (long) offset + bytes > buffer.size )
+		{
+			error( GL_INVALID_VALUE, "glBufferSubData: " + bytes + " bytes at offset " + offset
+					+ " overflow buffer " + buffer.name + " of " + buffer.size + " bytes" );
+			return;
+		}
+
+		stats.bufferUploads++;
+		stats.bufferBytes += bytes;
+	}
+
+	@Override
+	public int glCheckFramebufferStatus(int target)
+	{
+		call( "glCheckFramebufferStatus" );
+
+		if ( framebuffer == 0 )
+			return GL_FRAMEBUFFER_COMPLETE;
+
+		FramebufferResource fb = (FramebufferResource) resources.get( framebuffer );
+		if ( fb.color == null && fb.depth == null && fb.stencil == null )
+			return GL_FRAMEBUFFER_INCOMPLETE_MISSING_ATTACHMENT;
+
+		if ( !isAttachmentComplete( fb.color ) || !isAttachmentComplete( fb.depth ) || !isAttachmentComplete( fb.stencil ) )
+			return GL_FRAMEBUFFER_INCOMPLETE_ATTACHMENT;
+
+		return GL_FRAMEBUFFER_COMPLETE;
+	}
+
+	private boolean isAttachmentComplete(Resource attachment)
+	{
+		if ( attachment == null )
+			return true;
+
+		if ( resources.get( attachment.name ) != attachment )
+			return false;
+
+		if ( attachment instanceof TextureResource )
+			return ((TextureResource) attachment).memory > 0;
+
+		return ((RenderbufferResource) attachment).width > 0;
+	}
+
+	@Override
+	public void glCompileShader(int shader)
+	{
+		call( "glCompileShader" );
+
+		ShaderResource s = (ShaderResource) lookup( "glCompileShader", shader, Kind.SHADER );
+		if ( s == null )
+			return;
+
+		s.compiled = s.source != null && s.source.contains( "main" );
+		s.log = s.compiled ? "" : "no main function";
+	}
+
+	@Override
+	public int glCreateProgram()
+	{
+		call( "glCreateProgram" );
+		return create( new ProgramResource( names++ ) ).name;
+	}
+
+	@Override
+	public int glCreateShader(int type)
+	{
+		call( "glCreateShader" );
+
+		if ( type != GL_VERTEX_SHADER && type != GL_FRAGMENT_SHADER )
+		{
+			error( GL_INVALID_ENUM, "glCreateShader: invalid type 0x" + Integer.toHexString( type ) );
+			return 0;
+		}
+
+		return create( new ShaderResource( names++, type ) ).name;
+	}
+
+	@Override
+	public void glDeleteBuffer(int buffer)
+	{
+		call( "glDeleteBuffer" );
+
+		Resource resource = resources.get( buffer );
+		if ( resource == null || resource.kind != Kind.BUFFER )
+			return;
+
+		if ( arrayBuffer == buffer )
+			arrayBuffer = 0;
+		if ( elementArrayBuffer == buffer )
+			elementArrayBuffer = 0;
+
+		destroy( resource );
+	}
+
+	@Override
+	public void glDeleteBuffers(int n, IntBuffer buffers)
+	{
+		for ( int i = 0; i < n; i++ )
+			glDeleteBuffer( buffers.get( buffers.position() + i ) );
+	}
+
+	@Override
+	public void glDeleteFramebuffer(int framebuffer)
+	{
+		call( "glDeleteFramebuffer" );
+
+		Resource resource = resources.get( framebuffer );
+		if ( resource == null || resource.kind != Kind.FRAMEBUFFER )
+			return;
+
+		if ( this.framebuffer == framebuffer )
+			this.framebuffer = 0;
+
+		destroy( resource );
+	}
+
+	@Override
+	public void glDeleteFramebuffers(int n, IntBuffer framebuffers)
+	{
+		for ( int i = 0; i < n; i++ )
+			glDeleteFramebuffer( framebuffers.get( framebuffers.position() + i ) );
+	}
+
+	@Override
+	public void glDeleteProgram(int program)
+	{
+		call( "glDeleteProgram" );
+
+		Resource resource = resources.get( program );
+		if ( resource == null || resource.kind != Kind.PROGRAM )
+			return;
+
+		ProgramResource p = (ProgramResource) resource;
+		if ( p == currentProgram )
+		{
+			// deleted once it is no longer in use
+			p.deletePending = true;
+			return;
+		}
+
+		deleteProgram( p );
+	}
+
+	private void deleteProgram(ProgramResource program)
+	{
+		for ( Integer location : program.uniforms.values() )
+			uniformLocations.remove( location );
+
+		destroy( program );
+	}
+
+	@Override
+	public void glDeleteRenderbuffer(int renderbuffer)
+	{
+		call( "glDeleteRenderbuffer" );
+
+		Resource resource = resources.get( renderbuffer );
+		if ( resource == null || resource.kind != Kind.RENDERBUFFER )
+			return;
+
+		if ( this.renderbuffer == renderbuffer )
+			this.renderbuffer = 0;
+
+		destroy( resource );
+	}
+
+	@Override
+	public void glDeleteRenderbuffers(int n, IntBuffer renderbuffers)
+	{
+		for ( int i = 0; i < n; i++ )
+			glDeleteRenderbuffer( renderbuffers.get( renderbuffers.position() + i ) );
+	}
+
+	@Override
+	public void glDeleteShader(int shader)
+	{
+		call( "glDeleteShader" );
+
+		// attached shaders stay readable by their programs
+		Resource resource = resources.get( shader );
+		if ( resource != null && resource.kind == Kind.SHADER )
+			destroy( resource );
+	}
+
+	@Override
+	public void glDetachShader(int program, int shader)
+	{
+		call( "glDetachShader" );
+
+		ProgramResource p = (ProgramResource) lookup( "glDetachShader", program, Kind.PROGRAM );
+		if ( p == null )
+			return;
+
+		if ( p.vertex != null && p.vertex.name == shader )
+			p.vertex = null;
+		else if ( p.fragment != null && p.fragment.name == shader )
+			p.fragment = null;
+		else
+			error( GL_INVALID_OPERATION, "glDetachShader: shader " + shader + " is not attached to program " + program );
+	}
+
+	@Override
+	public void glDisableVertexAttribArray(int index)
+	{
+		call( "glDisableVertexAttribArray" );
+		stats.stateChanges++;
+
+		if ( index < 0 || index >= maxVertexAttribs )
+		{
+			error( GL_INVALID_VALUE, "glDisableVertexAttribArray: invalid index " + index );
+			return;
+		}
+
+		attribs[ index ].enabled = false;
+	}
+
+	@Override
+	public void glDrawElements(int mode, int count, int type, int indices)
+	{
+		call( "glDrawElements" );
+		draw( "glDrawElements", mode, count, 1 );
+		checkIndices( "glDrawElements", count, type, indices );
+		checkAttributes( "glDrawElements", 0, 1 );
+	}
+
+	@Override
+	public void glEnableVertexAttribArray(int index)
+	{
+		call( "glEnableVertexAttribArray" );
+		stats.stateChanges++;
+
+		if ( index < 0 || index >= maxVertexAttribs )
+		{
+			error( GL_INVALID_VALUE, "glEnableVertexAttribArray: invalid index " + index );
+			return;
+		}
+
+		attribs[ index ].enabled = true;
+	}
+
+	@Override
+	public void glFramebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer)
+	{
+		call( "glFramebufferRenderbuffer" );
+
+		if ( framebuffer == 0 )
+		{
+			error( GL_INVALID_OPERATION, "glFramebufferRenderbuffer: default framebuffer is bound" );
+			return;
+		}
+
+		Resource resource = lookup( "glFramebufferRenderbuffer", renderbuffer, Kind.RENDERBUFFER );
+		if ( renderbuffer != 0 && resource == null )
+			return;
+
+		attach( "glFramebufferRenderbuffer", attachment, resource );
+	}
+
+	@Override
+	public void glFramebufferTexture2D(int target, int attachment, int textarget, int texture, int level)
+	{
+		call( "glFramebufferTexture2D" );
+
+		if ( framebuffer == 0 )
+		{
+			error( GL_INVALID_OPERATION, "glFramebufferTexture2D: default framebuffer is bound" );
+			return;
+		}
+
+		Resource resource = lookup( "glFramebufferTexture2D", texture, Kind.TEXTURE );
+		if ( texture != 0 && resource == null )
+			return;
+
+		attach( "glFramebufferTexture2D", attachment, resource );
+	}
+
+	private void attach(String call, int attachment, Resource resource)
+	{
+		FramebufferResource fb = (FramebufferResource) resources.get( framebuffer );
+
+		switch ( attachment ) {
+		case GL_COLOR_ATTACHMENT0:
+			fb.color = resource;
+			break;
+		case GL_DEPTH_ATTACHMENT:
+			fb.depth = resource;
+			break;
+		case GL_STENCIL_ATTACHMENT:
+			fb.stencil = resource;
+			break;
+		case GLES20Ext.GL_DEPTH_STENCIL_ATTACHMENT:
+			fb.depth = resource;
+			fb.stencil = resource;
+			break;
+		default:
+			error( GL_INVALID_ENUM, call + ": invalid attachment 0x" + Integer.toHexString( attachment ) );
+		}
+	}
+
+	@Override
+	public int glGenBuffer()
+	{
+		call( "glGenBuffer" );
+		return create( new BufferResource( names++ ) ).name;
+	}
+
+	@Override
+	public void glGenBuffers(int n, IntBuffer buffers)
+	{
+		for ( int i = 0; i < n; i++ )
+			buffers.put( buffers.position() + i, glGenBuffer() );
+	}
+
+	@Override
+	public void glGenerateMipmap(int target)
+	{
+		call( "glGenerateMipmap" );
+
+		TextureResource texture = boundTexture( "glGenerateMipmap", target );
+		if ( texture == null )
+			return;
+
+		int faces = target == GL_TEXTURE_CUBE_MAP ? 6 : 1;
+		for ( int face = 0; face < faces; face++ )
+		{
+			if ( texture.levels[ face * MAX_LEVELS ] == 0 )
+			{
+				error( GL_INVALID_OPERATION, "glGenerateMipmap: level 0 of texture " + texture.name + " is not defined" );
+				return;
+			}
+
+			int width = texture.widths[ face ];
+			int height = texture.heights[ face ];
+			for ( int level = 1; level < MAX_LEVELS && ( width > 1 || height > 1 ); level++ )
+			{
+				width = Math.max( 1, width >> 1 );
+				height = Math.max( 1, height >> 1 );
+
+				int index = face * MAX_LEVELS + level;
+				long bytes = (long) width * height * texture.pixelSizes[ face ];
+				texture.memory += bytes - texture.levels[ index ];
+				stats.textureMemory += bytes - texture.levels[ index ];
+				texture.levels[ index ] = bytes;
+			}
+		}
+	}
+
+	@Override
+	public int glGenFramebuffer()
+	{
+		call( "glGenFramebuffer" );
+		return create( new FramebufferResource( names++ ) ).name;
+	}
+
+	@Override
+	public void glGenFramebuffers(int n, IntBuffer framebuffers)
+	{
+		for ( int i = 0; i < n; i++ )
+			framebuffers.put( framebuffers.position() + i, glGenFramebuffer() );
+	}
+
+	@Override
+	public int glGenRenderbuffer()
+	{
+		call( "glGenRenderbuffer" );
+		return create( new RenderbufferResource( names++ ) ).name;
+	}
+
+	@Override
+	public void glGenRenderbuffers(int n, IntBuffer renderbuffers)
+	{
+		for ( int i = 0; i < n; i++ )
+			renderbuffers.put( renderbuffers.position() + i, glGenRenderbuffer() );
+	}
+
+	@Override
+	public String glGetActiveAttrib(int program, int index, IntBuffer size, Buffer type)
+	{
+		call( "glGetActiveAttrib" );
+
+		ProgramResource p = (ProgramResource) lookup( "glGetActiveAttrib", program, Kind.PROGRAM );
+		return p != null ? getActive( p.attributes, index, size ) : null;
+	}
+
+	@Override
+	public String glGetActiveUniform(int program, int index, IntBuffer size, Buffer type)
+	{
+		call( "glGetActiveUniform" );
+
+		ProgramResource p = (ProgramResource) lookup( "glGetActiveUniform", program, Kind.PROGRAM );
+		return p != null ? getActive( p.uniforms, index, size ) : null;
+	}
+
+	private String getActive(Map<String, Integer> active, int index, IntBuffer size)
+	{
+		if ( index < 0 || index >= active.size() )
+		{
+			error( GL_INVALID_VALUE, "glGetActive: invalid index " + index );
+			return null;
+		}
+
+		if ( size != null )
+			size.put( size.position(), 1 );
+
+		return new ArrayList<>( active.keySet() ).get( index );
+	}
+
+	@Override
+	public void glGetAttachedShaders(int program, int maxcount, Buffer count, IntBuffer shaders)
+	{
+		call( "glGetAttachedShaders" );
+
+		ProgramResource p = (ProgramResource) lookup( "glGetAttachedShaders", program, Kind.PROGRAM );
+		if ( p == null )
+			return;
+
+		int n = 0;
+		if ( p.vertex != null && n < maxcount )
+			shaders.put( shaders.position() + n++, p.vertex.name );
+		if ( p.fragment != null && n < maxcount )
+			shaders.put( shaders.position() + n++, p.fragment.name );
+
+		if ( count instanceof IntBuffer )
+			((IntBuffer) count).put( count.position(), n );
+	}
+
+	@Override
+	public int glGetAttribLocation(int program, String name)
+	{
+		call( "glGetAttribLocation" );
+
+		ProgramResource p = (ProgramResource) lookup( "glGetAttribLocation", program, Kind.PROGRAM );
+		if ( p == null )
+			return -1;
+
+		if ( !p.linked )
+		{
+			error( GL_INVALID_OPERATION, "glGetAttribLocation: program " + program + " is not linked" );
+			return -1;
+		}
+
+		Integer location = p.attributes.get( name );
+		return location != null ? location : -1;
+	}
+
+	@Override
+	public void glGetBooleanv(int pname, Buffer params)
+	{
+		call( "glGetBooleanv" );
+	}
+
+	@Override
+	public void glGetBufferParameteriv(int target, int pname, IntBuffer params)
+	{
+		call( "glGetBufferParameteriv" );
+
+		BufferResource buffer = boundBuffer( "glGetBufferParameteriv", target );
+		if ( buffer == null )
+			return;
+
+		if ( pname == GL_BUFFER_SIZE )
+			params.put( params.position(), buffer.size );
+		else if ( pname == GL_BUFFER_USAGE )
+			params.put( params.position(), buffer.usage != 0 ? buffer.usage : GL_STATIC_DRAW );
+		else
+			error( GL_INVALID_ENUM, "glGetBufferParameteriv: invalid parameter 0x" + Integer.toHexString( pname ) );
+	}
+
+	@Override
+	public void glGetFloatv(int pname, FloatBuffer params)
+	{
+		call( "glGetFloatv" );
+
+		if ( pname == GLES20Ext.GL_MAX_TEXTURE_MAX_ANISOTROPY_EXT )
+			params.put( params.position(), 16f );
+	}
+
+	@Override
+	public void glGetFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params)
+	{
+		call( "glGetFramebufferAttachmentParameteriv" );
+	}
+
+	@Override
+	public void glGetProgramiv(int program, int pname, IntBuffer params)
+	{
+		call( "glGetProgramiv" );
+
+		ProgramResource p = (ProgramResource) lookup( "glGetProgramiv", program, Kind.PROGRAM );
+		if ( p == null )
+			return;
+
+		int index = params.position();
+		switch ( pname ) {
+		case GL_LINK_STATUS:       params.put( index, p.linked ? 1 : 0 ); break;
+		case GL_VALIDATE_STATUS:   params.put( index, p.linked ? 1 : 0 ); break;
+		case GL_DELETE_STATUS:     params.put( index, p.deletePending ? 1 : 0 ); break;
+		case GL_ATTACHED_SHADERS:  params.put( index, ( p.vertex != null ? 1 : 0 ) + ( p.fragment != null ? 1 : 0 ) ); break;
+		case GL_ACTIVE_ATTRIBUTES: params.put( index, p.attributes.size() ); break;
+		case GL_ACTIVE_UNIFORMS:   params.put( index, p.uniforms.size() ); break;
+		case GL_INFO_LOG_LENGTH:   params.put( index, p.log.length() ); break;
+		default:
+			error( GL_INVALID_ENUM, "glGetProgramiv: invalid parameter 0x" + Integer.toHexString( pname ) );
+		}
+	}
+
+	@Override
+	public String glGetProgramInfoLog(int program)
+	{
+		call( "glGetProgramInfoLog" );
+
+		ProgramResource p = (ProgramResource) lookup( "glGetProgramInfoLog", program, Kind.PROGRAM );
+		return p != null ? p.log : "";
+	}
+
+	@Override
+	public void glGetRenderbufferParameteriv(int target, int pname, IntBuffer params)
+	{
+		call( "glGetRenderbufferParameteriv" );
+
+		if ( renderbuffer == 0 )
+		{
+			error( GL_INVALID_OPERATION, "glGetRenderbufferParameteriv: no renderbuffer bound" );
+			return;
+		}
+
+		RenderbufferResource rb = (RenderbufferResource) resources.get( renderbuffer );
+		if ( pname == GL_RENDERBUFFER_WIDTH )
+			params.put( params.position(), rb.width );
+		else if ( pname == GL_RENDERBUFFER_HEIGHT )
+			params.put( params.position(), rb.height );
+		else if ( pname == GL_RENDERBUFFER_INTERNAL_FORMAT )
+			params.put( params.position(), rb.target );
+	}
+
+	@Override
+	public void glGetShaderiv(int shader, int pname, IntBuffer params)
+	{
+		call( "glGetShaderiv" );
+
+		ShaderResource s = (ShaderResource) lookup( "glGetShaderiv", shader, Kind.SHADER );
+		if ( s == null )
+			return;
+
+		int index = params.position();
+		switch ( pname ) {
+		case GL_COMPILE_STATUS:  params.put( index, s.compiled ? 1 : 0 ); break;
+		case GL_SHADER_TYPE:     params.put( index, s.type ); break;
+		case GL_DELETE_STATUS:   params.put( index, 0 ); break;
+		case GL_INFO_LOG_LENGTH: params.put( index, s.log.length() ); break;
+		default:
+			error( GL_INVALID_ENUM, "glGetShaderiv: invalid parameter 0x" + Integer.toHexString( pname ) );
+		}
+	}
+
+	@Override
+	public String glGetShaderInfoLog(int shader)
+	{
+		call( "glGetShaderInfoLog" );
+
+		ShaderResource s = (ShaderResource) lookup( "glGetShaderInfoLog", shader, Kind.SHADER );
+		return s != null ? s.log : "";
+	}
+
+	@Override
+	public void glGetShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision)
+	{
+		call( "glGetShaderPrecisionFormat" );
+
+		boolean integer = precisiontype == GL_LOW_INT || precisiontype == GL_MEDIUM_INT || precisiontype == GL_HIGH_INT;
+
+		putInts( range, integer ? 31 : 127, integer ? 30 : 127 );
+		putInts( precision, integer ? 0 : 23 );
+	}
+
+	@Override
+	public void glGetTexParameterfv(int target, int pname, FloatBuffer params)
+	{
+		call( "glGetTexParameterfv" );
+	}
+
+	@Override
+	public void glGetTexParameteriv(int target, int pname, IntBuffer params)
+	{
+		call( "glGetTexParameteriv" );
+	}
+
+	@Override
+	public void glGetUniformfv(int program, int location, FloatBuffer params)
+	{
+		call( "glGetUniformfv" );
+	}
+
+	@Override
+	public void glGetUniformiv(int program, int location, IntBuffer params)
+	{
+		call( "glGetUniformiv" );
+	}
+
+	@Override
+	public int glGetUniformLocation(int program, String name)
+	{
+		call( "glGetUniformLocation" );
+
+		ProgramResource p = (ProgramResource) lookup( "glGetUniformLocation", program, Kind.PROGRAM );
+		if ( p == null )
+			return -1;
+
+		if ( !p.linked )
+		{
+			error( GL_INVALID_OPERATION, "glGetUniformLocation: program " + program + " is not linked" );
+			return -1;
+		}
+
+		Integer location = p.uniforms.get( name );
+		return location != null ? location : -1;
+	}
+
+	@Override
+	public void glGetVertexAttribfv(int index, int pname, FloatBuffer params)
+	{
+		call( "glGetVertexAttribfv" );
+	}
+
+	@Override
+	public void glGetVertexAttribiv(int index, int pname, IntBuffer params)
+	{
+		call( "glGetVertexAttribiv" );
+	}
+
+	@Override
+	public void glGetVertexAttribPointerv(int index, int pname, Buffer pointer)
+	{
+		call( "glGetVertexAttribPointerv" );
+	}
+
+	@Override
+	public boolean glIsBuffer(int buffer)
+	{
+		call( "glIsBuffer" );
+		return isKind( buffer, Kind.BUFFER );
+	}
+
+	@Override
+	public boolean glIsEnabled(int cap)
+	{
+		call( "glIsEnabled" );
+		return capabilities.containsKey( cap );
+	}
+
+	@Override
+	public boolean glIsFramebuffer(int framebuffer)
+	{
+		call( "glIsFramebuffer" );
+		return isKind( framebuffer, Kind.FRAMEBUFFER );
+	}
+
+	@Override
+	public boolean glIsProgram(int program)
+	{
+		call( "glIsProgram" );
+		return isKind( program, Kind.PROGRAM );
+	}
+
+	@Override
+	public boolean glIsRenderbuffer(int renderbuffer)
+	{
+		call( "glIsRenderbuffer" );
+		return isKind( renderbuffer, Kind.RENDERBUFFER );
+	}
+
+	@Override
+	public boolean glIsShader(int shader)
+	{
+		call( "glIsShader" );
+		return isKind( shader, Kind.SHADER );
+	}
+
+	@Override
+	public boolean glIsTexture(int texture)
+	{
+		call( "glIsTexture" );
+		return isKind( texture, Kind.TEXTURE );
+	}
+
+	private boolean isKind(int name, Kind kind)
+	{
+		Resource resource = resources.get( name );
+		return resource != null && resource.kind == kind;
+	}
+
+	@Override
+	public void glLinkProgram(int program)
+	{
+		call( "glLinkProgram" );
+
+		ProgramResource p = (ProgramResource) lookup( "glLinkProgram", program, Kind.PROGRAM );
+		if ( p == null )
+			return;
+
+		for ( Integer location : p.uniforms.values() )
+			uniformLocations.remove( location );
+
+		link( p );
+	}
+
+	@Override
+	public void glReleaseShaderCompiler()
+	{
+		call( "glReleaseShaderCompiler" );
+	}
+
+	@Override
+	public void glRenderbufferStorage(int target, int internalformat, int width, int height)
+	{
+		call( "glRenderbufferStorage" );
+
+		if ( renderbuffer == 0 )
+		{
+			error( GL_INVALID_OPERATION, "glRenderbufferStorage: no renderbuffer bound" );
+			return;
+		}
+
+		if ( width < 0 || height < 0 || width > maxRenderbufferSize || height > maxRenderbufferSize )
+		{
+			error( GL_INVALID_VALUE, "glRenderbufferStorage: invalid size " + width + "x" + height );
+			return;
+		}
+
+		RenderbufferResource rb = (RenderbufferResource) resources.get( renderbuffer );
+		long memory = (long) width * height * renderbufferPixelSize( internalformat );
+
+		stats.renderbufferMemory += memory - rb.memory;
+		rb.memory = memory;
+		rb.width = width;
+		rb.height = height;
+		rb.target = internalformat;
+	}
+
+	@Override
+	public void glSampleCoverage(float value, boolean invert)
+	{
+		call( "glSampleCoverage" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glShaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length)
+	{
+		call( "glShaderBinary" );
+		error( GL_INVALID_ENUM, "glShaderBinary: no binary formats are supported" );
+	}
+
+	@Override
+	public void glShaderSource(int shader, String string)
+	{
+		call( "glShaderSource" );
+
+		ShaderResource s = (ShaderResource) lookup( "glShaderSource", shader, Kind.SHADER );
+		if ( s != null )
+			s.source = string;
+	}
+
+	@Override
+	public void glStencilFuncSeparate(int face, int func, int ref, int mask)
+	{
+		call( "glStencilFuncSeparate" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glStencilMaskSeparate(int face, int mask)
+	{
+		call( "glStencilMaskSeparate" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glStencilOpSeparate(int face, int fail, int zfail, int zpass)
+	{
+		call( "glStencilOpSeparate" );
+		stats.stateChanges++;
+	}
+
+	@Override
+	public void glTexParameterfv(int target, int pname, FloatBuffer params)
+	{
+		call( "glTexParameterfv" );
+		boundTexture( "glTexParameterfv", target );
+	}
+
+	@Override
+	public void glTexParameteri(int target, int pname, int param)
+	{
+		call( "glTexParameteri" );
+		boundTexture( "glTexParameteri", target );
+	}
+
+	@Override
+	public void glTexParameteriv(int target, int pname, IntBuffer params)
+	{
+		call( "glTexParameteriv" );
+		boundTexture( "glTexParameteriv", target );
+	}
+
+	@Override
+	public void glUniform1f(int location, float x)
+	{
+		call( "glUniform1f" );
+		uniform( "glUniform1f", location );
+	}
+
+	@Override
+	public void glUniform1fv(int location, int count, FloatBuffer v)
+	{
+		call( "glUniform1fv" );
+		uniform( "glUniform1fv", location );
+	}
+
+	@Override
+	public void glUniform1fv(int location, int count, float[] v, int offset)
+	{
+		call( "glUniform1fv" );
+		uniform( "glUniform1fv", location );
+	}
+
+	@Override
+	public void glUniform1i(int location, int x)
+	{
+		call( "glUniform1i" );
+		uniform( "glUniform1i", location );
+	}
+
+	@Override
+	public void glUniform1iv(int location, int count, IntBuffer v)
+	{
+		call( "glUniform1iv" );
+		uniform( "glUniform1iv", location );
+	}
+
+	@Override
+	public void glUniform1iv(int location, int count, int[] v, int offset)
+	{
+		call( "glUniform1iv" );
+		uniform( "glUniform1iv", location );
+	}
+
+	@Override
+	public void glUniform2f(int location, float x, float y)
+	{
+		call( "glUniform2f" );
+		uniform( "glUniform2f", location );
+	}
+
+	@Override
+	public void glUniform2fv(int location, int count, FloatBuffer v)
+	{
+		call( "glUniform2fv" );
+		uniform( "glUniform2fv", location );
+	}
+
+	@Override
+	public void glUniform2fv(int location, int count, float[] v, int offset)
+	{
+		call( "glUniform2fv" );
+		uniform( "glUniform2fv", location );
+	}
+
+	@Override
+	public void glUniform2i(int location, int x, int y)
+	{
+		call( "glUniform2i" );
+		uniform( "glUniform2i", location );
+	}
+
+	@Override
+	public void glUniform2iv(int location, int count, IntBuffer v)
+	{
+		call( "glUniform2iv" );
+		uniform( "glUniform2iv", location );
+	}
+
+	@Override
+	public void glUniform2iv(int location, int count, int[] v, int offset)
+	{
+		call( "glUniform2iv" );
+		uniform( "glUniform2iv", location );
+	}
+
+	@Override
+	public void glUniform3f(int location, float x, float y, float z)
+	{
+		call( "glUniform3f" );
+		uniform( "glUniform3f", location );
+	}
+
+	@Override
+	public void glUniform3fv(int location, int count, FloatBuffer v)
+	{
+		call( "glUniform3fv" );
+		uniform( "glUniform3fv", location );
+	}
+
+	@Override
+	public void glUniform3fv(int location, int count, float[] v, int offset)
+	{
+		call( "glUniform3fv" );
+		uniform( "glUniform3fv", location );
+	}
+
+	@Override
+	public void glUniform3i(int location, int x, int y, int z)
+	{
+		call( "glUniform3i" );
+		uniform( "glUniform3i", location );
+	}
+
+	@Override
+	public void glUniform3iv(int location, int count, IntBuffer v)
+	{
+		call( "glUniform3iv" );
+		uniform( "glUniform3iv", location );
+	}
+
+	@Override
+	public void glUniform3iv(int location, int count, int[] v, int offset)
+	{
+		call( "glUniform3iv" );
+		uniform( "glUniform3iv", location );
+	}
+
+	@Override
+	public void glUniform4f(int location, float x, float y, float z, float w)
+	{
+		call( "glUniform4f" );
+		uniform( "glUniform4f", location );
+	}
+
+	@Override
+	public void glUniform4fv(int location, int count, FloatBuffer v)
+	{
+		call( "glUniform4fv" );
+		uniform( "glUniform4fv", location );
+	}
+
+	@Override
+	public void glUniform4fv(int location, int count, float[] v, int offset)
+	{
+		call( "glUniform4fv" );
+		uniform( "glUniform4fv", location );
+	}
+
+	@Override
+	public void glUniform4i(int location, int x, int y, int z, int w)
+	{
+		call( "glUniform4i" );
+		uniform( "glUniform4i", location );
+	}
+
+	@Override
+	public void glUniform4iv(int location, int count, IntBuffer v)
+	{
+		call( "glUniform4iv" );
+		uniform( "glUniform4iv", location );
+	}
+
+	@Override
+	public void glUniform4iv(int location, int count, int[] v, int offset)
+	{
+		call( "glUniform4iv" );
+		uniform( "glUniform4iv", location );
+	}
+
+	@Override
+	public void glUniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value)
+	{
+		call( "glUniformMatrix2fv" );
+		uniform( "glUniformMatrix2fv", location );
+	}
+
+	@Override
+	public void glUniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset)
+	{
+		call( "glUniformMatrix2fv" );
+		uniform( "glUniformMatrix2fv", location );
+	}
+
+	@Override
+	public void glUniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value)
+	{
+		call( "glUniformMatrix3fv" );
+		uniform( "glUniformMatrix3fv", location );
+	}
+
+	@Override
+	public void glUniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset)
+	{
+		call( "glUniformMatrix3fv" );
+		uniform( "glUniformMatrix3fv", location );
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value)
+	{
+		call( "glUniformMatrix4fv" );
+		uniform( "glUniformMatrix4fv", location );
+	}
+
+	@Override
+	public void glUniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset)
+	{
+		call( "glUniformMatrix4fv" );
+		uniform( "glUniformMatrix4fv", location );
+	}
+
+	@Override
+	public void glUseProgram(int program)
+	{
+		call( "glUseProgram" );
+		stats.programSwitches++;
+
+		ProgramResource p = (ProgramResource) lookup( "glUseProgram", program, Kind.PROGRAM );
+		if ( program != 0 && p == null )
+			return;
+
+		if ( p != null && !p.linked )
+		{
+			error( GL_INVALID_OPERATION, "glUseProgram: program " + program + " is not linked" );
+			return;
+		}
+
+		if ( currentProgram != null && currentProgram != p && currentProgram.deletePending )
+			deleteProgram( currentProgram );
+
+		currentProgram = p;
+	}
+
+	@Override
+	public void glValidateProgram(int program)
+	{
+		call( "glValidateProgram" );
+		lookup( "glValidateProgram", program, Kind.PROGRAM );
+	}
+
+	@Override
+	public void glVertexAttrib1f(int indx, float x)
+	{
+		call( "glVertexAttrib1f" );
+	}
+
+	@Override
+	public void glVertexAttrib1fv(int indx, FloatBuffer values)
+	{
+		call( "glVertexAttrib1fv" );
+	}
+
+	@Override
+	public void glVertexAttrib2f(int indx, float x, float y)
+	{
+		call( "glVertexAttrib2f" );
+	}
+
+	@Override
+	public void glVertexAttrib2fv(int indx, FloatBuffer values)
+	{
+		call( "glVertexAttrib2fv" );
+	}
+
+	@Override
+	public void glVertexAttrib3f(int indx, float x, float y, float z)
+	{
+		call( "glVertexAttrib3f" );
+	}
+
+	@Override
+	public void glVertexAttrib3fv(int indx, FloatBuffer values)
+	{
+		call( "glVertexAttrib3fv" );
+	}
+
+	@Override
+	public void glVertexAttrib4f(int indx, float x, float y, float z, float w)
+	{
+		call( "glVertexAttrib4f" );
+	}
+
+	@Override
+	public void glVertexAttrib4fv(int indx, FloatBuffer values)
+	{
+		call( "glVertexAttrib4fv" );
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr)
+	{
+		call( "glVertexAttribPointer" );
+		error( GL_INVALID_OPERATION, "glVertexAttribPointer: client side vertex arrays are not supported" );
+	}
+
+	@Override
+	public void glVertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr)
+	{
+		call( "glVertexAttribPointer" );
+		stats.stateChanges++;
+
+		if ( indx < 0 || indx >= maxVertexAttribs || size < 1 || size > 4 || stride < 0 || ptr < 0 )
+		{
+			error( GL_INVALID_VALUE, "glVertexAttribPointer: invalid arguments for attribute " + indx );
+			return;
+		}
+
+		if ( arrayBuffer == 0 )
+		{
+			error( GL_INVALID_OPERATION, "glVertexAttribPointer: no array buffer bound" );
+			return;
+		}
+
+		VertexAttrib attrib = attribs[ indx ];
+		attrib.buffer = arrayBuffer;
+		attrib.size = size;
+		attrib.type = type;
+		attrib.stride = stride;
+		attrib.offset = ptr;
+	}
+
+	// GLInstancedArrays
+
+	@Override
+	public void glVertexAttribDivisorANGLE(int index, int divisor)
+	{
+		call( "glVertexAttribDivisorANGLE" );
+		stats.stateChanges++;
+
+		if ( index < 0 || index >= maxVertexAttribs || divisor < 0 )
+		{
+			error( GL_INVALID_VALUE, "glVertexAttribDivisorANGLE: invalid arguments for attribute " + index );
+			return;
+		}
+
+		attribs[ index ].divisor = divisor;
+	}
+
+	@Override
+	public void glDrawArraysInstancedANGLE(int mode, int first, int count, int primcount)
+	{
+		call( "glDrawArraysInstancedANGLE" );
+		stats.instancedDrawCalls++;
+		draw( "glDrawArraysInstancedANGLE", mode, count, primcount );
+		checkAttributes( "glDrawArraysInstancedANGLE", first + count, primcount );
+	}
+
+	@Override
+	public void glDrawElementsInstancedANGLE(int mode, int count, int type, int indices, int primcount)
+	{
+		call( "glDrawElementsInstancedANGLE" );
+		stats.instancedDrawCalls++;
+		draw( "glDrawElementsInstancedANGLE", mode, count, primcount );
+		checkIndices( "glDrawElementsInstancedANGLE", count, type, indices );
+		checkAttributes( "glDrawElementsInstancedANGLE", 0, primcount );
+	}
+}
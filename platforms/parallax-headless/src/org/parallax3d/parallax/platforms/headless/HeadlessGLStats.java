@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.platforms.headless;
+
+/**
+ * Counters collected by {@link HeadlessGL20}.
+ * <p>
+ * Call counters are cleared by {@link #reset()}, usually once per frame.
+ * Object and memory counters describe what is currently alive on the
+ * context and are never reset.
+ */
+public class HeadlessGLStats
+{
+	// Calls since the last reset
+
+	public int calls;
+	public int drawCalls;
+	public int instancedDrawCalls;
+	public int vertices;
+	public int triangles;
+	public int programSwitches;
+	public int bindings;
+	public int stateChanges;
+	public int uniformUploads;
+	public int bufferUploads;
+	public long bufferBytes;
+	public int textureUploads;
+	public long textureBytes;
+	public int errors;
+
+	// Live objects
+
+	public int buffers;
+	public int textures;
+	public int shaders;
+	public int programs;
+	public int framebuffers;
+	public int renderbuffers;
+
+	public long bufferMemory;
+	public long textureMemory;
+	public long renderbufferMemory;
+
+	public void reset()
+	{
+		calls = 0;
+		drawCalls = 0;
+		instancedDrawCalls = 0;
+		vertices = 0;
+		triangles = 0;
+		programSwitches = 0;
+		bindings = 0;
+		stateChanges = 0;
+		uniformUploads = 0;
+		bufferUploads = 0;
+		bufferBytes = 0;
+		textureUploads = 0;
+		textureBytes = 0;
+		errors = 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "{calls=" + calls
+				+ ", drawCalls=" + drawCalls
+				+ ", instancedDrawCalls=" + instancedDrawCalls
+				+ ", vertices=" + vertices
+				+ ", triangles=" + triangles
+				+ ", programSwitches=" + programSwitches
+				+ ", bindings=" + bindings
+				+ ", stateChanges=" + stateChanges
+				+ ", uniformUploads=" + uniformUploads
+				+ ", bufferUploads=" + bufferUploads
+				+ ", bufferBytes=" + bufferBytes
+				+ ", textureUploads=" + textureUploads
+				+ ", textureBytes=" + textureBytes
+				+ ", errors=" + errors
+				+ ", buffers=" + buffers
+				+ ", textures=" + textures
+				+ ", shaders=" + shaders
+				+ ", programs=" + programs
+				+ ", framebuffers=" + framebuffers
+				+ ", renderbuffers=" + renderbuffers
+				+ ", bufferMemory=" + bufferMemory
+				+ ", textureMemory=" + textureMemory
+				+ ", renderbufferMemory=" + renderbufferMemory
+				+ "}";
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.platforms.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.parallax3d.parallax.Input;
+import org.parallax3d.parallax.input.InputHandler;
+
+/**
+ * Input without any devices: nothing is ever pressed or moved.
+ */
+public class HeadlessInput implements Input
+{
+	private final List<InputHandler> handlers = new ArrayList<>();
+
+	@Override
+	public float getAccelerometerX() {
+		return 0;
+	}
+
+	@Override
+	public float getAccelerometerY() {
+		return 0;
+	}
+
+	@Override
+	public float getAccelerometerZ() {
+		return 0;
+	}
+
+	@Override
+	public int getX() {
+		return 0;
+	}
+
+	@Override
+	public int getX(int pointer) {
+		return 0;
+	}
+
+	@Override
+	public int getDeltaX() {
+		return 0;
+	}
+
+	@Override
+	public int getDeltaX(int pointer) {
+		return 0;
+	}
+
+	@Override
+	public int getY() {
+		return 0;
+	}
+
+	@Override
+	public int getY(int pointer) {
+		return 0;
+	}
+
+	@Override
+	public int getDeltaY() {
+		return 0;
+	}
+
+	@Override
+	public int getDeltaY(int pointer) {
+		return 0;
+	}
+
+	@Override
+	public boolean isTouched() {
+		return false;
+	}
+
+	@Override
+	public boolean isButtonPressed(int button) {
+		return false;
+	}
+
+	@Override
+	public boolean isKeyPressed(int key) {
+		return false;
+	}
+
+	@Override
+	public Orientation getNativeOrientation() {
+		return Orientation.Landscape;
+	}
+
+	@Override
+	public boolean isCursorCatched() {
+		return false;
+	}
+
+	@Override
+	public void addInputHandler(InputHandler processor) {
+		handlers.add( processor );
+	}
+
+	@Override
+	public void removeInputHandler(InputHandler processor) {
+		handlers.remove( processor );
+	}
+
+	@Override
+	public boolean isPeripheralAvailable(Peripheral peripheral) {
+		return false;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.platforms.headless;
+
+import java.util.logging.Level;
+
+import org.parallax3d.parallax.Logger;
+
+/**
+ * Logger backed by java.util.logging. Only warnings and errors are reported
+ * by default, so benchmarks are not slowed down by debug output.
+ */
+public class HeadlessLogger implements Logger
+{
+	public final static java.util.logging.Logger logger = java.util.logging.Logger.getLogger("parallax");
+
+	static
+	{
+		logger.setLevel( Level.WARNING );
+	}
+
+	@Override
+	public void info(String message)
+	{
+		logger.log( Level.INFO, message );
+	}
+
+	@Override
+	public void debug(String message)
+	{
+		logger.log( Level.FINE, message );
+	}
+
+	@Override
+	public void warn(String message)
+	{
+		logger.log( Level.WARNING, message );
+	}
+
+	@Override
+	public void error(String message)
+	{
+		logger.log( Level.SEVERE, message );
+	}
+
+	@Override
+	public void error(String message, Throwable exception)
+	{
+		logger.log( Level.SEVERE, message, exception );
+	}
+
+	@Override
+	public void setLogLevel(Level logLevel)
+	{
+		logger.setLevel( logLevel );
+	}
+
+	@Override
+	public Level getLogLevel()
+	{
+		return logger.getLevel();
+	}
+}
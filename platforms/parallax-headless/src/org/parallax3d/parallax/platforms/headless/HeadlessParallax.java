@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.platforms.headless;
+
+import java.io.File;
+
+import org.parallax3d.parallax.Logger;
+import org.parallax3d.parallax.Parallax;
+import org.parallax3d.parallax.files.FileHandle;
+import org.parallax3d.parallax.files.FileListener;
+
+/**
+ * {@link Parallax} instance for running without a display: on build agents,
+ * in unit tests and in benchmarks. Assets are read from the file system,
+ * relative to the working directory.
+ */
+public class HeadlessParallax extends Parallax
+{
+	private final Logger logger = new HeadlessLogger();
+
+	protected HeadlessParallax()
+	{
+
+	}
+
+	public static void init()
+	{
+		if(Parallax.instance == null)
+			Parallax.instance = new HeadlessParallax();
+	}
+
+	public static void init(ParallaxListener listener)
+	{
+		init();
+		listener.onParallaxApplicationReady( Parallax.instance );
+	}
+
+	@Override
+	public FileHandle getAsset(String path)
+	{
+		return new FileHandle( path );
+	}
+
+	@Override
+	public FileHandle getAsset(String path, FileListener<? extends FileHandle> listener)
+	{
+		FileHandle handle = getAsset( path );
+
+		if ( listener != null )
+		{
+			@SuppressWarnings("unchecked")
+			FileListener<FileHandle> fileListener = (FileListener<FileHandle>) listener;
+			if ( new File( path ).exists() )
+				fileListener.onSuccess( handle );
+			else
+				fileListener.onFailure();
+		}
+
+		return handle;
+	}
+
+	@Override
+	public Logger getLogger()
+	{
+		return logger;
+	}
+
+	@Override
+	public Parallax.Platform getType()
+	{
+		return Parallax.Platform.Desktop;
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.platforms.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.parallax3d.parallax.Animation;
+import org.parallax3d.parallax.Input;
+import org.parallax3d.parallax.RenderingContext;
+import org.parallax3d.parallax.graphics.renderers.GLRenderer;
+import org.parallax3d.parallax.input.InputHandler;
+import org.parallax3d.parallax.system.AnimationReadyListener;
+import org.parallax3d.parallax.system.ViewportResizeBus;
+import org.parallax3d.parallax.system.gl.GL20;
+
+/**
+ * Rendering context on top of {@link HeadlessGL20}.
+ * <p>
+ * There is no animation loop: frames are produced by {@link #renderFrame()}
+ * or {@link #renderFrames(int)}, with a fixed delta time, so runs are
+ * repeatable. The GL counters are reset at the start of every frame and
+ * describe the last rendered frame afterwards.
+ */
+public class HeadlessRenderingContext implements RenderingContext
+{
+	HeadlessGL20 gl;
+	GLRenderer renderer;
+
+	HeadlessInput input = new HeadlessInput();
+
+	Animation listener;
+
+	List<AnimationReadyListener> animationReadyListener = new ArrayList<>();
+
+	int width;
+	int height;
+
+	long frameId = -1;
+	double deltaTime = 1.0 / 60.0;
+	boolean run;
+
+	public HeadlessRenderingContext(int width, int height)
+	{
+		this( new HeadlessGL20(), width, height );
+	}
+
+	public HeadlessRenderingContext(HeadlessGL20 gl, int width, int height)
+	{
+		HeadlessParallax.init();
+
+		this.gl = gl;
+		this.width = width;
+		this.height = height;
+
+		gl.glViewport( 0, 0, width, height );
+
+		this.renderer = new GLRenderer( gl, width, height );
+	}
+
+	@Override
+	public void setAnimation(Animation animation)
+	{
+		this.listener = animation;
+
+		renderer.setDefaultGLState();
+
+		if(listener instanceof InputHandler)
+			input.addInputHandler((InputHandler) listener);
+		listener.onStart(this);
+		listener.onResize(this);
+
+		for (AnimationReadyListener ready : animationReadyListener)
+			ready.onAnimationReady(listener);
+
+		run();
+	}
+
+	/**
+	 * Advances the frame counter and lets the animation update and render
+	 * one frame.
+	 */
+	public void renderFrame()
+	{
+		gl.getStats().reset();
+
+		frameId++;
+		if ( listener != null )
+			listener.onUpdate( this );
+	}
+
+	/**
+	 * Renders up to the given number of frames, fewer if the context is
+	 * stopped meanwhile.
+	 */
+	public void renderFrames(int frames)
+	{
+		for ( int i = 0; i < frames && isRun(); i++ )
+			renderFrame();
+	}
+
+	public void setSize(int width, int height)
+	{
+		this.width = width;
+		this.height = height;
+
+		ViewportResizeBus.onViewportResize( width, height );
+		renderer.setSize( width, height );
+
+		if ( listener != null )
+			listener.onResize( this );
+	}
+
+	public void setDeltaTime(double deltaTime) {
+		this.deltaTime = deltaTime;
+	}
+
+	public HeadlessGL20 getHeadlessGL() {
+		return gl;
+	}
+
+	@Override
+	public void stop() {
+		this.run = false;
+	}
+
+	@Override
+	public void run() {
+		this.run = true;
+	}
+
+	@Override
+	public boolean isRun() {
+		return run;
+	}
+
+	@Override
+	public void addAnimationReadyListener(AnimationReadyListener animationReadyListener) {
+		this.animationReadyListener.add(animationReadyListener);
+	}
+
+	@Override
+	public GLRenderer getRenderer() {
+		return renderer;
+	}
+
+	@Override
+	public Input getInput() {
+		return input;
+	}
+
+	@Override
+	public GL20 getGL20() {
+		return gl;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public double getAspectRation() {
+		return getWidth() / (double)getHeight();
+	}
+
+	@Override
+	public long getFrameId() {
+		return frameId;
+	}
+
+	@Override
+	public double getDeltaTime() {
+		return deltaTime;
+	}
+
+	@Override
+	public double getRawDeltaTime() {
+		return getDeltaTime();
+	}
+
+	@Override
+	public int getFramesPerSecond() {
+		return (int) Math.round( 1.0 / deltaTime );
+	}
+
+	@Override
+	public float getPpiX() {
+		return 96;
+	}
+
+	@Override
+	public float getPpiY() {
+		return 96;
+	}
+
+	@Override
+	public float getDensity() {
+		return 96.0f / 160;
+	}
+
+	@Override
+	public boolean supportsDisplayModeChange() {
+		return false;
+	}
+
+	@Override
+	public boolean isFullscreen() {
+		return false;
+	}
+
+	@Override
+	public void setFullscreen() {
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+
+package org.parallax3d.parallax.platforms.headless;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.parallax3d.parallax.Animation;
+import org.parallax3d.parallax.RenderingContext;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.BufferAttribute;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.lights.DirectionalLight;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.materials.MeshLambertMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.system.gl.GL20;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+
+import static org.junit.Assert.*;
+
+public class HeadlessGL20Test
+{
+	@Test
+	public void testErrorsAreSticky()
+	{
+		HeadlessGL20 gl = new HeadlessGL20();
+
+		gl.glBindBuffer( GL20.GL_ARRAY_BUFFER, 42 );
+		gl.glBufferData( GL20.GL_ARRAY_BUFFER, 16, null, GL20.GL_STATIC_DRAW );
+
+		assertEquals( 2, gl.getErrors().size() );
+		assertEquals( GL20.GL_INVALID_OPERATION, gl.glGetError() );
+		assertEquals( GL20.GL_NO_ERROR, gl.glGetError() );
+	}
+
+	@Test
+	public void testBufferBookkeeping()
+	{
+		HeadlessGL20 gl = new HeadlessGL20().setStrict( true );
+
+		int buffer = gl.glGenBuffer();
+		gl.glBindBuffer( GL20.GL_ARRAY_BUFFER, buffer );
+		gl.glBufferData( GL20.GL_ARRAY_BUFFER, 0, FloatBuffer.allocate( 12 ), GL20.GL_STATIC_DRAW );
+		gl.glBufferSubData( GL20.GL_ARRAY_BUFFER, 16, 0, FloatBuffer.allocate( 8 ) );
+
+		assertEquals( 48, gl.getBufferSize( buffer ) );
+		assertEquals( 48, gl.getStats().bufferMemory );
+		assertEquals( 80, gl.getStats().bufferBytes );
+		assertEquals( 2, gl.getStats().bufferUploads );
+
+		gl.glDeleteBuffer( buffer );
+
+		assertEquals( 0, gl.getBoundBuffer( GL20.GL_ARRAY_BUFFER ) );
+		assertEquals( 0, gl.getStats().buffers );
+		assertEquals( 0, gl.getStats().bufferMemory );
+	}
+
+	@Test
+	public void testAttributeUploadsChangedRanges()
+	{
+		HeadlessGL20 gl = new HeadlessGL20().setStrict( true );
+
+		BufferAttribute attribute = new BufferAttribute( Float32Array.create( 3000 ), 3 );
+		attribute.setBuffer( gl.glGenBuffer() );
+		attribute.upload( gl, GL20.GL_ARRAY_BUFFER, GL20.GL_DYNAMIC_DRAW );
+
+		assertEquals( 12000, gl.getBufferSize( attribute.getBuffer() ) );
+		assertEquals( 1, gl.getStats().bufferUploads );
+
+		// nothing has changed
+		attribute.upload( gl, GL20.GL_ARRAY_BUFFER, GL20.GL_DYNAMIC_DRAW );
+		assertEquals( 1, gl.getStats().bufferUploads );
+
+		attribute.setXYZ( 10, 1, 2, 3 ).updateRange( 30, 3 );
+		attribute.setXYZ( 11, 1, 2, 3 ).updateRange( 33, 3 );
+		attribute.setXYZ( 500, 1, 2, 3 ).updateRange( 1500, 3 );
+		attribute.upload( gl, GL20.GL_ARRAY_BUFFER, GL20.GL_DYNAMIC_DRAW );
+
+		assertTrue( gl.getErrors().isEmpty() );
+		assertEquals( 3, gl.getStats().bufferUploads );
+		assertEquals( 12000 + 36, gl.getStats().bufferBytes );
+		assertTrue( attribute.getUpdateRanges().isEmpty() );
+		assertEquals( 0, attribute.getArray().getTypedBuffer().position() );
+		assertEquals( 3000, attribute.getArray().getTypedBuffer().limit() );
+	}
+
+	@Test
+	public void testDeclarationsFollowDefines()
+	{
+		String source = "#define USE_COLOR\n"
+				+ "attribute vec3 position;\n"
+				+ "#ifdef USE_COLOR\n"
+				+ "	attribute vec3 color;\n"
+				+ "#else\n"
+				+ "	attribute vec3 other;\n"
+				+ "#endif\n"
+				+ "#ifdef USE_SKINNING\n"
+				+ "	attribute vec4 skinIndex;\n"
+				+ "#endif\n"
+				+ "uniform highp vec3 lightColor[ 4 ], lightDirection[ 4 ];\n"
+				+ "void main() {}\n";
+
+		List<String> attributes = new ArrayList<>();
+		HeadlessGL20.collectDeclarations( source, "attribute", attributes );
+		assertEquals( 2, attributes.size() );
+		assertEquals( "position", attributes.get( 0 ) );
+		assertEquals( "color", attributes.get( 1 ) );
+
+		List<String> uniforms = new ArrayList<>();
+		HeadlessGL20.collectDeclarations( source, "uniform", uniforms );
+		assertEquals( 2, uniforms.size() );
+		assertEquals( "lightDirection", uniforms.get( 1 ) );
+	}
+
+	@Test
+	public void testRenderSceneWithoutErrors()
+	{
+		HeadlessGL20 gl = new HeadlessGL20().setStrict( true );
+		HeadlessRenderingContext context = new HeadlessRenderingContext( gl, 640, 480 );
+
+		context.setAnimation( new Animation() {
+			Scene scene;
+			PerspectiveCamera camera;
+
+			@Override
+			public void onStart(RenderingContext context)
+			{
+				scene = new Scene();
+				camera = new PerspectiveCamera( 45, context.getAspectRation(), 1, 1000 );
+				camera.getPosition().setZ( 10 );
+
+				scene.add( new DirectionalLight( 0xffffff ) );
+				scene.add( new Mesh( new BoxGeometry( 1, 1, 1 ), new MeshLambertMaterial() ) );
+				scene.add( new Mesh( new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) ), new MeshBasicMaterial() ) );
+			}
+
+			@Override
+			public void onUpdate(RenderingContext context)
+			{
+				context.getRenderer().render( scene, camera );
+			}
+
+			@Override public void onResize(RenderingContext context) { }
+			@Override public void onPause(RenderingContext context) { }
+			@Override public void onResume(RenderingContext context) { }
+			@Override public void onDispose(RenderingContext context) { }
+		});
+
+		context.renderFrames( 3 );
+
+		HeadlessGLStats stats = gl.getStats();
+		assertEquals( 2, context.getFrameId() );
+		assertTrue( gl.getErrors().isEmpty() );
+		assertEquals( 2, stats.drawCalls );
+		assertEquals( 24, stats.triangles );
+		assertEquals( 2, stats.programs );
+		assertEquals( 0, stats.bufferUploads );
+		assertTrue( stats.bufferMemory > 0 );
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.graphics.extras.geometries.SphereGeometry;
+import org.parallax3d.parallax.platforms.headless.HeadlessParallax;
+
+/**
+ * Geometry processing on a UV sphere, which has duplicated vertices along
+ * its seam and at the poles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark
+{
+	@Param({"32", "128"})
+	int segments;
+
+	Geometry geometry;
+
+	// mergeVertices changes the geometry, so it gets a fresh copy per call
+	Geometry unmerged;
+
+	@Setup
+	public void setup()
+	{
+		HeadlessParallax.init();
+
+		geometry = new SphereGeometry( 1, segments, segments / 2 );
+	}
+
+	@Setup(Level.Invocation)
+	public void setupInvocation()
+	{
+		unmerged = new SphereGeometry( 1, segments, segments / 2 );
+	}
+
+	@Benchmark
+	public Geometry computeVertexNormals()
+	{
+		geometry.computeVertexNormals();
+		return geometry;
+	}
+
+	@Benchmark
+	public int mergeVertices()
+	{
+		return unmerged.mergeVertices();
+	}
+
+	@Benchmark
+	public BufferGeometry fromGeometry()
+	{
+		return new BufferGeometry().fromGeometry( geometry );
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.math.Quaternion;
+import org.parallax3d.parallax.math.Vector3;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathBenchmark
+{
+	Matrix4 a;
+	Matrix4 b;
+	Matrix4 result;
+
+	Vector3 position;
+	Quaternion quaternion;
+	Vector3 scale;
+
+	Quaternion qa;
+	Quaternion qb;
+	Quaternion qm;
+	double t;
+
+	@Setup
+	public void setup()
+	{
+		position = new Vector3( 1, 2, 3 );
+		quaternion = new Quaternion().setFromAxisAngle( new Vector3( 1, 1, 0 ).normalize(), 0.7 );
+		scale = new Vector3( 2, 2, 2 );
+
+		a = new Matrix4().compose( position, quaternion, scale );
+		b = new Matrix4().makePerspective( 45, 1.5, 1, 1000 );
+		result = new Matrix4();
+
+		qa = new Quaternion().setFromAxisAngle( new Vector3( 0, 1, 0 ), 0.3 );
+		qb = new Quaternion().setFromAxisAngle( new Vector3( 1, 0, 0 ), 2.1 );
+		qm = new Quaternion();
+		t = 0.37;
+	}
+
+	@Benchmark
+	public Matrix4 matrix4Multiply()
+	{
+		return result.multiply( a, b );
+	}
+
+	@Benchmark
+	public Matrix4 matrix4GetInverse()
+	{
+		return result.getInverse( a );
+	}
+
+	@Benchmark
+	public Matrix4 matrix4Compose()
+	{
+		return result.compose( position, quaternion, scale );
+	}
+
+	@Benchmark
+	public Quaternion quaternionSlerp()
+	{
+		return Quaternion.slerp( qa, qb, qm, t );
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.parallax3d.parallax.graphics.core.BufferAttribute;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.core.CompactGeometry;
+import org.parallax3d.parallax.graphics.core.Face3;
+import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.platforms.headless.HeadlessParallax;
+import org.parallax3d.parallax.system.gl.arrays.Float32Array;
+import org.parallax3d.parallax.system.gl.arrays.Uint32Array;
+
+/**
+ * Vertex welding of a large scan-like mesh: a grid whose triangles do not
+ * share vertices, so every grid point is stored up to six times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MergeVerticesBenchmark
+{
+	// 150 gives 135k vertices, 300 gives 540k vertices
+	@Param({"150", "300"})
+	int size;
+
+	float[] positions;
+
+	Geometry geometry;
+	CompactGeometry compact;
+	BufferGeometry buffer;
+
+	@Setup
+	public void setup()
+	{
+		HeadlessParallax.init();
+
+		positions = new float[ size * size * 18 ];
+
+		int offset = 0;
+		for ( int y = 0; y < size; y ++ )
+		{
+			for ( int x = 0; x < size; x ++ )
+			{
+				offset = corner( offset, x, y );
+				offset = corner( offset, x + 1, y );
+				offset = corner( offset, x + 1, y + 1 );
+				offset = corner( offset, x, y );
+				offset = corner( offset, x + 1, y + 1 );
+				offset = corner( offset, x, y + 1 );
+			}
+		}
+	}
+
+	private int corner(int offset, int x, int y)
+	{
+		positions[ offset ] = x * 0.01f;
+		positions[ offset + 1 ] = (float) Math.sin( x * 0.1 ) * (float) Math.cos( y * 0.1 );
+		positions[ offset + 2 ] = y * 0.01f;
+		return offset + 3;
+	}
+
+	// welding changes the geometries, so every call gets fresh copies
+	@Setup(Level.Invocation)
+	public void setupInvocation()
+	{
+		int vertices = positions.length / 3;
+
+		geometry = new Geometry();
+		for ( int i = 0; i < vertices; i ++ )
+			geometry.getVertices().add( new Vector3( positions[ i * 3 ], positions[ i * 3 + 1 ], positions[ i * 3 + 2 ] ) );
+		for ( int i = 0; i < vertices; i += 3 )
+			geometry.getFaces().add( new Face3( i, i + 1, i + 2 ) );
+
+		int[] indices = new int[ vertices ];
+		for ( int i = 0; i < vertices; i ++ )
+			indices[ i ] = i;
+
+		compact = new CompactGeometry( positions.clone(), indices.clone() );
+
+		buffer = new BufferGeometry();
+		buffer.addAttribute( "position", new BufferAttribute( Float32Array.create( positions ), 3 ) );
+		buffer.addAttribute( "index", new BufferAttribute( Uint32Array.create( indices ), 1 ) );
+	}
+
+	@Benchmark
+	public int geometry()
+	{
+		return geometry.mergeVertices();
+	}
+
+	@Benchmark
+	public int compactGeometry()
+	{
+		return compact.mergeVertices();
+	}
+
+	@Benchmark
+	public int bufferGeometry()
+	{
+		return buffer.mergeVertices();
+	}
+}
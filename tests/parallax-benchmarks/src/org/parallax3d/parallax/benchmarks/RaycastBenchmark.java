@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.parallax3d.parallax.graphics.core.Geometry;
+import org.parallax3d.parallax.graphics.core.GeometryBVH;
+import org.parallax3d.parallax.graphics.core.Raycaster;
+import org.parallax3d.parallax.graphics.extras.geometries.TorusKnotGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.platforms.headless.HeadlessParallax;
+
+/**
+ * Raycasting a dense torus knot with and without a {@link GeometryBVH},
+ * and the cost of building and refitting the tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RaycastBenchmark
+{
+	private static final int RAYS = 64;
+
+	// 256 gives 131k faces, 1024 gives 524k faces
+	@Param({"256", "1024"})
+	int radialSegments;
+
+	Geometry geometry;
+	Mesh mesh;
+	GeometryBVH tree;
+
+	Raycaster raycaster = new Raycaster();
+	List<Vector3> origins = new ArrayList<Vector3>();
+	List<Vector3> directions = new ArrayList<Vector3>();
+
+	@Setup
+	public void setup()
+	{
+		HeadlessParallax.init();
+
+		geometry = new TorusKnotGeometry( 100, 40, radialSegments, 256 );
+		mesh = new Mesh( geometry, new MeshBasicMaterial() );
+		mesh.updateMatrixWorld( true );
+
+		tree = new GeometryBVH( geometry );
+
+		Random random = new Random( 42 );
+		for ( int i = 0; i < RAYS; i ++ )
+		{
+			Vector3 origin = new Vector3( random.nextDouble() - 0.5, random.nextDouble() - 0.5, 1 ).multiply( 500 );
+			Vector3 target = new Vector3( random.nextDouble() - 0.5, random.nextDouble() - 0.5, 0 ).multiply( 200 );
+
+			origins.add( origin );
+			directions.add( target.sub( origin ).normalize() );
+		}
+	}
+
+	@Benchmark
+	public int raycastLinear()
+	{
+		geometry.setBoundsTree( null );
+		return cast();
+	}
+
+	@Benchmark
+	public int raycastBVH()
+	{
+		geometry.setBoundsTree( tree );
+		return cast();
+	}
+
+	@Benchmark
+	public GeometryBVH build()
+	{
+		return new GeometryBVH( geometry );
+	}
+
+	@Benchmark
+	public GeometryBVH refit()
+	{
+		tree.refit();
+		return tree;
+	}
+
+	private int cast()
+	{
+		int hits = 0;
+
+		for ( int i = 0; i < RAYS; i ++ )
+		{
+			raycaster.set( origins.get( i ), directions.get( i ) );
+			hits += raycaster.intersectObject( mesh, false ).size();
+		}
+
+		return hits;
+	}
+}
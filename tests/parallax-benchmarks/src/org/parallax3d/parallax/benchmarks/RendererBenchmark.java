@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.BufferGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.lights.DirectionalLight;
+import org.parallax3d.parallax.graphics.materials.Material;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.materials.MeshLambertMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.graphics.renderers.GLRenderer;
+import org.parallax3d.parallax.graphics.scenes.Scene;
+import org.parallax3d.parallax.platforms.headless.HeadlessGL20;
+import org.parallax3d.parallax.platforms.headless.HeadlessParallax;
+
+/**
+ * CPU side of {@link GLRenderer#render(Scene, org.parallax3d.parallax.graphics.cameras.Camera)}:
+ * projection, sorting, state and uniform setup. GL calls go to
+ * {@link HeadlessGL20}, which does no rendering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererBenchmark
+{
+	@Param({"100", "1000"})
+	int objects;
+
+	HeadlessGL20 gl;
+	GLRenderer renderer;
+	Scene scene;
+	PerspectiveCamera camera;
+
+	@Setup
+	public void setup()
+	{
+		HeadlessParallax.init();
+
+		gl = new HeadlessGL20();
+		renderer = new GLRenderer( gl, 1280, 720 );
+
+		camera = new PerspectiveCamera( 45, 1280.0 / 720.0, 1, 1000 );
+		camera.getPosition().setZ( 60 );
+
+		BufferGeometry geometry = new BufferGeometry().fromGeometry( new BoxGeometry( 1, 1, 1 ) );
+		Material[] materials = {
+			new MeshBasicMaterial(),
+			new MeshLambertMaterial(),
+			new MeshLambertMaterial()
+		};
+		materials[ 2 ].setTransparent( true );
+
+		scene = new Scene();
+		scene.add( new DirectionalLight( 0xffffff ) );
+
+		for ( int i = 0; i < objects; i++ )
+		{
+			Mesh mesh = new Mesh( geometry, materials[ i % materials.length ] );
+			mesh.getPosition().set( ( i % 40 ) - 20, ( ( i / 40 ) % 25 ) - 12, -( i / 1000 ) * 5 );
+			scene.add( mesh );
+		}
+
+		// builds programs and uploads buffers
+		renderer.render( scene, camera );
+	}
+
+	@Benchmark
+	public int render()
+	{
+		gl.getStats().reset();
+		renderer.render( scene, camera );
+		return gl.getStats().drawCalls;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.parallax3d.parallax.graphics.cameras.PerspectiveCamera;
+import org.parallax3d.parallax.graphics.core.Object3D;
+import org.parallax3d.parallax.graphics.core.Raycaster;
+import org.parallax3d.parallax.graphics.extras.geometries.BoxGeometry;
+import org.parallax3d.parallax.graphics.extras.geometries.SphereGeometry;
+import org.parallax3d.parallax.graphics.materials.MeshBasicMaterial;
+import org.parallax3d.parallax.graphics.objects.Mesh;
+import org.parallax3d.parallax.math.Frustum;
+import org.parallax3d.parallax.math.Matrix4;
+import org.parallax3d.parallax.math.Vector3;
+import org.parallax3d.parallax.platforms.headless.HeadlessParallax;
+
+/**
+ * Scene graph traversal, culling and picking.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SceneGraphBenchmark
+{
+	/**
+	 * deep: a chain of nodes, each the child of the previous one.
+	 * wide: all nodes are children of the root.
+	 */
+	@Param({"deep", "wide"})
+	String shape;
+
+	@Param({"1000"})
+	int nodes;
+
+	Object3D root;
+
+	Frustum frustum;
+	List<Mesh> meshes;
+
+	Mesh sphere;
+	Raycaster raycaster;
+	List<Raycaster.Intersect> intersects;
+
+	@Setup
+	public void setup()
+	{
+		HeadlessParallax.init();
+
+		BoxGeometry box = new BoxGeometry( 1, 1, 1 );
+		MeshBasicMaterial material = new MeshBasicMaterial();
+
+		root = new Object3D();
+		meshes = new ArrayList<>();
+
+		Object3D parent = root;
+		for ( int i = 0; i < nodes; i++ )
+		{
+			Mesh mesh = new Mesh( box, material );
+			mesh.getPosition().set( ( i % 20 ) - 10, ( ( i / 20 ) % 20 ) - 10, -( i / 400 ) * 10 );
+			parent.add( mesh );
+			meshes.add( mesh );
+
+			if ( shape.equals( "deep" ) )
+			{
+				mesh.getPosition().set( 0.01, 0, -0.1 );
+				parent = mesh;
+			}
+		}
+
+		root.updateMatrixWorld( true );
+
+		PerspectiveCamera camera = new PerspectiveCamera( 45, 1.5, 1, 1000 );
+		camera.getPosition().setZ( 20 );
+		camera.updateMatrixWorld( true );
+		camera.getMatrixWorldInverse().getInverse( camera.getMatrixWorld() );
+
+		frustum = new Frustum();
+		frustum.setFromMatrix( new Matrix4().multiply( camera.getProjectionMatrix(), camera.getMatrixWorldInverse() ) );
+
+		sphere = new Mesh( new SphereGeometry( 1, 64, 32 ), material );
+		sphere.updateMatrixWorld( true );
+		raycaster = new Raycaster( new Vector3( 0.1, 0.2, 10 ), new Vector3( 0, 0, -1 ) );
+		intersects = new ArrayList<>();
+	}
+
+	@Benchmark
+	public Object3D updateMatrixWorld()
+	{
+		root.updateMatrixWorld( true );
+		return root;
+	}
+
+	@Benchmark
+	public int frustumIntersectsObject()
+	{
+		int visible = 0;
+		for ( int i = 0, l = meshes.size(); i < l; i++ )
+			if ( frustum.isIntersectsObject( meshes.get( i ) ) )
+				visible++;
+
+		return visible;
+	}
+
+	@Benchmark
+	public int meshRaycast()
+	{
+		intersects.clear();
+		sphere.raycast( raycaster, intersects );
+		return intersects.size();
+	}
+}
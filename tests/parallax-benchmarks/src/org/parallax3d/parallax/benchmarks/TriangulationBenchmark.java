@@ -0,0 +1,241 @@
+/*
+ * Copyright 2012 Alex Usachev, thothbot@gmail.com
+ * 
+ * This file is part of Parallax project.
+ * 
+ * Parallax is free software: you can redistribute it and/or modify it 
+ * under the terms of the Creative Commons Attribution 3.0 Unported License.
+ * 
+ * Parallax is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the Creative Commons Attribution 
+ * 3.0 Unported License. for more details.
+ * 
+ * You should have received a copy of the the Creative Commons Attribution 
+ * 3.0 Unported License along with Parallax. 
+ * If not, see http://creativecommons.org/licenses/by/3.0/.
+ */
+package org.parallax3d.parallax.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.parallax3d.parallax.graphics.extras.FontUtils;
+import org.parallax3d.parallax.graphics.extras.ShapeUtils;
+import org.parallax3d.parallax.graphics.extras.core.Path;
+import org.parallax3d.parallax.graphics.extras.core.Shape;
+import org.parallax3d.parallax.math.Vector2;
+import org.parallax3d.parallax.platforms.headless.HeadlessParallax;
+
+/**
+ * Triangulation of the shapes of the TextTessellation test: the glyphs of
+ * "Parallax3D" in helvetiker bold with size 200, and of a single large
+ * contour with a hole. The z-order hashed ear clipping of
+ * {@link ShapeUtils#triangulateShape} is compared with the former
+ * {@link ShapeUtils#removeHoles} and {@link FontUtils#triangulate}.
+ * <p>
+ * The former hole bridging logs an error for the large contour, as its
+ * check of the bridge end points fails, but the contour is still triangulated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriangulationBenchmark
+{
+	static final String TEXT = "Parallax3D";
+
+	// relative to the benchmarks project, the font of the TextTessellation test
+	static final String FONT = System.getProperty( "parallax.benchmarks.font",
+			"../parallax-tests/assets/fonts/helvetiker_bold.typeface.js" );
+
+	// number of points of the large contour
+	@Param({"500", "2000"})
+	int points;
+
+	List<List<Vector2>> textContours;
+	List<List<List<Vector2>>> textHoles;
+
+	List<Vector2> contour;
+	List<List<Vector2>> holes;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		HeadlessParallax.init();
+
+		textContours = new ArrayList<List<Vector2>>();
+		textHoles = new ArrayList<List<List<Vector2>>>();
+
+		String font = new String( Files.readAllBytes( Paths.get( FONT ) ), Charset.forName( "UTF-8" ) );
+		double scale = 200.0 / resolution( font );
+		double offset = 0;
+
+		for ( char c : TEXT.toCharArray() )
+		{
+			Matcher glyph = Pattern.compile( "\"" + c + "\":\\{[^}]*\"ha\":([-\\d.]+),\"o\":\"([^\"]*)\"" ).matcher( font );
+			if ( !glyph.find() )
+				throw new IllegalStateException( "No glyph for " + c );
+
+			for ( Shape shape : outline( glyph.group( 2 ), scale, offset ).toShapes() )
+			{
+				List<Vector2> vertices = shape.getTransformedPoints();
+				List<List<Vector2>> shapeHoles = shape.getPointsHoles();
+				orient( vertices, shapeHoles );
+
+				textContours.add( vertices );
+				textHoles.add( shapeHoles );
+			}
+
+			offset += Double.parseDouble( glyph.group( 1 ) ) * scale;
+		}
+
+		// a wavy ring with a wavy hole
+		contour = wave( 0, 0, 1000, points );
+		holes = new ArrayList<List<Vector2>>();
+		holes.add( wave( 0, 0, 500, points / 2 ) );
+		orient( contour, holes );
+	}
+
+	@Benchmark
+	public void textLegacy(Blackhole blackhole)
+	{
+		for ( int i = 0, il = textContours.size(); i < il; i ++ )
+			blackhole.consume( legacy( textContours.get( i ), textHoles.get( i ) ) );
+	}
+
+	@Benchmark
+	public void textEarcut(Blackhole blackhole)
+	{
+		for ( int i = 0, il = textContours.size(); i < il; i ++ )
+			blackhole.consume( ShapeUtils.triangulateShape( textContours.get( i ), textHoles.get( i ) ) );
+	}
+
+	@Benchmark
+	public List<List<Vector2>> contourLegacy()
+	{
+		return legacy( contour, holes );
+	}
+
+	@Benchmark
+	public List<List<Integer>> contourEarcut()
+	{
+		return ShapeUtils.triangulateShape( contour, holes );
+	}
+
+	// the triangulation used before, without mapping the vertices back to indices
+	private static List<List<Vector2>> legacy( List<Vector2> contour, List<List<Vector2>> holes )
+	{
+		List<Vector2> shape = new ArrayList<Vector2>();
+		List<Vector2> allpoints = new ArrayList<Vector2>();
+		List<List<Vector2>> isolatedPts = new ArrayList<List<Vector2>>();
+
+		ShapeUtils.removeHoles( contour, holes, shape, allpoints, isolatedPts );
+
+		List<List<Vector2>> triangles = new ArrayList<List<Vector2>>();
+		FontUtils.triangulate( shape, triangles, new ArrayList<List<Integer>>() );
+		triangles.addAll( isolatedPts );
+
+		return triangles;
+	}
+
+	// the same orientation as ExtrudeGeometry gives the shapes
+	private static void orient( List<Vector2> vertices, List<List<Vector2>> holes )
+	{
+		if ( ShapeUtils.isClockWise( vertices ) )
+			return;
+
+		Collections.reverse( vertices );
+
+		for ( List<Vector2> hole : holes )
+			if ( ShapeUtils.isClockWise( hole ) )
+				Collections.reverse( hole );
+	}
+
+	private static double resolution( String font )
+	{
+		Matcher matcher = Pattern.compile( "\"resolution\":([\\d.]+)" ).matcher( font );
+		return matcher.find() ? Double.parseDouble( matcher.group( 1 ) ) : 1000;
+	}
+
+	// the glyph outline as TypefacejsLoader and TextGeometry read it
+	private static Path outline( String outline, double scale, double offset )
+	{
+		Path path = new Path();
+		String[] values = outline.trim().split( " " );
+
+		for ( int i = 0; i < values.length; )
+		{
+			String action = values[ i ++ ];
+
+			if ( action.equals( "m" ) || action.equals( "l" ) )
+			{
+				double x = Double.parseDouble( values[ i ++ ] ) * scale + offset;
+				double y = Double.parseDouble( values[ i ++ ] ) * scale;
+
+				if ( action.equals( "m" ) )
+					path.moveTo( x, y );
+				else
+					path.lineTo( x, y );
+			}
+			else if ( action.equals( "q" ) )
+			{
+				double x = Double.parseDouble( values[ i ++ ] ) * scale + offset;
+				double y = Double.parseDouble( values[ i ++ ] ) * scale;
+				double x1 = Double.parseDouble( values[ i ++ ] ) * scale + offset;
+				double y1 = Double.parseDouble( values[ i ++ ] ) * scale;
+
+				path.quadraticCurveTo( x1, y1, x, y );
+			}
+			else if ( action.equals( "b" ) )
+			{
+				double x = Double.parseDouble( values[ i ++ ] ) * scale + offset;
+				double y = Double.parseDouble( values[ i ++ ] ) * scale;
+				double x1 = Double.parseDouble( values[ i ++ ] ) * scale + offset;
+				double y1 = Double.parseDouble( values[ i ++ ] ) * scale;
+				double x2 = Double.parseDouble( values[ i ++ ] ) * scale + offset;
+				double y2 = Double.parseDouble( values[ i ++ ] ) * scale;
+
+				path.bezierCurveTo( x1, y1, x2, y2, x, y );
+			}
+		}
+
+		return path;
+	}
+
+	private static List<Vector2> wave( double x, double y, double radius, int segments )
+	{
+		List<Vector2> points = new ArrayList<Vector2>();
+
+		for ( int i = 0; i < segments; i ++ )
+		{
+			double angle = 2 * Math.PI * i / segments;
+			double r = radius * ( 1 + 0.05 * Math.sin( 12 * angle ) );
+			points.add( new Vector2( x + r * Math.cos( angle ), y + r * Math.sin( angle ) ) );
+		}
+
+		return points;
+	}
+}
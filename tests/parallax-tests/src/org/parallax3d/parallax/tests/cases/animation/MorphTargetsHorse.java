@@ -116,18 +116,16 @@ public final class MorphTargetsHorse extends ParallaxTest
 
 			if ( keyframe != currentKeyframe )
 			{
-				mesh.morphTargetInfluences.set( lastKeyframe, 0.0 );
-				mesh.morphTargetInfluences.set( currentKeyframe, 1.0 );
-				mesh.morphTargetInfluences.set( keyframe, 0.0 );
+				mesh.morphTargetInfluences[ lastKeyframe ] = 0.0;
+				mesh.morphTargetInfluences[ currentKeyframe ] = 1.0;
+				mesh.morphTargetInfluences[ keyframe ] = 0.0;
 
 				lastKeyframe = currentKeyframe;
 				currentKeyframe = keyframe;
 			}
 
-			mesh.morphTargetInfluences.set( keyframe,
-					(double)( time % interpolation ) / interpolation);
-			mesh.morphTargetInfluences.set( lastKeyframe,
-					1.0 - mesh.morphTargetInfluences.get( keyframe ));
+			mesh.morphTargetInfluences[ keyframe ] = (double)( time % interpolation ) / interpolation;
+			mesh.morphTargetInfluences[ lastKeyframe ] = 1.0 - mesh.morphTargetInfluences[ keyframe ];
 		}
 
 		context.getRenderer().render(scene, camera);
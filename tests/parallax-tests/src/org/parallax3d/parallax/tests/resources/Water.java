@@ -166,20 +166,20 @@ public class Water extends Mirror {
 		Vector4 q = new Vector4();
 		Matrix4 projectionMatrix = this.mirrorCamera.getProjectionMatrix();
 
-		q.setX( (Mathematics.sign(this.clipPlane.getX()) + projectionMatrix.getArray().get(8)) / projectionMatrix.getArray().get(0) );
-		q.setY( (Mathematics.sign(this.clipPlane.getY()) + projectionMatrix.getArray().get(9)) / projectionMatrix.getArray().get(5) );
+		q.setX( (Mathematics.sign(this.clipPlane.getX()) + projectionMatrix.getArray()[8]) / projectionMatrix.getArray()[0] );
+		q.setY( (Mathematics.sign(this.clipPlane.getY()) + projectionMatrix.getArray()[9]) / projectionMatrix.getArray()[5] );
 		q.setZ( -1.0 );
-		q.setW( (1.0 + projectionMatrix.getArray().get(10)) / projectionMatrix.getArray().get(14) );
+		q.setW( (1.0 + projectionMatrix.getArray()[10]) / projectionMatrix.getArray()[14] );
 
 		// Calculate the scaled plane vector
 		Vector4 c = new Vector4();
 		c = this.clipPlane.multiply( 2.0 / this.clipPlane.dot(q) );
 
 		// Replacing the third row of the projection matrix
-		projectionMatrix.getArray().set(2, c.getX());
-		projectionMatrix.getArray().set(6, c.getY());
-		projectionMatrix.getArray().set(10, c.getZ() + 1.0 - this.clipBias);
-		projectionMatrix.getArray().set(14, c.getW());
+		projectionMatrix.getArray()[2] = (float) c.getX();
+		projectionMatrix.getArray()[6] = (float) c.getY();
+		projectionMatrix.getArray()[10] = (float) (c.getZ() + 1.0 - this.clipBias);
+		projectionMatrix.getArray()[14] = (float) c.getW();
 
 		Vector3 worldCoordinates = new Vector3();
 		worldCoordinates.setFromMatrixPosition( this.camera.getMatrixWorld() );